@@ -0,0 +1,40 @@
+package com.glassshop.ai.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Threads used by Spring MVC for StreamingResponseBody (PDF downloads).
+ * Without this MVC falls back to SimpleAsyncTaskExecutor, which starts an
+ * unbounded new thread per download.
+ */
+@Configuration
+public class WebAsyncConfig implements WebMvcConfigurer {
+
+    @Value("${pdf.stream.pool-size:4}")
+    private int poolSize;
+
+    @Value("${pdf.stream.timeout-ms:120000}")
+    private long timeoutMs;
+
+    @Bean(name = "pdfStreamExecutor")
+    public ThreadPoolTaskExecutor pdfStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("pdf-stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(pdfStreamExecutor());
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
@@ -1,20 +1,38 @@
 package com.glassshop.ai.controller;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.glassshop.ai.dto.AuditFilter;
+import com.glassshop.ai.dto.AuditWriterStats;
+import com.glassshop.ai.dto.ShopActivityCounts;
+import com.glassshop.ai.dto.StockHistoryView;
 import com.glassshop.ai.entity.AuditLog;
 import com.glassshop.ai.entity.Shop;
-import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.AuditLogRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
+import com.glassshop.ai.service.AuditHistoryService;
+import com.glassshop.ai.service.AuditLogWriter;
+import com.glassshop.ai.service.ColdArchiveService;
+import com.glassshop.ai.service.CsvExportService;
+import com.glassshop.ai.service.ShopActivityCounterService;
+
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @RequestMapping("/audit")
 // Note: Class-level @PreAuthorize removed - using method-level annotations instead
@@ -26,6 +44,22 @@ public class AuditController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private AuditHistoryService auditHistoryService;
+
+    @Autowired
+    private ShopActivityCounterService shopActivityCounterService;
+
+    @Autowired
+    private ColdArchiveService coldArchiveService;
+
+    // Whole history in one response - large shops should page through /audit/history
     @GetMapping("/recent")
     @PreAuthorize("hasRole('ADMIN')")
     public List<AuditLog> recentLogs() {
@@ -39,16 +73,14 @@ public class AuditController {
             return List.of();
         }
 
-        String username = auth.getName();
-
-        User user = userRepository.findByUserName(username).orElse(null);
+        TenantContext tenant = TenantContext.resolve(userRepository);
 
         // ✅ user deleted / token stale
-        if (user == null) {
+        if (tenant == null) {
             return List.of();
         }
 
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
         if (shop == null) {
             return List.of();
         }
@@ -57,6 +89,24 @@ public class AuditController {
                 .findByShopOrderByTimestampDesc(shop);
     }
 
+    /**
+     * Paged + filtered audit history, newest first, e.g.
+     * /audit/history?limit=50&action=REMOVE&username=ravi&from=2025-01-01&to=2025-03-31
+     * Pass nextCursor back as cursor for the next (older) page.
+     */
+    @GetMapping("/history")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> history(
+            AuditFilter filter,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(auditHistoryService.getPage(filter, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Get transfer count - accessible by both ADMIN and STAFF
      * Returns only the count of TRANSFER actions, not the full audit logs
@@ -71,19 +121,14 @@ public class AuditController {
                 return 0L;
             }
 
-            String username = auth.getName();
-            User user = userRepository.findByUserName(username).orElse(null);
+            TenantContext tenant = TenantContext.resolve(userRepository);
 
-            if (user == null || user.getShop() == null) {
+            if (tenant == null || tenant.getShop() == null) {
                 return 0L;
             }
 
-            Shop shop = user.getShop();
-            
-            // Use repository query method for better performance
-            Long count = auditLogRepository.countTransfersByShop(shop);
-            
-            return (count != null) ? count : 0L;
+            // Maintained counter (shop_activity_counter), no COUNT over audit_log
+            return shopActivityCounterService.getCounts(tenant.getShopId()).getTransfers();
         } catch (Exception e) {
             // Log error and return 0
             System.err.println("Error getting transfer count: " + e.getMessage());
@@ -91,56 +136,79 @@ public class AuditController {
         }
     }
 
-    
-//    @GetMapping("/audit/download")
-//    @PreAuthorize("hasRole('ADMIN')")
-//    public void downloadAuditLog(HttpServletResponse response) throws IOException {
-//
-//        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-//        User user = userRepository.findByUserName(auth.getName()).orElseThrow();
-//
-//        List<AuditLog> logs =
-//                auditLogRepository.findByShopOrderByTimestampDesc(user.getShop());
-//
-//        response.setContentType("text/csv");
-//        response.setHeader(
-//                "Content-Disposition",
-//                "attachment; filename=audit-log-report.csv"
-//        );
-//
-//        CSVPrinter csvPrinter = new CSVPrinter(
-//                response.getWriter(),
-//                CSVFormat.DEFAULT.withHeader(
-//                        "Username",
-//                        "Role",
-//                        "Action",
-//                        "Glass Type",
-//                        "Quantity",
-//                        "Stand No",
-//                        "Height",
-//                        "Width",
-//                        "Unit",
-//                        "Date"
-//                )
-//        );
-//
-//        for (AuditLog log : logs) {
-//            csvPrinter.printRecord(
-//                    log.getUsername(),
-//                    log.getRole(),
-//                    log.getAction(),
-//                    log.getGlassType(),
-//                    log.getQuantity(),
-//                    log.getStandNo(),
-//                    log.getHeight(),
-//                    log.getWidth(),
-//                    log.getUnit(),
-//                    log.getTimestamp()
-//            );
-//        }
-//
-//        csvPrinter.flush();
-//    }
-//
+    /**
+     * Dashboard counters - transfers / adds / removes and today's operations.
+     * Accessible by both ADMIN and STAFF.
+     */
+    @GetMapping("/counters")
+    public ShopActivityCounts getCounters() {
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShopId() == null) {
+            return new ShopActivityCounts(0, 0, 0, 0);
+        }
+        return shopActivityCounterService.getCounts(tenant.getShopId());
+    }
+
+    /**
+     * Stock history moved to the cold archive (older than
+     * archive.stock-history.retention-months), newest first, e.g.
+     * /audit/stock-history/archived?from=2022-01-01&to=2022-12-31&limit=500
+     * Optional from / to dates, inclusive.
+     */
+    @GetMapping("/stock-history/archived")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> archivedStockHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "500") int limit) {
+
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShopId() == null) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ User is not linked to any shop");
+        }
 
+        List<StockHistoryView> rows = coldArchiveService.scanStockHistory(
+                tenant.getShopId(),
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                limit);
+        return ResponseEntity.ok(rows);
+    }
+
+    /**
+     * Audit log as CSV, streamed row by row (year-end exports can be
+     * hundreds of thousands of rows). Optional from / to dates, inclusive.
+     */
+    @GetMapping("/download")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void downloadAuditLog(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShopId() == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "❌ User is not linked to any shop");
+            return;
+        }
+
+        response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=audit-log-report.csv");
+        csvExportService.writeAuditCsv(
+                tenant.getShopId(),
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                response.getWriter());
+    }
+
+    /**
+     * Async audit writer health: queue depth, rows written and how often
+     * callers had to write themselves because the queue was full
+     */
+    @GetMapping("/writer-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public AuditWriterStats writerStats() {
+        return auditLogWriter.getStats();
+    }
 }
@@ -13,16 +13,21 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
 import com.glassshop.ai.dto.AddPaymentRequest;
+import com.glassshop.ai.dto.BulkPdfExportRequest;
 import com.glassshop.ai.dto.CreateInvoiceRequest;
 import com.glassshop.ai.dto.InvoiceResponse;
 import com.glassshop.ai.dto.PaymentDto;
 import com.glassshop.ai.enums.PaymentStatus;
+import com.glassshop.ai.service.BulkPdfExportService;
+import com.glassshop.ai.service.BulkPdfExportService.BulkPdfExport;
 import com.glassshop.ai.service.InvoiceService;
 import com.glassshop.ai.service.PdfService;
+import com.glassshop.ai.service.PdfWriter;
 
 import jakarta.validation.Valid;
 
@@ -38,6 +43,9 @@ public class InvoiceController {
     @Autowired
     private PdfService pdfService;
 
+    @Autowired
+    private BulkPdfExportService bulkPdfExportService;
+
     @PostMapping("/from-quotation")
     public ResponseEntity<InvoiceResponse> createInvoiceFromQuotation(@Valid @RequestBody CreateInvoiceRequest request) {
         try {
@@ -72,13 +80,14 @@ public class InvoiceController {
 
     // More specific routes should come before generic /{id} route
     @GetMapping("/{id}/download-invoice")
-    public ResponseEntity<byte[]> downloadInvoice(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadInvoice(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateInvoicePdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareInvoicePdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", "invoice-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
         } catch (RuntimeException e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -89,13 +98,14 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}/download-basic-invoice")
-    public ResponseEntity<byte[]> downloadBasicInvoice(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadBasicInvoice(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateBasicInvoicePdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareBasicInvoicePdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", "basic-invoice-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
         } catch (RuntimeException e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -106,13 +116,14 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}/print-invoice")
-    public ResponseEntity<byte[]> printInvoice(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> printInvoice(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateInvoicePdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareInvoicePdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("inline", "invoice-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
         } catch (RuntimeException e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -123,13 +134,14 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}/print-basic-invoice")
-    public ResponseEntity<byte[]> printBasicInvoice(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> printBasicInvoice(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateBasicInvoicePdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareBasicInvoicePdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("inline", "basic-invoice-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
         } catch (RuntimeException e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -140,13 +152,14 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}/download-challan")
-    public ResponseEntity<byte[]> downloadTransportChallan(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadTransportChallan(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateTransportChallanPdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareTransportChallanPdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", "delivery-challan-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (Exception e) {
@@ -155,13 +168,37 @@ public class InvoiceController {
     }
 
     @GetMapping("/{id}/print-challan")
-    public ResponseEntity<byte[]> printDeliveryChallan(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> printDeliveryChallan(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateDeliveryChallanPrintPdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareDeliveryChallanPrintPdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("inline", "delivery-challan-print-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Month-end batch print: date range or invoice ids -> one merged PDF or a ZIP
+    @PostMapping("/bulk-pdf")
+    public ResponseEntity<StreamingResponseBody> bulkPdfExport(@RequestBody BulkPdfExportRequest request) {
+        try {
+            BulkPdfExport export = bulkPdfExportService.prepare(request);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(export.isZip()
+                    ? MediaType.parseMediaType("application/zip")
+                    : MediaType.APPLICATION_PDF);
+            // skipped documents are listed in the body (errors.txt / last page) -
+            // render failures aren't known until after the headers are sent
+            headers.setContentDispositionFormData("attachment", export.getFileName());
+            return ResponseEntity.ok().headers(headers)
+                    .body(out -> bulkPdfExportService.write(export, out));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (Exception e) {
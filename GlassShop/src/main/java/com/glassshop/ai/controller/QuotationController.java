@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
@@ -24,6 +25,7 @@ import com.glassshop.ai.dto.QuotationResponse;
 import com.glassshop.ai.enums.QuotationStatus;
 import com.glassshop.ai.service.QuotationService;
 import com.glassshop.ai.service.PdfService;
+import com.glassshop.ai.service.PdfWriter;
 
 import jakarta.validation.Valid;
 
@@ -110,13 +112,14 @@ public class QuotationController {
     }
 
     @GetMapping("/{id}/download")
-    public ResponseEntity<byte[]> downloadQuotationPdf(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> downloadQuotationPdf(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateQuotationPdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareQuotationPdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("attachment", "quotation-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (Exception e) {
@@ -125,13 +128,14 @@ public class QuotationController {
     }
 
     @GetMapping("/{id}/print-cutting-pad")
-    public ResponseEntity<byte[]> printCuttingPad(@PathVariable Long id) {
+    public ResponseEntity<StreamingResponseBody> printCuttingPad(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = pdfService.generateCuttingPadPrintPdf(id);
+            // Stream straight to the response - no byte[] copy of the PDF
+            PdfWriter pdf = pdfService.prepareCuttingPadPrintPdf(id);
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("inline", "cutting-pad-" + id + ".pdf");
-            return ResponseEntity.ok().headers(headers).body(pdfBytes);
+            return ResponseEntity.ok().headers(headers).body(pdf::writeTo);
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         } catch (Exception e) {
@@ -6,6 +6,7 @@ import java.util.List;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -14,18 +15,26 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 import com.glassshop.ai.dto.StockActivityDto;
+import com.glassshop.ai.dto.StockFilter;
+import com.glassshop.ai.dto.StockImportResult;
 import com.glassshop.ai.dto.StockTransferRequest;
 import com.glassshop.ai.dto.StockUpdateRequest;
+import com.glassshop.ai.dto.StockView;
 import com.glassshop.ai.entity.Stock;
 import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.StockRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 import com.glassshop.ai.service.AiExplanationService;
 import com.glassshop.ai.service.AlertService;
+import com.glassshop.ai.service.CsvExportService;
 import com.glassshop.ai.service.ReorderService;
+import com.glassshop.ai.service.StockImportService;
 import com.glassshop.ai.service.StockService;
 
 import jakarta.servlet.http.HttpServletResponse;
@@ -52,6 +61,12 @@ public class StockController {
 	 	
 	 	@Autowired
 	 	private StockRepository stockRepository;
+	 	
+	 	@Autowired
+	 	private StockImportService stockImportService;
+	 	
+	 	@Autowired
+	 	private CsvExportService csvExportService;
 
 	 	@GetMapping("/ai/explain")
 	 	public String aiExplanation() {
@@ -74,10 +89,70 @@ public class StockController {
 	        return stockService.updateStock(request);
 	    }
 	    
+	    // Goods received note: many ADD / REMOVE lines, one transaction
+	    @PostMapping("/bulk-update")
+	    public String bulkUpdateStock(
+	            @RequestBody List<StockUpdateRequest> requests) {
+	        return stockService.bulkUpdateStock(requests);
+	    }
+	    
+	    // Opening inventory from CSV; see StockImportService for the columns
+	    @PostMapping("/import")
+	    public ResponseEntity<?> importStock(
+	            @RequestParam("file") MultipartFile file,
+	            @RequestParam(defaultValue = "1") long startRow) {
+	        TenantContext tenant = TenantContext.resolve(userRepository);
+	        if (tenant == null || tenant.getShopId() == null) {
+	            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ User is not linked to any shop");
+	        }
+	        if (file == null || file.isEmpty()) {
+	            return ResponseEntity.badRequest().body("❌ Please upload a CSV file");
+	        }
+	        try {
+	            StockImportResult result = stockImportService.importCsv(file.getInputStream(), startRow);
+	            return ResponseEntity.ok(result);
+	        } catch (IllegalArgumentException e) {
+	            return ResponseEntity.badRequest().body(e.getMessage());
+	        } catch (IOException e) {
+	            return ResponseEntity.badRequest().body("❌ Could not read CSV: " + e.getMessage());
+	        } catch (RuntimeException e) {
+	            System.err.println("❌ Stock import failed: " + e.getMessage());
+	            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("❌ Import failed: " + e.getMessage());
+	        }
+	    }
+	    
 	    @GetMapping("/all")
-	    public List<Stock> getAllStock() {
+	    public List<StockView> getAllStock() {
 	        return stockService.getAllStock();
 	    }
+
+	    // Paged + filtered listing, e.g. /stock/page?limit=50&glassType=5MM&lowOnly=true
+	    @GetMapping("/page")
+	    public ResponseEntity<?> getStockPage(
+	            StockFilter filter,
+	            @RequestParam(required = false) String cursor,
+	            @RequestParam(defaultValue = "50") int limit) {
+	        try {
+	            return ResponseEntity.ok(stockService.getStockPage(filter, cursor, limit));
+	        } catch (IllegalArgumentException e) {
+	            return ResponseEntity.badRequest().body(e.getMessage());
+	        }
+	    }
+	    
+	    // Whole inventory as CSV, streamed row by row
+	    @GetMapping("/download")
+	    public void downloadStock(HttpServletResponse response) throws IOException {
+	        TenantContext tenant = TenantContext.resolve(userRepository);
+	        if (tenant == null || tenant.getShopId() == null) {
+	            response.sendError(HttpServletResponse.SC_FORBIDDEN, "❌ User is not linked to any shop");
+	            return;
+	        }
+
+	        response.setContentType("text/csv");
+	        response.setCharacterEncoding("UTF-8");
+	        response.setHeader("Content-Disposition", "attachment; filename=stock-report.csv");
+	        csvExportService.writeStockCsv(tenant.getShopId(), response.getWriter());
+	    }
 	    
 	    @PostMapping("/undo")
 	    public String undoLastAction() {
@@ -96,44 +171,4 @@ public class StockController {
 //	        return ResponseEntity.ok(stockService.transferStock(request));
 //	    }
 
-	    
-//	    @GetMapping("/stock/download")
-//	    public void downloadStock(HttpServletResponse response) throws IOException {
-//
-//	        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-//	        User user = userRepository.findByUserName(auth.getName()).orElseThrow();
-//
-//	        List<Stock> stocks = stockRepository.findByShop(user.getShop());
-//
-//	        response.setContentType("text/csv");
-//	        response.setHeader(
-//	                "Content-Disposition",
-//	                "attachment; filename=stock-report.csv"
-//	        );
-//
-//	        CSVPrinter csvPrinter = new CSVPrinter(
-//	                response.getWriter(),
-//	                CSVFormat.DEFAULT.withHeader(
-//	                        "Glass Type",
-//	                        "Quantity",
-//	                        "Min Quantity",
-//	                        "Stand No"
-//	                )
-//	        );
-//
-//	        for (Stock stock : stocks) {
-//	            csvPrinter.printRecord(
-//	                    stock.getGlass().getGlassType(),
-//	                    stock.getQuantity(),
-//	                    stock.getMinQuantity(),
-//	                    stock.getStandNo()
-//	            );
-//	        }
-//
-//	        csvPrinter.flush();
-//	    }
-//
-//
-
-
 }
@@ -0,0 +1,72 @@
+package com.glassshop.ai.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+/**
+ * Optional filters for the paged audit history (/audit/history).
+ * Bound from query parameters; null means "don't filter".
+ * from / to are inclusive dates; standNo also matches either side of a transfer.
+ */
+public class AuditFilter {
+
+    private String action;
+    private String username;
+    private String glassType;
+    private Integer standNo;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getGlassType() {
+        return glassType;
+    }
+
+    public void setGlassType(String glassType) {
+        this.glassType = glassType;
+    }
+
+    public Integer getStandNo() {
+        return standNo;
+    }
+
+    public void setStandNo(Integer standNo) {
+        this.standNo = standNo;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+}
@@ -0,0 +1,107 @@
+package com.glassshop.ai.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for the audit history (/audit/history).
+ *
+ * Filled directly by a JPQL constructor query - no AuditLog entities and
+ * no nested Shop. Field names match the AuditLog JSON the frontend reads.
+ */
+public class AuditLogView {
+
+    private Long id;
+    private LocalDateTime timestamp;
+    private String username;
+    private String role;
+    private String action;
+    private String glassType;
+    private int quantity;
+    private Integer standNo;
+    private Integer fromStand;
+    private Integer toStand;
+    private String height;
+    private String width;
+    private String unit;
+    private Double price;
+
+    public AuditLogView() {
+    }
+
+    // Used by AuditLogRepository.findViewPage (argument order matters)
+    public AuditLogView(Long id, LocalDateTime timestamp, String username, String role, String action,
+                        String glassType, int quantity, Integer standNo, Integer fromStand, Integer toStand,
+                        String height, String width, String unit, Double price) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.username = username;
+        this.role = role;
+        this.action = action;
+        this.glassType = glassType;
+        this.quantity = quantity;
+        this.standNo = standNo;
+        this.fromStand = fromStand;
+        this.toStand = toStand;
+        this.height = height;
+        this.width = width;
+        this.unit = unit;
+        this.price = price;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getGlassType() {
+        return glassType;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Integer getStandNo() {
+        return standNo;
+    }
+
+    public Integer getFromStand() {
+        return fromStand;
+    }
+
+    public Integer getToStand() {
+        return toStand;
+    }
+
+    public String getHeight() {
+        return height;
+    }
+
+    public String getWidth() {
+        return width;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+}
@@ -0,0 +1,36 @@
+package com.glassshop.ai.dto;
+
+import java.util.List;
+
+/**
+ * One page of the audit history, newest first.
+ * Pass nextCursor back as "cursor" to get the following (older) page;
+ * it is null on the last page.
+ */
+public class AuditPageResponse {
+
+    private List<AuditLogView> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public AuditPageResponse() {
+    }
+
+    public AuditPageResponse(List<AuditLogView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<AuditLogView> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,62 @@
+package com.glassshop.ai.dto;
+
+/**
+ * Snapshot of the async audit writer (GET /audit/writer-stats).
+ * syncWrites > 0 means the queue was full and callers wrote audit rows
+ * themselves (backpressure).
+ */
+public class AuditWriterStats {
+
+    private final int queueDepth;
+    private final int queueCapacity;
+    private final long submitted;
+    private final long written;
+    private final long syncWrites;
+    private final long failed;
+    private final long batches;
+    private final long lastBatchMillis;
+
+    public AuditWriterStats(int queueDepth, int queueCapacity, long submitted, long written,
+                            long syncWrites, long failed, long batches, long lastBatchMillis) {
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.submitted = submitted;
+        this.written = written;
+        this.syncWrites = syncWrites;
+        this.failed = failed;
+        this.batches = batches;
+        this.lastBatchMillis = lastBatchMillis;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getSyncWrites() {
+        return syncWrites;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public long getLastBatchMillis() {
+        return lastBatchMillis;
+    }
+}
@@ -0,0 +1,62 @@
+package com.glassshop.ai.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Month-end batch print: either a date range or explicit invoice ids
+ */
+public class BulkPdfExportRequest {
+
+    // INVOICE, BASIC_INVOICE, TRANSPORT_CHALLAN, DELIVERY_CHALLAN
+    private String documentType = "INVOICE";
+
+    // PDF (one merged file) or ZIP (one file per document)
+    private String format = "PDF";
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    // Used instead of the date range when not empty
+    private List<Long> invoiceIds;
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public List<Long> getInvoiceIds() {
+        return invoiceIds;
+    }
+
+    public void setInvoiceIds(List<Long> invoiceIds) {
+        this.invoiceIds = invoiceIds;
+    }
+}
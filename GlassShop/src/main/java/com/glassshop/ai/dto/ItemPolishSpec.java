@@ -0,0 +1,182 @@
+package com.glassshop.ai.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Typed view of the JSON stored in QuotationItem / InvoiceItem "description"
+ * (original fraction sizes + polish selection sent by the frontend).
+ *
+ * Parsed once per item with a shared, thread-safe reader instead of
+ * building a new ObjectMapper for every field on every PDF row.
+ */
+public class ItemPolishSpec {
+
+    // ObjectReader is immutable and thread-safe - build it once
+    private static final ObjectReader READER = new ObjectMapper().reader();
+
+    // Returned for plain-text / missing / broken descriptions
+    public static final ItemPolishSpec EMPTY = new ItemPolishSpec();
+
+    private String heightOriginal;
+    private String widthOriginal;
+    private boolean sizeInMM;
+
+    private boolean hasPolishSelection;   // "polishSelection" key present
+    private int heightTableNumber = 6;
+    private int widthTableNumber = 6;
+    private int selectedHeightTableValue;
+    private int selectedWidthTableValue;
+    private String itemPolish = "";
+    private List<PolishSide> polishSelection = Collections.emptyList();
+
+    private ItemPolishSpec() {
+    }
+
+    /**
+     * Parse an item description. Never throws - anything that isn't a JSON
+     * object gives EMPTY (PDF falls back to decimal sizes / default remarks).
+     */
+    public static ItemPolishSpec parse(String description) {
+        if (description == null) {
+            return EMPTY;
+        }
+        String desc = description.trim();
+        if (!desc.startsWith("{")) {
+            return EMPTY;
+        }
+
+        JsonNode node;
+        try {
+            node = READER.readTree(desc);
+        } catch (Exception e) {
+            return EMPTY;
+        }
+        if (node == null || !node.isObject()) {
+            return EMPTY;
+        }
+
+        ItemPolishSpec spec = new ItemPolishSpec();
+        spec.heightOriginal = textOrNull(node, "heightOriginal");
+        spec.widthOriginal = textOrNull(node, "widthOriginal");
+        spec.sizeInMM = node.has("sizeInMM") && node.get("sizeInMM").asBoolean(false);
+
+        spec.hasPolishSelection = node.has("polishSelection");
+        spec.heightTableNumber = node.has("heightTableNumber") ? node.get("heightTableNumber").asInt(6) : 6;
+        spec.widthTableNumber = node.has("widthTableNumber") ? node.get("widthTableNumber").asInt(6) : 6;
+        spec.selectedHeightTableValue = node.has("selectedHeightTableValue") ? node.get("selectedHeightTableValue").asInt(0) : 0;
+        spec.selectedWidthTableValue = node.has("selectedWidthTableValue") ? node.get("selectedWidthTableValue").asInt(0) : 0;
+
+        String polish = textOrNull(node, "itemPolish");
+        spec.itemPolish = polish != null ? polish : "";
+
+        JsonNode sides = node.get("polishSelection");
+        if (sides != null && sides.isArray()) {
+            List<PolishSide> list = new ArrayList<>(sides.size());
+            for (JsonNode ps : sides) {
+                PolishSide side = new PolishSide();
+                side.checked = ps.has("checked") && ps.get("checked").asBoolean(false);
+                side.side = ps.has("side") ? ps.get("side").asText("") : "";
+                side.sideNumber = ps.has("sideNumber") ? ps.get("sideNumber").asInt(0) : 0;
+                side.type = ps.has("type") && !ps.get("type").isNull() ? ps.get("type").asText("") : "";
+                list.add(side);
+            }
+            spec.polishSelection = Collections.unmodifiableList(list);
+        }
+        return spec;
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    /**
+     * "Side 1=CNC Side 2=Hash " style summary of the checked sides
+     * (first 4 sides only), empty if nothing is selected
+     */
+    public String describeSelectedSides() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < polishSelection.size() && i < 4; i++) {
+            PolishSide ps = polishSelection.get(i);
+            if (ps.checked && !ps.type.isEmpty()) {
+                sb.append(ps.side).append(" ").append(ps.sideNumber).append("=").append(ps.type).append(" ");
+            }
+        }
+        return sb.toString();
+    }
+
+    /* ===== GETTERS ===== */
+
+    public String getHeightOriginal() {
+        return heightOriginal;
+    }
+
+    public String getWidthOriginal() {
+        return widthOriginal;
+    }
+
+    public boolean isSizeInMM() {
+        return sizeInMM;
+    }
+
+    public boolean hasPolishSelection() {
+        return hasPolishSelection;
+    }
+
+    public int getHeightTableNumber() {
+        return heightTableNumber;
+    }
+
+    public int getWidthTableNumber() {
+        return widthTableNumber;
+    }
+
+    public int getSelectedHeightTableValue() {
+        return selectedHeightTableValue;
+    }
+
+    public int getSelectedWidthTableValue() {
+        return selectedWidthTableValue;
+    }
+
+    public String getItemPolish() {
+        return itemPolish;
+    }
+
+    public List<PolishSide> getPolishSelection() {
+        return polishSelection;
+    }
+
+    /**
+     * One entry of "polishSelection" (one side of the glass)
+     */
+    public static class PolishSide {
+
+        private boolean checked;
+        private String side = "";
+        private int sideNumber;
+        private String type = "";
+
+        public boolean isChecked() {
+            return checked;
+        }
+
+        public String getSide() {
+            return side;
+        }
+
+        public int getSideNumber() {
+            return sideNumber;
+        }
+
+        public String getType() {
+            return type;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.glassshop.ai.dto;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress / outcome of one daily report run across all shops.
+ * Updated concurrently by the report workers.
+ */
+public class ReportRunSummary {
+
+    private final int totalShops;
+    private final AtomicInteger sent = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final Map<Long, String> failures = new ConcurrentHashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+    private volatile long finishedAt;
+
+    public ReportRunSummary(int totalShops) {
+        this.totalShops = totalShops;
+    }
+
+    public void markSent(Long shopId) {
+        sent.incrementAndGet();
+    }
+
+    public void markSkipped(Long shopId) {
+        skipped.incrementAndGet();
+    }
+
+    public void markFailed(Long shopId, String error) {
+        failures.put(shopId, error != null ? error : "unknown error");
+    }
+
+    public void markFinished() {
+        finishedAt = System.currentTimeMillis();
+    }
+
+    public int getTotalShops() {
+        return totalShops;
+    }
+
+    public int getSent() {
+        return sent.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getFailed() {
+        return failures.size();
+    }
+
+    public int getCompleted() {
+        return getSent() + getSkipped() + getFailed();
+    }
+
+    // shopId -> error message
+    public Map<Long, String> getFailures() {
+        return failures;
+    }
+
+    public long getDurationMillis() {
+        return (finishedAt > 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "shops=" + totalShops
+                + ", sent=" + getSent()
+                + ", skipped=" + getSkipped()
+                + ", failed=" + getFailed()
+                + ", took=" + getDurationMillis() + "ms";
+    }
+}
@@ -0,0 +1,35 @@
+package com.glassshop.ai.dto;
+
+/**
+ * Dashboard counters of one shop (GET /audit/counters)
+ */
+public class ShopActivityCounts {
+
+    private final long transfers;
+    private final long adds;
+    private final long removes;
+    private final long todayOps;
+
+    public ShopActivityCounts(long transfers, long adds, long removes, long todayOps) {
+        this.transfers = transfers;
+        this.adds = adds;
+        this.removes = removes;
+        this.todayOps = todayOps;
+    }
+
+    public long getTransfers() {
+        return transfers;
+    }
+
+    public long getAdds() {
+        return adds;
+    }
+
+    public long getRemoves() {
+        return removes;
+    }
+
+    public long getTodayOps() {
+        return todayOps;
+    }
+}
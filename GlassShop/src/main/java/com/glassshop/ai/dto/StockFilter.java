@@ -0,0 +1,82 @@
+package com.glassshop.ai.dto;
+
+/**
+ * Optional filters for the paged stock listing (/stock/page).
+ * Bound from query parameters; null / false means "don't filter".
+ * Dimension bounds are in the stock row's own unit.
+ */
+public class StockFilter {
+
+    private String glassType;
+    private Integer thickness;
+    private Integer standNo;
+    private boolean lowOnly;
+    private Double minHeight;
+    private Double maxHeight;
+    private Double minWidth;
+    private Double maxWidth;
+
+    public String getGlassType() {
+        return glassType;
+    }
+
+    public void setGlassType(String glassType) {
+        this.glassType = glassType;
+    }
+
+    public Integer getThickness() {
+        return thickness;
+    }
+
+    public void setThickness(Integer thickness) {
+        this.thickness = thickness;
+    }
+
+    public Integer getStandNo() {
+        return standNo;
+    }
+
+    public void setStandNo(Integer standNo) {
+        this.standNo = standNo;
+    }
+
+    public boolean isLowOnly() {
+        return lowOnly;
+    }
+
+    public void setLowOnly(boolean lowOnly) {
+        this.lowOnly = lowOnly;
+    }
+
+    public Double getMinHeight() {
+        return minHeight;
+    }
+
+    public void setMinHeight(Double minHeight) {
+        this.minHeight = minHeight;
+    }
+
+    public Double getMaxHeight() {
+        return maxHeight;
+    }
+
+    public void setMaxHeight(Double maxHeight) {
+        this.maxHeight = maxHeight;
+    }
+
+    public Double getMinWidth() {
+        return minWidth;
+    }
+
+    public void setMinWidth(Double minWidth) {
+        this.minWidth = minWidth;
+    }
+
+    public Double getMaxWidth() {
+        return maxWidth;
+    }
+
+    public void setMaxWidth(Double maxWidth) {
+        this.maxWidth = maxWidth;
+    }
+}
@@ -0,0 +1,66 @@
+package com.glassshop.ai.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stock_history row read back from the cold archive (ColdArchiveService)
+ */
+public class StockHistoryView {
+
+    private Long id;
+    private Long glassId;
+    private int standNo;
+    private int quantity;
+    private String action;
+    private String height;
+    private String width;
+    private LocalDateTime createdAt;
+
+    public StockHistoryView() {
+    }
+
+    public StockHistoryView(Long id, Long glassId, int standNo, int quantity, String action,
+                            String height, String width, LocalDateTime createdAt) {
+        this.id = id;
+        this.glassId = glassId;
+        this.standNo = standNo;
+        this.quantity = quantity;
+        this.action = action;
+        this.height = height;
+        this.width = width;
+        this.createdAt = createdAt;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getGlassId() {
+        return glassId;
+    }
+
+    public int getStandNo() {
+        return standNo;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getHeight() {
+        return height;
+    }
+
+    public String getWidth() {
+        return width;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
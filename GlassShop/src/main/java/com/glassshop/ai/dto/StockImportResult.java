@@ -0,0 +1,100 @@
+package com.glassshop.ai.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a CSV stock import.
+ *
+ * Rows are numbered from 1 = first line after the header. If the import
+ * stops early (completed = false), upload the same file again with
+ * startRow = lastCommittedRow + 1 to continue.
+ */
+public class StockImportResult {
+
+    private long processedRows;
+    private long importedRows;
+    private long failedRows;
+    private long lastCommittedRow;
+    private boolean completed;
+    private String message;
+    private List<RowError> errors = new ArrayList<>();
+
+    public static class RowError {
+
+        private long row;
+        private String error;
+
+        public RowError() {
+        }
+
+        public RowError(long row, String error) {
+            this.row = row;
+            this.error = error;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    public void setFailedRows(long failedRows) {
+        this.failedRows = failedRows;
+    }
+
+    public long getLastCommittedRow() {
+        return lastCommittedRow;
+    }
+
+    public void setLastCommittedRow(long lastCommittedRow) {
+        this.lastCommittedRow = lastCommittedRow;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+}
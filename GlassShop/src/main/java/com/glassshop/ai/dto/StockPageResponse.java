@@ -0,0 +1,36 @@
+package com.glassshop.ai.dto;
+
+import java.util.List;
+
+/**
+ * One page of the stock listing.
+ * Pass nextCursor back as "cursor" to get the following page;
+ * it is null on the last page.
+ */
+public class StockPageResponse {
+
+    private List<StockView> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public StockPageResponse() {
+    }
+
+    public StockPageResponse(List<StockView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+
+    public List<StockView> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,112 @@
+package com.glassshop.ai.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for stock listings (/stock/all).
+ *
+ * Filled directly by a JPQL constructor query (one SELECT, no entities,
+ * no Shop). JSON keeps the nested "glass" object the frontend already
+ * reads (glass.type / glass.thickness / glass.unit).
+ */
+public class StockView {
+
+    private Long id;
+    private GlassView glass;
+    private int standNo;
+    private String height;
+    private String width;
+    private int quantity;
+    private int minQuantity;
+    private String hsnNo;
+    private LocalDateTime updatedAt;
+
+    public StockView() {
+    }
+
+    // Used by StockRepository.findViewsByShopId (argument order matters)
+    public StockView(Long id, Long glassId, String glassType, int thickness, String unit,
+                     int standNo, String height, String width, int quantity, int minQuantity,
+                     String hsnNo, LocalDateTime updatedAt) {
+        this.id = id;
+        this.glass = new GlassView(glassId, glassType, thickness, unit);
+        this.standNo = standNo;
+        this.height = height;
+        this.width = width;
+        this.quantity = quantity;
+        this.minQuantity = minQuantity;
+        this.hsnNo = hsnNo;
+        this.updatedAt = updatedAt;
+    }
+
+    public static class GlassView {
+
+        private Long id;
+        private String type;
+        private int thickness;
+        private String unit;
+
+        public GlassView() {
+        }
+
+        public GlassView(Long id, String type, int thickness, String unit) {
+            this.id = id;
+            this.type = type;
+            this.thickness = thickness;
+            this.unit = unit;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getThickness() {
+            return thickness;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public GlassView getGlass() {
+        return glass;
+    }
+
+    public int getStandNo() {
+        return standNo;
+    }
+
+    public String getHeight() {
+        return height;
+    }
+
+    public String getWidth() {
+        return width;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getMinQuantity() {
+        return minQuantity;
+    }
+
+    public String getHsnNo() {
+        return hsnNo;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
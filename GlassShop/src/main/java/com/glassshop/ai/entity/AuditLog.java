@@ -11,14 +11,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "audit_log")
 public class AuditLog {
 
+    // Sequence (not IDENTITY) so bulk inserts can be JDBC-batched; see V10
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_log_id_gen")
+    @SequenceGenerator(name = "audit_log_id_gen", sequenceName = "audit_log_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "username")
@@ -55,7 +58,8 @@ public class AuditLog {
     @JoinColumn(name = "shop_id")
     private Shop shop;
 
-    @Column(name = "timestamp")
+    // Partition key of audit_log (V12) - must always be set
+    @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
     
     @Column(name = "from_stand")
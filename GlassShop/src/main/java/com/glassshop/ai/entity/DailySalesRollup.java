@@ -0,0 +1,87 @@
+package com.glassshop.ai.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Sales (REMOVE) aggregated per shop, day, glass type, size and stand.
+ * Rows are upserted by DailySalesRollupService - never edited directly.
+ */
+@Entity
+@Table(
+		name = "daily_sales_rollup",
+		uniqueConstraints = {
+				@UniqueConstraint(columnNames = {"shop_id", "sale_date", "glass_type", "height", "width", "unit", "stand_no"})
+		}
+	)
+public class DailySalesRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shop_id", nullable = false)
+    private Long shopId;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "glass_type", nullable = false, length = 50)
+    private String glassType;
+
+    @Column(name = "height", nullable = false, length = 100)
+    private String height;
+
+    @Column(name = "width", nullable = false, length = 100)
+    private String width;
+
+    @Column(name = "unit", nullable = false, length = 10)
+    private String unit;
+
+    @Column(name = "stand_no", nullable = false)
+    private int standNo;
+
+    @Column(name = "quantity", nullable = false)
+    private int quantity;
+
+    @Column(name = "earnings", nullable = false)
+    private double earnings;
+
+    /* GETTERS & SETTERS */
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getShopId() { return shopId; }
+    public void setShopId(Long shopId) { this.shopId = shopId; }
+
+    public LocalDate getSaleDate() { return saleDate; }
+    public void setSaleDate(LocalDate saleDate) { this.saleDate = saleDate; }
+
+    public String getGlassType() { return glassType; }
+    public void setGlassType(String glassType) { this.glassType = glassType; }
+
+    public String getHeight() { return height; }
+    public void setHeight(String height) { this.height = height; }
+
+    public String getWidth() { return width; }
+    public void setWidth(String width) { this.width = width; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public int getStandNo() { return standNo; }
+    public void setStandNo(int standNo) { this.standNo = standNo; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public double getEarnings() { return earnings; }
+    public void setEarnings(double earnings) { this.earnings = earnings; }
+}
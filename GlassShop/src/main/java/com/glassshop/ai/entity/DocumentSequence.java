@@ -0,0 +1,67 @@
+package com.glassshop.ai.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.UpdateTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Counter for quotation / invoice numbers.
+ * One row per shop, document type (Q / INV / ADV) and month (yyyy-MM).
+ * nextValue = first number NOT yet handed out.
+ */
+@Entity
+@Table(
+		name = "document_sequence",
+		uniqueConstraints = {
+				@UniqueConstraint(columnNames = {"shop_id", "doc_type", "period"})
+		}
+	)
+public class DocumentSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shop_id", nullable = false)
+    private Long shopId;
+
+    @Column(name = "doc_type", nullable = false, length = 10)
+    private String docType;
+
+    @Column(name = "period", nullable = false, length = 7)
+    private String period;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /* GETTERS & SETTERS */
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getShopId() { return shopId; }
+    public void setShopId(Long shopId) { this.shopId = shopId; }
+
+    public String getDocType() { return docType; }
+    public void setDocType(String docType) { this.docType = docType; }
+
+    public String getPeriod() { return period; }
+    public void setPeriod(String period) { this.period = period; }
+
+    public long getNextValue() { return nextValue; }
+    public void setNextValue(long nextValue) { this.nextValue = nextValue; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
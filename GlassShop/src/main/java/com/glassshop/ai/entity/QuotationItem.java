@@ -4,6 +4,9 @@ import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.glassshop.ai.dto.ItemPolishSpec;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -12,6 +15,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "quotation_items")
@@ -64,6 +68,10 @@ public class QuotationItem {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
+    // Parsed form of description, built on first use (not persisted)
+    @Transient
+    private ItemPolishSpec polishSpec;
+
     @Column(name = "item_order", nullable = false)
     private Integer itemOrder = 0;
 
@@ -190,6 +198,15 @@ public class QuotationItem {
 
     public void setDescription(String description) {
         this.description = description;
+        this.polishSpec = null;
+    }
+
+    @JsonIgnore
+    public ItemPolishSpec getPolishSpec() {
+        if (polishSpec == null) {
+            polishSpec = ItemPolishSpec.parse(description);
+        }
+        return polishSpec;
     }
 
     public Integer getItemOrder() {
@@ -0,0 +1,63 @@
+package com.glassshop.ai.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Running totals of audit actions for one shop.
+ * Rows are upserted by ShopActivityCounterService - never edited directly.
+ */
+@Entity
+@Table(name = "shop_activity_counter")
+public class ShopActivityCounter {
+
+    @Id
+    @Column(name = "shop_id")
+    private Long shopId;
+
+    @Column(name = "transfers", nullable = false)
+    private long transfers;
+
+    @Column(name = "adds", nullable = false)
+    private long adds;
+
+    @Column(name = "removes", nullable = false)
+    private long removes;
+
+    // today_ops counts actions on this day only
+    @Column(name = "ops_day", nullable = false)
+    private LocalDate opsDay;
+
+    @Column(name = "today_ops", nullable = false)
+    private long todayOps;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /* GETTERS & SETTERS */
+    public Long getShopId() { return shopId; }
+    public void setShopId(Long shopId) { this.shopId = shopId; }
+
+    public long getTransfers() { return transfers; }
+    public void setTransfers(long transfers) { this.transfers = transfers; }
+
+    public long getAdds() { return adds; }
+    public void setAdds(long adds) { this.adds = adds; }
+
+    public long getRemoves() { return removes; }
+    public void setRemoves(long removes) { this.removes = removes; }
+
+    public LocalDate getOpsDay() { return opsDay; }
+    public void setOpsDay(LocalDate opsDay) { this.opsDay = opsDay; }
+
+    public long getTodayOps() { return todayOps; }
+    public void setTodayOps(long todayOps) { this.todayOps = todayOps; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -12,6 +12,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
@@ -58,6 +60,54 @@ public class Stock {
     @Column(name = "hsn_no", length = 20)
     private String hsnNo;
 
+    // Numeric height / width for range filters (null when not a number)
+    @Column(name = "height_value")
+    private Double heightValue;
+
+    @Column(name = "width_value")
+    private Double widthValue;
+
+    @PrePersist
+    @PreUpdate
+    void computeDimensionValues() {
+        this.heightValue = parseDimension(height);
+        this.widthValue = parseDimension(width);
+    }
+
+    /**
+     * "26" / "26.5" / "26 1/4" / "1/4" -> number, anything else -> null
+     */
+    public static Double parseDimension(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = value.trim().split("\\s+");
+            if (parts.length > 2) {
+                return null;
+            }
+            double result = 0;
+            for (String part : parts) {
+                if (part.contains("/")) {
+                    String[] fraction = part.split("/");
+                    if (fraction.length != 2) {
+                        return null;
+                    }
+                    double den = Double.parseDouble(fraction[1]);
+                    if (den == 0) {
+                        return null;
+                    }
+                    result += Double.parseDouble(fraction[0]) / den;
+                } else {
+                    result += Double.parseDouble(part);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
 	public String getHsnNo() {
 		return hsnNo;
 	}
@@ -66,6 +116,13 @@ public class Stock {
 		this.hsnNo = hsnNo;
 	}
 
+	public Double getHeightValue() {
+		return heightValue;
+	}
+	public Double getWidthValue() {
+		return widthValue;
+	}
+
 	public String getHeight() {
 		return height;
 	}
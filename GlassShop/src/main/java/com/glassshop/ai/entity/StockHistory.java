@@ -11,14 +11,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "stock_history")
 public class StockHistory {
 
+    // Sequence (not IDENTITY) so bulk inserts can be JDBC-batched; see V10
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_history_id_gen")
+    @SequenceGenerator(name = "stock_history_id_gen", sequenceName = "stock_history_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "glass_id", nullable = false)
@@ -32,6 +35,13 @@ public class StockHistory {
     
     @Column(name = "action", nullable = false, length = 20)
     private String action; // ADD or REMOVE
+
+    // Size of the stock row that was changed (undo locks exactly that row)
+    @Column(name = "height", length = 100)
+    private String height;
+
+    @Column(name = "width", length = 100)
+    private String width;
     
     @ManyToOne
     @JoinColumn(name = "shop_id", nullable = false)
@@ -55,6 +65,12 @@ public class StockHistory {
 
     public String getAction() { return action; }
     public void setAction(String action) { this.action = action; }
+
+    public String getHeight() { return height; }
+    public void setHeight(String height) { this.height = height; }
+
+    public String getWidth() { return width; }
+    public void setWidth(String width) { this.width = width; }
     
     
 
@@ -2,14 +2,20 @@ package com.glassshop.ai.repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import com.glassshop.ai.dto.AuditLogView;
 import com.glassshop.ai.entity.AuditLog;
 import com.glassshop.ai.entity.Shop;
 
+import jakarta.persistence.QueryHint;
+
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 
 	List<AuditLog> findTop10ByShopIdOrderByTimestampDesc(Long shopId);
@@ -23,10 +29,6 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 	
 	List<AuditLog> findTop3ByShopOrderByTimestampDesc(Shop shop);
 	
-	// Find most recent audit log for specific stock (for updating quantity during transfer)
-	Optional<AuditLog> findTopByShopAndGlassTypeAndStandNoAndHeightAndWidthOrderByTimestampDesc(
-            Shop shop, String glassType, int standNo, String height, String width);
-    
 	List<AuditLog> findByShopAndTimestampBetween(
             Shop shop,
             LocalDateTime start,
@@ -43,13 +45,53 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     """)
     List<Object[]> findMostUsedGlassTypes(Shop shop);
 
-    // 🔹 Count TRANSFER actions for a shop (case-insensitive)
+    // 🔹 CSV export: flat rows (no managed entities) streamed with a bounded
+    // JDBC fetch size. from / to are never null (the caller passes sentinels)
+    // so PostgreSQL can prune monthly partitions and range-scan
+    // idx_audit_log_shop_timestamp. Caller must be @Transactional and close
+    // the stream.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+        SELECT a.timestamp, a.username, a.role, a.action, a.glassType, a.quantity,
+               a.standNo, a.fromStand, a.toStand, a.height, a.width, a.unit, a.price
+        FROM AuditLog a
+        WHERE a.shop.id = :shopId
+          AND a.timestamp >= :from
+          AND a.timestamp < :to
+        ORDER BY a.timestamp DESC, a.id DESC
+    """)
+    Stream<Object[]> streamExportRows(Long shopId, LocalDateTime from, LocalDateTime to);
+
+    // 🔹 Audit history page: keyset on (timestamp, id) newest first ->
+    // idx_audit_log_shop_timestamp. Time bounds are never null (the caller
+    // passes sentinels) so PostgreSQL can prune monthly partitions.
+    // Rows returned are strictly before (beforeTimestamp, beforeId).
     @Query("""
-        SELECT COUNT(a)
+        SELECT new com.glassshop.ai.dto.AuditLogView(
+            a.id, a.timestamp, a.username, a.role, a.action, a.glassType, a.quantity,
+            a.standNo, a.fromStand, a.toStand, a.height, a.width, a.unit, a.price)
         FROM AuditLog a
-        WHERE a.shop = :shop AND UPPER(TRIM(a.action)) = 'TRANSFER'
+        WHERE a.shop.id = :shopId
+          AND a.timestamp >= :from
+          AND a.timestamp <= :beforeTimestamp
+          AND (a.timestamp < :beforeTimestamp OR a.id < :beforeId)
+          AND (:action IS NULL OR a.action = :action)
+          AND (:username IS NULL OR LOWER(a.username) = LOWER(:username))
+          AND (:glassType IS NULL OR UPPER(a.glassType) = UPPER(:glassType))
+          AND (:standNo IS NULL OR a.standNo = :standNo
+               OR a.fromStand = :standNo OR a.toStand = :standNo)
+        ORDER BY a.timestamp DESC, a.id DESC
     """)
-    Long countTransfersByShop(Shop shop);
+    List<AuditLogView> findViewPage(
+            Long shopId,
+            LocalDateTime from,
+            LocalDateTime beforeTimestamp,
+            Long beforeId,
+            String action,
+            String username,
+            String glassType,
+            Integer standNo,
+            Pageable pageable);
 
     
 }
@@ -0,0 +1,37 @@
+package com.glassshop.ai.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.glassshop.ai.entity.DailySalesRollup;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, Long> {
+
+    List<DailySalesRollup> findByShopIdAndSaleDateOrderByGlassTypeAsc(Long shopId, LocalDate saleDate);
+
+    // 🔹 Atomic upsert - concurrent sales of the same item add up, no lost
+    // updates. A concurrent first insert waits for the other transaction and
+    // then adds to its row, so the caller's transaction is never aborted.
+    // PostgreSQL-only SQL.
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO daily_sales_rollup
+            (shop_id, sale_date, glass_type, height, width, unit, stand_no, quantity, earnings)
+        VALUES
+            (:shopId, :saleDate, :glassType, :height, :width, :unit, :standNo, :quantity, :earnings)
+        ON CONFLICT ON CONSTRAINT uk_daily_sales_rollup_key
+        DO UPDATE SET
+            quantity = daily_sales_rollup.quantity + EXCLUDED.quantity,
+            earnings = daily_sales_rollup.earnings + EXCLUDED.earnings
+        """, nativeQuery = true)
+    int addSale(Long shopId, LocalDate saleDate, String glassType, String height, String width,
+                String unit, int standNo, int quantity, double earnings);
+}
@@ -0,0 +1,19 @@
+package com.glassshop.ai.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import com.glassshop.ai.entity.DocumentSequence;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, Long> {
+
+    // Row lock (SELECT ... FOR UPDATE) - serialises number allocation across app instances
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<DocumentSequence> findByShopIdAndDocTypeAndPeriod(Long shopId, String docType, String period);
+}
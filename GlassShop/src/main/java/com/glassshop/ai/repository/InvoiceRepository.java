@@ -1,9 +1,13 @@
 package com.glassshop.ai.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.glassshop.ai.entity.Customer;
@@ -26,5 +30,30 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
     Optional<Invoice> findByInvoiceNumberAndShop(String invoiceNumber, Shop shop);
     List<Invoice> findByShopAndCustomerOrderByCreatedAtDesc(Shop shop, Customer customer);
-}
 
+    // Highest invoice number issued with a prefix (seeds document_sequence for a new month)
+    @Query("""
+        SELECT i.invoiceNumber FROM Invoice i
+        WHERE i.shop.id = :shopId AND i.invoiceNumber LIKE CONCAT(:prefix, '%')
+        ORDER BY LENGTH(i.invoiceNumber) DESC, i.invoiceNumber DESC
+    """)
+    List<String> findInvoiceNumbersByPrefix(Long shopId, String prefix, Pageable pageable);
+
+    // Invoice ids in a date range, oldest first (bulk PDF export)
+    @Query("""
+        SELECT i.id FROM Invoice i
+        WHERE i.shop.id = :shopId AND i.invoiceDate BETWEEN :from AND :to
+        ORDER BY i.invoiceDate ASC, i.id ASC
+    """)
+    List<Long> findIdsByShopAndInvoiceDateBetween(Long shopId, LocalDate from, LocalDate to, Pageable pageable);
+
+    // Bulk PDF export: the selected invoices of one shop with their items, one query
+    @Query("""
+        SELECT DISTINCT i FROM Invoice i
+        LEFT JOIN FETCH i.items
+        LEFT JOIN FETCH i.customer
+        LEFT JOIN FETCH i.quotation
+        WHERE i.shop.id = :shopId AND i.id IN :ids
+    """)
+    List<Invoice> findForPdfByShopIdAndIdIn(Long shopId, Collection<Long> ids);
+}
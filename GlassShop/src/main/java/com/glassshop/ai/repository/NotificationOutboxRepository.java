@@ -0,0 +1,35 @@
+package com.glassshop.ai.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import com.glassshop.ai.entity.NotificationOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // 🔹 Due rows, locked FOR UPDATE SKIP LOCKED (lock timeout -2) so several
+    //    app instances can drain the outbox without sending a row twice.
+    //    Caller must be @Transactional.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+        SELECT n FROM NotificationOutbox n
+        WHERE n.status = 'PENDING'
+          AND n.nextAttemptAt <= :now
+        ORDER BY n.nextAttemptAt ASC, n.id ASC
+    """)
+    List<NotificationOutbox> claimDue(LocalDateTime now, Pageable pageable);
+
+    long countByStatus(String status);
+}
@@ -3,7 +3,9 @@ package com.glassshop.ai.repository;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.glassshop.ai.entity.Customer;
@@ -22,5 +24,12 @@ public interface QuotationRepository extends JpaRepository<Quotation, Long> {
     Optional<Quotation> findByQuotationNumber(String quotationNumber);
     Optional<Quotation> findByQuotationNumberAndShop(String quotationNumber, Shop shop);
     List<Quotation> findByShopAndCustomerOrderByCreatedAtDesc(Shop shop, Customer customer);
-}
 
+    // Highest quotation number issued with a prefix (seeds document_sequence for a new month)
+    @Query("""
+        SELECT q.quotationNumber FROM Quotation q
+        WHERE q.shop.id = :shopId AND q.quotationNumber LIKE CONCAT(:prefix, '%')
+        ORDER BY LENGTH(q.quotationNumber) DESC, q.quotationNumber DESC
+    """)
+    List<String> findQuotationNumbersByPrefix(Long shopId, String prefix, Pageable pageable);
+}
@@ -0,0 +1,42 @@
+package com.glassshop.ai.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.glassshop.ai.entity.ShopActivityCounter;
+
+@Repository
+public interface ShopActivityCounterRepository extends JpaRepository<ShopActivityCounter, Long> {
+
+    // 🔹 Atomic upsert - concurrent writers add up, no lost updates.
+    // today_ops restarts when a later day arrives; a late batch for an
+    // earlier day only adds to the totals.
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO shop_activity_counter
+            (shop_id, transfers, adds, removes, ops_day, today_ops, updated_at)
+        VALUES
+            (:shopId, :transfers, :adds, :removes, :opsDay, :ops, CURRENT_TIMESTAMP)
+        ON CONFLICT (shop_id)
+        DO UPDATE SET
+            transfers = shop_activity_counter.transfers + EXCLUDED.transfers,
+            adds = shop_activity_counter.adds + EXCLUDED.adds,
+            removes = shop_activity_counter.removes + EXCLUDED.removes,
+            today_ops = CASE
+                WHEN shop_activity_counter.ops_day = EXCLUDED.ops_day
+                    THEN shop_activity_counter.today_ops + EXCLUDED.today_ops
+                WHEN shop_activity_counter.ops_day > EXCLUDED.ops_day
+                    THEN shop_activity_counter.today_ops
+                ELSE EXCLUDED.today_ops
+            END,
+            ops_day = GREATEST(shop_activity_counter.ops_day, EXCLUDED.ops_day),
+            updated_at = CURRENT_TIMESTAMP
+        """, nativeQuery = true)
+    int addActivity(Long shopId, long transfers, long adds, long removes, LocalDate opsDay, long ops);
+}
@@ -1,48 +1,209 @@
 package com.glassshop.ai.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.glassshop.ai.dto.StockView;
 import com.glassshop.ai.entity.Glass;
 import com.glassshop.ai.entity.Shop;
 import com.glassshop.ai.entity.Stock;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface StockRepository extends JpaRepository<Stock, Long> {
 
-	@Query("""
-		    SELECT s FROM Stock s
-		    WHERE s.quantity < s.minQuantity
-		    """)
-		    List<Stock> findLowStock();
-	
 	List<Stock> findByGlass_Type(String type);
 	
-	Optional<Stock> findByGlass_Id(Long glassId);
+	// First ADD of a glass on a stand: quantity 0, the caller then locks the
+	// row. A concurrent insert of the same key waits for the other transaction
+	// and then does nothing (returns 0). The only other unique key is the
+	// generated id, so leaving out the conflict target only catches
+	// uk_stock_glass_stand_shop_height_width - and keeps the statement
+	// runnable on H2 in PostgreSQL mode for the concurrency tests.
+	@Modifying
+	@Transactional
+	@Query(value = """
+	    INSERT INTO stock
+	        (glass_id, stand_no, quantity, min_quantity, shop_id, height, width,
+	         height_value, width_value, updated_at)
+	    VALUES
+	        (:glassId, :standNo, 0, :minQuantity, :shopId, :height, :width,
+	         :heightValue, :widthValue, :updatedAt)
+	    ON CONFLICT DO NOTHING
+	    """, nativeQuery = true)
+	int insertEmptyStock(Long glassId, int standNo, int minQuantity, Long shopId,
+	                     String height, String width, Double heightValue, Double widthValue,
+	                     LocalDateTime updatedAt);
+
+	// 🔒 Undo: exactly the row a stock_history entry changed (shop + glass +
+	// stand + size = uk_stock_glass_stand_shop_height_width). A null size
+	// matches IS NULL. Caller must be @Transactional.
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	Optional<Stock> findByShop_IdAndGlass_IdAndStandNoAndHeightAndWidth(
+	        Long shopId, Long glassId, int standNo, String height, String width);
 	
 	List<Stock> findAll();
+	// Served by the partial index idx_stock_low_stock; glass fetched for the alert texts
 	@Query("""
 		    SELECT s FROM Stock s
+		    JOIN FETCH s.glass
 		    WHERE s.shop.id = :shopId
 		      AND s.quantity < s.minQuantity
+		    ORDER BY s.standNo ASC, s.id ASC
 		""")
 		List<Stock> findLowStockByShopId(Long shopId);
 
+	// 🔹 Daily check: low stock row count per shop (no entities loaded)
+	@Query("""
+	    SELECT s.shop.id, COUNT(s)
+	    FROM Stock s
+	    WHERE s.quantity < s.minQuantity
+	    GROUP BY s.shop.id
+	""")
+	List<Object[]> countLowStockByShop();
+
 	List<Stock> findByShopId(Long shopId);
+
+	// 🔹 /stock/all read model: stock + glass columns in one joined SELECT (no Shop, no N+1)
+	@Query("""
+	    SELECT new com.glassshop.ai.dto.StockView(
+	        s.id, g.id, g.type, g.thickness, g.unit,
+	        s.standNo, s.height, s.width, s.quantity, s.minQuantity,
+	        s.hsnNo, s.updatedAt)
+	    FROM Stock s
+	    JOIN s.glass g
+	    WHERE s.shop.id = :shopId
+	    ORDER BY s.standNo ASC, s.id ASC
+	""")
+	List<StockView> findViewsByShopId(Long shopId);
+
+	// 🔹 CSV export: same projection, streamed with a bounded JDBC fetch size.
+	// Caller must be @Transactional and close the stream.
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("""
+	    SELECT new com.glassshop.ai.dto.StockView(
+	        s.id, g.id, g.type, g.thickness, g.unit,
+	        s.standNo, s.height, s.width, s.quantity, s.minQuantity,
+	        s.hsnNo, s.updatedAt)
+	    FROM Stock s
+	    JOIN s.glass g
+	    WHERE s.shop.id = :shopId
+	    ORDER BY s.standNo ASC, s.id ASC
+	""")
+	Stream<StockView> streamViewsByShopId(Long shopId);
+
+	// 🔹 Paged listing: keyset on (stand_no, id) -> idx_stock_shop_stand_id.
+	// First page has no cursor, so it gets its own query instead of an
+	// "IS NULL OR ..." keyset that would stop the index seek.
+	@Query("""
+	    SELECT new com.glassshop.ai.dto.StockView(
+	        s.id, g.id, g.type, g.thickness, g.unit,
+	        s.standNo, s.height, s.width, s.quantity, s.minQuantity,
+	        s.hsnNo, s.updatedAt)
+	    FROM Stock s
+	    JOIN s.glass g
+	    WHERE s.shop.id = :shopId
+	      AND (:glassType IS NULL OR UPPER(g.type) = UPPER(:glassType))
+	      AND (:thickness IS NULL OR g.thickness = :thickness)
+	      AND (:standNo IS NULL OR s.standNo = :standNo)
+	      AND (:lowOnly = false OR s.quantity < s.minQuantity)
+	      AND (:minHeight IS NULL OR s.heightValue >= :minHeight)
+	      AND (:maxHeight IS NULL OR s.heightValue <= :maxHeight)
+	      AND (:minWidth IS NULL OR s.widthValue >= :minWidth)
+	      AND (:maxWidth IS NULL OR s.widthValue <= :maxWidth)
+	    ORDER BY s.standNo ASC, s.id ASC
+	""")
+	List<StockView> findFirstViewPage(
+	        Long shopId,
+	        String glassType,
+	        Integer thickness,
+	        Integer standNo,
+	        boolean lowOnly,
+	        Double minHeight,
+	        Double maxHeight,
+	        Double minWidth,
+	        Double maxWidth,
+	        Pageable pageable);
+
+	// Next pages: rows after (afterStandNo, afterId). The plain
+	// stand_no >= bound is what lets PostgreSQL start the index range scan
+	// at the cursor; the OR only filters rows of that first stand.
+	@Query("""
+	    SELECT new com.glassshop.ai.dto.StockView(
+	        s.id, g.id, g.type, g.thickness, g.unit,
+	        s.standNo, s.height, s.width, s.quantity, s.minQuantity,
+	        s.hsnNo, s.updatedAt)
+	    FROM Stock s
+	    JOIN s.glass g
+	    WHERE s.shop.id = :shopId
+	      AND s.standNo >= :afterStandNo
+	      AND (s.standNo > :afterStandNo OR s.id > :afterId)
+	      AND (:glassType IS NULL OR UPPER(g.type) = UPPER(:glassType))
+	      AND (:thickness IS NULL OR g.thickness = :thickness)
+	      AND (:standNo IS NULL OR s.standNo = :standNo)
+	      AND (:lowOnly = false OR s.quantity < s.minQuantity)
+	      AND (:minHeight IS NULL OR s.heightValue >= :minHeight)
+	      AND (:maxHeight IS NULL OR s.heightValue <= :maxHeight)
+	      AND (:minWidth IS NULL OR s.widthValue >= :minWidth)
+	      AND (:maxWidth IS NULL OR s.widthValue <= :maxWidth)
+	    ORDER BY s.standNo ASC, s.id ASC
+	""")
+	List<StockView> findViewPageAfter(
+	        Long shopId,
+	        int afterStandNo,
+	        Long afterId,
+	        String glassType,
+	        Integer thickness,
+	        Integer standNo,
+	        boolean lowOnly,
+	        Double minHeight,
+	        Double maxHeight,
+	        Double minWidth,
+	        Double maxWidth,
+	        Pageable pageable);
 	List<Stock> findByShop(Shop shop);
 	Optional<Stock> findByGlass_IdAndShop_Id(Long glassId, Long shopId);
 	
 
 	    List<Stock> findTop3ByShopOrderByUpdatedAtDesc(Shop shop);
+	    // 🔒 Stock mutation lookups take a row lock (SELECT ... FOR UPDATE) so
+	    // concurrent ADD / REMOVE / TRANSFER on the same row are serialised
+	    // instead of overwriting each other. Caller must be @Transactional.
+	    @Lock(LockModeType.PESSIMISTIC_WRITE)
 	    Optional<Stock> findByGlassAndStandNoAndShop(
 	    	    Glass glass,
 	    	    int standNo,
 	    	    Shop shop
 	    	);
+	    // 🔒 Bulk update / CSV import: candidate rows of a batch (glass + stand
+	    // narrowed) in one SELECT ... FOR UPDATE, always locked in id order
+	    @Lock(LockModeType.PESSIMISTIC_WRITE)
+	    @Query("""
+	        SELECT s FROM Stock s
+	        WHERE s.shop.id = :shopId
+	          AND s.glass.id IN :glassIds
+	          AND s.standNo IN :standNos
+	        ORDER BY s.id ASC
+	    """)
+	    List<Stock> findForUpdateByShopIdAndGlassIdInAndStandNoIn(
+	            Long shopId, Collection<Long> glassIds, Collection<Integer> standNos);
+
+	    @Lock(LockModeType.PESSIMISTIC_WRITE)
 	    Optional<Stock> findByGlassAndHeightAndWidthAndStandNoAndShop(
 	    	    Glass glass,
 	    	    String height,
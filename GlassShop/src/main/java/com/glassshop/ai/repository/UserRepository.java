@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.glassshop.ai.entity.User;
 
@@ -12,4 +13,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 	Optional<User> findByUserName(String username);
 	List<User> findByShopIdAndRole(Long shopId, String role);
 
+	// 🔹 User + shop in one round-trip (used by JwtFilter to build TenantContext)
+	@Query("""
+	    SELECT u FROM User u
+	    LEFT JOIN FETCH u.shop
+	    WHERE u.userName = :username
+	""")
+	Optional<User> findWithShopByUserName(String username);
+
 }
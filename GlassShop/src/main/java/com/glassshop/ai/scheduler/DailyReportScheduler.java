@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.glassshop.ai.dto.ReportRunSummary;
 import com.glassshop.ai.service.DailyReportService;
 
 /**
@@ -24,8 +25,10 @@ public class DailyReportScheduler {
     public void sendDailyReports() {
         System.out.println("📊 Starting daily report generation at 11:00 PM...");
         try {
-            dailyReportService.generateAndSendReportsForAllShops();
-            System.out.println("✅ Daily reports sent successfully");
+            ReportRunSummary summary = dailyReportService.generateAndSendReportsForAllShops();
+            System.out.println("✅ Daily reports finished: " + summary);
+            summary.getFailures().forEach((shopId, error) ->
+                    System.err.println("❌ Daily report failed for shop " + shopId + ": " + error));
         } catch (Exception e) {
             System.err.println("❌ Error sending daily reports: " + e.getMessage());
             e.printStackTrace();
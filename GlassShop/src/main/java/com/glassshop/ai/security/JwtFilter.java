@@ -15,6 +15,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.glassshop.ai.repository.UserRepository;
 import com.glassshop.ai.security.JwtUtil;
 
 import java.util.List;
@@ -25,6 +26,9 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -78,6 +82,11 @@ public class JwtFilter extends OncePerRequestFilter {
 
                     SecurityContextHolder.getContext()
                             .setAuthentication(authentication);
+
+                    // ✅ RESOLVE USER + SHOP ONCE PER REQUEST
+                    userRepository.findWithShopByUserName(username)
+                            .map(TenantContext::snapshotOf)
+                            .ifPresent(TenantContext::set);
                 }
 
             } catch (Exception e) {
@@ -86,6 +95,11 @@ public class JwtFilter extends OncePerRequestFilter {
             }
         }
 
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // ✅ Never leak tenant across pooled threads
+            TenantContext.clear();
+        }
     }
 }
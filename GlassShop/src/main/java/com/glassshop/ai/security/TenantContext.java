@@ -0,0 +1,131 @@
+package com.glassshop.ai.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.User;
+import com.glassshop.ai.repository.UserRepository;
+
+/**
+ * Per-request tenant snapshot (user + shop).
+ *
+ * JwtFilter resolves the logged-in user ONCE per request and stores it here,
+ * so services don't have to hit UserRepository on every call.
+ * The Shop held here is a detached copy - safe to use as an association
+ * reference (audit log, stock, quotation...) but not a managed entity.
+ */
+public final class TenantContext {
+
+    private static final ThreadLocal<TenantContext> CURRENT = new ThreadLocal<>();
+
+    private final Long userId;
+    private final String userName;
+    private final String role;
+    private final Long shopId;
+    private final Shop shop;
+
+    private TenantContext(Long userId, String userName, String role, Shop shop) {
+        this.userId = userId;
+        this.userName = userName;
+        this.role = role;
+        this.shop = shop;
+        this.shopId = shop != null ? shop.getId() : null;
+    }
+
+    /* ===============================
+       HOLDER
+       =============================== */
+
+    public static void set(TenantContext tenant) {
+        CURRENT.set(tenant);
+    }
+
+    public static TenantContext get() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Build a request snapshot with a detached copy of the user's shop
+     * (used by JwtFilter)
+     */
+    public static TenantContext snapshotOf(User user) {
+        return new TenantContext(
+                user.getId(),
+                user.getUserName(),
+                user.getRole(),
+                copyOf(user.getShop())
+        );
+    }
+
+    /**
+     * Wrap a user loaded by the caller (shop reference is kept as-is)
+     */
+    public static TenantContext of(User user) {
+        return new TenantContext(user.getId(), user.getUserName(), user.getRole(), user.getShop());
+    }
+
+    /**
+     * Current tenant for the authenticated user.
+     * Uses the snapshot populated by JwtFilter; falls back to a single
+     * UserRepository lookup when no snapshot exists (scheduled jobs, tests,
+     * requests that did not go through the JWT filter).
+     *
+     * @return tenant, or null if not authenticated / user not found
+     */
+    public static TenantContext resolve(UserRepository userRepository) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
+            return null;
+        }
+
+        TenantContext tenant = CURRENT.get();
+        if (tenant != null && auth.getName().equals(tenant.getUserName())) {
+            return tenant;
+        }
+
+        return userRepository.findByUserName(auth.getName())
+                .map(TenantContext::of)
+                .orElse(null);
+    }
+
+    private static Shop copyOf(Shop shop) {
+        if (shop == null) {
+            return null;
+        }
+        Shop copy = new Shop();
+        copy.setId(shop.getId());
+        copy.setShopName(shop.getShopName());
+        copy.setOwnerName(shop.getOwnerName());
+        copy.setEmail(shop.getEmail());
+        copy.setWhatsappNumber(shop.getWhatsappNumber());
+        copy.setCreatedAt(shop.getCreatedAt());
+        return copy;
+    }
+
+    /* ===== GETTERS ===== */
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Long getShopId() {
+        return shopId;
+    }
+
+    public Shop getShop() {
+        return shop;
+    }
+}
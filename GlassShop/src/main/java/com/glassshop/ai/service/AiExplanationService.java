@@ -5,18 +5,26 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.glassshop.ai.entity.Stock;
-import com.glassshop.ai.repository.StockRepository;
+import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class AiExplanationService {
 
     @Autowired
-    private StockRepository stockRepository;
+    private LowStockTracker lowStockTracker;
+
+    @Autowired
+    private UserRepository userRepository;
 
     public String explainLowStock() {
 
-        List<Stock> lowStocks = stockRepository.findLowStock();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShopId() == null) {
+            return "❌ User is not linked to any shop";
+        }
+
+        List<LowStockTracker.LowStockItem> lowStocks = lowStockTracker.getLowStock(tenant.getShopId());
 
         if (lowStocks.isEmpty()) {
             return "✅ All glass stock levels are healthy. No action required.";
@@ -24,15 +32,15 @@ public class AiExplanationService {
 
         StringBuilder explanation = new StringBuilder();
 
-        for (Stock s : lowStocks) {
-            if (s.getGlass() == null) continue;
+        for (LowStockTracker.LowStockItem s : lowStocks) {
+            if (s.getGlassType() == null) continue;
 
             int reorderQty =
                 (s.getMinQuantity() * 3) - s.getQuantity();
 
             explanation.append("🧠 AI Insight:\n")
                        .append("The stock of ")
-                       .append(s.getGlass().getType())
+                       .append(s.getGlassType())
                        .append(" glass at stand ")
                        .append(s.getStandNo())
                        .append(" is running low.\n")
@@ -14,10 +14,10 @@ import org.springframework.stereotype.Service;
 import com.glassshop.ai.entity.AuditLog;
 import com.glassshop.ai.entity.Shop;
 import com.glassshop.ai.entity.Stock;
-import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.AuditLogRepository;
 import com.glassshop.ai.repository.StockRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 /**
  * AI Stock Advisor Service
@@ -298,10 +298,9 @@ public class AiStockAdvisorService {
             return null;
         }
 
-        String username = auth.getName();
-        User user = userRepository.findByUserName(username).orElse(null);
+        TenantContext tenant = TenantContext.resolve(userRepository);
         
-        return (user != null) ? user.getShop() : null;
+        return (tenant != null) ? tenant.getShop() : null;
     }
 
     /**
@@ -5,39 +5,48 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.glassshop.ai.entity.Stock;
-import com.glassshop.ai.repository.StockRepository;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class AlertService {
 
     @Autowired
-    private StockRepository stockRepository;
+    private LowStockTracker lowStockTracker;
+
+    @Autowired
+    private UserRepository userRepository;
     
     @Autowired
-    private EmailService emailService;
+    private NotificationOutboxService notificationOutboxService;
 
     /**
-     * Check low stock and send email alerts (async - non-blocking)
+     * Check the caller's shop for low stock and queue one email alert (outbox - non-blocking)
      */
     public String checkLowStockOnly() {
 
-        List<Stock> lowStocks = stockRepository.findLowStock();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShop() == null) {
+            return "❌ User is not linked to any shop";
+        }
+        Shop shop = tenant.getShop();
+
+        List<LowStockTracker.LowStockItem> lowStocks = lowStockTracker.getLowStock(shop.getId());
 
         if (lowStocks.isEmpty()) {
             return "✅ All glass stock levels are healthy.";
         }
 
         StringBuilder alertMsg = new StringBuilder("⚠ LOW STOCK ALERT\n\n");
-        
-        // Track shops to send emails to (avoid duplicate emails)
-        java.util.Set<String> emailsSent = new java.util.HashSet<>();
+        StringBuilder emailMessage = new StringBuilder("LOW STOCK ALERT 🚨\n\n")
+                .append("Shop: ").append(shop.getShopName()).append("\n\n");
 
-        for (Stock s : lowStocks) {
-            if (s.getGlass() == null || s.getShop() == null) continue;
+        for (LowStockTracker.LowStockItem s : lowStocks) {
+            if (s.getGlassType() == null) continue;
 
             alertMsg.append("Glass: ")
-                    .append(s.getGlass().getType())
+                    .append(s.getGlassType())
                     .append("\nStand: ")
                     .append(s.getStandNo())
                     .append("\nHeight: ")
@@ -49,23 +58,21 @@ public class AlertService {
                     .append("\nMinimum: ")
                     .append(s.getMinQuantity())
                     .append("\n\n");
-            
-            // Send email alert for each low stock item (async - non-blocking)
-            String shopEmail = s.getShop().getEmail();
-            if (shopEmail != null && !shopEmail.isEmpty() && !emailsSent.contains(shopEmail)) {
-                String emailMessage = "LOW STOCK ALERT 🚨\n\n" +
-                    "Shop: " + s.getShop().getShopName() + "\n" +
-                    "Glass: " + s.getGlass().getType() + "\n" +
-                    "Stand: " + s.getStandNo() + "\n" +
-                    "Height: " + (s.getHeight() != null ? s.getHeight() : "N/A") + "\n" +
-                    "Width: " + (s.getWidth() != null ? s.getWidth() : "N/A") + "\n" +
-                    "Quantity Left: " + s.getQuantity() + "\n" +
-                    "Minimum Required: " + s.getMinQuantity() + "\n\n" +
-                    "Please reorder stock immediately!";
-                
-                emailService.sendLowStockAlert(shopEmail, emailMessage);
-                emailsSent.add(shopEmail);
-            }
+
+            emailMessage.append("Glass: ").append(s.getGlassType())
+                    .append(" | Stand: ").append(s.getStandNo())
+                    .append(" | Size: ").append(s.getHeight() != null ? s.getHeight() : "N/A")
+                    .append(" x ").append(s.getWidth() != null ? s.getWidth() : "N/A")
+                    .append(" | Left: ").append(s.getQuantity())
+                    .append(" (min ").append(s.getMinQuantity()).append(")\n");
+        }
+
+        // One email for the whole shop (outbox - sent by NotificationDispatcher)
+        String shopEmail = shop.getEmail();
+        if (shopEmail != null && !shopEmail.isEmpty()) {
+            emailMessage.append("\nPlease reorder stock immediately!");
+            notificationOutboxService.enqueueEmail(
+                    shop.getId(), shopEmail, EmailService.LOW_STOCK_SUBJECT, emailMessage.toString());
         }
 
         return alertMsg.toString();
@@ -0,0 +1,441 @@
+package com.glassshop.ai.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compressed, immutable segment file for archived rows (see ColdArchiveService).
+ *
+ * Layout:
+ *   header  [int MAGIC][byte VERSION][byte codec id]
+ *   blocks  [int compressed length][int raw length][int rows][deflated rows...]
+ *   index   [int blocks] then per block [long first ts][long last ts][long offset][int rows]
+ *   footer  [long index offset][int MAGIC]
+ *
+ * Rows are appended in timestamp order (epoch micros, UTC wall clock) and
+ * cut into blocks of about archive.block-size-bytes raw. The index is
+ * sparse - one entry per block - so a range read binary-searches it and
+ * inflates only the blocks that overlap. Readers memory-map the file.
+ */
+public final class ArchiveSegment {
+
+    static final int MAGIC = 0x47534131; // "GSA1"
+    static final byte VERSION = 1;
+
+    private static final int HEADER_BYTES = 6;
+    private static final int FOOTER_BYTES = 12;
+    private static final int INDEX_ENTRY_BYTES = 28;
+
+    private ArchiveSegment() {
+    }
+
+    /**
+     * Row (de)serialization for one kind of archived row
+     */
+    public interface Codec<T> {
+
+        byte id();
+
+        long timestamp(T row);
+
+        void write(DataOutput out, T row) throws IOException;
+
+        T read(DataInput in) throws IOException;
+    }
+
+    public static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /* ===============================
+       NULLABLE FIELD HELPERS (FOR CODECS)
+       =============================== */
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public static void writeInteger(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    public static Integer readInteger(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    public static void writeDouble(DataOutput out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    public static Double readDouble(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    /* ===============================
+       WRITER
+       =============================== */
+
+    /**
+     * Writes one segment to a temp file and moves it into place on close(),
+     * so readers never see a half-written segment. close() returns only once
+     * the segment and the rename are on disk. Not thread-safe.
+     */
+    public static class Writer<T> implements Closeable {
+
+        private final Path target;
+        private final Path temp;
+        private final Codec<T> codec;
+        private final int blockBytes;
+        private final FileChannel channel;
+
+        private final ByteArrayOutputStream block = new ByteArrayOutputStream();
+        private final DataOutputStream blockOut = new DataOutputStream(block);
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        private final DataOutputStream indexOut = new DataOutputStream(index);
+
+        private int blockRows;
+        private long blockFirst;
+        private long blockLast = Long.MIN_VALUE;
+        private int blocks;
+        private long rows;
+        private boolean closed;
+
+        public Writer(Path target, Codec<T> codec, int blockBytes) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.codec = codec;
+            this.blockBytes = blockBytes;
+            Files.createDirectories(target.getParent());
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).put(VERSION).put(codec.id()).flip();
+            writeFully(header);
+        }
+
+        public void append(T row) throws IOException {
+            long ts = codec.timestamp(row);
+            if (ts < blockLast) {
+                throw new IllegalStateException("❌ Archive rows must be appended in time order");
+            }
+            if (blockRows == 0) {
+                blockFirst = ts;
+            }
+            codec.write(blockOut, row);
+            blockLast = ts;
+            blockRows++;
+            rows++;
+            if (block.size() >= blockBytes) {
+                flushBlock();
+            }
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        private void flushBlock() throws IOException {
+            if (blockRows == 0) {
+                return;
+            }
+            byte[] raw = block.toByteArray();
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                compressed.write(chunk, 0, n);
+            }
+
+            long offset = channel.position();
+            ByteBuffer blockHeader = ByteBuffer.allocate(12);
+            blockHeader.putInt(compressed.size()).putInt(raw.length).putInt(blockRows).flip();
+            writeFully(blockHeader);
+            writeFully(ByteBuffer.wrap(compressed.toByteArray()));
+
+            indexOut.writeLong(blockFirst);
+            indexOut.writeLong(blockLast);
+            indexOut.writeLong(offset);
+            indexOut.writeInt(blockRows);
+            blocks++;
+
+            block.reset();
+            blockRows = 0;
+        }
+
+        /**
+         * Finish the segment: last block, index, footer, fsync, move into place,
+         * fsync the directory
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flushBlock();
+                long indexOffset = channel.position();
+                ByteBuffer count = ByteBuffer.allocate(4);
+                count.putInt(blocks).flip();
+                writeFully(count);
+                writeFully(ByteBuffer.wrap(index.toByteArray()));
+                ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+                footer.putLong(indexOffset).putInt(MAGIC).flip();
+                writeFully(footer);
+                channel.force(true);
+            } finally {
+                channel.close();
+                deflater.end();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // The rename only lives in the directory entry: sync the file and
+            // its directory so the segment survives a crash once the caller
+            // drops the source rows
+            try (FileChannel published = FileChannel.open(target, StandardOpenOption.READ)) {
+                published.force(true);
+            }
+            syncDirectory(target.getParent());
+        }
+
+        /**
+         * Drop the temp file (segment is not published)
+         */
+        public void abort() {
+            closed = true;
+            try {
+                channel.close();
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                System.err.println("❌ Could not remove " + temp + ": " + e.getMessage());
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows cannot open a directory; NTFS journals the rename itself
+        }
+    }
+
+    /* ===============================
+       READER
+       =============================== */
+
+    /**
+     * Memory-mapped, read-only view of one segment. Safe to share between threads.
+     */
+    public static class Reader<T> {
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final Codec<T> codec;
+        private final long[] first;
+        private final long[] last;
+        private final long[] offsets;
+
+        private Reader(Path path, MappedByteBuffer buffer, Codec<T> codec,
+                       long[] first, long[] last, long[] offsets) {
+            this.path = path;
+            this.buffer = buffer;
+            this.codec = codec;
+            this.first = first;
+            this.last = last;
+            this.offsets = offsets;
+        }
+
+        public static <T> Reader<T> open(Path path, Codec<T> codec) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_BYTES + 4 + FOOTER_BYTES || size > Integer.MAX_VALUE) {
+                    throw new IOException("❌ Not an archive segment: " + path);
+                }
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+
+            if (buffer.getInt(0) != MAGIC || buffer.get(4) != VERSION) {
+                throw new IOException("❌ Not an archive segment: " + path);
+            }
+            if (buffer.get(5) != codec.id()) {
+                throw new IOException("❌ Archive segment " + path + " holds a different row type");
+            }
+            int footer = buffer.capacity() - FOOTER_BYTES;
+            if (buffer.getInt(footer + 8) != MAGIC) {
+                throw new IOException("❌ Archive segment is truncated: " + path);
+            }
+
+            int pos = (int) buffer.getLong(footer);
+            int blocks = buffer.getInt(pos);
+            pos += 4;
+            long[] first = new long[blocks];
+            long[] last = new long[blocks];
+            long[] offsets = new long[blocks];
+            for (int i = 0; i < blocks; i++, pos += INDEX_ENTRY_BYTES) {
+                first[i] = buffer.getLong(pos);
+                last[i] = buffer.getLong(pos + 8);
+                offsets[i] = buffer.getLong(pos + 16);
+            }
+            return new Reader<>(path, buffer, codec, first, last, offsets);
+        }
+
+        public int getBlockCount() {
+            return offsets.length;
+        }
+
+        /**
+         * Rows with from <= ts < to (epoch micros), oldest first
+         */
+        public List<T> read(long fromMicros, long toMicros) throws IOException {
+            List<T> result = new ArrayList<>();
+            for (int b = firstBlockFrom(fromMicros); b < offsets.length && first[b] < toMicros; b++) {
+                for (T row : decode(b)) {
+                    long ts = codec.timestamp(row);
+                    if (ts >= fromMicros && ts < toMicros) {
+                        result.add(row);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Visit rows with from <= ts < to (epoch micros), newest first,
+         * until the visitor returns false.
+         * @return false if the visitor stopped the scan
+         */
+        public boolean scanBackward(long fromMicros, long toMicros, Predicate<T> visitor) throws IOException {
+            for (int b = lastBlockBefore(toMicros); b >= 0 && last[b] >= fromMicros; b--) {
+                List<T> rows = decode(b);
+                for (int i = rows.size() - 1; i >= 0; i--) {
+                    T row = rows.get(i);
+                    long ts = codec.timestamp(row);
+                    if (ts >= fromMicros && ts < toMicros && !visitor.test(row)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // first block whose last ts >= from (last[] is ascending)
+        private int firstBlockFrom(long fromMicros) {
+            int lo = 0;
+            int hi = last.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (last[mid] < fromMicros) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        // last block whose first ts < to (first[] is ascending)
+        private int lastBlockBefore(long toMicros) {
+            int lo = 0;
+            int hi = first.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (first[mid] < toMicros) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo - 1;
+        }
+
+        private List<T> decode(int block) throws IOException {
+            int pos = (int) offsets[block];
+            int compressedLength = buffer.getInt(pos);
+            int rawLength = buffer.getInt(pos + 4);
+            int rows = buffer.getInt(pos + 8);
+
+            byte[] raw = new byte[rawLength];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buffer.slice(pos + 12, compressedLength));
+                int n = 0;
+                while (n < rawLength && !inflater.finished()) {
+                    int read = inflater.inflate(raw, n, rawLength - n);
+                    if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    n += read;
+                }
+                if (n != rawLength) {
+                    throw new IOException("❌ Corrupt block " + block + " in " + path);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("❌ Corrupt block " + block + " in " + path, e);
+            } finally {
+                inflater.end();
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+            List<T> result = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                result.add(codec.read(in));
+            }
+            return result;
+        }
+    }
+}
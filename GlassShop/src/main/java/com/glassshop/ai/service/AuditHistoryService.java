@@ -0,0 +1,171 @@
+package com.glassshop.ai.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.glassshop.ai.dto.AuditFilter;
+import com.glassshop.ai.dto.AuditLogView;
+import com.glassshop.ai.dto.AuditPageResponse;
+import com.glassshop.ai.repository.AuditLogRepository;
+import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
+
+/**
+ * Paged, filtered audit history for the current shop, newest first.
+ *
+ * Keyset pagination on (timestamp, id): each page is one index range scan
+ * on idx_audit_log_shop_timestamp, however deep the client pages. Open
+ * date bounds are replaced by fixed sentinels so the query always carries
+ * a plain timestamp range (partition pruning, see V12).
+ *
+ * Months already moved to the cold archive are older than anything left
+ * in audit_log, so when the table runs out the page is filled from the
+ * archive segments with the same keyset and filters (ColdArchiveService).
+ */
+@Service
+public class AuditHistoryService {
+
+    // Bounds used when the client gives no date range
+    static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0);
+    static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final Set<String> ACTIONS = Set.of("ADD", "REMOVE", "TRANSFER");
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ColdArchiveService coldArchiveService;
+
+    @Value("${audit.history.max-page-size:200}")
+    private int maxPageSize = 200;
+
+    /**
+     * One page of the shop's audit history.
+     * cursor = nextCursor of the previous page, null for the first page.
+     */
+    public AuditPageResponse getPage(AuditFilter filter, String cursor, int limit) {
+
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShopId() == null) {
+            return new AuditPageResponse(List.of(), null);
+        }
+
+        if (filter == null) {
+            filter = new AuditFilter();
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        String action = blankToNull(filter.getAction());
+        if (action != null) {
+            action = action.toUpperCase();
+            if (!ACTIONS.contains(action)) {
+                throw new IllegalArgumentException("❌ Action must be one of " + ACTIONS);
+            }
+        }
+
+        LocalDateTime from = filter.getFrom() != null ? filter.getFrom().atStartOfDay() : MIN_TIMESTAMP;
+
+        // Upper bound is exclusive: end of the "to" day, or the last row of the previous page
+        LocalDateTime beforeTimestamp = filter.getTo() != null ? filter.getTo().plusDays(1).atStartOfDay() : MAX_TIMESTAMP;
+        long beforeId = Long.MIN_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            Position position = decodeCursor(cursor);
+            if (position.timestamp.isBefore(beforeTimestamp)) {
+                beforeTimestamp = position.timestamp;
+                beforeId = position.id;
+            }
+        }
+
+        String username = blankToNull(filter.getUsername());
+        String glassType = blankToNull(filter.getGlassType());
+        Integer standNo = filter.getStandNo();
+
+        // fetch one extra row to know whether there is a next page
+        List<AuditLogView> rows = auditLogRepository.findViewPage(
+                tenant.getShopId(),
+                from,
+                beforeTimestamp,
+                beforeId,
+                action,
+                username,
+                glassType,
+                standNo,
+                PageRequest.of(0, pageSize + 1));
+
+        if (rows.size() <= pageSize) {
+            // audit_log exhausted - continue in the archived months
+            List<AuditLogView> archived = coldArchiveService.scanAudit(tenant.getShopId(), from,
+                    beforeTimestamp, beforeId, matches(action, username, glassType, standNo),
+                    pageSize + 1 - rows.size());
+            if (!archived.isEmpty()) {
+                rows = new ArrayList<>(rows);
+                rows.addAll(archived);
+            }
+        }
+
+        if (rows.size() <= pageSize) {
+            return new AuditPageResponse(rows, null);
+        }
+
+        List<AuditLogView> page = rows.subList(0, pageSize);
+        AuditLogView last = page.get(pageSize - 1);
+        return new AuditPageResponse(new ArrayList<>(page), encodeCursor(last.getTimestamp(), last.getId()));
+    }
+
+    // Same filters as AuditLogRepository.findViewPage, for archived rows
+    private static Predicate<AuditLogView> matches(String action, String username, String glassType,
+                                                   Integer standNo) {
+        return row -> (action == null || action.equals(row.getAction()))
+                && (username == null || username.equalsIgnoreCase(row.getUsername()))
+                && (glassType == null || glassType.equalsIgnoreCase(row.getGlassType()))
+                && (standNo == null || standNo.equals(row.getStandNo())
+                        || standNo.equals(row.getFromStand()) || standNo.equals(row.getToStand()));
+    }
+
+    private static String blankToNull(String value) {
+        return value != null && !value.isBlank() ? value.trim() : null;
+    }
+
+    /**
+     * Position of the last row of a page
+     */
+    static class Position {
+        final LocalDateTime timestamp;
+        final long id;
+
+        Position(LocalDateTime timestamp, long id) {
+            this.timestamp = timestamp;
+            this.id = id;
+        }
+    }
+
+    // Opaque to the client: base64url("timestamp|id"), timestamp in ISO form (keeps microseconds)
+    static String encodeCursor(LocalDateTime timestamp, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Position decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            return new Position(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("❌ Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.glassshop.ai.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.dto.AuditWriterStats;
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.repository.AuditLogRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Off-request-thread writer for audit_log.
+ *
+ * submit() hands rows to a bounded queue once the caller's transaction
+ * commits (rolled-back changes leave no audit row). A single "audit-writer"
+ * thread flushes the queue when audit.writer.batch-size rows are waiting
+ * or audit.writer.flush-interval-ms after the first one, as one JDBC batch
+ * (pooled sequence ids, hibernate.jdbc.batch_size) in its own transaction.
+ *
+ * Backpressure: if the queue stays full for audit.writer.offer-timeout-ms
+ * the caller writes its rows itself - nothing is dropped, the request just
+ * pays for the I/O (counted in syncWrites). On shutdown the queue is
+ * drained before the datasource goes away.
+ *
+ * The per-shop activity counters are bumped in the same transaction as
+ * the insert, so they always match audit_log.
+ */
+@Service
+public class AuditLogWriter {
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShopActivityCounterService shopActivityCounterService;
+
+    @Value("${audit.writer.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${audit.writer.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${audit.writer.flush-interval-ms:200}")
+    private long flushIntervalMs = 200;
+
+    @Value("${audit.writer.offer-timeout-ms:50}")
+    private long offerTimeoutMs = 50;
+
+    @Value("${audit.writer.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs = 30000;
+
+    private BlockingQueue<AuditLog> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong syncWrites = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile long lastBatchMillis;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = new Thread(this::run, "audit-writer");
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        try {
+            worker.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // anything that slipped in after the worker finished
+        List<AuditLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+        System.out.println("✅ Audit writer stopped: " + written.get() + " rows written, "
+                + failed.get() + " failed");
+    }
+
+    /* ===============================
+       SUBMIT (REQUEST THREAD)
+       =============================== */
+
+    public void submit(AuditLog log) {
+        submitAll(List.of(log));
+    }
+
+    public void submitAll(Collection<AuditLog> logs) {
+        if (logs == null || logs.isEmpty()) {
+            return;
+        }
+        List<AuditLog> copy = new ArrayList<>(logs);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(copy);
+                }
+            });
+        } else {
+            enqueue(copy);
+        }
+    }
+
+    private void enqueue(List<AuditLog> logs) {
+        submitted.addAndGet(logs.size());
+        List<AuditLog> overflow = new ArrayList<>();
+        for (AuditLog log : logs) {
+            boolean queued = false;
+            if (running) {
+                try {
+                    queued = queue.offer(log, offerTimeoutMs, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                // raced with shutdown - take it back unless the worker already has it
+                if (queued && !running && queue.remove(log)) {
+                    queued = false;
+                }
+            }
+            if (!queued) {
+                overflow.add(log);
+            }
+        }
+        if (!overflow.isEmpty()) {
+            syncWrites.addAndGet(overflow.size());
+            write(overflow);
+        }
+    }
+
+    /* ===============================
+       FLUSH (WRITER THREAD)
+       =============================== */
+
+    private void run() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // fill up to batch-size, but never hold the first row longer than the interval
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    AuditLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                // keep draining - stop() ends the loop through running=false
+            } catch (RuntimeException e) {
+                System.err.println("❌ Audit writer error: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert rows as one batch; if that fails, row by row so one bad row
+     * doesn't lose the others
+     */
+    private void write(List<AuditLog> logs) {
+        long started = System.currentTimeMillis();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        // never join a caller's (already committed) transaction
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            tx.executeWithoutResult(status -> {
+                auditLogRepository.saveAll(logs);
+                shopActivityCounterService.recordAll(logs);
+            });
+            written.addAndGet(logs.size());
+        } catch (RuntimeException e) {
+            System.err.println("❌ Audit batch of " + logs.size() + " failed, retrying row by row: " + e.getMessage());
+            for (AuditLog log : logs) {
+                try {
+                    log.setId(null); // ids handed out to the rolled-back batch
+                    tx.executeWithoutResult(status -> {
+                        auditLogRepository.save(log);
+                        shopActivityCounterService.recordAll(List.of(log));
+                    });
+                    written.incrementAndGet();
+                } catch (RuntimeException rowError) {
+                    failed.incrementAndGet();
+                    System.err.println("❌ Audit row lost (" + log.getAction() + " " + log.getGlassType()
+                            + " stand " + log.getStandNo() + "): " + rowError.getMessage());
+                }
+            }
+        }
+        batches.incrementAndGet();
+        lastBatchMillis = System.currentTimeMillis() - started;
+    }
+
+    public AuditWriterStats getStats() {
+        return new AuditWriterStats(queue.size(), queueCapacity, submitted.get(), written.get(),
+                syncWrites.get(), failed.get(), batches.get(), lastBatchMillis);
+    }
+}
@@ -0,0 +1,174 @@
+package com.glassshop.ai.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the monthly partitions of audit_log (see V12) in shape.
+ *
+ * Runs at startup and nightly:
+ *  - creates audit_log_pYYYY_MM for the current month and the next
+ *    audit.partition.months-ahead months. Rows that already landed in
+ *    audit_log_default for such a month are moved into the new partition.
+ *  - detaches partitions older than audit.retention.months and moves them
+ *    to the audit_archive schema (still queryable there, but no longer
+ *    scanned or indexed as part of audit_log). 0 keeps everything.
+ *
+ * Does nothing if audit_log is not a partitioned table (H2 tests, or V12
+ * not applied yet).
+ */
+@Service
+public class AuditPartitionMaintenanceService {
+
+    static final String ARCHIVE_SCHEMA = "audit_archive";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("audit_log_p(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${audit.partition.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    @Value("${audit.retention.months:24}")
+    private int retentionMonths = 24;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${audit.partition.maintenance-cron:0 30 2 * * ?}")
+    public void maintain() {
+        try {
+            maintain(LocalDate.now());
+        } catch (RuntimeException e) {
+            System.err.println("❌ Audit partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    void maintain(LocalDate today) {
+        if (!isPartitioned()) {
+            return;
+        }
+        List<String> existing = listPartitions();
+
+        YearMonth current = YearMonth.from(today);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(partitionName(month))) {
+                createPartition(month);
+            }
+        }
+
+        if (retentionMonths > 0) {
+            // keep the current month plus retentionMonths full months before it
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            for (String name : existing) {
+                YearMonth month = parseMonth(name);
+                if (month != null && month.isBefore(oldestKept)) {
+                    archivePartition(name);
+                }
+            }
+        }
+    }
+
+    private boolean isPartitioned() {
+        try {
+            Integer count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('audit_log')
+            """, Integer.class);
+            return count != null && count > 0;
+        } catch (RuntimeException e) {
+            return false; // not PostgreSQL
+        }
+    }
+
+    private List<String> listPartitions() {
+        return new ArrayList<>(jdbcTemplate.queryForList("""
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('audit_log')
+            ORDER BY c.relname
+        """, String.class));
+    }
+
+    /**
+     * Create one month. If audit_log_default already holds rows for it,
+     * the default partition is detached while they are moved, all in one
+     * transaction.
+     */
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String create = "CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF audit_log FOR VALUES FROM ('"
+                + from + "') TO ('" + to + "')";
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Boolean stray = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (SELECT 1 FROM audit_log_default WHERE timestamp >= ? AND timestamp < ?)
+            """, Boolean.class, from, to);
+
+            if (!Boolean.TRUE.equals(stray)) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+
+            jdbcTemplate.execute("ALTER TABLE audit_log DETACH PARTITION audit_log_default");
+            jdbcTemplate.execute(create);
+            int moved = jdbcTemplate.update("""
+                WITH moved AS (
+                    DELETE FROM audit_log_default WHERE timestamp >= ? AND timestamp < ? RETURNING *
+                )
+                INSERT INTO audit_log SELECT * FROM moved
+            """, from, to);
+            jdbcTemplate.execute("ALTER TABLE audit_log ATTACH PARTITION audit_log_default DEFAULT");
+            System.out.println("⚠ Moved " + moved + " audit rows from audit_log_default to " + name);
+        });
+        System.out.println("✅ Audit partition created: " + name);
+    }
+
+    private void archivePartition(String name) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE audit_log DETACH PARTITION " + name);
+            jdbcTemplate.execute("ALTER TABLE " + name + " SET SCHEMA " + ARCHIVE_SCHEMA);
+        });
+        System.out.println("✅ Audit partition archived: " + ARCHIVE_SCHEMA + "." + name);
+    }
+
+    static String partitionName(YearMonth month) {
+        return "audit_log_p" + month.format(NAME_FORMAT);
+    }
+
+    // null for audit_log_default or anything not created by V12 / this job
+    static YearMonth parseMonth(String partitionName) {
+        Matcher m = PARTITION_NAME.matcher(partitionName);
+        if (!m.matches()) {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+    }
+}
@@ -0,0 +1,437 @@
+package com.glassshop.ai.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import com.glassshop.ai.dto.BulkPdfExportRequest;
+import com.glassshop.ai.entity.Invoice;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.repository.InvoiceRepository;
+import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
+
+/**
+ * Month-end batch printing of invoices / challans.
+ *
+ * prepare() runs on the request thread (tenant + shop checks, all selected
+ * invoices loaded with one query, one PdfService.prepare* per document).
+ * write() renders the documents on the bounded pdfBulkExecutor, a few at a
+ * time, into scratch files and emits them in order as they complete:
+ *  - ZIP: each entry is streamed to the client as soon as it is ready
+ *  - PDF: rendered files are merged with PDFMergerUtility (scratch-file
+ *         backed) and the merged document is written at the end
+ *
+ * Render failures are only known once the response is under way, so every
+ * skipped document is reported in the body: errors.txt in the ZIP, a
+ * trailing "Skipped documents" page in the merged PDF.
+ */
+@Service
+public class BulkPdfExportService {
+
+    public static final Set<String> DOCUMENT_TYPES =
+            Set.of("INVOICE", "BASIC_INVOICE", "TRANSPORT_CHALLAN", "DELIVERY_CHALLAN");
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    @Qualifier("pdfBulkExecutor")
+    private ThreadPoolTaskExecutor pdfBulkExecutor;
+
+    @Value("${pdf.bulk.max-documents:500}")
+    private int maxDocuments;
+
+    @Value("${pdf.render.max-main-memory-bytes:8388608}")
+    private long maxMainMemoryBytes;
+
+    @Value("${pdf.render.scratch-dir:}")
+    private String scratchDir;
+
+    /**
+     * Documents selected for one export, ready to render
+     */
+    public static class BulkPdfExport {
+
+        private final boolean zip;
+        private final String fileName;
+        private final List<Document> documents;
+        private final List<String> failures;
+
+        BulkPdfExport(boolean zip, String fileName, List<Document> documents, List<String> failures) {
+            this.zip = zip;
+            this.fileName = fileName;
+            this.documents = documents;
+            this.failures = failures;
+        }
+
+        public boolean isZip() {
+            return zip;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getDocumentCount() {
+            return documents.size();
+        }
+
+        public List<String> getFailures() {
+            return failures;
+        }
+    }
+
+    private static class Document {
+        final String fileName;
+        final PdfWriter writer;
+
+        Document(String fileName, PdfWriter writer) {
+            this.fileName = fileName;
+            this.writer = writer;
+        }
+    }
+
+    private static class Pending {
+        final Document document;
+        final Future<Path> file;
+
+        Pending(Document document, Future<Path> file) {
+            this.document = document;
+            this.file = file;
+        }
+    }
+
+    /* ===============================
+       PREPARE (REQUEST THREAD)
+       =============================== */
+
+    public BulkPdfExport prepare(BulkPdfExportRequest request) {
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShop() == null) {
+            throw new RuntimeException("Shop not found");
+        }
+
+        String docType = request.getDocumentType() != null
+                ? request.getDocumentType().trim().toUpperCase() : "INVOICE";
+        if (!DOCUMENT_TYPES.contains(docType)) {
+            throw new IllegalArgumentException("Invalid document type. Use one of " + DOCUMENT_TYPES);
+        }
+
+        String format = request.getFormat() != null ? request.getFormat().trim().toUpperCase() : "PDF";
+        if (!format.equals("PDF") && !format.equals("ZIP")) {
+            throw new IllegalArgumentException("Invalid format. Use PDF or ZIP");
+        }
+
+        List<Long> ids = resolveIds(request, tenant.getShopId());
+
+        // one round trip for all invoices (items fetched), only this shop's
+        Map<Long, Invoice> invoices = new HashMap<>();
+        for (Invoice invoice : invoiceRepository.findForPdfByShopIdAndIdIn(tenant.getShopId(), ids)) {
+            invoices.put(invoice.getId(), invoice);
+        }
+
+        List<Document> documents = new ArrayList<>();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        for (Long id : ids) {
+            Invoice invoice = invoices.get(id);
+            if (invoice == null) {
+                failures.add("Invoice " + id + ": Invoice not found");
+                continue;
+            }
+            try {
+                documents.add(new Document(fileName(docType, id), prepareOne(docType, invoice, tenant.getShop())));
+            } catch (RuntimeException e) {
+                failures.add("Invoice " + id + ": " + e.getMessage());
+            }
+        }
+
+        if (documents.isEmpty()) {
+            throw new RuntimeException("No documents to export: " + failures);
+        }
+
+        String name = docType.toLowerCase().replace('_', '-') + "-bulk-" + ids.size()
+                + (format.equals("ZIP") ? ".zip" : ".pdf");
+        return new BulkPdfExport(format.equals("ZIP"), name, documents, failures);
+    }
+
+    private List<Long> resolveIds(BulkPdfExportRequest request, Long shopId) {
+        if (request.getInvoiceIds() != null && !request.getInvoiceIds().isEmpty()) {
+            List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getInvoiceIds()));
+            if (ids.size() > maxDocuments) {
+                throw new IllegalArgumentException("Too many documents (max " + maxDocuments + ")");
+            }
+            return ids;
+        }
+
+        if (request.getFromDate() == null || request.getToDate() == null) {
+            throw new IllegalArgumentException("Provide invoiceIds or fromDate + toDate");
+        }
+        if (request.getFromDate().isAfter(request.getToDate())) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+
+        List<Long> ids = invoiceRepository.findIdsByShopAndInvoiceDateBetween(
+                shopId, request.getFromDate(), request.getToDate(), PageRequest.of(0, maxDocuments + 1));
+        if (ids.isEmpty()) {
+            throw new RuntimeException("No invoices found in the selected date range");
+        }
+        if (ids.size() > maxDocuments) {
+            throw new IllegalArgumentException("Too many documents (max " + maxDocuments + "). Narrow the date range.");
+        }
+        return ids;
+    }
+
+    // Same per-document routines (and cache) as the single download endpoints
+    private PdfWriter prepareOne(String docType, Invoice invoice, Shop shop) {
+        switch (docType) {
+            case "BASIC_INVOICE":
+                return pdfService.prepareBasicInvoicePdf(invoice, shop);
+            case "TRANSPORT_CHALLAN":
+                return pdfService.prepareTransportChallanPdf(invoice, shop);
+            case "DELIVERY_CHALLAN":
+                return pdfService.prepareDeliveryChallanPrintPdf(invoice, shop);
+            default:
+                return pdfService.prepareInvoicePdf(invoice, shop);
+        }
+    }
+
+    private String fileName(String docType, Long id) {
+        switch (docType) {
+            case "BASIC_INVOICE":
+                return "basic-invoice-" + id + ".pdf";
+            case "TRANSPORT_CHALLAN":
+                return "delivery-challan-" + id + ".pdf";
+            case "DELIVERY_CHALLAN":
+                return "delivery-challan-print-" + id + ".pdf";
+            default:
+                return "invoice-" + id + ".pdf";
+        }
+    }
+
+    /* ===============================
+       RENDER + WRITE (STREAMING THREAD)
+       =============================== */
+
+    public void write(BulkPdfExport export, OutputStream out) throws IOException {
+        Path workDir = Files.createTempDirectory(scratchBase(), "bulk-pdf-");
+        try {
+            if (export.zip) {
+                writeZip(export, workDir, out);
+            } else {
+                writeMerged(export, workDir, out);
+            }
+        } finally {
+            deleteRecursively(workDir);
+        }
+
+        if (!export.failures.isEmpty()) {
+            System.err.println("❌ Bulk PDF export skipped " + export.failures.size()
+                    + " document(s): " + export.failures);
+        }
+    }
+
+    private void writeZip(BulkPdfExport export, Path workDir, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+
+        renderInOrder(export, workDir, (document, file) -> {
+            zip.putNextEntry(new ZipEntry(document.fileName));
+            Files.copy(file, zip);
+            zip.closeEntry();
+            zip.flush();
+            Files.deleteIfExists(file);
+        });
+
+        if (!export.failures.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("errors.txt"));
+            zip.write(String.join("\n", export.failures).getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private void writeMerged(BulkPdfExport export, Path workDir, OutputStream out) throws IOException {
+        PDFMergerUtility merger = new PDFMergerUtility();
+        merger.setDestinationStream(out);
+
+        renderInOrder(export, workDir, (document, file) -> merger.addSource(file.toFile()));
+
+        if (!export.failures.isEmpty()) {
+            merger.addSource(writeErrorsPage(export.failures, workDir).toFile());
+        }
+        merger.mergeDocuments(MemoryUsageSetting.setupMixed(maxMainMemoryBytes).setTempDir(workDir.toFile()));
+        out.flush();
+    }
+
+    @FunctionalInterface
+    private interface RenderedConsumer {
+        void accept(Document document, Path file) throws IOException;
+    }
+
+    /**
+     * Render on the worker pool with at most 2 x pool-size documents in
+     * flight, handing each one to the consumer in request order
+     */
+    private void renderInOrder(BulkPdfExport export, Path workDir, RenderedConsumer consumer) throws IOException {
+        int window = Math.max(1, pdfBulkExecutor.getMaxPoolSize() * 2);
+        Deque<Pending> inFlight = new ArrayDeque<>();
+        int next = 0;
+
+        try {
+            while (next < export.documents.size() || !inFlight.isEmpty()) {
+                while (inFlight.size() < window && next < export.documents.size()) {
+                    Document document = export.documents.get(next++);
+                    inFlight.add(new Pending(document, pdfBulkExecutor.submit(() -> render(document, workDir))));
+                }
+
+                Pending pending = inFlight.poll();
+                Path file;
+                try {
+                    file = pending.file.get();
+                } catch (ExecutionException e) {
+                    export.failures.add(pending.document.fileName + ": " + e.getCause().getMessage());
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Bulk PDF export interrupted", e);
+                }
+                consumer.accept(pending.document, file);
+            }
+        } finally {
+            // client went away / write failed - don't keep rendering
+            for (Pending pending : inFlight) {
+                pending.file.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * "Skipped documents" page(s) listing every failure, one per line
+     */
+    private Path writeErrorsPage(List<String> failures, Path workDir) throws IOException {
+        float fontSize = 10;
+        float margin = 50;
+        float lineHeight = 14;
+        PdfTemplates.FontMetrics metrics = PdfTemplates.HELVETICA;
+
+        Path file = Files.createTempFile(workDir, "errors-", ".pdf");
+        try (PDDocument document = new PDDocument()) {
+            PDPageContentStream contentStream = null;
+            float y = 0;
+            List<String> lines = new ArrayList<>();
+            lines.add("Skipped documents (" + failures.size() + ")");
+            lines.add("");
+            synchronized (failures) {
+                for (String failure : failures) {
+                    lines.add(printable(failure));
+                }
+            }
+
+            float maxWidth = PDRectangle.A4.getWidth() - 2 * margin;
+            for (String text : lines) {
+                List<String> wrapped = metrics.wrap(text, fontSize, maxWidth);
+                if (wrapped.isEmpty()) {
+                    wrapped = List.of("");
+                }
+                for (String line : wrapped) {
+                    if (contentStream == null || y < margin) {
+                        if (contentStream != null) {
+                            contentStream.close();
+                        }
+                        PDPage page = new PDPage(PDRectangle.A4);
+                        document.addPage(page);
+                        contentStream = new PDPageContentStream(document, page);
+                        contentStream.setFont(metrics.getFont(), fontSize);
+                        y = page.getMediaBox().getHeight() - margin;
+                    }
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(margin, y);
+                    contentStream.showText(line);
+                    contentStream.endText();
+                    y -= lineHeight;
+                }
+            }
+            contentStream.close();
+            document.save(file.toFile());
+        }
+        return file;
+    }
+
+    // Standard Type1 fonts only encode Latin-1 (WinAnsi) - drop the rest (emoji etc.)
+    private static String printable(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            sb.append((c >= 32 && c < 127) || (c >= 160 && c < 256) ? c : '?');
+        }
+        return sb.toString();
+    }
+
+    private Path render(Document document, Path workDir) throws IOException {
+        Path file = Files.createTempFile(workDir, "doc-", ".pdf");
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file))) {
+            document.writer.writeTo(os);
+        }
+        return file;
+    }
+
+    private Path scratchBase() {
+        if (scratchDir != null && !scratchDir.isBlank()) {
+            return Paths.get(scratchDir);
+        }
+        return Paths.get(System.getProperty("java.io.tmpdir"));
+    }
+
+    private void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {
+                    // best effort - it's a temp dir
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("❌ Could not clean up " + dir + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.glassshop.ai.service;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.dto.AuditLogView;
+import com.glassshop.ai.dto.StockHistoryView;
+
+/**
+ * Cold archive for old audit_log and stock_history rows.
+ *
+ * Nightly, closed months are moved out of PostgreSQL into compressed
+ * segment files (ArchiveSegment), one per shop per month:
+ *   {archive.dir}/audit_log/shop-{id}/{yyyy-MM}.seg
+ *   {archive.dir}/stock_history/shop-{id}/{yyyy-MM}.seg
+ *  - audit_log: the partitions AuditPartitionMaintenanceService detached
+ *    into the audit_archive schema are exported, then dropped.
+ *  - stock_history: months older than archive.stock-history.retention-months
+ *    are exported, then deleted.
+ * Each month is exported and removed in one transaction, and segments
+ * (file and directory entry) are fsynced before the commit. A failed or
+ * repeated run rewrites the same files, so nothing is lost or duplicated.
+ *
+ * scanAudit() serves old ranges to /audit/history and scanStockHistory()
+ * to /audit/stock-history/archived, from memory-mapped segments whose
+ * readers are cached (archive.reader-cache-size).
+ */
+@Service
+public class ColdArchiveService {
+
+    static final String AUDIT = "audit_log";
+    static final String STOCK_HISTORY = "stock_history";
+
+    private static final int FETCH_SIZE = 1000;
+
+    static final ArchiveSegment.Codec<AuditLogView> AUDIT_CODEC = new ArchiveSegment.Codec<>() {
+
+        @Override
+        public byte id() {
+            return 1;
+        }
+
+        @Override
+        public long timestamp(AuditLogView row) {
+            return ArchiveSegment.toMicros(row.getTimestamp());
+        }
+
+        @Override
+        public void write(DataOutput out, AuditLogView row) throws IOException {
+            out.writeLong(row.getId());
+            out.writeLong(ArchiveSegment.toMicros(row.getTimestamp()));
+            ArchiveSegment.writeString(out, row.getUsername());
+            ArchiveSegment.writeString(out, row.getRole());
+            ArchiveSegment.writeString(out, row.getAction());
+            ArchiveSegment.writeString(out, row.getGlassType());
+            out.writeInt(row.getQuantity());
+            ArchiveSegment.writeInteger(out, row.getStandNo());
+            ArchiveSegment.writeInteger(out, row.getFromStand());
+            ArchiveSegment.writeInteger(out, row.getToStand());
+            ArchiveSegment.writeString(out, row.getHeight());
+            ArchiveSegment.writeString(out, row.getWidth());
+            ArchiveSegment.writeString(out, row.getUnit());
+            ArchiveSegment.writeDouble(out, row.getPrice());
+        }
+
+        @Override
+        public AuditLogView read(DataInput in) throws IOException {
+            return new AuditLogView(in.readLong(), ArchiveSegment.fromMicros(in.readLong()),
+                    ArchiveSegment.readString(in), ArchiveSegment.readString(in),
+                    ArchiveSegment.readString(in), ArchiveSegment.readString(in), in.readInt(),
+                    ArchiveSegment.readInteger(in), ArchiveSegment.readInteger(in),
+                    ArchiveSegment.readInteger(in), ArchiveSegment.readString(in),
+                    ArchiveSegment.readString(in), ArchiveSegment.readString(in),
+                    ArchiveSegment.readDouble(in));
+        }
+    };
+
+    static final ArchiveSegment.Codec<StockHistoryView> STOCK_HISTORY_CODEC = new ArchiveSegment.Codec<>() {
+
+        @Override
+        public byte id() {
+            return 2;
+        }
+
+        @Override
+        public long timestamp(StockHistoryView row) {
+            return ArchiveSegment.toMicros(row.getCreatedAt());
+        }
+
+        @Override
+        public void write(DataOutput out, StockHistoryView row) throws IOException {
+            out.writeLong(row.getId());
+            out.writeLong(ArchiveSegment.toMicros(row.getCreatedAt()));
+            out.writeLong(row.getGlassId());
+            out.writeInt(row.getStandNo());
+            out.writeInt(row.getQuantity());
+            ArchiveSegment.writeString(out, row.getAction());
+            ArchiveSegment.writeString(out, row.getHeight());
+            ArchiveSegment.writeString(out, row.getWidth());
+        }
+
+        @Override
+        public StockHistoryView read(DataInput in) throws IOException {
+            long id = in.readLong();
+            LocalDateTime createdAt = ArchiveSegment.fromMicros(in.readLong());
+            return new StockHistoryView(id, in.readLong(), in.readInt(), in.readInt(),
+                    ArchiveSegment.readString(in), ArchiveSegment.readString(in),
+                    ArchiveSegment.readString(in), createdAt);
+        }
+    };
+
+    private static final RowMapper<AuditLogView> AUDIT_ROW = (rs, n) -> new AuditLogView(
+            rs.getLong("id"), rs.getTimestamp("timestamp").toLocalDateTime(),
+            rs.getString("username"), rs.getString("role"), rs.getString("action"),
+            rs.getString("glass_type"), rs.getInt("quantity"),
+            nullableInt(rs, "stand_no"), nullableInt(rs, "from_stand"), nullableInt(rs, "to_stand"),
+            rs.getString("height"), rs.getString("width"), rs.getString("unit"),
+            rs.getObject("price") != null ? rs.getDouble("price") : null);
+
+    private static final RowMapper<StockHistoryView> STOCK_HISTORY_ROW = (rs, n) -> new StockHistoryView(
+            rs.getLong("id"), rs.getLong("glass_id"), rs.getInt("stand_no"), rs.getInt("quantity"),
+            rs.getString("action"), rs.getString("height"), rs.getString("width"),
+            rs.getTimestamp("created_at").toLocalDateTime());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${archive.dir:archive}")
+    private String archiveDir = "archive";
+
+    @Value("${archive.block-size-bytes:65536}")
+    private int blockBytes = 65536;
+
+    @Value("${archive.stock-history.retention-months:24}")
+    private int stockHistoryRetentionMonths = 24;
+
+    @Value("${archive.read.max-rows:5000}")
+    private int maxReadRows = 5000;
+
+    @Value("${archive.reader-cache-size:128}")
+    private int readerCacheSize = 128;
+
+    // Least recently used segment readers (memory-mapped), keyed by path
+    private final Map<Path, CachedReader> readers = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, CachedReader> eldest) {
+            return size() > readerCacheSize;
+        }
+    };
+
+    // After AuditPartitionMaintenanceService (02:30) has detached expired months
+    @Scheduled(cron = "${archive.cron:0 0 4 * * ?}")
+    public void archive() {
+        try {
+            archiveAuditPartitions();
+        } catch (RuntimeException e) {
+            System.err.println("❌ Audit archiving failed: " + e.getMessage());
+        }
+        try {
+            archiveStockHistory(LocalDate.now());
+        } catch (RuntimeException e) {
+            System.err.println("❌ Stock history archiving failed: " + e.getMessage());
+        }
+    }
+
+    /* ===============================
+       EXPORT
+       =============================== */
+
+    void archiveAuditPartitions() {
+        List<String> tables = jdbcTemplate.queryForList("""
+            SELECT table_name FROM information_schema.tables
+            WHERE table_schema = ?
+            ORDER BY table_name
+        """, String.class, AuditPartitionMaintenanceService.ARCHIVE_SCHEMA);
+
+        for (String name : tables) {
+            YearMonth month = AuditPartitionMaintenanceService.parseMonth(name);
+            if (month == null) {
+                continue;
+            }
+            String table = AuditPartitionMaintenanceService.ARCHIVE_SCHEMA + "." + name;
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            Long rows = tx.execute(status -> {
+                long exported = export(AUDIT, AUDIT_CODEC, month, AUDIT_ROW, """
+                    SELECT id, timestamp, username, role, action, glass_type, quantity, stand_no,
+                           from_stand, to_stand, height, width, unit, price, shop_id
+                    FROM %s
+                    ORDER BY shop_id, timestamp, id
+                """.formatted(table));
+                jdbcTemplate.execute("DROP TABLE " + table);
+                return exported;
+            });
+            System.out.println("✅ Archived audit_log " + month + ": " + rows + " rows");
+        }
+    }
+
+    void archiveStockHistory(LocalDate today) {
+        if (stockHistoryRetentionMonths <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = YearMonth.from(today).minusMonths(stockHistoryRetentionMonths)
+                .atDay(1).atStartOfDay();
+        LocalDateTime oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM stock_history WHERE created_at < ?",
+                LocalDateTime.class, cutoff);
+        if (oldest == null) {
+            return;
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (YearMonth month = YearMonth.from(oldest);
+             month.atDay(1).atStartOfDay().isBefore(cutoff);
+             month = month.plusMonths(1)) {
+            YearMonth m = month;
+            LocalDateTime from = m.atDay(1).atStartOfDay();
+            LocalDateTime to = m.plusMonths(1).atDay(1).atStartOfDay();
+            Long rows = tx.execute(status -> {
+                long exported = export(STOCK_HISTORY, STOCK_HISTORY_CODEC, m, STOCK_HISTORY_ROW, """
+                    SELECT id, glass_id, stand_no, quantity, action, height, width, created_at, shop_id
+                    FROM stock_history
+                    WHERE created_at >= ? AND created_at < ?
+                    ORDER BY shop_id, created_at, id
+                """, from, to);
+                jdbcTemplate.update("DELETE FROM stock_history WHERE created_at >= ? AND created_at < ?", from, to);
+                return exported;
+            });
+            if (rows != null && rows > 0) {
+                System.out.println("✅ Archived stock_history " + m + ": " + rows + " rows");
+            }
+        }
+    }
+
+    /**
+     * Stream a query ordered by shop_id into one segment per shop.
+     * On failure every segment published by this call is removed again.
+     */
+    private <T> long export(String dataset, ArchiveSegment.Codec<T> codec, YearMonth month,
+                            RowMapper<T> mapper, String sql, Object... args) {
+        MonthExport<T> export = new MonthExport<>(dataset, codec, month);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < args.length; i++) {
+                    ps.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) args[i]));
+                }
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    export.append(rs.getLong("shop_id"), mapper.mapRow(rs, 0)); // no shop -> shop-0
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            export.finish();
+            return export.rows;
+        } catch (IOException | RuntimeException e) {
+            export.abort();
+            throw new RuntimeException("❌ Export of " + dataset + " " + month + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Segment writers of one month export, one shop at a time
+     */
+    private class MonthExport<T> {
+
+        private final String dataset;
+        private final ArchiveSegment.Codec<T> codec;
+        private final YearMonth month;
+        private final List<Path> published = new ArrayList<>();
+
+        private ArchiveSegment.Writer<T> writer;
+        private long shopId;
+        private long rows;
+
+        MonthExport(String dataset, ArchiveSegment.Codec<T> codec, YearMonth month) {
+            this.dataset = dataset;
+            this.codec = codec;
+            this.month = month;
+        }
+
+        void append(long rowShopId, T row) throws IOException {
+            if (writer == null || rowShopId != shopId) {
+                finish();
+                Path path = segmentPath(dataset, rowShopId, month);
+                writer = new ArchiveSegment.Writer<>(path, codec, blockBytes);
+                shopId = rowShopId;
+                published.add(path);
+            }
+            writer.append(row);
+            rows++;
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                ArchiveSegment.Writer<T> done = writer;
+                writer = null;
+                done.close();
+            }
+        }
+
+        void abort() {
+            if (writer != null) {
+                writer.abort();
+            }
+            for (Path path : published) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    System.err.println("❌ Could not remove " + path + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /* ===============================
+       READ
+       =============================== */
+
+    /**
+     * Archived audit rows of one shop, newest first, strictly before
+     * (beforeTimestamp, beforeId) and not before from - same order and
+     * keyset as AuditLogRepository.findViewPage.
+     */
+    public List<AuditLogView> scanAudit(Long shopId, LocalDateTime from, LocalDateTime beforeTimestamp,
+                                        long beforeId, Predicate<AuditLogView> filter, int limit) {
+        // rows at beforeTimestamp itself are still in range, the keyset decides
+        return scan(AUDIT, AUDIT_CODEC, shopId, from, beforeTimestamp.plusNanos(1_000), row ->
+                (row.getTimestamp().isBefore(beforeTimestamp) || row.getId() < beforeId) && filter.test(row),
+                limit);
+    }
+
+    /**
+     * Archived stock history of one shop with from <= created_at < to
+     * (either may be null), newest first, at most limit rows (capped at
+     * archive.read.max-rows). Stock history is only kept in PostgreSQL for
+     * archive.stock-history.retention-months; older rows are read here.
+     */
+    public List<StockHistoryView> scanStockHistory(Long shopId, LocalDateTime from, LocalDateTime to, int limit) {
+        return scan(STOCK_HISTORY, STOCK_HISTORY_CODEC, shopId,
+                from != null ? from : AuditHistoryService.MIN_TIMESTAMP,
+                to != null ? to : AuditHistoryService.MAX_TIMESTAMP,
+                row -> true, Math.min(limit, maxReadRows));
+    }
+
+    // Newest first over the monthly segments of one shop, from <= ts < to
+    private <T> List<T> scan(String dataset, ArchiveSegment.Codec<T> codec, Long shopId,
+                             LocalDateTime from, LocalDateTime to, Predicate<T> accept, int limit) {
+        List<T> result = new ArrayList<>();
+        Path dir = shopDir(dataset, shopId);
+        if (limit <= 0 || !from.isBefore(to) || !Files.isDirectory(dir)) {
+            return result;
+        }
+
+        long fromMicros = ArchiveSegment.toMicros(from);
+        long toMicros = ArchiveSegment.toMicros(to);
+
+        for (YearMonth month : listMonths(dir)) {
+            if (!month.atDay(1).atStartOfDay().isBefore(to)) {
+                continue;
+            }
+            if (!month.plusMonths(1).atDay(1).atStartOfDay().isAfter(from)) {
+                break; // this and all older months end before the range
+            }
+            try {
+                ArchiveSegment.Reader<T> reader = reader(segmentPath(dataset, shopId, month), codec);
+                boolean more = reader.scanBackward(fromMicros, toMicros, row -> {
+                    if (accept.test(row)) {
+                        result.add(row);
+                    }
+                    return result.size() < limit;
+                });
+                if (!more) {
+                    break;
+                }
+            } catch (IOException e) {
+                System.err.println("❌ Could not read " + dataset + " archive " + month + " of shop " + shopId
+                        + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Open segment reader, cached so paging through history doesn't
+     * re-map and re-read the index of every month on every request.
+     * A segment rewritten by a repeated export has a new file identity,
+     * so its stale reader is replaced.
+     */
+    @SuppressWarnings("unchecked")
+    <T> ArchiveSegment.Reader<T> reader(Path path, ArchiveSegment.Codec<T> codec) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String version = attributes.fileKey() + "/" + attributes.lastModifiedTime() + "/" + attributes.size();
+        synchronized (readers) {
+            CachedReader cached = readers.get(path);
+            if (cached != null && cached.version.equals(version)) {
+                return (ArchiveSegment.Reader<T>) cached.reader;
+            }
+        }
+        ArchiveSegment.Reader<T> reader = ArchiveSegment.Reader.open(path, codec);
+        synchronized (readers) {
+            readers.put(path, new CachedReader(version, reader));
+        }
+        return reader;
+    }
+
+    int cachedReaders() {
+        synchronized (readers) {
+            return readers.size();
+        }
+    }
+
+    private static final class CachedReader {
+        private final String version;
+        private final ArchiveSegment.Reader<?> reader;
+
+        CachedReader(String version, ArchiveSegment.Reader<?> reader) {
+            this.version = version;
+            this.reader = reader;
+        }
+    }
+
+    // Newest first
+    private List<YearMonth> listMonths(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .map(p -> p.getFileName().toString())
+                    .filter(name -> name.matches("\\d{4}-\\d{2}\\.seg"))
+                    .map(name -> YearMonth.parse(name.substring(0, 7)))
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        } catch (IOException e) {
+            System.err.println("❌ Could not list " + dir + ": " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Path shopDir(String dataset, long shopId) {
+        return Paths.get(archiveDir, dataset, "shop-" + shopId);
+    }
+
+    Path segmentPath(String dataset, long shopId, YearMonth month) {
+        return shopDir(dataset, shopId).resolve(month + ".seg");
+    }
+
+    private static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
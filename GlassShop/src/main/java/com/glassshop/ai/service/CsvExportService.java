@@ -0,0 +1,94 @@
+package com.glassshop.ai.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.glassshop.ai.dto.StockView;
+import com.glassshop.ai.repository.AuditLogRepository;
+import com.glassshop.ai.repository.StockRepository;
+
+/**
+ * CSV downloads for stock and audit log.
+ *
+ * Rows are streamed from the DB (bounded fetch size, flat projections -
+ * nothing is kept in the persistence context) straight into a CSVPrinter
+ * on the response writer, so memory stays flat however many rows a shop
+ * has. The read-only transaction keeps the cursor open while writing.
+ */
+@Service
+public class CsvExportService {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    /**
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeStockCsv(Long shopId, Writer writer) throws IOException {
+        CSVPrinter csv = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                .setHeader("Glass Type", "Thickness", "Unit", "Stand No", "Height", "Width",
+                        "Quantity", "Min Quantity", "HSN No", "Last Updated")
+                .build());
+
+        long rows = 0;
+        try (Stream<StockView> stocks = stockRepository.streamViewsByShopId(shopId)) {
+            Iterator<StockView> it = stocks.iterator();
+            while (it.hasNext()) {
+                StockView s = it.next();
+                csv.printRecord(
+                        s.getGlass().getType(),
+                        s.getGlass().getThickness(),
+                        s.getGlass().getUnit(),
+                        s.getStandNo(),
+                        s.getHeight(),
+                        s.getWidth(),
+                        s.getQuantity(),
+                        s.getMinQuantity(),
+                        s.getHsnNo(),
+                        s.getUpdatedAt());
+                rows++;
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+
+    /**
+     * Audit log of one shop, newest first. from (inclusive) / to (exclusive) are optional.
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long writeAuditCsv(Long shopId, LocalDateTime from, LocalDateTime to, Writer writer) throws IOException {
+        CSVPrinter csv = new CSVPrinter(writer, CSVFormat.DEFAULT.builder()
+                .setHeader("Date", "Username", "Role", "Action", "Glass Type", "Quantity",
+                        "Stand No", "From Stand", "To Stand", "Height", "Width", "Unit", "Price")
+                .build());
+
+        long rows = 0;
+        // sentinels instead of null bounds, same as AuditHistoryService
+        try (Stream<Object[]> logs = auditLogRepository.streamExportRows(shopId,
+                from != null ? from : AuditHistoryService.MIN_TIMESTAMP,
+                to != null ? to : AuditHistoryService.MAX_TIMESTAMP)) {
+            Iterator<Object[]> it = logs.iterator();
+            while (it.hasNext()) {
+                csv.printRecord(it.next());
+                rows++;
+            }
+        }
+        csv.flush();
+        return rows;
+    }
+}
@@ -12,9 +12,9 @@ import org.springframework.transaction.annotation.Transactional;
 import com.glassshop.ai.dto.CustomerDto;
 import com.glassshop.ai.entity.Customer;
 import com.glassshop.ai.entity.Shop;
-import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.CustomerRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class CustomerService {
@@ -30,10 +30,11 @@ public class CustomerService {
         if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
             throw new RuntimeException("User not authenticated");
         }
-        String username = auth.getName();
-        User user = userRepository.findByUserName(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Shop shop = user.getShop();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null) {
+            throw new RuntimeException("User not found");
+        }
+        Shop shop = tenant.getShop();
         if (shop == null) {
             throw new RuntimeException("User is not linked to any shop");
         }
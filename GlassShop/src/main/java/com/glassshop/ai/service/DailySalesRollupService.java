@@ -0,0 +1,193 @@
+package com.glassshop.ai.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.entity.DailySalesRollup;
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.repository.DailySalesRollupRepository;
+
+/**
+ * Keeps daily_sales_rollup in step with REMOVE (sale) audit entries,
+ * so the nightly report reads a handful of aggregate rows per shop
+ * instead of scanning the shop's whole audit history.
+ *
+ * Each row is written with one INSERT ... ON CONFLICT DO UPDATE, so two
+ * first sales of an item racing on the insert add up instead of failing
+ * the caller's transaction on the unique key.
+ */
+@Service
+public class DailySalesRollupService {
+
+    @Autowired
+    private DailySalesRollupRepository rollupRepository;
+
+    /**
+     * Add a REMOVE audit entry to the rollup (ignored for other actions)
+     */
+    public void recordSale(AuditLog log) {
+        recordSales(Collections.singletonList(log));
+    }
+
+    /**
+     * Add a batch of audit entries (bulk update): REMOVE entries are summed
+     * per rollup row first, so each (day, glass, size, stand) is upserted once
+     */
+    public void recordSales(Collection<AuditLog> logs) {
+        Map<SaleKey, SaleTotal> totals = new LinkedHashMap<>();
+        for (AuditLog log : logs) {
+            if (log == null || log.getShop() == null
+                    || !"REMOVE".equalsIgnoreCase(log.getAction())) {
+                continue;
+            }
+
+            LocalDateTime timestamp = log.getTimestamp() != null ? log.getTimestamp() : LocalDateTime.now();
+
+            // Use actual price from log if available, otherwise calculate
+            double pricePerUnit = log.getPrice() != null
+                    ? log.getPrice()
+                    : calculatePrice(log.getGlassType(), calculateArea(log.getHeight(), log.getWidth(), log.getUnit()));
+
+            SaleKey key = new SaleKey(
+                    log.getShop().getId(),
+                    timestamp.toLocalDate(),
+                    nullToEmpty(log.getGlassType()),
+                    nullToEmpty(log.getHeight()),
+                    nullToEmpty(log.getWidth()),
+                    nullToEmpty(log.getUnit()),
+                    log.getStandNo() != null ? log.getStandNo() : 0);
+            SaleTotal total = totals.computeIfAbsent(key, k -> new SaleTotal());
+            total.quantity += log.getQuantity();
+            total.earnings += pricePerUnit * log.getQuantity();
+        }
+
+        totals.forEach((k, total) -> rollupRepository.addSale(k.shopId, k.saleDate, k.glassType,
+                k.height, k.width, k.unit, k.standNo, total.quantity, total.earnings));
+    }
+
+    /**
+     * Aggregated sales of one shop for one day
+     */
+    public List<DailySalesRollup> getSales(Long shopId, LocalDate date) {
+        return rollupRepository.findByShopIdAndSaleDateOrderByGlassTypeAsc(shopId, date);
+    }
+
+    // One daily_sales_rollup row (uk_daily_sales_rollup_key)
+    private static final class SaleKey {
+        private final Long shopId;
+        private final LocalDate saleDate;
+        private final String glassType;
+        private final String height;
+        private final String width;
+        private final String unit;
+        private final int standNo;
+
+        SaleKey(Long shopId, LocalDate saleDate, String glassType, String height, String width,
+                String unit, int standNo) {
+            this.shopId = shopId;
+            this.saleDate = saleDate;
+            this.glassType = glassType;
+            this.height = height;
+            this.width = width;
+            this.unit = unit;
+            this.standNo = standNo;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SaleKey)) {
+                return false;
+            }
+            SaleKey other = (SaleKey) o;
+            return standNo == other.standNo
+                    && Objects.equals(shopId, other.shopId)
+                    && saleDate.equals(other.saleDate)
+                    && glassType.equals(other.glassType)
+                    && height.equals(other.height)
+                    && width.equals(other.width)
+                    && unit.equals(other.unit);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shopId, saleDate, glassType, height, width, unit, standNo);
+        }
+    }
+
+    private static final class SaleTotal {
+        private int quantity;
+        private double earnings;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Calculate area in square meters
+     */
+    private double calculateArea(String height, String width, String unit) {
+        if (height == null || width == null) {
+            return 0.0;
+        }
+
+        Double parsedHeight = Stock.parseDimension(height);
+        Double parsedWidth = Stock.parseDimension(width);
+        double h = parsedHeight != null ? parsedHeight : 0.0;
+        double w = parsedWidth != null ? parsedWidth : 0.0;
+
+        if (h <= 0 || w <= 0) {
+            return 0.0;
+        }
+
+        // Convert to meters
+        if ("MM".equalsIgnoreCase(unit)) {
+            h = h / 1000.0;
+            w = w / 1000.0;
+        } else if ("INCH".equalsIgnoreCase(unit) || "IN".equalsIgnoreCase(unit)) {
+            h = h * 0.0254;
+            w = w * 0.0254;
+        } else if ("FEET".equalsIgnoreCase(unit) || "FT".equalsIgnoreCase(unit)) {
+            h = h * 0.3048;
+            w = w * 0.3048;
+        }
+
+        return h * w;
+    }
+
+    /**
+     * Calculate price based on glass type and area
+     * This is a basic pricing model - you can customize this
+     */
+    private double calculatePrice(String glassType, double area) {
+        // Base price per square meter (customize these rates)
+        double basePrice = 0.0;
+
+        if (glassType != null) {
+            if (glassType.contains("5MM") || glassType.contains("5")) {
+                basePrice = 500.0; // ₹500 per sqm
+            } else if (glassType.contains("8MM") || glassType.contains("8")) {
+                basePrice = 800.0; // ₹800 per sqm
+            } else if (glassType.contains("10MM") || glassType.contains("10")) {
+                basePrice = 1000.0; // ₹1000 per sqm
+            } else {
+                basePrice = 400.0; // Default ₹400 per sqm
+            }
+        }
+
+        return basePrice * area;
+    }
+}
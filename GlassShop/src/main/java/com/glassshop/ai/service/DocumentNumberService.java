@@ -0,0 +1,197 @@
+package com.glassshop.ai.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.entity.DocumentSequence;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.enums.InvoiceType;
+import com.glassshop.ai.repository.DocumentSequenceRepository;
+import com.glassshop.ai.repository.InvoiceRepository;
+import com.glassshop.ai.repository.QuotationRepository;
+
+/**
+ * Hands out quotation / invoice numbers from the document_sequence table.
+ * Cost per document is constant - it no longer depends on how many
+ * invoices/quotations a shop already has.
+ *
+ * document.sequence.block-size = 1 (default): the counter row is locked and
+ * incremented in the caller's transaction (createQuotation /
+ * createInvoiceFromQuotation). The lock is held until that transaction
+ * commits, and a rolled-back create rolls the counter back with it, so
+ * numbering is gap-free and uses no extra connection.
+ *
+ * block-size > 1: blocks of numbers are reserved in a short REQUIRES_NEW
+ * transaction and served from memory, so concurrent creates don't queue on
+ * the row lock. Such numbers are NOT gap-free - a rolled-back create, or a
+ * restart with part of a block unused, skips numbers.
+ */
+@Service
+public class DocumentNumberService {
+
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    @Autowired
+    private DocumentSequenceRepository sequenceRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private QuotationRepository quotationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${document.sequence.block-size:1}")
+    private int blockSize = 1;
+
+    // key: shopId:docType:period (block-size > 1 only)
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Format: Q-YYYY-MM-XXXX (e.g., Q-2024-01-0001)
+     */
+    public String nextQuotationNumber(Shop shop) {
+        return nextQuotationNumber(shop, LocalDate.now());
+    }
+
+    /**
+     * Format: INV-YYYY-MM-XXXX, advance invoices: ADV-YYYY-MM-XXXX
+     */
+    public String nextInvoiceNumber(Shop shop, InvoiceType invoiceType) {
+        return nextInvoiceNumber(shop, invoiceType, LocalDate.now());
+    }
+
+    String nextQuotationNumber(Shop shop, LocalDate today) {
+        String period = today.format(PERIOD_FORMAT);
+        String prefix = "Q-" + period + "-";
+
+        long next = next(shop.getId(), "Q", period, () -> lastUsed(
+                quotationRepository.findQuotationNumbersByPrefix(shop.getId(), prefix, PageRequest.of(0, 1)),
+                prefix));
+
+        return prefix + String.format("%04d", next);
+    }
+
+    String nextInvoiceNumber(Shop shop, InvoiceType invoiceType, LocalDate today) {
+        String docType = invoiceType == InvoiceType.ADVANCE ? "ADV" : "INV";
+        String period = today.format(PERIOD_FORMAT);
+        String prefix = docType + "-" + period + "-";
+
+        long next = next(shop.getId(), docType, period, () -> lastUsed(
+                invoiceRepository.findInvoiceNumbersByPrefix(shop.getId(), prefix, PageRequest.of(0, 1)),
+                prefix));
+
+        return prefix + String.format("%04d", next);
+    }
+
+    private long next(Long shopId, String docType, String period, Supplier<Long> lastUsed) {
+        if (blockSize <= 1) {
+            // joins the caller's transaction (starts one if there is none)
+            return reserve(shopId, docType, period, 1, lastUsed, TransactionDefinition.PROPAGATION_REQUIRED);
+        }
+
+        String key = shopId + ":" + docType + ":" + period;
+
+        Block block = blocks.get(key);
+        if (block == null) {
+            // New month (or first use) - drop blocks of previous months
+            blocks.keySet().removeIf(k -> !k.endsWith(":" + period));
+            block = blocks.computeIfAbsent(key, k -> new Block());
+        }
+
+        synchronized (block) {
+            if (block.next >= block.end) {
+                long start = reserve(shopId, docType, period, blockSize, lastUsed,
+                        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                block.next = start;
+                block.end = start + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Reserve [start, start + count) under the counter row lock and return start
+     */
+    private long reserve(Long shopId, String docType, String period, int count,
+                         Supplier<Long> lastUsed, int propagation) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(propagation);
+
+        return tx.execute(status -> {
+            DocumentSequence seq = sequenceRepository
+                    .findByShopIdAndDocTypeAndPeriod(shopId, docType, period)
+                    .orElse(null);
+            if (seq == null) {
+                createCounter(shopId, docType, period, lastUsed);
+                seq = sequenceRepository
+                        .findByShopIdAndDocTypeAndPeriod(shopId, docType, period)
+                        .orElseThrow(() -> new RuntimeException(
+                                "Could not allocate document number for " + docType + " " + period));
+            }
+
+            long first = seq.getNextValue();
+            seq.setNextValue(first + count);
+            sequenceRepository.save(seq);
+            return first;
+        });
+    }
+
+    /**
+     * Creates the counter row on first use of a month, seeded from the
+     * highest number already issued (so existing data keeps counting on).
+     * Committed on its own so a concurrent first use can't fail the caller's
+     * transaction on the unique key; the loser just uses the winner's row.
+     * Hands out no numbers, so nothing is lost if the caller rolls back.
+     */
+    private void createCounter(Long shopId, String docType, String period, Supplier<Long> lastUsed) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            tx.executeWithoutResult(status -> {
+                if (sequenceRepository.findByShopIdAndDocTypeAndPeriod(shopId, docType, period).isPresent()) {
+                    return;
+                }
+                DocumentSequence s = new DocumentSequence();
+                s.setShopId(shopId);
+                s.setDocType(docType);
+                s.setPeriod(period);
+                s.setNextValue(lastUsed.get() + 1);
+                sequenceRepository.saveAndFlush(s);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another request/instance created the row first - use theirs
+        }
+    }
+
+    private long lastUsed(List<String> numbers, String prefix) {
+        if (numbers.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(numbers.get(0).substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static final class Block {
+        private long next;
+        private long end;
+    }
+}
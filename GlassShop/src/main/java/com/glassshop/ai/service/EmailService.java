@@ -1,32 +1,114 @@
 package com.glassshop.ai.service;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+
+/**
+ * SMTP transport used by NotificationDispatcher.
+ * Callers don't send mail directly - they write to the outbox
+ * (NotificationOutboxService.enqueueEmail).
+ *
+ * Sends are paced by a token bucket (email.rate-limit.per-second / .burst)
+ * so a large run of reports or alerts stays under the SMTP provider's limit:
+ * no connection carries more than one burst of messages.
+ */
 @Service
 public class EmailService {
 
+    public static final String LOW_STOCK_SUBJECT = "⚠ Glass Shop - Low Stock Alert";
+
     @Autowired
     private JavaMailSender mailSender;
 
+    // SMTP provider rate limit (messages per second + burst)
+    @Value("${email.rate-limit.per-second:5.0}")
+    private double ratePerSecond = 5.0;
+
+    @Value("${email.rate-limit.burst:10}")
+    private int rateBurst = 10;
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    @PostConstruct
+    void init() {
+        rateLimiter = new TokenBucketRateLimiter(ratePerSecond, rateBurst);
+    }
+
     /**
-     * Send low stock alert to shop admin email (Async - non-blocking)
+     * Send a batch of mails, at most email.rate-limit.burst per SMTP
+     * connection (JavaMailSenderImpl connects once per send(...) call).
+     * Each chunk takes one permit per message before it goes out, so a
+     * large batch is spread out at the configured rate instead of being
+     * delayed and then sent in one burst.
+     *
+     * @return error per failed message, keyed by index in the batch (empty = all sent)
      */
-    @Async("emailExecutor")
-    public void sendLowStockAlert(String toEmail, String message) {
+    public Map<Integer, String> sendBatch(List<SimpleMailMessage> messages) {
+        Map<Integer, String> failures = new HashMap<>();
+        int chunkSize = Math.max(1, rateBurst);
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, messages.size());
+            try {
+                for (int i = from; i < to; i++) {
+                    rateLimiter.acquire();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (int i = from; i < messages.size(); i++) {
+                    failures.put(i, "interrupted before send"); // left in the outbox for the next attempt
+                }
+                break;
+            }
+            sendChunk(messages, from, to, failures);
+        }
+        int sent = messages.size() - failures.size();
+        if (sent > 0) {
+            System.out.println("✅ Sent " + sent + " email(s)");
+        }
+        if (!failures.isEmpty()) {
+            System.err.println("❌ Failed to send " + failures.size() + " email(s)");
+        }
+        return failures;
+    }
+
+    // messages[from, to) over one connection; failures keyed by batch index
+    private void sendChunk(List<SimpleMailMessage> messages, int from, int to, Map<Integer, String> failures) {
+        List<SimpleMailMessage> chunk = messages.subList(from, to);
         try {
-            SimpleMailMessage mail = new SimpleMailMessage();
-            mail.setTo(toEmail);
-            mail.setSubject("⚠ Glass Shop - Low Stock Alert");
-            mail.setText(message);
-
-            mailSender.send(mail);
-            System.out.println("✅ Low stock alert email sent to: " + toEmail);
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send email to " + toEmail + ": " + e.getMessage());
+            mailSender.send(chunk.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            // per-message failures (a failed connect lists every message)
+            boolean listed = false;
+            for (int i = from; i < to; i++) {
+                Exception failure = e.getFailedMessages().get(messages.get(i));
+                if (failure != null) {
+                    failures.put(i, failure.getMessage());
+                    listed = true;
+                }
+            }
+            if (!listed) {
+                markAll(failures, from, to, e);
+            }
+        } catch (MailException e) {
+            // authentication / preparation errors - nothing in this chunk went out
+            markAll(failures, from, to, e);
+        }
+    }
+
+    private static void markAll(Map<Integer, String> failures, int from, int to, Exception e) {
+        for (int i = from; i < to; i++) {
+            failures.put(i, e.getMessage());
         }
     }
 }
@@ -0,0 +1,109 @@
+package com.glassshop.ai.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.repository.GlassRepository;
+
+/**
+ * In-memory copy of the glass master, keyed on (type, thickness, unit).
+ *
+ * The table is tiny and only grows, so it is loaded once at startup and
+ * read through on a miss (a glass added by another instance is picked up
+ * on first use). Cached Glass objects are detached and shared - use them
+ * as references only, never modify them.
+ *
+ * findOrCreate inserts in its own short transaction; if another request
+ * wins the race on idx_glass_type_thickness_unit, the existing row is
+ * returned instead of failing or inserting a duplicate.
+ */
+@Service
+public class GlassCatalogService {
+
+    @Autowired
+    private GlassRepository glassRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Map<String, Glass> catalog = new ConcurrentHashMap<>();
+
+    // Runs after GlassDataLoader has seeded the table
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        refresh();
+        System.out.println("✅ Glass catalog loaded: " + catalog.size() + " entries");
+    }
+
+    /**
+     * Reload the whole catalog from the DB
+     */
+    public void refresh() {
+        Map<String, Glass> fresh = new HashMap<>();
+        for (Glass g : glassRepository.findAll()) {
+            fresh.putIfAbsent(key(g.getType(), g.getThickness(), g.getUnit()), g);
+        }
+        catalog.putAll(fresh);
+        catalog.keySet().retainAll(fresh.keySet());
+    }
+
+    public Optional<Glass> find(String type, int thickness, String unit) {
+        String key = key(type, thickness, unit);
+        Glass glass = catalog.get(key);
+        if (glass != null) {
+            return Optional.of(glass);
+        }
+
+        // read-through; misses are not remembered so new rows show up
+        Optional<Glass> fromDb = glassRepository.findByTypeAndThicknessAndUnit(type, thickness, unit);
+        fromDb.ifPresent(g -> catalog.put(key, g));
+        return fromDb;
+    }
+
+    public Glass findOrCreate(String type, int thickness, String unit) {
+        Optional<Glass> existing = find(type, thickness, unit);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        String key = key(type, thickness, unit);
+
+        // REQUIRES_NEW: a unique violation must not poison the caller's transaction
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            Glass created = tx.execute(status -> {
+                Glass g = new Glass();
+                g.setType(type);
+                g.setThickness(thickness);
+                g.setUnit(unit);
+                return glassRepository.saveAndFlush(g);
+            });
+            catalog.put(key, created);
+            System.out.println("✅ Glass added to catalog: " + key);
+            return created;
+        } catch (DataIntegrityViolationException e) {
+            // another request inserted the same glass first
+            Glass winner = glassRepository.findByTypeAndThicknessAndUnit(type, thickness, unit)
+                    .orElseThrow(() -> new RuntimeException("❌ Could not create glass " + key, e));
+            catalog.put(key, winner);
+            return winner;
+        }
+    }
+
+    private static String key(String type, int thickness, String unit) {
+        return type + "|" + thickness + "|" + unit;
+    }
+}
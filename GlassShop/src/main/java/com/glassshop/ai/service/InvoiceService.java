@@ -22,12 +22,11 @@ import com.glassshop.ai.entity.InvoiceItem;
 import com.glassshop.ai.entity.Payment;
 import com.glassshop.ai.entity.Quotation;
 import com.glassshop.ai.entity.Shop;
-import com.glassshop.ai.entity.User;
-import com.glassshop.ai.enums.InvoiceType;
 import com.glassshop.ai.enums.PaymentStatus;
 import com.glassshop.ai.repository.InvoiceRepository;
 import com.glassshop.ai.repository.QuotationRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class InvoiceService {
@@ -41,15 +40,19 @@ public class InvoiceService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
     private Shop getCurrentShop() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
             throw new RuntimeException("User not authenticated");
         }
-        String username = auth.getName();
-        User user = userRepository.findByUserName(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Shop shop = user.getShop();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null) {
+            throw new RuntimeException("User not found");
+        }
+        Shop shop = tenant.getShop();
         if (shop == null) {
             throw new RuntimeException("User is not linked to any shop");
         }
@@ -61,23 +64,6 @@ public class InvoiceService {
         return auth != null ? auth.getName() : "system";
     }
 
-    private String generateInvoiceNumber(Shop shop, InvoiceType invoiceType) {
-        // Format: INV-YYYY-MM-XXXX (e.g., INV-2024-01-0001)
-        // For advance: ADV-YYYY-MM-XXXX
-        String typePrefix = invoiceType == InvoiceType.ADVANCE ? "ADV-" : "INV-";
-        String yearMonth = LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM"));
-        final String prefix = typePrefix + yearMonth + "-";
-        
-        // Find the last invoice number for this month
-        List<Invoice> recentInvoices = invoiceRepository.findByShop(shop)
-                .stream()
-                .filter(i -> i.getInvoiceNumber().startsWith(prefix))
-                .collect(Collectors.toList());
-        
-        int nextNumber = recentInvoices.size() + 1;
-        return prefix + String.format("%04d", nextNumber);
-    }
-
     @Transactional
     public InvoiceResponse createInvoiceFromQuotation(CreateInvoiceRequest request) {
         Shop shop = getCurrentShop();
@@ -97,7 +83,7 @@ public class InvoiceService {
         invoice.setShop(shop);
         invoice.setCustomer(quotation.getCustomer());
         invoice.setQuotation(quotation);
-        invoice.setInvoiceNumber(generateInvoiceNumber(shop, request.getInvoiceType()));
+        invoice.setInvoiceNumber(documentNumberService.nextInvoiceNumber(shop, request.getInvoiceType()));
         invoice.setInvoiceType(request.getInvoiceType());
         invoice.setBillingType(quotation.getBillingType());
         invoice.setInvoiceDate(request.getInvoiceDate() != null ? request.getInvoiceDate() : LocalDate.now());
@@ -210,6 +196,9 @@ public class InvoiceService {
         // Update invoice payment status
         updateInvoicePaymentStatus(invoice);
 
+        // ✅ Paid / due amounts changed - drop cached invoice & challan PDFs
+        pdfCacheService.evictInvoice(invoice.getId());
+
         return convertPaymentToDto(saved);
     }
 
@@ -235,6 +224,9 @@ public class InvoiceService {
     @Autowired
     private com.glassshop.ai.repository.PaymentRepository paymentRepository;
 
+    @Autowired
+    private PdfCacheService pdfCacheService;
+
     private InvoiceResponse convertToResponse(Invoice invoice) {
         InvoiceResponse response = new InvoiceResponse();
         response.setId(invoice.getId());
@@ -0,0 +1,105 @@
+package com.glassshop.ai.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.repository.ShopRepository;
+import com.glassshop.ai.service.LowStockTracker.LowStockItem;
+
+/**
+ * Coalesces low stock alerts into one digest email per shop per interval.
+ *
+ * Committed StockLevelChangedEvents are collected per (shop, stock id);
+ * a later change of the same row replaces the earlier one, so the digest
+ * shows the latest quantity only. A row that is refilled above minimum
+ * before the digest goes out is dropped. flush() runs every
+ * stock.alert.digest-interval-ms and queues at most one email per shop
+ * in the notification outbox.
+ */
+@Service
+public class LowStockAlertAggregator {
+
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Value("${stock.alert.digest-max-items:50}")
+    private int maxItems = 50;
+
+    private final Map<Long, Map<Long, LowStockItem>> pending = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockLevelChanged(LowStockTracker.StockLevelChangedEvent event) {
+        LowStockItem item = event.getItem();
+        if (event.isLow()) {
+            pending.compute(event.getShopId(), (shopId, items) -> {
+                Map<Long, LowStockItem> m = items != null ? items : new LinkedHashMap<>();
+                m.put(item.getStockId(), item);
+                return m;
+            });
+        } else {
+            // refilled before the digest went out - nothing to report
+            pending.computeIfPresent(event.getShopId(), (shopId, items) -> {
+                items.remove(item.getStockId());
+                return items.isEmpty() ? null : items;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stock.alert.digest-interval-ms:300000}",
+               initialDelayString = "${stock.alert.digest-interval-ms:300000}")
+    public void flush() {
+        for (Long shopId : new ArrayList<>(pending.keySet())) {
+            Map<Long, LowStockItem> items = pending.remove(shopId);
+            if (items == null || items.isEmpty()) {
+                continue;
+            }
+            try {
+                sendDigest(shopId, new ArrayList<>(items.values()));
+            } catch (Exception e) {
+                System.err.println("❌ Low stock digest failed for shop " + shopId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void sendDigest(Long shopId, List<LowStockItem> items) {
+        Shop shop = shopRepository.findById(shopId).orElse(null);
+        if (shop == null || shop.getEmail() == null || shop.getEmail().isEmpty()) {
+            return;
+        }
+
+        items.sort(Comparator.comparingInt(LowStockItem::getStandNo)
+                .thenComparing(LowStockItem::getStockId));
+
+        StringBuilder msg = new StringBuilder("LOW STOCK ALERT 🚨\n\n")
+                .append("Shop: ").append(shop.getShopName()).append("\n\n");
+        int shown = Math.min(items.size(), maxItems);
+        for (LowStockItem s : items.subList(0, shown)) {
+            msg.append("Glass: ").append(s.getGlassType())
+               .append(" | Stand: ").append(s.getStandNo())
+               .append(" | Size: ").append(s.getHeight()).append(" x ").append(s.getWidth())
+               .append(" | Left: ").append(s.getQuantity())
+               .append(" (min ").append(s.getMinQuantity()).append(")\n");
+        }
+        if (items.size() > shown) {
+            msg.append("... and ").append(items.size() - shown).append(" more\n");
+        }
+        msg.append("\nPlease reorder stock immediately!");
+
+        notificationOutboxService.enqueueEmail(shopId, shop.getEmail(), EmailService.LOW_STOCK_SUBJECT, msg.toString());
+    }
+}
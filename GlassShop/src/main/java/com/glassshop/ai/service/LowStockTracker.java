@@ -0,0 +1,213 @@
+package com.glassshop.ai.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.repository.StockRepository;
+
+/**
+ * Per-shop set of stock rows below their minimum quantity.
+ *
+ * A shop's set is read from the DB (partial index idx_stock_low_stock) the
+ * first time that shop asks for it, then kept current by stock mutations:
+ * every service that changes a quantity calls stockChanged(), which
+ * publishes a StockLevelChangedEvent; the set is updated after the
+ * transaction commits (rolled-back changes never show up). Reads only
+ * touch the caller's shop, so cost does not grow with the number of shops.
+ */
+@Service
+public class LowStockTracker {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, ShopLowStock> shops = new ConcurrentHashMap<>();
+
+    /**
+     * Immutable copy of one low stock row
+     */
+    public static class LowStockItem {
+
+        private final Long stockId;
+        private final String glassType;
+        private final int standNo;
+        private final String height;
+        private final String width;
+        private final int quantity;
+        private final int minQuantity;
+
+        LowStockItem(Stock stock) {
+            this.stockId = stock.getId();
+            this.glassType = stock.getGlass() != null ? stock.getGlass().getType() : null;
+            this.standNo = stock.getStandNo();
+            this.height = stock.getHeight();
+            this.width = stock.getWidth();
+            this.quantity = stock.getQuantity();
+            this.minQuantity = stock.getMinQuantity();
+        }
+
+        public Long getStockId() {
+            return stockId;
+        }
+
+        public String getGlassType() {
+            return glassType;
+        }
+
+        public int getStandNo() {
+            return standNo;
+        }
+
+        public String getHeight() {
+            return height;
+        }
+
+        public String getWidth() {
+            return width;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public int getMinQuantity() {
+            return minQuantity;
+        }
+    }
+
+    /**
+     * Published when a stock mutation leaves a row below minimum or takes it
+     * back above (crossing), or changes a row that stays low
+     */
+    public static class StockLevelChangedEvent {
+
+        private final Long shopId;
+        private final LowStockItem item;
+        private final boolean wasLow;
+        private final boolean low;
+
+        StockLevelChangedEvent(Long shopId, LowStockItem item, boolean wasLow, boolean low) {
+            this.shopId = shopId;
+            this.item = item;
+            this.wasLow = wasLow;
+            this.low = low;
+        }
+
+        public Long getShopId() {
+            return shopId;
+        }
+
+        public LowStockItem getItem() {
+            return item;
+        }
+
+        public boolean wasLow() {
+            return wasLow;
+        }
+
+        public boolean isLow() {
+            return low;
+        }
+
+        // true when the row went below minimum or recovered
+        public boolean isCrossing() {
+            return wasLow != low;
+        }
+    }
+
+    private static class ShopLowStock {
+        boolean loaded;
+        final Map<Long, LowStockItem> items = new LinkedHashMap<>();
+    }
+
+    /* ===============================
+       WRITE SIDE
+       =============================== */
+
+    /**
+     * Call after saving a stock row.
+     * @param wasLow whether the row was below minimum before this change (false for new rows)
+     */
+    public void stockChanged(Stock stock, boolean wasLow) {
+        if (stock == null || stock.getShop() == null || stock.getId() == null) {
+            return;
+        }
+        boolean low = isLow(stock);
+        if (!wasLow && !low) {
+            return; // healthy before and after - nothing to track
+        }
+        eventPublisher.publishEvent(
+                new StockLevelChangedEvent(stock.getShop().getId(), new LowStockItem(stock), wasLow, low));
+    }
+
+    public static boolean isLow(Stock stock) {
+        return stock.getQuantity() < stock.getMinQuantity();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockLevelChanged(StockLevelChangedEvent event) {
+        ShopLowStock shop = shops.get(event.getShopId());
+        if (shop == null) {
+            return; // not loaded yet - first read will see the committed row
+        }
+        synchronized (shop) {
+            if (!shop.loaded) {
+                return;
+            }
+            if (event.isLow()) {
+                shop.items.put(event.getItem().getStockId(), event.getItem());
+            } else {
+                shop.items.remove(event.getItem().getStockId());
+            }
+        }
+    }
+
+    /**
+     * Forget every shop; sets are re-read from the DB on next use
+     * (picks up changes made outside the application)
+     */
+    public void reset() {
+        shops.clear();
+    }
+
+    /* ===============================
+       READ SIDE
+       =============================== */
+
+    /**
+     * Low stock rows of one shop, ordered by stand
+     */
+    public List<LowStockItem> getLowStock(Long shopId) {
+        if (shopId == null) {
+            return List.of();
+        }
+        ShopLowStock shop = shops.computeIfAbsent(shopId, id -> new ShopLowStock());
+        List<LowStockItem> result;
+        synchronized (shop) {
+            if (!shop.loaded) {
+                for (Stock s : stockRepository.findLowStockByShopId(shopId)) {
+                    shop.items.put(s.getId(), new LowStockItem(s));
+                }
+                shop.loaded = true;
+            }
+            result = new ArrayList<>(shop.items.values());
+        }
+        result.sort(Comparator.comparingInt(LowStockItem::getStandNo)
+                .thenComparing(LowStockItem::getStockId));
+        return result;
+    }
+}
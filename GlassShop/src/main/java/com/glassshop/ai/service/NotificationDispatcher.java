@@ -0,0 +1,187 @@
+package com.glassshop.ai.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.entity.NotificationOutbox;
+import com.glassshop.ai.repository.NotificationOutboxRepository;
+
+/**
+ * Drains notification_outbox.
+ *
+ * Each round claims up to notification.outbox.batch-size due rows (FOR
+ * UPDATE SKIP LOCKED) and pushes their next attempt out by the lease, so a
+ * crashed sender's rows are picked up again later. The claim transaction
+ * is committed before anything is sent - no row locks are held while
+ * talking to SMTP / WhatsApp. Emails of a batch go over one SMTP
+ * connection; WhatsApp messages are sent concurrently by the async
+ * client. Results are written back in a second short transaction: SENT,
+ * or retried with exponential backoff + jitter, or DEAD after
+ * notification.outbox.max-attempts.
+ */
+@Service
+public class NotificationDispatcher {
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private WhatsAppService whatsAppService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${notification.outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${notification.outbox.max-rounds:10}")
+    private int maxRounds = 10;
+
+    @Value("${notification.outbox.lease-seconds:300}")
+    private long leaseSeconds = 300;
+
+    @Value("${notification.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${notification.outbox.backoff-base-seconds:30}")
+    private long backoffBaseSeconds = 30;
+
+    @Value("${notification.outbox.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds = 3600;
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:5000}")
+    public void dispatch() {
+        for (int round = 0; round < maxRounds; round++) {
+            if (dispatchBatch() < batchSize) {
+                return; // drained
+            }
+        }
+    }
+
+    /**
+     * Claim, send and record one batch
+     * @return number of rows claimed
+     */
+    public int dispatchBatch() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        List<NotificationOutbox> batch = tx.execute(status -> claim());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<NotificationOutbox> emails = new ArrayList<>();
+        List<NotificationOutbox> whatsApps = new ArrayList<>();
+        for (NotificationOutbox n : batch) {
+            if (NotificationOutbox.CHANNEL_EMAIL.equals(n.getChannel())) {
+                emails.add(n);
+            } else {
+                whatsApps.add(n);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        sendEmails(emails, now);
+        sendWhatsApps(whatsApps, now);
+
+        tx.executeWithoutResult(status -> outboxRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    private List<NotificationOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox> due = outboxRepository.claimDue(now, PageRequest.of(0, batchSize));
+        for (NotificationOutbox n : due) {
+            n.setAttempts(n.getAttempts() + 1);
+            n.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return due;
+    }
+
+    private void sendEmails(List<NotificationOutbox> emails, LocalDateTime now) {
+        if (emails.isEmpty()) {
+            return;
+        }
+        List<SimpleMailMessage> messages = new ArrayList<>(emails.size());
+        for (NotificationOutbox n : emails) {
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setTo(n.getRecipient());
+            mail.setSubject(n.getSubject());
+            mail.setText(n.getBody());
+            messages.add(mail);
+        }
+
+        Map<Integer, String> failures = emailService.sendBatch(messages);
+        for (int i = 0; i < emails.size(); i++) {
+            String error = failures.get(i);
+            if (error == null) {
+                markSent(emails.get(i), now);
+            } else {
+                markFailed(emails.get(i), error, now);
+            }
+        }
+    }
+
+    // All sent concurrently (bounded by WhatsAppService's in-flight limit), then awaited
+    private void sendWhatsApps(List<NotificationOutbox> whatsApps, LocalDateTime now) {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>(whatsApps.size());
+        for (NotificationOutbox n : whatsApps) {
+            results.add(whatsAppService.sendMessageAsync(n.getRecipient(), n.getBody()));
+        }
+        for (int i = 0; i < whatsApps.size(); i++) {
+            NotificationOutbox n = whatsApps.get(i);
+            try {
+                if (Boolean.TRUE.equals(results.get(i).join())) {
+                    markSent(n, now);
+                } else {
+                    markFailed(n, "WhatsApp provider rejected the message", now);
+                }
+            } catch (RuntimeException e) {
+                markFailed(n, e.getMessage(), now);
+            }
+        }
+    }
+
+    private void markSent(NotificationOutbox n, LocalDateTime now) {
+        n.setStatus(NotificationOutbox.STATUS_SENT);
+        n.setSentAt(now);
+        n.setLastError(null);
+    }
+
+    private void markFailed(NotificationOutbox n, String error, LocalDateTime now) {
+        n.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        if (n.getAttempts() >= maxAttempts) {
+            n.setStatus(NotificationOutbox.STATUS_DEAD);
+            System.err.println("❌ Notification " + n.getId() + " (" + n.getChannel() + " to "
+                    + n.getRecipient() + ") dead after " + n.getAttempts() + " attempts: " + error);
+        } else {
+            n.setNextAttemptAt(now.plusSeconds(backoffSeconds(n.getAttempts())));
+        }
+    }
+
+    /**
+     * base * 2^(attempt-1), capped, with +/-20% jitter so failed rows don't retry in lockstep
+     */
+    long backoffSeconds(int attempt) {
+        long delay = backoffBaseSeconds << Math.min(Math.max(attempt - 1, 0), 20);
+        delay = Math.min(delay, backoffMaxSeconds);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Math.max(1, Math.round(delay * jitter));
+    }
+}
@@ -0,0 +1,53 @@
+package com.glassshop.ai.service;
+
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.glassshop.ai.entity.NotificationOutbox;
+import com.glassshop.ai.repository.NotificationOutboxRepository;
+
+/**
+ * Queue a notification in the outbox.
+ *
+ * Joins the caller's transaction: the message is stored if and only if
+ * the business change commits, and the caller never waits on SMTP or the
+ * WhatsApp provider. NotificationDispatcher does the sending.
+ */
+@Service
+public class NotificationOutboxService {
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Transactional
+    public NotificationOutbox enqueueEmail(Long shopId, String toEmail, String subject, String body) {
+        return enqueue(NotificationOutbox.CHANNEL_EMAIL, shopId, toEmail, subject, body);
+    }
+
+    @Transactional
+    public NotificationOutbox enqueueWhatsApp(Long shopId, String phoneNumber, String body) {
+        return enqueue(NotificationOutbox.CHANNEL_WHATSAPP, shopId, phoneNumber, null, body);
+    }
+
+    private NotificationOutbox enqueue(String channel, Long shopId, String recipient, String subject, String body) {
+        if (recipient == null || recipient.isBlank()) {
+            System.err.println("⚠ No " + channel + " recipient for shop " + shopId + " - notification skipped");
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutbox n = new NotificationOutbox();
+        n.setShopId(shopId);
+        n.setChannel(channel);
+        n.setRecipient(recipient.trim());
+        n.setSubject(subject);
+        n.setBody(body);
+        n.setStatus(NotificationOutbox.STATUS_PENDING);
+        n.setNextAttemptAt(now);
+        n.setCreatedAt(now);
+        return outboxRepository.save(n);
+    }
+}
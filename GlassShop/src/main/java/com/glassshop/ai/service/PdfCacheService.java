@@ -0,0 +1,244 @@
+package com.glassshop.ai.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cache of rendered PDFs.
+ *
+ * Key = (document group + id, document type, version, template version),
+ * where version is built by PdfService from updatedAt / payment state, so
+ * any change to the document produces a new key and the old entry simply
+ * ages out. evictInvoice / evictQuotation drop every rendering of a
+ * document straight away when a service modifies it.
+ *
+ * Tier 1: LRU in memory, bounded by total bytes.
+ * Tier 2 (optional): files under pdf.cache.disk-dir, survives restarts.
+ */
+@Service
+public class PdfCacheService {
+
+    public static final String INVOICE = "invoice";
+    public static final String QUOTATION = "quotation";
+
+    @Value("${pdf.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pdf.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    // Larger PDFs are streamed without being cached (no extra heap copy)
+    @Value("${pdf.cache.max-entry-bytes:2097152}")
+    private long maxEntryBytes;
+
+    @Value("${pdf.cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${pdf.cache.template-version:1}")
+    private String templateVersion;
+
+    @Value("${pdf.cache.disk-dir:}")
+    private String diskDir;
+
+    private Path diskPath;
+
+    // access-order LinkedHashMap = LRU; guarded by "this"
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    private static class Entry {
+        final byte[] pdf;
+        final long createdAt;
+
+        Entry(byte[] pdf) {
+            this.pdf = pdf;
+            this.createdAt = System.currentTimeMillis();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled && diskDir != null && !diskDir.isBlank()) {
+            try {
+                diskPath = Files.createDirectories(Paths.get(diskDir));
+                System.out.println("✅ PDF disk cache at " + diskPath.toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("❌ PDF disk cache disabled, cannot create " + diskDir + ": " + e.getMessage());
+                diskPath = null;
+            }
+        }
+    }
+
+    /**
+     * Build a cache key. group/id come first so evict can match by prefix.
+     */
+    public String key(String group, Long id, String docType, String version) {
+        return group + "-" + id + "-" + docType + "-" + sha256(version + "|t" + templateVersion);
+    }
+
+    /**
+     * @return cached PDF bytes, or null on miss
+     */
+    public byte[] get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (!isExpired(entry.createdAt)) {
+                    return entry.pdf;
+                }
+                removeFromMemory(key);
+            }
+        }
+
+        byte[] fromDisk = readDisk(key);
+        if (fromDisk != null) {
+            putInMemory(key, fromDisk);
+        }
+        return fromDisk;
+    }
+
+    public void put(String key, byte[] pdf) {
+        if (!enabled || pdf == null) {
+            return;
+        }
+        putInMemory(key, pdf);
+        writeDisk(key, pdf);
+    }
+
+    /**
+     * Largest PDF worth caching; 0 when the cache is off
+     */
+    public long getMaxEntryBytes() {
+        return enabled ? Math.min(maxEntryBytes, maxBytes) : 0;
+    }
+
+    public void evictInvoice(Long invoiceId) {
+        evict(INVOICE + "-" + invoiceId + "-");
+    }
+
+    public void evictQuotation(Long quotationId) {
+        evict(QUOTATION + "-" + quotationId + "-");
+    }
+
+    /* ===============================
+       MEMORY TIER
+       =============================== */
+
+    private synchronized void putInMemory(String key, byte[] pdf) {
+        if (pdf.length > getMaxEntryBytes()) {
+            return; // too large to be worth holding
+        }
+        removeFromMemory(key);
+        memory.put(key, new Entry(pdf));
+        memoryBytes += pdf.length;
+
+        // Drop least-recently-used entries until we fit again
+        Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+        while (memoryBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Entry> eldest = it.next();
+            memoryBytes -= eldest.getValue().pdf.length;
+            it.remove();
+        }
+    }
+
+    private void removeFromMemory(String key) {
+        Entry old = memory.remove(key);
+        if (old != null) {
+            memoryBytes -= old.pdf.length;
+        }
+    }
+
+    private void evict(String prefix) {
+        synchronized (this) {
+            Iterator<Map.Entry<String, Entry>> it = memory.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Entry> e = it.next();
+                if (e.getKey().startsWith(prefix)) {
+                    memoryBytes -= e.getValue().pdf.length;
+                    it.remove();
+                }
+            }
+        }
+
+        if (diskPath != null) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(diskPath, prefix + "*.pdf")) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                System.err.println("❌ PDF disk cache evict failed for " + prefix + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean isExpired(long createdAt) {
+        return ttlMinutes > 0 && System.currentTimeMillis() - createdAt > ttlMinutes * 60_000L;
+    }
+
+    /* ===============================
+       DISK TIER
+       =============================== */
+
+    private byte[] readDisk(String key) {
+        if (diskPath == null) {
+            return null;
+        }
+        Path file = diskPath.resolve(key + ".pdf");
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            if (isExpired(Files.getLastModifiedTime(file).toMillis())) {
+                Files.deleteIfExists(file);
+                return null;
+            }
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeDisk(String key, byte[] pdf) {
+        if (diskPath == null) {
+            return;
+        }
+        // write to a temp file + atomic move so readers never see half a PDF
+        Path file = diskPath.resolve(key + ".pdf");
+        try {
+            Path tmp = Files.createTempFile(diskPath, key, ".tmp");
+            Files.write(tmp, pdf);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("❌ PDF disk cache write failed for " + key + ": " + e.getMessage());
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(value.getBytes(StandardCharsets.UTF_8)), 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
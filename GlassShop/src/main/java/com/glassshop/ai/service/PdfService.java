@@ -1,26 +1,31 @@
 package com.glassshop.ai.service;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.time.format.DateTimeFormatter;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
+import java.util.List;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.glassshop.ai.dto.ItemPolishSpec;
 import com.glassshop.ai.entity.Invoice;
 import com.glassshop.ai.entity.Quotation;
 import com.glassshop.ai.entity.Shop;
-import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.InvoiceRepository;
 import com.glassshop.ai.repository.QuotationRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -37,25 +42,143 @@ public class PdfService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PdfCacheService pdfCacheService;
+
+    // Heap budget per document before PDFBox spills to a scratch file
+    @Value("${pdf.render.max-main-memory-bytes:8388608}")
+    private long maxMainMemoryBytes;
+
+    @Value("${pdf.render.scratch-dir:}")
+    private String scratchDir;
+
     private Shop getCurrentShop() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
             throw new RuntimeException("User not authenticated");
         }
-        String username = auth.getName();
-        User user = userRepository.findByUserName(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Shop shop = user.getShop();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null) {
+            throw new RuntimeException("User not found");
+        }
+        Shop shop = tenant.getShop();
         if (shop == null) {
             throw new RuntimeException("Shop not found");
         }
         return shop;
     }
 
+    // Anything that changes what an invoice PDF shows must be part of its version
+    private String invoiceVersion(Invoice invoice) {
+        return invoice.getUpdatedAt() + "|" + invoice.getPaymentStatus()
+                + "|" + invoice.getPaidAmount() + "|" + invoice.getDueAmount();
+    }
+
+    private String quotationVersion(Quotation quotation) {
+        return quotation.getUpdatedAt() + "|" + quotation.getStatus();
+    }
+
+    /* ===============================
+       RENDER / STREAM HELPERS
+       =============================== */
+
+    @FunctionalInterface
+    private interface DocumentRenderer {
+        void render(PDDocument document) throws IOException;
+    }
+
+    /**
+     * Render into a fresh document and save it straight to out.
+     * PDFBox keeps at most pdf.render.max-main-memory-bytes of the document
+     * in heap and spills the rest to a scratch file. The bytes written are
+     * also captured for the cache, unless the PDF is too large to cache.
+     */
+    private void writeDocument(String cacheKey, OutputStream out, DocumentRenderer renderer) throws IOException {
+        try (PDDocument document = new PDDocument(memoryUsageSetting())) {
+            renderer.render(document);
+
+            CachingOutputStream tee = new CachingOutputStream(out, pdfCacheService.getMaxEntryBytes());
+            document.save(tee);
+            tee.flush();
+
+            byte[] pdf = tee.getCaptured();
+            if (pdf != null) {
+                pdfCacheService.put(cacheKey, pdf);
+            }
+        }
+    }
+
+    private MemoryUsageSetting memoryUsageSetting() {
+        MemoryUsageSetting setting = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+        if (scratchDir != null && !scratchDir.isBlank()) {
+            setting.setTempDir(new File(scratchDir));
+        }
+        return setting;
+    }
+
+    private static byte[] toBytes(PdfWriter writer) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writer.writeTo(baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Passes every byte through to the target and keeps a copy
+     * until the limit is exceeded (then the copy is dropped)
+     */
+    private static class CachingOutputStream extends FilterOutputStream {
+
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CachingOutputStream(OutputStream target, long limit) {
+            super(target);
+            this.limit = limit;
+            if (limit <= 0) {
+                copy = null;
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            capture(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            capture(b, off, len);
+        }
+
+        private void capture(byte[] b, int off, int len) {
+            if (copy == null) {
+                return;
+            }
+            if (copy.size() + len > limit) {
+                copy = null;
+                return;
+            }
+            copy.write(b, off, len);
+        }
+
+        byte[] getCaptured() {
+            return copy != null ? copy.toByteArray() : null;
+        }
+    }
+
     /**
      * Generate PDF for Quotation/Cutting-Pad
      */
     public byte[] generateQuotationPdf(Long quotationId) throws IOException {
+        return toBytes(prepareQuotationPdf(quotationId));
+    }
+
+    /**
+     * Load + shop check + cache lookup for the quotation PDF, run on the request thread.
+     * The returned writer renders (or copies the cached PDF) straight to the output stream.
+     */
+    public PdfWriter prepareQuotationPdf(Long quotationId) {
         Quotation quotation = quotationRepository.findById(quotationId)
                 .orElseThrow(() -> new RuntimeException("Quotation not found"));
         
@@ -64,7 +187,20 @@ public class PdfService {
             throw new RuntimeException("Unauthorized access to quotation");
         }
 
-        PDDocument document = new PDDocument();
+        // ✅ Serve unchanged documents from cache (checked after the shop check)
+        String cacheKey = pdfCacheService.key(PdfCacheService.QUOTATION, quotation.getId(), "QUOTATION", quotationVersion(quotation));
+        byte[] cached = pdfCacheService.get(cacheKey);
+        if (cached != null) {
+            return out -> out.write(cached);
+        }
+
+        // Load lazy items now - rendering may run after the request thread returns
+        quotation.getItems().size();
+
+        return out -> writeDocument(cacheKey, out, document -> renderQuotation(document, quotation, shop));
+    }
+
+    private void renderQuotation(PDDocument document, Quotation quotation, Shop shop) throws IOException {
         PDPage page = new PDPage(PDRectangle.A4);
         document.addPage(page);
 
@@ -359,18 +495,20 @@ public class PdfService {
         contentStream.endText();
 
         contentStream.close();
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        return baos.toByteArray();
     }
 
     /**
      * Generate PDF for Delivery Challan
      */
     public byte[] generateTransportChallanPdf(Long invoiceId) throws IOException {
+        return toBytes(prepareTransportChallanPdf(invoiceId));
+    }
+
+    /**
+     * Load + shop check + cache lookup for the transport challan PDF, run on the request thread.
+     * The returned writer renders (or copies the cached PDF) straight to the output stream.
+     */
+    public PdfWriter prepareTransportChallanPdf(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
         
@@ -379,7 +517,25 @@ public class PdfService {
             throw new RuntimeException("Unauthorized access to invoice");
         }
 
-        PDDocument document = new PDDocument();
+        return prepareTransportChallanPdf(invoice, shop);
+    }
+
+    // Invoice already loaded and checked against the shop (bulk export)
+    PdfWriter prepareTransportChallanPdf(Invoice invoice, Shop shop) {
+        // ✅ Serve unchanged documents from cache (checked after the shop check)
+        String cacheKey = pdfCacheService.key(PdfCacheService.INVOICE, invoice.getId(), "TRANSPORT_CHALLAN", invoiceVersion(invoice));
+        byte[] cached = pdfCacheService.get(cacheKey);
+        if (cached != null) {
+            return out -> out.write(cached);
+        }
+
+        // Load lazy items now - rendering may run after the request thread returns
+        invoice.getItems().size();
+
+        return out -> writeDocument(cacheKey, out, document -> renderTransportChallan(document, invoice, shop));
+    }
+
+    private void renderTransportChallan(PDDocument document, Invoice invoice, Shop shop) throws IOException {
         PDPage page = new PDPage(PDRectangle.A4);
         document.addPage(page);
 
@@ -616,12 +772,6 @@ public class PdfService {
         contentStream.endText();
 
         contentStream.close();
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        return baos.toByteArray();
     }
 
     /**
@@ -629,6 +779,14 @@ public class PdfService {
      * Professional format with borders and better layout
      */
     public byte[] generateDeliveryChallanPrintPdf(Long invoiceId) throws IOException {
+        return toBytes(prepareDeliveryChallanPrintPdf(invoiceId));
+    }
+
+    /**
+     * Load + shop check + cache lookup for the delivery challan print, run on the request thread.
+     * The returned writer renders (or copies the cached PDF) straight to the output stream.
+     */
+    public PdfWriter prepareDeliveryChallanPrintPdf(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
         
@@ -637,7 +795,25 @@ public class PdfService {
             throw new RuntimeException("Unauthorized access to invoice");
         }
 
-        PDDocument document = new PDDocument();
+        return prepareDeliveryChallanPrintPdf(invoice, shop);
+    }
+
+    // Invoice already loaded and checked against the shop (bulk export)
+    PdfWriter prepareDeliveryChallanPrintPdf(Invoice invoice, Shop shop) {
+        // ✅ Serve unchanged documents from cache (key includes today's date - printed as "Generated on")
+        String cacheKey = pdfCacheService.key(PdfCacheService.INVOICE, invoice.getId(), "DELIVERY_CHALLAN_PRINT", invoiceVersion(invoice) + "|" + java.time.LocalDate.now());
+        byte[] cached = pdfCacheService.get(cacheKey);
+        if (cached != null) {
+            return out -> out.write(cached);
+        }
+
+        // Load lazy items now - rendering may run after the request thread returns
+        invoice.getItems().size();
+
+        return out -> writeDocument(cacheKey, out, document -> renderDeliveryChallanPrint(document, invoice, shop));
+    }
+
+    private void renderDeliveryChallanPrint(PDDocument document, Invoice invoice, Shop shop) throws IOException {
         PDPage page = new PDPage(PDRectangle.A4);
         document.addPage(page);
 
@@ -652,14 +828,45 @@ public class PdfService {
             float copyStartY = pageHeight - 20 - (copyIndex * (copyHeight + copyGap));
             drawDeliveryChallanCopy(document, page, invoice, shop, copyStartY, copyHeight);
         }
+    }
+    
+    /**
+     * Shop name / email / mobile block shared by the half-page copies
+     * @return Y position below the header
+     */
+    private float drawShopHeader(PDPageContentStream contentStream, PdfTemplates.ShopHeader header,
+                                 float margin, float currentY, float lineHeight, float scaleFactor) throws IOException {
+        contentStream.setFont(PDType1Font.HELVETICA_BOLD, (int)(12 * scaleFactor));
+        contentStream.beginText();
+        contentStream.newLineAtOffset(margin, currentY);
+        contentStream.showText(header.title);
+        contentStream.endText();
+        currentY -= lineHeight;
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
+        // Shop Address and Contact (scaled down)
+        contentStream.setFont(PDType1Font.HELVETICA, (int)(7 * scaleFactor));
+        for (String line : new String[] {header.emailLine, header.mobileLine}) {
+            if (line != null) {
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin, currentY);
+                contentStream.showText(line);
+                contentStream.endText();
+                currentY -= lineHeight - 2;
+            }
+        }
+        return currentY;
+    }
 
-        return baos.toByteArray();
+    private void drawColumnTitles(PDPageContentStream contentStream, PdfTemplates.ColumnLayout columns,
+                                  float margin, float y) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            contentStream.beginText();
+            contentStream.newLineAtOffset(columns.x(i, margin), y);
+            contentStream.showText(columns.title(i));
+            contentStream.endText();
+        }
     }
-    
+
     /**
      * Helper method to draw a single delivery challan copy at a specific Y position
      */
@@ -681,34 +888,8 @@ public class PdfService {
         contentStream.stroke();
         currentY -= 8;
 
-        // Header Section with Shop Details (scaled down)
-        contentStream.setFont(PDType1Font.HELVETICA_BOLD, (int)(12 * scaleFactor));
-        contentStream.beginText();
-        contentStream.newLineAtOffset(margin, currentY);
-        if (shop.getShopName() != null) {
-            contentStream.showText(shop.getShopName().toUpperCase());
-        } else {
-            contentStream.showText("GLASS SHOP");
-        }
-        contentStream.endText();
-        currentY -= lineHeight;
-
-        // Shop Address and Contact (scaled down)
-        contentStream.setFont(PDType1Font.HELVETICA, (int)(7 * scaleFactor));
-        if (shop.getEmail() != null) {
-            contentStream.beginText();
-            contentStream.newLineAtOffset(margin, currentY);
-            contentStream.showText("Email: " + shop.getEmail());
-            contentStream.endText();
-            currentY -= lineHeight - 2;
-        }
-        if (shop.getWhatsappNumber() != null) {
-            contentStream.beginText();
-            contentStream.newLineAtOffset(margin, currentY);
-            contentStream.showText("Mobile: " + shop.getWhatsappNumber());
-            contentStream.endText();
-            currentY -= lineHeight - 2;
-        }
+        // Header Section with Shop Details (scaled down, prebuilt per shop)
+        currentY = drawShopHeader(contentStream, PdfTemplates.shopHeader(shop), margin, currentY, lineHeight, scaleFactor);
 
         currentY -= 5;
 
@@ -845,11 +1026,12 @@ public class PdfService {
         // Items Table Header (scaled down)
         float tableY = currentY;
         float tableWidth = pageWidth - 2 * margin;
-        float dcol1 = margin + 3;
-        float dcol2 = dcol1 + 20;
-        float dcol3 = dcol2 + 100;
-        float dcol4 = dcol3 + 50;
-        float dcol5 = dcol4 + 50;
+        PdfTemplates.ColumnLayout columns = PdfTemplates.DELIVERY_CHALLAN_COLUMNS;
+        float dcol1 = columns.x(0, margin);
+        float dcol2 = columns.x(1, margin);
+        float dcol3 = columns.x(2, margin);
+        float dcol4 = columns.x(3, margin);
+        float dcol5 = columns.x(4, margin);
         
         // Draw table header background
         contentStream.setNonStrokingColor(0.2f, 0.2f, 0.2f);
@@ -859,26 +1041,7 @@ public class PdfService {
         
         // Header text (white on dark background, scaled down)
         contentStream.setFont(PDType1Font.HELVETICA_BOLD, (int)(8 * scaleFactor));
-        contentStream.beginText();
-        contentStream.newLineAtOffset(dcol1, tableY - 8);
-        contentStream.showText("Sr.");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(dcol2, tableY - 8);
-        contentStream.showText("Description");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(dcol3, tableY - 8);
-        contentStream.showText("Size");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(dcol4, tableY - 8);
-        contentStream.showText("Qty");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(dcol5, tableY - 8);
-        contentStream.showText("Remarks");
-        contentStream.endText();
+        drawColumnTitles(contentStream, columns, margin, tableY - 8);
         contentStream.setNonStrokingColor(0f, 0f, 0f);
         
         tableY -= lineHeight + 6;
@@ -921,33 +1084,14 @@ public class PdfService {
             contentStream.showText(itemDesc);
             contentStream.endText();
 
+            // Description JSON (original fractions + polish) - parsed once per item
+            ItemPolishSpec spec = item.getPolishSpec();
+
             // Size - use original fraction if available
             String size = "";
-            String originalHeight = null;
-            String originalWidth = null;
-            boolean isMM = false;
-            
-            // Try to get original fraction from description JSON
-            if (item.getDescription() != null && !item.getDescription().isEmpty()) {
-                try {
-                    String desc = item.getDescription().trim();
-                    if (desc.startsWith("{") && desc.contains("heightOriginal")) {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode polishData = mapper.readTree(desc);
-                        if (polishData.has("heightOriginal") && !polishData.get("heightOriginal").isNull()) {
-                            originalHeight = polishData.get("heightOriginal").asText();
-                        }
-                        if (polishData.has("widthOriginal") && !polishData.get("widthOriginal").isNull()) {
-                            originalWidth = polishData.get("widthOriginal").asText();
-                        }
-                        if (polishData.has("sizeInMM")) {
-                            isMM = polishData.get("sizeInMM").asBoolean(false);
-                        }
-                    }
-                } catch (Exception ex) {
-                    // If JSON parsing fails, use decimal
-                }
-            }
+            String originalHeight = spec.getHeightOriginal();
+            String originalWidth = spec.getWidthOriginal();
+            boolean isMM = spec.isSizeInMM();
             
             if (originalHeight != null && originalWidth != null && !originalHeight.isEmpty() && !originalWidth.isEmpty() && !isMM) {
                 // Use original fraction input
@@ -970,90 +1114,40 @@ public class PdfService {
 
             String remarks = "Good Condition";
             // Add polish selection details if available
-            if (item.getDescription() != null && !item.getDescription().isEmpty()) {
-                try {
-                    String desc = item.getDescription().trim();
-                    if (desc.startsWith("{") && desc.contains("polishSelection")) {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode polishData = mapper.readTree(desc);
-                        
-                        int heightTable = polishData.has("heightTableNumber") ? polishData.get("heightTableNumber").asInt(6) : 6;
-                        int widthTable = polishData.has("widthTableNumber") ? polishData.get("widthTableNumber").asInt(6) : 6;
-                        int selectedHeight = polishData.has("selectedHeightTableValue") ? polishData.get("selectedHeightTableValue").asInt(0) : 0;
-                        int selectedWidth = polishData.has("selectedWidthTableValue") ? polishData.get("selectedWidthTableValue").asInt(0) : 0;
-                        
-                        // Add item-level polish (Hash-Polish or CNC Polish) if available
-                        String itemPolish = "";
-                        if (polishData.has("itemPolish") && !polishData.get("itemPolish").isNull()) {
-                            itemPolish = polishData.get("itemPolish").asText("");
-                        }
-                        
-                        remarks = "Table: H=" + heightTable + "(" + selectedHeight + "), W=" + widthTable + "(" + selectedWidth + ")";
-                        if (!itemPolish.isEmpty()) {
-                            remarks = "Polish Type: " + itemPolish + " | " + remarks;
-                        }
-                        
-                        if (polishData.has("polishSelection") && polishData.get("polishSelection").isArray()) {
-                            JsonNode polishSelection = polishData.get("polishSelection");
-                            String polishInfo = "";
-                            for (int i = 0; i < polishSelection.size() && i < 4; i++) {
-                                JsonNode ps = polishSelection.get(i);
-                                if (ps.has("checked") && ps.get("checked").asBoolean(false)) {
-                                    String side = ps.has("side") ? ps.get("side").asText("") : "";
-                                    int sideNum = ps.has("sideNumber") ? ps.get("sideNumber").asInt(0) : 0;
-                                    String type = ps.has("type") && !ps.get("type").isNull() ? ps.get("type").asText("") : "";
-                                    if (!type.isEmpty()) {
-                                        polishInfo += side + " " + sideNum + "=" + type + " ";
-                                    }
-                                }
-                            }
-                            if (!polishInfo.isEmpty()) {
-                                remarks += " | Polish: " + polishInfo;
-                            }
-                        }
-                    }
-                } catch (Exception ex) {
-                    // If JSON parsing fails, use default remarks
+            if (spec.hasPolishSelection()) {
+                // Add item-level polish (Hash-Polish or CNC Polish) if available
+                String itemPolish = spec.getItemPolish();
+                
+                remarks = "Table: H=" + spec.getHeightTableNumber() + "(" + spec.getSelectedHeightTableValue() + "), W="
+                        + spec.getWidthTableNumber() + "(" + spec.getSelectedWidthTableValue() + ")";
+                if (!itemPolish.isEmpty()) {
+                    remarks = "Polish Type: " + itemPolish + " | " + remarks;
+                }
+                
+                String polishInfo = spec.describeSelectedSides();
+                if (!polishInfo.isEmpty()) {
+                    remarks += " | Polish: " + polishInfo;
                 }
             }
             
             // Show full remarks - split into multiple lines if needed (scaled down)
-            contentStream.setFont(PDType1Font.HELVETICA, (int)(6 * scaleFactor));
+            int remarksFontSize = (int)(6 * scaleFactor);
+            contentStream.setFont(PDType1Font.HELVETICA, remarksFontSize);
             float remarksX = dcol5;
             float remarksY = tableY - 8;
             float maxRemarksWidth = (pageWidth - margin) - remarksX;
             
-            // Split long remarks into multiple lines
-            String[] remarksWords = remarks.split(" ");
-            String currentLine = "";
+            // Split long remarks into multiple lines (cached Helvetica glyph widths)
+            List<String> remarksLines = PdfTemplates.HELVETICA.wrap(remarks, remarksFontSize, maxRemarksWidth);
             float lineSpacing = 8;
-            int numLines = 1;
-            
-            for (String word : remarksWords) {
-                String testLine = currentLine.isEmpty() ? word : currentLine + " " + word;
-                // Approximate width: 3.5 pixels per character for scaled font
-                float testWidth = testLine.length() * 3.5f;
-                
-                if (testWidth > maxRemarksWidth && !currentLine.isEmpty()) {
-                    // Draw current line and start new line
-                    contentStream.beginText();
-                    contentStream.newLineAtOffset(remarksX, remarksY);
-                    contentStream.showText(currentLine);
-                    contentStream.endText();
-                    remarksY -= lineSpacing;
-                    currentLine = word;
-                    numLines++;
-                } else {
-                    currentLine = testLine;
-                }
-            }
-            
-            // Draw remaining line
-            if (!currentLine.isEmpty()) {
+            int numLines = Math.max(1, remarksLines.size());
+
+            for (String line : remarksLines) {
                 contentStream.beginText();
                 contentStream.newLineAtOffset(remarksX, remarksY);
-                contentStream.showText(currentLine);
+                contentStream.showText(line);
                 contentStream.endText();
+                remarksY -= lineSpacing;
             }
             
             // Reset font for next item
@@ -1145,6 +1239,14 @@ public class PdfService {
      * Prints 3 copies per page
      */
     public byte[] generateCuttingPadPrintPdf(Long quotationId) throws IOException {
+        return toBytes(prepareCuttingPadPrintPdf(quotationId));
+    }
+
+    /**
+     * Load + shop check + cache lookup for the cutting pad print, run on the request thread.
+     * The returned writer renders (or copies the cached PDF) straight to the output stream.
+     */
+    public PdfWriter prepareCuttingPadPrintPdf(Long quotationId) {
         Quotation quotation = quotationRepository.findById(quotationId)
                 .orElseThrow(() -> new RuntimeException("Quotation not found"));
         
@@ -1153,7 +1255,20 @@ public class PdfService {
             throw new RuntimeException("Unauthorized access to quotation");
         }
 
-        PDDocument document = new PDDocument();
+        // ✅ Serve unchanged documents from cache (key includes today's date - printed as "Generated on")
+        String cacheKey = pdfCacheService.key(PdfCacheService.QUOTATION, quotation.getId(), "CUTTING_PAD", quotationVersion(quotation) + "|" + java.time.LocalDate.now());
+        byte[] cached = pdfCacheService.get(cacheKey);
+        if (cached != null) {
+            return out -> out.write(cached);
+        }
+
+        // Load lazy items now - rendering may run after the request thread returns
+        quotation.getItems().size();
+
+        return out -> writeDocument(cacheKey, out, document -> renderCuttingPadPrint(document, quotation, shop));
+    }
+
+    private void renderCuttingPadPrint(PDDocument document, Quotation quotation, Shop shop) throws IOException {
         PDPage page = new PDPage(PDRectangle.A4);
         document.addPage(page);
 
@@ -1164,12 +1279,6 @@ public class PdfService {
         float copyStartY = pageHeight - 20; // Start from top
         
         drawCuttingPadCopy(document, page, quotation, shop, copyStartY, copyHeight);
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        return baos.toByteArray();
     }
     
     /**
@@ -1192,34 +1301,8 @@ public class PdfService {
         contentStream.stroke();
         currentY -= 8;
 
-        // Header Section with Shop Details (scaled down)
-        contentStream.setFont(PDType1Font.HELVETICA_BOLD, (int)(12 * scaleFactor));
-        contentStream.beginText();
-        contentStream.newLineAtOffset(margin, currentY);
-        if (shop.getShopName() != null) {
-            contentStream.showText(shop.getShopName().toUpperCase());
-        } else {
-            contentStream.showText("GLASS SHOP");
-        }
-        contentStream.endText();
-        currentY -= lineHeight;
-
-        // Shop Address and Contact (scaled down)
-        contentStream.setFont(PDType1Font.HELVETICA, (int)(7 * scaleFactor));
-        if (shop.getEmail() != null) {
-            contentStream.beginText();
-            contentStream.newLineAtOffset(margin, currentY);
-            contentStream.showText("Email: " + shop.getEmail());
-            contentStream.endText();
-            currentY -= lineHeight - 2;
-        }
-        if (shop.getWhatsappNumber() != null) {
-            contentStream.beginText();
-            contentStream.newLineAtOffset(margin, currentY);
-            contentStream.showText("Mobile: " + shop.getWhatsappNumber());
-            contentStream.endText();
-            currentY -= lineHeight - 2;
-        }
+        // Header Section with Shop Details (scaled down, prebuilt per shop)
+        currentY = drawShopHeader(contentStream, PdfTemplates.shopHeader(shop), margin, currentY, lineHeight, scaleFactor);
 
         currentY -= 5;
 
@@ -1266,11 +1349,12 @@ public class PdfService {
         // Items Table Header (scaled down)
         float tableY = currentY;
         float tableWidth = pageWidth - 2 * margin;
-        float col1 = margin + 3;
-        float col2 = col1 + 20;
-        float col3 = col2 + 90;
-        float col4 = col3 + 70;
-        float col5 = col4 + 50;
+        PdfTemplates.ColumnLayout columns = PdfTemplates.CUTTING_PAD_COLUMNS;
+        float col1 = columns.x(0, margin);
+        float col2 = columns.x(1, margin);
+        float col3 = columns.x(2, margin);
+        float col4 = columns.x(3, margin);
+        float col5 = columns.x(4, margin);
         
         // Draw table header background
         contentStream.setNonStrokingColor(0.2f, 0.2f, 0.2f);
@@ -1280,26 +1364,7 @@ public class PdfService {
         
         // Header text (white on dark background)
         contentStream.setFont(PDType1Font.HELVETICA_BOLD, (int)(8 * scaleFactor));
-        contentStream.beginText();
-        contentStream.newLineAtOffset(col1, tableY - 8);
-        contentStream.showText("Sr.");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(col2, tableY - 8);
-        contentStream.showText("Glass Type");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(col3, tableY - 8);
-        contentStream.showText("Height");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(col4, tableY - 8);
-        contentStream.showText("Width");
-        contentStream.endText();
-        contentStream.beginText();
-        contentStream.newLineAtOffset(col5, tableY - 8);
-        contentStream.showText("Qty");
-        contentStream.endText();
+        drawColumnTitles(contentStream, columns, margin, tableY - 8);
         contentStream.setNonStrokingColor(0f, 0f, 0f);
         
         tableY -= lineHeight + 6;
@@ -1344,28 +1409,13 @@ public class PdfService {
             contentStream.showText(itemDesc);
             contentStream.endText();
 
+            // Description JSON (original fractions + polish) - parsed once per item
+            ItemPolishSpec spec = item.getPolishSpec();
+
             // Height with unit - use original fraction if available
             String heightStr = "";
-            String originalHeight = null;
-            boolean isMM = false;
-            
-            if (item.getDescription() != null && !item.getDescription().isEmpty()) {
-                try {
-                    String desc = item.getDescription().trim();
-                    if (desc.startsWith("{") && desc.contains("heightOriginal")) {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode polishData = mapper.readTree(desc);
-                        if (polishData.has("heightOriginal") && !polishData.get("heightOriginal").isNull()) {
-                            originalHeight = polishData.get("heightOriginal").asText();
-                        }
-                        if (polishData.has("sizeInMM")) {
-                            isMM = polishData.get("sizeInMM").asBoolean(false);
-                        }
-                    }
-                } catch (Exception ex) {
-                    // If JSON parsing fails, use decimal
-                }
-            }
+            String originalHeight = spec.getHeightOriginal();
+            boolean isMM = spec.isSizeInMM();
             
             if (originalHeight != null && !originalHeight.isEmpty() && !isMM) {
                 heightStr = originalHeight;
@@ -1387,22 +1437,7 @@ public class PdfService {
 
             // Width with unit - use original fraction if available
             String widthStr = "";
-            String originalWidth = null;
-            
-            if (item.getDescription() != null && !item.getDescription().isEmpty()) {
-                try {
-                    String desc = item.getDescription().trim();
-                    if (desc.startsWith("{") && desc.contains("widthOriginal")) {
-                        ObjectMapper mapper = new ObjectMapper();
-                        JsonNode polishData = mapper.readTree(desc);
-                        if (polishData.has("widthOriginal") && !polishData.get("widthOriginal").isNull()) {
-                            originalWidth = polishData.get("widthOriginal").asText();
-                        }
-                    }
-                } catch (Exception ex) {
-                    // If JSON parsing fails, use decimal
-                }
-            }
+            String originalWidth = spec.getWidthOriginal();
             
             if (originalWidth != null && !originalWidth.isEmpty() && !isMM) {
                 widthStr = originalWidth;
@@ -1436,73 +1471,42 @@ public class PdfService {
             tableY -= lineHeight + 1;
 
             // Add polish selection details BELOW the line if available (scaled down)
-            if (item.getDescription() != null && !item.getDescription().isEmpty() && tableY > minY) {
-                try {
-                    String desc = item.getDescription().trim();
-                    if (desc.startsWith("{") && desc.contains("polishSelection")) {
-                        try {
-                            ObjectMapper mapper = new ObjectMapper();
-                            JsonNode polishData = mapper.readTree(desc);
-                            
-                            // Polish details box BELOW the line - Made bigger for readability
-                            float polishBoxHeight = 25; // Increased from 15 to 25
-                            contentStream.setNonStrokingColor(0.95f, 0.97f, 1f);
-                            contentStream.addRect(margin + 3, tableY - polishBoxHeight, tableWidth - 6, polishBoxHeight);
-                            contentStream.fill();
-                            contentStream.setNonStrokingColor(0f, 0f, 0f);
-                            contentStream.setLineWidth(0.5f);
-                            contentStream.addRect(margin + 3, tableY - polishBoxHeight, tableWidth - 6, polishBoxHeight);
-                            contentStream.stroke();
-                            
-                            // Check for item-level polish (Hash-Polish or CNC Polish)
-                            String itemPolish = "";
-                            if (polishData.has("itemPolish") && !polishData.get("itemPolish").isNull()) {
-                                itemPolish = polishData.get("itemPolish").asText("");
-                            }
-                            
-                            contentStream.setFont(PDType1Font.HELVETICA_BOLD, (int)(8 * scaleFactor)); // Increased from 6 to 8
-                            contentStream.beginText();
-                            contentStream.newLineAtOffset(margin + 6, tableY - 10);
-                            if (!itemPolish.isEmpty()) {
-                                contentStream.showText("Polish Type: " + itemPolish);
-                            } else {
-                                contentStream.showText("Polish Details:");
-                            }
-                            contentStream.endText();
-                            
-                            contentStream.setFont(PDType1Font.HELVETICA, (int)(7 * scaleFactor)); // Increased from 5 to 7
-                            
-                            // Show polish selection for 4 sides
-                            if (polishData.has("polishSelection") && polishData.get("polishSelection").isArray()) {
-                                JsonNode polishSelection = polishData.get("polishSelection");
-                                String polishInfo = "Sides: ";
-                                for (int i = 0; i < polishSelection.size() && i < 4; i++) {
-                                    JsonNode ps = polishSelection.get(i);
-                                    if (ps.has("checked") && ps.get("checked").asBoolean(false)) {
-                                        String side = ps.has("side") ? ps.get("side").asText("") : "";
-                                        int sideNum = ps.has("sideNumber") ? ps.get("sideNumber").asInt(0) : 0;
-                                        String type = ps.has("type") && !ps.get("type").isNull() ? ps.get("type").asText("") : "";
-                                        if (!type.isEmpty()) {
-                                            polishInfo += side + " " + sideNum + "=" + type + " ";
-                                        }
-                                    }
-                                }
-                                if (!polishInfo.equals("Sides: ")) {
-                                    contentStream.beginText();
-                                    contentStream.newLineAtOffset(margin + 6, tableY - 20);
-                                    contentStream.showText(polishInfo);
-                                    contentStream.endText();
-                                }
-                            }
-                            
-                            tableY -= polishBoxHeight + 3;
-                        } catch (Exception ex) {
-                            // If JSON parsing fails, ignore
-                        }
-                    }
-                } catch (Exception e) {
-                    // If JSON parsing fails, ignore
+            if (spec.hasPolishSelection() && tableY > minY) {
+                // Polish details box BELOW the line - Made bigger for readability
+                float polishBoxHeight = 25; // Increased from 15 to 25
+                contentStream.setNonStrokingColor(0.95f, 0.97f, 1f);
+                contentStream.addRect(margin + 3, tableY - polishBoxHeight, tableWidth - 6, polishBoxHeight);
+                contentStream.fill();
+                contentStream.setNonStrokingColor(0f, 0f, 0f);
+                contentStream.setLineWidth(0.5f);
+                contentStream.addRect(margin + 3, tableY - polishBoxHeight, tableWidth - 6, polishBoxHeight);
+                contentStream.stroke();
+                
+                // Check for item-level polish (Hash-Polish or CNC Polish)
+                String itemPolish = spec.getItemPolish();
+                
+                contentStream.setFont(PDType1Font.HELVETICA_BOLD, (int)(8 * scaleFactor)); // Increased from 6 to 8
+                contentStream.beginText();
+                contentStream.newLineAtOffset(margin + 6, tableY - 10);
+                if (!itemPolish.isEmpty()) {
+                    contentStream.showText("Polish Type: " + itemPolish);
+                } else {
+                    contentStream.showText("Polish Details:");
                 }
+                contentStream.endText();
+                
+                contentStream.setFont(PDType1Font.HELVETICA, (int)(7 * scaleFactor)); // Increased from 5 to 7
+                
+                // Show polish selection for 4 sides
+                String polishInfo = spec.describeSelectedSides();
+                if (!polishInfo.isEmpty()) {
+                    contentStream.beginText();
+                    contentStream.newLineAtOffset(margin + 6, tableY - 20);
+                    contentStream.showText("Sides: " + polishInfo);
+                    contentStream.endText();
+                }
+                
+                tableY -= polishBoxHeight + 3;
             }
 
             tableY -= 2;
@@ -1562,6 +1566,14 @@ public class PdfService {
      * Professional format with borders and better layout
      */
     public byte[] generateInvoicePdf(Long invoiceId) throws IOException {
+        return toBytes(prepareInvoicePdf(invoiceId));
+    }
+
+    /**
+     * Load + shop check + cache lookup for the invoice PDF, run on the request thread.
+     * The returned writer renders (or copies the cached PDF) straight to the output stream.
+     */
+    public PdfWriter prepareInvoicePdf(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
         
@@ -1570,7 +1582,25 @@ public class PdfService {
             throw new RuntimeException("Unauthorized access to invoice");
         }
 
-        PDDocument document = new PDDocument();
+        return prepareInvoicePdf(invoice, shop);
+    }
+
+    // Invoice already loaded and checked against the shop (bulk export)
+    PdfWriter prepareInvoicePdf(Invoice invoice, Shop shop) {
+        // ✅ Serve unchanged documents from cache (checked after the shop check)
+        String cacheKey = pdfCacheService.key(PdfCacheService.INVOICE, invoice.getId(), "INVOICE", invoiceVersion(invoice));
+        byte[] cached = pdfCacheService.get(cacheKey);
+        if (cached != null) {
+            return out -> out.write(cached);
+        }
+
+        // Load lazy items now - rendering may run after the request thread returns
+        invoice.getItems().size();
+
+        return out -> writeDocument(cacheKey, out, document -> renderInvoice(document, invoice, shop));
+    }
+
+    private void renderInvoice(PDDocument document, Invoice invoice, Shop shop) throws IOException {
         PDPage page = new PDPage(PDRectangle.A4);
         document.addPage(page);
 
@@ -1987,18 +2017,20 @@ public class PdfService {
         contentStream.stroke();
 
         contentStream.close();
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        return baos.toByteArray();
     }
 
     /**
      * Generate Basic Invoice PDF (without shop name and logo)
      */
     public byte[] generateBasicInvoicePdf(Long invoiceId) throws IOException {
+        return toBytes(prepareBasicInvoicePdf(invoiceId));
+    }
+
+    /**
+     * Load + shop check + cache lookup for the basic invoice PDF, run on the request thread.
+     * The returned writer renders (or copies the cached PDF) straight to the output stream.
+     */
+    public PdfWriter prepareBasicInvoicePdf(Long invoiceId) {
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new RuntimeException("Invoice not found"));
         
@@ -2007,7 +2039,25 @@ public class PdfService {
             throw new RuntimeException("Unauthorized access to invoice");
         }
 
-        PDDocument document = new PDDocument();
+        return prepareBasicInvoicePdf(invoice, shop);
+    }
+
+    // Invoice already loaded and checked against the shop (bulk export)
+    PdfWriter prepareBasicInvoicePdf(Invoice invoice, Shop shop) {
+        // ✅ Serve unchanged documents from cache (checked after the shop check)
+        String cacheKey = pdfCacheService.key(PdfCacheService.INVOICE, invoice.getId(), "BASIC_INVOICE", invoiceVersion(invoice));
+        byte[] cached = pdfCacheService.get(cacheKey);
+        if (cached != null) {
+            return out -> out.write(cached);
+        }
+
+        // Load lazy items now - rendering may run after the request thread returns
+        invoice.getItems().size();
+
+        return out -> writeDocument(cacheKey, out, document -> renderBasicInvoice(document, invoice, shop));
+    }
+
+    private void renderBasicInvoice(PDDocument document, Invoice invoice, Shop shop) throws IOException {
         PDPage page = new PDPage(PDRectangle.A4);
         document.addPage(page);
 
@@ -2334,12 +2384,6 @@ public class PdfService {
         contentStream.endText();
 
         contentStream.close();
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        document.save(baos);
-        document.close();
-
-        return baos.toByteArray();
     }
 }
 
@@ -0,0 +1,211 @@
+package com.glassshop.ai.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import com.glassshop.ai.entity.Shop;
+
+/**
+ * Reusable, document-independent pieces of the PDF templates:
+ *  - column layouts per document type (computed once)
+ *  - font metrics for HELVETICA / HELVETICA_BOLD (per-glyph width table,
+ *    so wrapping doesn't re-encode every candidate line)
+ *  - shop header text per shop (rebuilt only when the shop changes)
+ *
+ * The standard 14 Type1 fonts are never embedded, so there is nothing to
+ * pre-embed per document - PDType1Font constants are already shared.
+ * Everything here is immutable or concurrent; safe from bulk-export workers.
+ */
+final class PdfTemplates {
+
+    private PdfTemplates() {
+    }
+
+    /* ===============================
+       COLUMN LAYOUTS
+       =============================== */
+
+    /**
+     * Table columns as offsets from the left margin + header titles
+     */
+    static final class ColumnLayout {
+
+        private final float[] offsets;
+        private final List<String> titles;
+
+        private ColumnLayout(float[] offsets, List<String> titles) {
+            this.offsets = offsets;
+            this.titles = titles;
+        }
+
+        float x(int column, float margin) {
+            return margin + offsets[column];
+        }
+
+        int size() {
+            return offsets.length;
+        }
+
+        String title(int column) {
+            return titles.get(column);
+        }
+    }
+
+    // Sr. | Description | Size | Qty | Remarks
+    static final ColumnLayout DELIVERY_CHALLAN_COLUMNS = new ColumnLayout(
+            new float[] {3, 23, 123, 173, 223},
+            List.of("Sr.", "Description", "Size", "Qty", "Remarks"));
+
+    // Sr. | Glass Type | Height | Width | Qty
+    static final ColumnLayout CUTTING_PAD_COLUMNS = new ColumnLayout(
+            new float[] {3, 23, 113, 183, 233},
+            List.of("Sr.", "Glass Type", "Height", "Width", "Qty"));
+
+    /* ===============================
+       FONT METRICS
+       =============================== */
+
+    /**
+     * Glyph widths (1/1000 em) for Latin-1 characters, looked up once per font
+     */
+    static final class FontMetrics {
+
+        private final PDType1Font font;
+        private final float[] widths = new float[256];
+        private final float fallbackWidth;
+
+        private FontMetrics(PDType1Font font) {
+            this.font = font;
+            float sum = 0;
+            int count = 0;
+            for (int c = 0; c < 256; c++) {
+                widths[c] = -1;
+                if (c >= 32 && c != 127 && (c < 128 || c >= 160)) {
+                    try {
+                        widths[c] = font.getStringWidth(String.valueOf((char) c));
+                        sum += widths[c];
+                        count++;
+                    } catch (Exception e) {
+                        // glyph not in WinAnsiEncoding - keep -1
+                    }
+                }
+            }
+            this.fallbackWidth = count > 0 ? sum / count : 500;
+        }
+
+        /**
+         * Width of text in points at the given font size
+         */
+        float width(String text, float fontSize) {
+            float total = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                float w = c < 256 ? widths[c] : -1;
+                total += w >= 0 ? w : fallbackWidth;
+            }
+            return total * fontSize / 1000f;
+        }
+
+        /**
+         * Greedy word wrap to maxWidth points. A word wider than the line is
+         * broken between characters (at least one per line) instead of
+         * running past the column. Null / blank text gives no lines.
+         */
+        List<String> wrap(String text, float fontSize, float maxWidth) {
+            List<String> lines = new ArrayList<>();
+            if (text == null) {
+                return lines;
+            }
+            String current = "";
+            for (String word : text.split(" ")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                String candidate = current.isEmpty() ? word : current + " " + word;
+                if (width(candidate, fontSize) <= maxWidth) {
+                    current = candidate;
+                    continue;
+                }
+                if (!current.isEmpty()) {
+                    lines.add(current);
+                }
+                current = word;
+                while (current.length() > 1 && width(current, fontSize) > maxWidth) {
+                    int fit = 1;
+                    while (fit < current.length() && width(current.substring(0, fit + 1), fontSize) <= maxWidth) {
+                        fit++;
+                    }
+                    lines.add(current.substring(0, fit));
+                    current = current.substring(fit);
+                }
+            }
+            if (!current.isEmpty()) {
+                lines.add(current);
+            }
+            return lines;
+        }
+
+        PDType1Font getFont() {
+            return font;
+        }
+    }
+
+    static final FontMetrics HELVETICA = new FontMetrics(PDType1Font.HELVETICA);
+    static final FontMetrics HELVETICA_BOLD = new FontMetrics(PDType1Font.HELVETICA_BOLD);
+
+    /* ===============================
+       SHOP HEADER FRAGMENTS
+       =============================== */
+
+    /**
+     * Pre-formatted shop header lines (name, email, mobile)
+     */
+    static final class ShopHeader {
+
+        private final String shopName;
+        private final String email;
+        private final String whatsappNumber;
+
+        final String title;
+        final String emailLine;    // null when the shop has no email
+        final String mobileLine;   // null when the shop has no number
+
+        private ShopHeader(Shop shop) {
+            this.shopName = shop.getShopName();
+            this.email = shop.getEmail();
+            this.whatsappNumber = shop.getWhatsappNumber();
+
+            this.title = shopName != null ? shopName.toUpperCase() : "GLASS SHOP";
+            this.emailLine = email != null ? "Email: " + email : null;
+            this.mobileLine = whatsappNumber != null ? "Mobile: " + whatsappNumber : null;
+        }
+
+        private boolean matches(Shop shop) {
+            return Objects.equals(shopName, shop.getShopName())
+                    && Objects.equals(email, shop.getEmail())
+                    && Objects.equals(whatsappNumber, shop.getWhatsappNumber());
+        }
+    }
+
+    private static final Map<Long, ShopHeader> SHOP_HEADERS = new ConcurrentHashMap<>();
+
+    /**
+     * Header for a shop; rebuilt if the shop profile changed since last use
+     */
+    static ShopHeader shopHeader(Shop shop) {
+        if (shop.getId() == null) {
+            return new ShopHeader(shop);
+        }
+        ShopHeader header = SHOP_HEADERS.get(shop.getId());
+        if (header == null || !header.matches(shop)) {
+            header = new ShopHeader(shop);
+            SHOP_HEADERS.put(shop.getId(), header);
+        }
+        return header;
+    }
+}
@@ -0,0 +1,14 @@
+package com.glassshop.ai.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A prepared PDF (already loaded + access-checked by PdfService) that
+ * writes itself to an output stream - e.g. the servlet response.
+ */
+@FunctionalInterface
+public interface PdfWriter {
+
+    void writeTo(OutputStream out) throws IOException;
+}
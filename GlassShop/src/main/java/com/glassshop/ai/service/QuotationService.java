@@ -20,12 +20,12 @@ import com.glassshop.ai.entity.Customer;
 import com.glassshop.ai.entity.Quotation;
 import com.glassshop.ai.entity.QuotationItem;
 import com.glassshop.ai.entity.Shop;
-import com.glassshop.ai.entity.User;
 import com.glassshop.ai.enums.BillingType;
 import com.glassshop.ai.enums.QuotationStatus;
 import com.glassshop.ai.repository.CustomerRepository;
 import com.glassshop.ai.repository.QuotationRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class QuotationService {
@@ -39,15 +39,22 @@ public class QuotationService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private PdfCacheService pdfCacheService;
+
     private Shop getCurrentShop() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
             throw new RuntimeException("User not authenticated");
         }
-        String username = auth.getName();
-        User user = userRepository.findByUserName(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Shop shop = user.getShop();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null) {
+            throw new RuntimeException("User not found");
+        }
+        Shop shop = tenant.getShop();
         if (shop == null) {
             throw new RuntimeException("User is not linked to any shop");
         }
@@ -59,21 +66,6 @@ public class QuotationService {
         return auth != null ? auth.getName() : "system";
     }
 
-    private String generateQuotationNumber(Shop shop) {
-        // Format: Q-YYYY-MM-XXXX (e.g., Q-2024-01-0001)
-        String yearMonth = LocalDate.now().format(java.time.format.DateTimeFormatter.ofPattern("yyyy-MM"));
-        String prefix = "Q-" + yearMonth + "-";
-        
-        // Find the last quotation number for this month
-        List<Quotation> recentQuotations = quotationRepository.findByShop(shop)
-                .stream()
-                .filter(q -> q.getQuotationNumber().startsWith(prefix))
-                .collect(Collectors.toList());
-        
-        int nextNumber = recentQuotations.size() + 1;
-        return prefix + String.format("%04d", nextNumber);
-    }
-
     @Transactional
     public QuotationResponse createQuotation(CreateQuotationRequest request) {
         Shop shop = getCurrentShop();
@@ -95,7 +87,7 @@ public class QuotationService {
         Quotation quotation = new Quotation();
         quotation.setShop(shop);
         quotation.setCustomer(customer);
-        quotation.setQuotationNumber(generateQuotationNumber(shop));
+        quotation.setQuotationNumber(documentNumberService.nextQuotationNumber(shop));
         quotation.setVersion(1);
         quotation.setBillingType(request.getBillingType());
         quotation.setStatus(QuotationStatus.DRAFT);
@@ -261,6 +253,10 @@ public class QuotationService {
         }
 
         Quotation saved = quotationRepository.save(quotation);
+
+        // ✅ Status changed - drop cached quotation / cutting-pad PDFs
+        pdfCacheService.evictQuotation(saved.getId());
+
         return convertToResponse(saved);
     }
 
@@ -287,6 +283,8 @@ public class QuotationService {
         // For brevity, reusing create logic - in production, you might want to refactor
         // This is a simplified update - you may want to create a new version instead
         
+        pdfCacheService.evictQuotation(quotation.getId());
+
         return createQuotation(request); // For now, creating new quotation
         // TODO: Implement proper update logic or versioning
     }
@@ -351,6 +349,7 @@ public class QuotationService {
         }
 
         quotationRepository.delete(quotation);
+        pdfCacheService.evictQuotation(id);
     }
 
     private QuotationItemDto convertItemToDto(QuotationItem item) {
@@ -5,18 +5,26 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.glassshop.ai.entity.Stock;
-import com.glassshop.ai.repository.StockRepository;
+import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class ReorderService {
 
     @Autowired
-    private StockRepository stockRepository;
+    private LowStockTracker lowStockTracker;
+
+    @Autowired
+    private UserRepository userRepository;
 
     public String getReorderSuggestions() {
 
-        List<Stock> lowStocks = stockRepository.findLowStock();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShopId() == null) {
+            return "❌ User is not linked to any shop";
+        }
+
+        List<LowStockTracker.LowStockItem> lowStocks = lowStockTracker.getLowStock(tenant.getShopId());
 
         if (lowStocks.isEmpty()) {
             return "✅ No reorder needed. Stock levels are healthy.";
@@ -24,8 +32,8 @@ public class ReorderService {
 
         StringBuilder sb = new StringBuilder("📦 REORDER SUGGESTIONS\n\n");
 
-        for (Stock s : lowStocks) {
-            if (s.getGlass() == null) continue;
+        for (LowStockTracker.LowStockItem s : lowStocks) {
+            if (s.getGlassType() == null) continue;
 
             int recommendedQty =
                     (s.getMinQuantity() * 3) - s.getQuantity();
@@ -35,7 +43,7 @@ public class ReorderService {
             }
 
             sb.append("Glass: ")
-              .append(s.getGlass().getType())
+              .append(s.getGlassType())
               .append("\nStand: ")
               .append(s.getStandNo())
               .append("\nAvailable: ")
@@ -0,0 +1,170 @@
+package com.glassshop.ai.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.glassshop.ai.dto.ShopActivityCounts;
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.entity.ShopActivityCounter;
+import com.glassshop.ai.repository.ShopActivityCounterRepository;
+
+/**
+ * Per-shop activity counters (transfers / adds / removes / today's ops).
+ *
+ * recordAll() is called by AuditLogWriter inside the transaction that
+ * inserts the audit rows, so counters and audit_log commit or roll back
+ * together. A batch becomes one upsert per (shop, day).
+ *
+ * Reads are served from memory: a shop's row is loaded on first use and
+ * dropped once a batch for that shop commits, so the next read loads the
+ * committed row (applying the delta instead would double-count if a read
+ * loaded the row between the commit and afterCommit). Entries are also
+ * re-read after audit.counters.cache-ttl-ms to pick up writes from other
+ * instances.
+ */
+@Service
+public class ShopActivityCounterService {
+
+    @Autowired
+    private ShopActivityCounterRepository counterRepository;
+
+    @Value("${audit.counters.cache-ttl-ms:60000}")
+    private long cacheTtlMs = 60000;
+
+    private final Map<Long, Counts> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Cached counters of one shop, as loaded
+     */
+    private static class Counts {
+        final long loadedAt = System.currentTimeMillis();
+        long transfers;
+        long adds;
+        long removes;
+        LocalDate opsDay;
+        long todayOps;
+
+        ShopActivityCounts snapshot(LocalDate today) {
+            return new ShopActivityCounts(transfers, adds, removes, today.equals(opsDay) ? todayOps : 0);
+        }
+    }
+
+    /**
+     * Counter changes of one shop on one day
+     */
+    private static class Delta {
+        final Long shopId;
+        final LocalDate day;
+        long transfers;
+        long adds;
+        long removes;
+        long ops;
+
+        Delta(Long shopId, LocalDate day) {
+            this.shopId = shopId;
+            this.day = day;
+        }
+    }
+
+    /* ===============================
+       WRITE SIDE
+       =============================== */
+
+    /**
+     * Add audit rows to the counters. Must run in the transaction that
+     * inserts them; the shops' cache entries are dropped once it commits.
+     */
+    public void recordAll(Collection<AuditLog> logs) {
+        List<Delta> deltas = aggregate(logs);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        for (Delta d : deltas) {
+            counterRepository.addActivity(d.shopId, d.transfers, d.adds, d.removes, d.day, d.ops);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(deltas);
+                }
+            });
+        } else {
+            invalidate(deltas);
+        }
+    }
+
+    // Oldest day first, so a batch spanning midnight leaves today's count in place
+    private List<Delta> aggregate(Collection<AuditLog> logs) {
+        Map<String, Delta> byShopAndDay = new LinkedHashMap<>();
+        for (AuditLog log : logs) {
+            if (log.getShop() == null || log.getShop().getId() == null) {
+                continue;
+            }
+            LocalDateTime timestamp = log.getTimestamp() != null ? log.getTimestamp() : LocalDateTime.now();
+            Long shopId = log.getShop().getId();
+            LocalDate day = timestamp.toLocalDate();
+            Delta d = byShopAndDay.computeIfAbsent(shopId + "#" + day, k -> new Delta(shopId, day));
+
+            String action = log.getAction() != null ? log.getAction().trim().toUpperCase() : "";
+            switch (action) {
+                case "TRANSFER" -> d.transfers++;
+                case "ADD" -> d.adds++;
+                case "REMOVE" -> d.removes++;
+                default -> { }
+            }
+            d.ops++;
+        }
+        List<Delta> deltas = new ArrayList<>(byShopAndDay.values());
+        deltas.sort((a, b) -> a.day.compareTo(b.day));
+        return deltas;
+    }
+
+    // A load running in getCounts holds the entry (compute), so this waits
+    // for it and a row read before the commit can't stay cached
+    private void invalidate(List<Delta> deltas) {
+        for (Delta d : deltas) {
+            cache.remove(d.shopId);
+        }
+    }
+
+    /* ===============================
+       READ SIDE
+       =============================== */
+
+    public ShopActivityCounts getCounts(Long shopId) {
+        if (shopId == null) {
+            return new ShopActivityCounts(0, 0, 0, 0);
+        }
+        long now = System.currentTimeMillis();
+        Counts counts = cache.compute(shopId, (id, cached) ->
+                cached != null && now - cached.loadedAt < cacheTtlMs ? cached : load(id));
+        return counts.snapshot(LocalDate.now());
+    }
+
+    private Counts load(Long shopId) {
+        Counts counts = new Counts();
+        ShopActivityCounter row = counterRepository.findById(shopId).orElse(null);
+        if (row != null) {
+            counts.transfers = row.getTransfers();
+            counts.adds = row.getAdds();
+            counts.removes = row.getRemoves();
+            counts.opsDay = row.getOpsDay();
+            counts.todayOps = row.getTodayOps();
+        }
+        return counts;
+    }
+}
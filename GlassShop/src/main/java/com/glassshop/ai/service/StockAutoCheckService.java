@@ -1,26 +1,38 @@
 package com.glassshop.ai.service;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.glassshop.ai.repository.StockRepository;
+
 @Service
 public class StockAutoCheckService {
 
-	@Scheduled(cron = "0 0 9 * * ?")
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private LowStockTracker lowStockTracker;
+
+	@Scheduled(cron = "${stock.auto-check.cron:0 0 9 * * ?}")
     public void dailyStockCheck() {
 
         System.out.println("🔁 Daily stock auto-check started");
 
-        // TEMP logic (later connect DB)
-        int lowStockItems = 3;
-        int overStockItems = 1;
+        // one grouped count over the partial low-stock index, no rows loaded
+        List<Object[]> counts = stockRepository.countLowStockByShop();
 
-        if (lowStockItems > 0) {
-            System.out.println("⚠ ALERT: Low stock detected");
+        if (counts.isEmpty()) {
+            System.out.println("✅ No low stock in any shop");
         }
-
-        if (overStockItems > 0) {
-            System.out.println("ℹ Over stock detected");
+        for (Object[] row : counts) {
+            System.out.println("⚠ ALERT: Shop " + row[0] + " has " + row[1] + " low stock item(s)");
         }
+
+        // resync: per-shop sets are re-read on next use (covers edits made outside the app)
+        lowStockTracker.reset();
     }
 }
@@ -0,0 +1,402 @@
+package com.glassshop.ai.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.dto.StockImportResult;
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.entity.StockHistory;
+import com.glassshop.ai.repository.StockHistoryRepository;
+import com.glassshop.ai.repository.StockRepository;
+import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Opening-inventory import from CSV.
+ *
+ * Header (any order, case-insensitive):
+ *   glassType, unit, standNo, height, width, quantity [, minQuantity, hsnNo]
+ *
+ * The upload is parsed record by record (never held in memory). Valid rows
+ * are upserted into stock - quantity is SET, not added - in chunks of
+ * stock.import.batch-size, each chunk in its own transaction. A failed
+ * chunk stops the import; everything before it stays committed and the
+ * result says where to resume. Re-running a file is safe (same quantities).
+ *
+ * Each changed quantity is recorded like a manual update: an ADD / REMOVE
+ * audit entry and stock history row for the difference. It is not added to
+ * the daily sales rollup - a lower count in a stocktake is a correction,
+ * not a sale.
+ */
+@Service
+public class StockImportService {
+
+    public static final List<String> REQUIRED_COLUMNS =
+            List.of("glassType", "unit", "standNo", "height", "width", "quantity");
+
+    private static final Set<String> UNITS = Set.of("MM", "INCH", "FEET");
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private GlassCatalogService glassCatalogService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LowStockTracker lowStockTracker;
+
+    @Autowired
+    private StockHistoryRepository historyRepository;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${stock.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${stock.import.max-errors:1000}")
+    private int maxErrors;
+
+    /**
+     * One validated CSV row
+     */
+    private static class ImportRow {
+        long row;
+        Glass glass;
+        int standNo;
+        String height;
+        String width;
+        int quantity;
+        Integer minQuantity;
+        String hsnNo;
+
+        String key() {
+            return stockKey(glass.getId(), standNo, height, width);
+        }
+    }
+
+    public StockImportResult importCsv(InputStream in, long startRow) throws IOException {
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShop() == null) {
+            throw new RuntimeException("❌ User is not linked to any shop");
+        }
+        Shop shop = tenant.getShop();
+
+        CSVFormat format = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreHeaderCase(true)
+                .setIgnoreEmptyLines(true)
+                .setTrim(true)
+                .build();
+
+        StockImportResult result = new StockImportResult();
+        result.setLastCommittedRow(Math.max(0, startRow - 1));
+
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+             CSVParser parser = format.parse(reader)) {
+
+            checkHeader(parser);
+
+            List<ImportRow> chunk = new ArrayList<>(batchSize);
+            long row = 0;
+
+            for (CSVRecord record : parser) {
+                row++;
+                if (row < startRow) {
+                    continue;
+                }
+                result.setProcessedRows(result.getProcessedRows() + 1);
+
+                try {
+                    chunk.add(parseRow(record, row));
+                } catch (IllegalArgumentException e) {
+                    addError(result, row, e.getMessage());
+                }
+
+                if (chunk.size() >= batchSize) {
+                    if (!commitChunk(chunk, tenant, result, row)) {
+                        return result;
+                    }
+                }
+            }
+
+            if (!commitChunk(chunk, tenant, result, row)) {
+                return result;
+            }
+            result.setLastCommittedRow(Math.max(result.getLastCommittedRow(), row));
+        }
+
+        result.setCompleted(true);
+        result.setMessage("✅ Imported " + result.getImportedRows() + " rows"
+                + (result.getFailedRows() > 0 ? ", " + result.getFailedRows() + " rows rejected" : ""));
+        System.out.println("✅ Stock import for shop " + shop.getId() + ": " + result.getMessage());
+        return result;
+    }
+
+    private void checkHeader(CSVParser parser) {
+        Set<String> header = new HashSet<>();
+        for (String name : parser.getHeaderNames()) {
+            header.add(name.toLowerCase());
+        }
+        List<String> missing = new ArrayList<>();
+        for (String column : REQUIRED_COLUMNS) {
+            if (!header.contains(column.toLowerCase())) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("❌ Missing CSV columns: " + missing
+                    + ". Expected header: " + String.join(",", REQUIRED_COLUMNS) + ",minQuantity,hsnNo");
+        }
+    }
+
+    /* ===============================
+       ROW VALIDATION
+       =============================== */
+
+    private ImportRow parseRow(CSVRecord record, long row) {
+        String glassType = value(record, "glassType").toUpperCase();
+        if (glassType.isEmpty()) {
+            throw new IllegalArgumentException("Glass type is required");
+        }
+        int thickness;
+        try {
+            thickness = Integer.parseInt(glassType.replace("MM", "").trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid glass type format (use 5MM, 8MM)");
+        }
+
+        String unit = value(record, "unit").toUpperCase();
+        if (!UNITS.contains(unit)) {
+            throw new IllegalArgumentException("Unit must be one of " + UNITS);
+        }
+
+        ImportRow r = new ImportRow();
+        r.row = row;
+        r.standNo = intValue(record, "standNo", true);
+        if (r.standNo <= 0) {
+            throw new IllegalArgumentException("Stand number must be greater than 0");
+        }
+
+        r.height = value(record, "height");
+        r.width = value(record, "width");
+        if (Stock.parseDimension(r.height) == null || Stock.parseDimension(r.width) == null) {
+            throw new IllegalArgumentException("Height and width must be numbers (e.g. 26, 26.5, 26 1/4)");
+        }
+
+        r.quantity = intValue(record, "quantity", true);
+        if (r.quantity < 0) {
+            throw new IllegalArgumentException("Quantity cannot be negative");
+        }
+
+        if (!value(record, "minQuantity").isEmpty()) {
+            r.minQuantity = intValue(record, "minQuantity", false);
+            if (r.minQuantity < 0) {
+                throw new IllegalArgumentException("Min quantity cannot be negative");
+            }
+        }
+
+        String hsn = value(record, "hsnNo");
+        if (hsn.length() > 20) {
+            throw new IllegalArgumentException("HSN number is longer than 20 characters");
+        }
+        r.hsnNo = hsn.isEmpty() ? null : hsn;
+
+        // only fully valid rows may add to the glass master
+        r.glass = resolveGlass(glassType, thickness, unit);
+        return r;
+    }
+
+    // header lookup is case-insensitive (setIgnoreHeaderCase); short rows give ""
+    private String value(CSVRecord record, String column) {
+        return record.isSet(column) && record.get(column) != null ? record.get(column).trim() : "";
+    }
+
+    private int intValue(CSVRecord record, String column, boolean required) {
+        String raw = value(record, column);
+        if (raw.isEmpty() && required) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        try {
+            return Integer.parseInt(raw);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a whole number");
+        }
+    }
+
+    /* ===============================
+       GLASS MASTER
+       =============================== */
+
+    // Same rule as /stock/update: a valid type/unit not yet in the master is added once
+    private Glass resolveGlass(String type, int thickness, String unit) {
+        return glassCatalogService.findOrCreate(type, thickness, unit);
+    }
+
+    /* ===============================
+       CHUNKED UPSERT
+       =============================== */
+
+    /**
+     * Upsert one chunk in its own transaction.
+     * @return false if the chunk failed and the import must stop
+     */
+    private boolean commitChunk(List<ImportRow> chunk, TenantContext tenant, StockImportResult result,
+                                long lastRow) {
+        if (chunk.isEmpty()) {
+            result.setLastCommittedRow(lastRow);
+            return true;
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            Integer saved = tx.execute(status -> upsert(chunk, tenant));
+            result.setImportedRows(result.getImportedRows() + (saved != null ? saved : 0));
+            result.setLastCommittedRow(lastRow);
+            return true;
+        } catch (RuntimeException e) {
+            long firstRow = chunk.get(0).row;
+            System.err.println("❌ Stock import chunk failed at row " + firstRow + ": " + e.getMessage());
+            result.setMessage("❌ Import stopped at row " + firstRow + " (" + e.getMessage()
+                    + "). Rows up to " + result.getLastCommittedRow()
+                    + " are saved - upload again with startRow=" + (result.getLastCommittedRow() + 1));
+            return false;
+        } finally {
+            chunk.clear();
+            // keep the (request-scoped) persistence context from growing per chunk
+            entityManager.clear();
+        }
+    }
+
+    private int upsert(List<ImportRow> chunk, TenantContext tenant) {
+        Shop shop = tenant.getShop();
+        // later rows for the same stock win
+        Map<String, ImportRow> rows = new LinkedHashMap<>();
+        Set<Long> glassIds = new HashSet<>();
+        Set<Integer> standNos = new HashSet<>();
+        for (ImportRow r : chunk) {
+            rows.put(r.key(), r);
+            glassIds.add(r.glass.getId());
+            standNos.add(r.standNo);
+        }
+
+        Map<String, Stock> existing = new HashMap<>();
+        for (Stock s : stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(
+                shop.getId(), glassIds, standNos)) {
+            existing.putIfAbsent(stockKey(s.getGlass().getId(), s.getStandNo(), s.getHeight(), s.getWidth()), s);
+        }
+
+        List<Stock> toSave = new ArrayList<>(rows.size());
+        List<Boolean> wasLow = new ArrayList<>(rows.size());
+        List<AuditLog> logs = new ArrayList<>();
+        List<StockHistory> histories = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, ImportRow> e : rows.entrySet()) {
+            ImportRow r = e.getValue();
+            Stock stock = existing.get(e.getKey());
+            wasLow.add(stock != null && LowStockTracker.isLow(stock));
+            int delta = r.quantity - (stock != null ? stock.getQuantity() : 0);
+            if (stock == null) {
+                stock = new Stock();
+                stock.setGlass(r.glass);
+                stock.setStandNo(r.standNo);
+                stock.setShop(shop);
+                stock.setHeight(r.height);
+                stock.setWidth(r.width);
+                stock.setMinQuantity(5);
+            }
+            stock.setQuantity(r.quantity);
+            if (r.minQuantity != null) {
+                stock.setMinQuantity(r.minQuantity);
+            }
+            if (r.hsnNo != null) {
+                stock.setHsnNo(r.hsnNo);
+            }
+            toSave.add(stock);
+
+            if (delta != 0) {
+                String action = delta > 0 ? "ADD" : "REMOVE";
+
+                AuditLog log = new AuditLog();
+                log.setUsername(tenant.getUserName());
+                log.setRole(tenant.getRole());
+                log.setAction(action);
+                log.setGlassType(r.glass.getType());
+                log.setQuantity(Math.abs(delta));
+                log.setStandNo(r.standNo);
+                log.setHeight(stock.getHeight());
+                log.setWidth(stock.getWidth());
+                log.setUnit(r.glass.getUnit());
+                log.setTimestamp(now);
+                log.setShop(shop);
+                logs.add(log);
+
+                StockHistory history = new StockHistory();
+                history.setGlassId(r.glass.getId());
+                history.setStandNo(r.standNo);
+                history.setHeight(stock.getHeight());
+                history.setWidth(stock.getWidth());
+                history.setQuantity(Math.abs(delta));
+                history.setAction(action);
+                history.setShop(shop);
+                histories.add(history);
+            }
+        }
+
+        stockRepository.saveAll(toSave);
+        historyRepository.saveAll(histories);
+        auditLogWriter.submitAll(logs);
+        for (int i = 0; i < toSave.size(); i++) {
+            lowStockTracker.stockChanged(toSave.get(i), wasLow.get(i));
+        }
+        return chunk.size();
+    }
+
+    private void addError(StockImportResult result, long row, String message) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new StockImportResult.RowError(row, message));
+        }
+    }
+
+    private static String stockKey(Long glassId, int standNo, String height, String width) {
+        return glassId + "#" + standNo + "#" + (height != null ? height.trim() : "")
+                + "#" + (width != null ? width.trim() : "");
+    }
+}
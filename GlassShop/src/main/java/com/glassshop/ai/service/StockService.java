@@ -1,29 +1,43 @@
 
 package com.glassshop.ai.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.glassshop.ai.dto.StockActivityDto;
+import com.glassshop.ai.dto.StockFilter;
+import com.glassshop.ai.dto.StockPageResponse;
 import com.glassshop.ai.dto.StockTransferRequest;
 import com.glassshop.ai.dto.StockUpdateRequest;
+import com.glassshop.ai.dto.StockView;
 import com.glassshop.ai.entity.AuditLog;
 import com.glassshop.ai.entity.Glass;
 import com.glassshop.ai.entity.Shop;
 import com.glassshop.ai.entity.Stock;
 import com.glassshop.ai.entity.StockHistory;
-import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.AuditLogRepository;
-import com.glassshop.ai.repository.GlassRepository;
 import com.glassshop.ai.repository.StockHistoryRepository;
 import com.glassshop.ai.repository.StockRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class StockService {
@@ -32,7 +46,7 @@ public class StockService {
     private StockRepository stockRepository;
 
     @Autowired
-    private GlassRepository glassRepository;
+    private GlassCatalogService glassCatalogService;
 
     @Autowired
     private StockHistoryRepository historyRepository;
@@ -44,11 +58,26 @@ public class StockService {
     private UserRepository userRepository;
 
     @Autowired
-    private EmailService emailService;
+    private DailySalesRollupService dailySalesRollupService;
+
+    @Autowired
+    private LowStockTracker lowStockTracker;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Value("${stock.page.max-size:200}")
+    private int maxPageSize = 200;
+
+    @Value("${stock.bulk.max-lines:500}")
+    private int maxBulkLines = 500;
 
     /* ===============================
        ADD / REMOVE STOCK
        =============================== */
+    // Transactional so the row lock taken by findByGlassAndStandNoAndShop
+    // is held until the new quantity is committed (no lost updates / oversell)
+    @Transactional
     public String updateStock(StockUpdateRequest request) {
 
 //        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -61,18 +90,15 @@ public class StockService {
     	    return "❌ User not authenticated";
     	}
 
-    	String username = auth.getName();
-
-    	User user = userRepository.findByUserName(username)
-    	        .orElse(null);
+    	TenantContext tenant = TenantContext.resolve(userRepository);
 
-    	if (user == null) {
+    	if (tenant == null) {
     	    return "❌ User not found in system. Please login again.";
     	}
 
 
         // ✅ CRITICAL: User must belong to a shop
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
         if (shop == null) {
             return "❌ User is not linked to any shop";
         }
@@ -87,19 +113,12 @@ public class StockService {
             return "❌ Invalid glass type format (use 5MM, 8MM)";
         }
 
-        Glass glass = glassRepository
-            .findByTypeAndThicknessAndUnit(
+        // cached catalog; a new glass is inserted once even under concurrency
+        Glass glass = glassCatalogService.findOrCreate(
                 request.getGlassType().toUpperCase(),
                 thickness,
                 request.getUnit()
-            )
-            .orElseGet(() -> {
-                Glass g = new Glass();
-                g.setType(request.getGlassType().toUpperCase());
-                g.setThickness(thickness);
-                g.setUnit(request.getUnit());
-                return glassRepository.save(g);
-            });
+        );
 
 
 
@@ -113,22 +132,19 @@ public class StockService {
         	    )
         	    .orElse(null);
 
+        	boolean wasLow = stock != null && LowStockTracker.isLow(stock);
         	if (stock == null) {
-        	    stock = new Stock();
-        	    stock.setGlass(glass);
-        	    stock.setStandNo(request.getStandNo());
-        	    stock.setQuantity(0);
-        	    stock.setMinQuantity(5);
-        	    stock.setShop(shop);
-
-        	    // ✅ SAVE DIMENSIONS HERE
-        	    stock.setHeight(request.getHeight());
-        	    stock.setWidth(request.getWidth());
-        	}
-        	
-        	// ✅ SAVE HSN NUMBER (for both new and existing stock)
-        	if (request.getHsnNo() != null && !request.getHsnNo().trim().isEmpty()) {
-        	    stock.setHsnNo(request.getHsnNo().trim());
+        	    if (!"ADD".equalsIgnoreCase(request.getAction())) {
+        	        return "❌ Not enough stock";
+        	    }
+        	    // first ADD of this glass on this stand: insert the empty row
+        	    // (a no-op if a concurrent ADD got there first), then lock it
+        	    // like any existing row
+        	    insertEmptyStockIfAbsent(glass, request.getStandNo(), shop,
+        	            request.getHeight(), request.getWidth(), LocalDateTime.now());
+        	    stock = stockRepository
+        	            .findByGlassAndStandNoAndShop(glass, request.getStandNo(), shop)
+        	            .orElseThrow(() -> new RuntimeException("❌ Could not create stock row"));
         	}
 
         if ("ADD".equalsIgnoreCase(request.getAction())) {
@@ -136,13 +152,21 @@ public class StockService {
         }
         else if ("REMOVE".equalsIgnoreCase(request.getAction())) {
             if (stock.getQuantity() < request.getQuantity()) {
+                // the row is still managed: nothing may be changed on it before
+                // this return, or the commit would save it
                 return "❌ Not enough stock";
             }
             stock.setQuantity(stock.getQuantity() - request.getQuantity());
         }
 
+        // ✅ SAVE HSN NUMBER (for both new and existing stock)
+        if (request.getHsnNo() != null && !request.getHsnNo().trim().isEmpty()) {
+            stock.setHsnNo(request.getHsnNo().trim());
+        }
+
         // ✅ SAVE AFTER SHOP IS SET
         stockRepository.save(stock);
+        lowStockTracker.stockChanged(stock, wasLow);
 
 
 
@@ -163,8 +187,8 @@ public class StockService {
 //        auditLogRepository.save(log);
 
         AuditLog log = new AuditLog();
-        log.setUsername(user.getUserName());
-        log.setRole(user.getRole());
+        log.setUsername(tenant.getUserName());
+        log.setRole(tenant.getRole());
         log.setAction(request.getAction());
         log.setGlassType(glass.getType());
         log.setQuantity(request.getQuantity());
@@ -177,7 +201,10 @@ public class StockService {
         // ✅ THIS IS CRITICAL
         log.setShop(shop);
 
-        auditLogRepository.save(log);
+        auditLogWriter.submit(log);
+
+        // ✅ KEEP DAILY SALES ROLLUP IN STEP (REMOVE only)
+        dailySalesRollupService.recordSale(log);
 
 
 
@@ -185,36 +212,261 @@ public class StockService {
         StockHistory history = new StockHistory();
         history.setGlassId(glass.getId());
         history.setStandNo(stock.getStandNo());
+        history.setHeight(stock.getHeight());
+        history.setWidth(stock.getWidth());
         history.setQuantity(request.getQuantity());
         history.setAction(request.getAction());
         history.setShop(shop);
 
         historyRepository.save(history);
 
-        /* ---------- LOW STOCK EMAIL (ASYNC - NON-BLOCKING) ---------- */
-        if (stock.getQuantity() < stock.getMinQuantity()) {
-            // Send email asynchronously - won't block the response
-            emailService.sendLowStockAlert(
-                shop.getEmail(),   // ✅ SHOP ADMIN EMAIL
-                "LOW STOCK ALERT 🚨\n\n" +
-                "Shop: " + shop.getShopName() + "\n" +
-                "Glass: " + glass.getType() + "\n" +
-                "Stand: " + stock.getStandNo() + "\n" +
-                "Height: " + stock.getHeight() + "\n" +
-                "Width: " + stock.getWidth() + "\n" +
-                "Quantity Left: " + stock.getQuantity() + "\n" +
-                "Minimum Required: " + stock.getMinQuantity()
-            );
+        /* ---------- LOW STOCK EMAIL ---------- */
+        // sent as a per-shop digest by LowStockAlertAggregator (from stockChanged above)
+
+        return "✅ Stock updated successfully";
+    }
+
+    // INSERT ... ON CONFLICT DO NOTHING: when two first ADDs race, the loser
+    // waits for the winner's insert and then skips it, so no unique violation
+    // aborts its transaction. Native, so no half-persisted entity is left in
+    // the session.
+    private void insertEmptyStockIfAbsent(Glass glass, int standNo, Shop shop,
+                                          String height, String width, LocalDateTime now) {
+        stockRepository.insertEmptyStock(
+                glass.getId(), standNo, 5, shop.getId(), height, width,
+                Stock.parseDimension(height), Stock.parseDimension(width), now);
+    }
+
+    /* ===============================
+       BULK ADD / REMOVE (GOODS RECEIVED NOTE)
+       =============================== */
+    /**
+     * Applies all lines in one transaction, all or nothing.
+     * Glasses and stock rows are loaded with one query each (only the
+     * batch's glasses on the batch's stands are locked), every line is
+     * checked against the running quantities before anything is written,
+     * missing rows are then inserted like a first ADD in updateStock, and
+     * stock / audit / history rows go out through saveAll (JDBC-batched,
+     * see hibernate.jdbc.batch_size).
+     */
+    @Transactional
+    public String bulkUpdateStock(List<StockUpdateRequest> requests) {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth == null || !auth.isAuthenticated()
+                || "anonymousUser".equals(auth.getName())) {
+            return "❌ User not authenticated";
         }
 
+        TenantContext tenant = TenantContext.resolve(userRepository);
 
-        return "✅ Stock updated successfully";
+        if (tenant == null) {
+            return "❌ User not found in system. Please login again.";
+        }
+
+        Shop shop = tenant.getShop();
+        if (shop == null) {
+            return "❌ User is not linked to any shop";
+        }
+
+        if (requests == null || requests.isEmpty()) {
+            return "❌ No stock lines to update";
+        }
+        if (requests.size() > maxBulkLines) {
+            return "❌ Too many lines (max " + maxBulkLines + ")";
+        }
+
+        /* ---------- VALIDATE LINES ---------- */
+        int[] thickness = new int[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            StockUpdateRequest request = requests.get(i);
+            String line = "❌ Line " + (i + 1) + ": ";
+
+            if (request == null || request.getGlassType() == null) {
+                return line + "Glass type is required";
+            }
+            try {
+                thickness[i] = Integer.parseInt(
+                    request.getGlassType().toUpperCase().replace("MM", "").trim()
+                );
+            } catch (Exception e) {
+                return line + "Invalid glass type format (use 5MM, 8MM)";
+            }
+            if (!"ADD".equalsIgnoreCase(request.getAction())
+                    && !"REMOVE".equalsIgnoreCase(request.getAction())) {
+                return line + "Action must be ADD or REMOVE";
+            }
+            if (request.getQuantity() <= 0) {
+                return line + "Quantity must be greater than 0";
+            }
+        }
+
+        /* ---------- GLASS + STOCK (ONE QUERY EACH) ---------- */
+        // Line keys are built once and used by both the dry run and the apply loop
+        String[] glassKeys = new String[requests.size()];
+        Map<String, Glass> glasses = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            StockUpdateRequest request = requests.get(i);
+            glassKeys[i] = glassKey(request.getGlassType(), thickness[i], request.getUnit());
+            String key = glassKeys[i];
+            glassCatalogService.find(request.getGlassType().toUpperCase(), thickness[i], request.getUnit())
+                    .ifPresent(g -> glasses.putIfAbsent(key, g));
+        }
+
+        Set<Integer> standNos = new HashSet<>();
+        for (StockUpdateRequest request : requests) {
+            standNos.add(request.getStandNo());
+        }
+
+        Map<String, Stock> stocks = new HashMap<>();
+        if (!glasses.isEmpty()) {
+            lockStocks(shop.getId(), glasses.values(), standNos, stocks);
+        }
+
+        /* ---------- DRY RUN (nothing touched yet) ---------- */
+        Map<String, Integer> running = new HashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            StockUpdateRequest request = requests.get(i);
+            String key = glassKeys[i] + "#" + request.getStandNo();
+            int current = running.computeIfAbsent(key,
+                    k -> stocks.containsKey(k) ? stocks.get(k).getQuantity() : 0);
+
+            if ("ADD".equalsIgnoreCase(request.getAction())) {
+                running.put(key, current + request.getQuantity());
+            } else {
+                if (current < request.getQuantity()) {
+                    return "❌ Line " + (i + 1) + ": Not enough stock (" + request.getGlassType()
+                            + ", stand " + request.getStandNo() + ", available " + current + ")";
+                }
+                running.put(key, current - request.getQuantity());
+            }
+        }
+
+        /* ---------- MISSING ROWS (insert if absent, then lock) ---------- */
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Integer> missing = new TreeMap<>(); // key order: concurrent GRNs insert alike
+        for (int i = 0; i < requests.size(); i++) {
+            StockUpdateRequest request = requests.get(i);
+            String glassKey = glassKeys[i];
+            if (!glasses.containsKey(glassKey)) {
+                glasses.put(glassKey, glassCatalogService.findOrCreate(
+                        request.getGlassType().toUpperCase(), thickness[i], request.getUnit()));
+            }
+            String stockKey = glassKey + "#" + request.getStandNo();
+            if (!stocks.containsKey(stockKey)) {
+                missing.putIfAbsent(stockKey, i);
+            }
+        }
+
+        Set<String> created = new HashSet<>(missing.keySet());
+        if (!missing.isEmpty()) {
+            Map<Long, Glass> createdGlasses = new HashMap<>();
+            Set<Integer> createdStands = new HashSet<>();
+            for (int i : missing.values()) {
+                StockUpdateRequest request = requests.get(i);
+                Glass glass = glasses.get(glassKeys[i]);
+                insertEmptyStockIfAbsent(glass, request.getStandNo(), shop,
+                        request.getHeight(), request.getWidth(), now);
+                createdGlasses.put(glass.getId(), glass);
+                createdStands.add(request.getStandNo());
+            }
+            lockStocks(shop.getId(), createdGlasses.values(), createdStands, stocks);
+        }
+
+        /* ---------- APPLY ---------- */
+        List<AuditLog> logs = new ArrayList<>(requests.size());
+        List<StockHistory> histories = new ArrayList<>(requests.size());
+        Set<Stock> touched = new LinkedHashSet<>();
+        Map<Stock, Boolean> wasLow = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            StockUpdateRequest request = requests.get(i);
+            String glassKey = glassKeys[i];
+            Glass glass = glasses.get(glassKey);
+
+            String stockKey = glassKey + "#" + request.getStandNo();
+            Stock stock = stocks.get(stockKey);
+            if (stock == null) {
+                throw new RuntimeException("❌ Could not create stock row");
+            }
+            wasLow.putIfAbsent(stock, !created.contains(stockKey) && LowStockTracker.isLow(stock));
+
+            if (request.getHsnNo() != null && !request.getHsnNo().trim().isEmpty()) {
+                stock.setHsnNo(request.getHsnNo().trim());
+            }
+
+            if ("ADD".equalsIgnoreCase(request.getAction())) {
+                stock.setQuantity(stock.getQuantity() + request.getQuantity());
+            } else {
+                stock.setQuantity(stock.getQuantity() - request.getQuantity());
+            }
+            touched.add(stock);
+
+            AuditLog log = new AuditLog();
+            log.setUsername(tenant.getUserName());
+            log.setRole(tenant.getRole());
+            log.setAction(request.getAction());
+            log.setGlassType(glass.getType());
+            log.setQuantity(request.getQuantity());
+            log.setStandNo(request.getStandNo());
+            log.setHeight(request.getHeight());
+            log.setWidth(request.getWidth());
+            log.setUnit(request.getUnit());
+            log.setTimestamp(now);
+            log.setShop(shop);
+            logs.add(log);
+
+            StockHistory history = new StockHistory();
+            history.setGlassId(glass.getId());
+            history.setStandNo(request.getStandNo());
+            history.setHeight(stock.getHeight());
+            history.setWidth(stock.getWidth());
+            history.setQuantity(request.getQuantity());
+            history.setAction(request.getAction());
+            history.setShop(shop);
+            histories.add(history);
+        }
+
+        stockRepository.saveAll(touched);
+        auditLogWriter.submitAll(logs);
+        historyRepository.saveAll(histories);
+        for (Stock stock : touched) {
+            lowStockTracker.stockChanged(stock, wasLow.get(stock));
+        }
+
+        // ✅ KEEP DAILY SALES ROLLUP IN STEP (REMOVE only, one upsert per rollup row)
+        dailySalesRollupService.recordSales(logs);
+
+        return "✅ Bulk update applied: " + requests.size() + " lines, "
+                + touched.size() + " stock rows";
+    }
+
+    // 🔒 Rows of these glasses on these stands (SELECT ... FOR UPDATE, id
+    // order), keyed by glass + stand
+    private void lockStocks(Long shopId, Collection<Glass> glasses, Collection<Integer> standNos,
+                            Map<String, Stock> stocks) {
+        List<Long> glassIds = new ArrayList<>(glasses.size());
+        for (Glass glass : glasses) {
+            glassIds.add(glass.getId());
+        }
+        for (Stock s : stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(shopId, glassIds, standNos)) {
+            Glass g = s.getGlass();
+            stocks.putIfAbsent(
+                glassKey(g.getType(), g.getThickness(), g.getUnit()) + "#" + s.getStandNo(), s);
+        }
+    }
+
+    // Same key whether built from a request line or a loaded Glass row
+    private static String glassKey(String type, int thickness, String unit) {
+        return type.trim().toUpperCase() + "|" + thickness + "|"
+                + (unit != null ? unit.trim().toUpperCase() : "");
     }
 
     /* ===============================
        VIEW STOCK (SHOP ISOLATED)
        =============================== */
-    public List<Stock> getAllStock() {
+    public List<StockView> getAllStock() {
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
 
@@ -223,31 +475,114 @@ public class StockService {
             return List.of(); // no crash
         }
 
-        String username = auth.getName();
+        TenantContext tenant = TenantContext.resolve(userRepository);
 
-        User user = userRepository.findByUserName(username).orElse(null);
-
-        if (user == null) {
+        if (tenant == null) {
             return List.of(); // user deleted / token stale
         }
 
-        Shop shop = user.getShop();
-        if (shop == null) {
+        if (tenant.getShopId() == null) {
             return List.of();
         }
 
-        return stockRepository.findByShopId(shop.getId());
+        // Flat projection - Jackson no longer walks Stock -> Shop per row
+        return stockRepository.findViewsByShopId(tenant.getShopId());
     }
 
-    public String getLowStockData() {
+    /* ===============================
+       PAGED STOCK LISTING (SHOP ISOLATED)
+       =============================== */
+    /**
+     * One page of the shop's stock ordered by (stand, id), filtered in SQL.
+     * cursor = nextCursor of the previous page, null for the first page.
+     */
+    public StockPageResponse getStockPage(StockFilter filter, String cursor, int limit) {
 
-        Authentication auth =
-                SecurityContextHolder.getContext().getAuthentication();
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth == null || !auth.isAuthenticated()
+                || "anonymousUser".equals(auth.getName())) {
+            return new StockPageResponse(List.of(), null);
+        }
+
+        TenantContext tenant = TenantContext.resolve(userRepository);
+
+        if (tenant == null || tenant.getShopId() == null) {
+            return new StockPageResponse(List.of(), null);
+        }
+
+        if (filter == null) {
+            filter = new StockFilter();
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        String glassType = filter.getGlassType() != null && !filter.getGlassType().isBlank()
+                ? filter.getGlassType().trim() : null;
+
+        // fetch one extra row to know whether there is a next page
+        List<StockView> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = stockRepository.findFirstViewPage(
+                    tenant.getShopId(),
+                    glassType,
+                    filter.getThickness(),
+                    filter.getStandNo(),
+                    filter.isLowOnly(),
+                    filter.getMinHeight(),
+                    filter.getMaxHeight(),
+                    filter.getMinWidth(),
+                    filter.getMaxWidth(),
+                    PageRequest.of(0, pageSize + 1));
+        } else {
+            long[] position = decodeCursor(cursor);
+            rows = stockRepository.findViewPageAfter(
+                    tenant.getShopId(),
+                    (int) position[0],
+                    position[1],
+                    glassType,
+                    filter.getThickness(),
+                    filter.getStandNo(),
+                    filter.isLowOnly(),
+                    filter.getMinHeight(),
+                    filter.getMaxHeight(),
+                    filter.getMinWidth(),
+                    filter.getMaxWidth(),
+                    PageRequest.of(0, pageSize + 1));
+        }
+
+        if (rows.size() <= pageSize) {
+            return new StockPageResponse(rows, null);
+        }
+
+        List<StockView> page = rows.subList(0, pageSize);
+        StockView last = page.get(pageSize - 1);
+        return new StockPageResponse(new ArrayList<>(page), encodeCursor(last.getStandNo(), last.getId()));
+    }
+
+    // Opaque to the client: base64url("standNo:id")
+    static String encodeCursor(int standNo, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((standNo + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            return new long[] { Integer.parseInt(parts[0]), Long.parseLong(parts[1]) };
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("❌ Invalid cursor");
+        }
+    }
 
-        User user =
-                userRepository.findByUserName(auth.getName()).orElseThrow();
+    public String getLowStockData() {
+
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null) {
+            throw new RuntimeException("User not found");
+        }
 
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
         if (shop == null) {
             return "No shop assigned";
         }
@@ -276,13 +611,12 @@ public class StockService {
     
     public String getAvailableStock(String glassType) {
 
-        Authentication auth =
-                SecurityContextHolder.getContext().getAuthentication();
-
-        User user =
-                userRepository.findByUserName(auth.getName()).orElseThrow();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null) {
+            throw new RuntimeException("User not found");
+        }
 
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
         if (shop == null) {
             return "No shop assigned";
         }
@@ -315,16 +649,15 @@ public class StockService {
         return sb.toString();
     }
     
+    @Transactional
     public String undoLastAction() {
 
-        Authentication auth =
-                SecurityContextHolder.getContext().getAuthentication();
-
-        User user = userRepository
-                .findByUserName(auth.getName())
-                .orElseThrow();
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null) {
+            throw new RuntimeException("User not found");
+        }
 
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
 
         // ✅ Find last action ONLY for this shop
         StockHistory last = historyRepository
@@ -334,9 +667,16 @@ public class StockService {
             return "❌ No action to undo";
         }
 
+        // 🔒 exactly the row this entry changed, in this shop
         Stock stock = stockRepository
-                .findByGlass_Id(last.getGlassId())
-                .orElseThrow();
+                .findByShop_IdAndGlass_IdAndStandNoAndHeightAndWidth(
+                        shop.getId(), last.getGlassId(), last.getStandNo(),
+                        last.getHeight(), last.getWidth())
+                .orElse(null);
+        if (stock == null) {
+            return "❌ Cannot undo. Stock already changed.";
+        }
+        boolean wasLow = LowStockTracker.isLow(stock);
 
         if ("ADD".equalsIgnoreCase(last.getAction())) {
             if (stock.getQuantity() < last.getQuantity()) {
@@ -349,6 +689,7 @@ public class StockService {
         }
 
         stockRepository.save(stock);
+        lowStockTracker.stockChanged(stock, wasLow);
         historyRepository.delete(last);
 
         return "✅ Last action undone successfully";
@@ -395,18 +736,14 @@ public class StockService {
             return List.of();
         }
 
-        String username = auth.getName();
-
-        Optional<User> optionalUser =
-                userRepository.findByUserName(username);
+        TenantContext tenant = TenantContext.resolve(userRepository);
 
         // ✅ User not found → return empty list (DON'T CRASH)
-        if (optionalUser.isEmpty()) {
+        if (tenant == null) {
             return List.of();
         }
 
-        User user = optionalUser.get();
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
 
         if (shop == null) {
             return List.of();
@@ -427,6 +764,7 @@ public class StockService {
     }
 
 
+    @Transactional
     public String transferStock(StockTransferRequest request) {
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
@@ -435,12 +773,12 @@ public class StockService {
             return "❌ User not authenticated";
         }
 
-        User user = userRepository.findByUserName(auth.getName()).orElse(null);
-        if (user == null || user.getShop() == null) {
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShop() == null) {
             return "❌ User or shop not found";
         }
 
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
 
         if (request.getFromStand() == request.getToStand()) {
             return "❌ From stand and To stand cannot be same";
@@ -456,8 +794,8 @@ public class StockService {
             return "❌ Invalid glass type";
         }
 
-        Glass glass = glassRepository
-            .findByTypeAndThicknessAndUnit(
+        Glass glass = glassCatalogService
+            .find(
                 request.getGlassType().toUpperCase(),
                 thickness,
                 request.getUnit()
@@ -469,37 +807,26 @@ public class StockService {
         }
 
         // ✅ FIND STOCK USING HEIGHT + WIDTH
-        Stock fromStock = stockRepository
-        	    .findByGlassAndHeightAndWidthAndStandNoAndShop(
-        	        glass,
-        	        request.getHeight(),
-        	        request.getWidth(),
-        	        request.getFromStand(),
-        	        shop
-        	    )
-        	    .orElse(null);
-
-
-
+        // 🔒 Lock both stands in stand-number order so two opposite transfers
+        // (1 -> 2 and 2 -> 1) can't deadlock on each other's rows
+        Stock fromStock;
+        Stock toStock;
+        if (request.getToStand() == null
+                || (request.getFromStand() != null && request.getFromStand() <= request.getToStand())) {
+            fromStock = lockStock(glass, request, request.getFromStand(), shop);
+            toStock = lockStock(glass, request, request.getToStand(), shop);
+        } else {
+            toStock = lockStock(glass, request, request.getToStand(), shop);
+            fromStock = lockStock(glass, request, request.getFromStand(), shop);
+        }
 
         if (fromStock == null ||
             fromStock.getQuantity() < request.getQuantity()) {
             return "❌ Not enough stock in source stand";
         }
 
-        Stock toStock = stockRepository
-        	    .findByGlassAndHeightAndWidthAndStandNoAndShop(
-        	        glass,
-        	        request.getHeight(),
-        	        request.getWidth(),
-        	        request.getToStand(),
-        	        shop
-        	    )
-        	    .orElse(null);
-
-
-
-
+        boolean fromWasLow = LowStockTracker.isLow(fromStock);
+        boolean toWasLow = toStock != null && LowStockTracker.isLow(toStock);
         if (toStock == null) {
             toStock = new Stock();
             toStock.setGlass(glass);
@@ -516,6 +843,8 @@ public class StockService {
 
         stockRepository.save(fromStock);
         stockRepository.save(toStock);
+        lowStockTracker.stockChanged(fromStock, fromWasLow);
+        lowStockTracker.stockChanged(toStock, toWasLow);
 
         // ✅ AUDIT LOG
 //        AuditLog log = new AuditLog();
@@ -536,8 +865,8 @@ public class StockService {
 //        auditLogRepository.save(log);
         
         AuditLog log = new AuditLog();
-        log.setUsername(user.getUserName());
-        log.setRole(user.getRole());
+        log.setUsername(tenant.getUserName());
+        log.setRole(tenant.getRole());
         log.setAction("TRANSFER");
         log.setGlassType(glass.getType());
 
@@ -557,12 +886,25 @@ public class StockService {
         log.setTimestamp(LocalDateTime.now());
         log.setShop(shop);
 
-        auditLogRepository.save(log);
+        auditLogWriter.submit(log);
 
 
 
         return "✅ Stock transferred successfully";
     }
+
+    // Row-locked lookup of one stand for a transfer (null if it doesn't exist yet)
+    private Stock lockStock(Glass glass, StockTransferRequest request, Integer standNo, Shop shop) {
+        return stockRepository
+                .findByGlassAndHeightAndWidthAndStandNoAndShop(
+                        glass,
+                        request.getHeight(),
+                        request.getWidth(),
+                        standNo,
+                        shop
+                )
+                .orElse(null);
+    }
     
     public List<AuditLog> getAllAuditLogs() {
 
@@ -573,13 +915,13 @@ public class StockService {
             return List.of();
         }
 
-        User user = userRepository.findByUserName(auth.getName()).orElse(null);
-        if (user == null || user.getShop() == null) {
+        TenantContext tenant = TenantContext.resolve(userRepository);
+        if (tenant == null || tenant.getShop() == null) {
             return List.of();
         }
 
         return auditLogRepository
-                .findByShopOrderByTimestampDesc(user.getShop());
+                .findByShopOrderByTimestampDesc(tenant.getShop());
     }
 
 
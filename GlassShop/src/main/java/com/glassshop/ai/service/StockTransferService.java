@@ -4,8 +4,6 @@ import java.time.LocalDateTime;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,35 +13,31 @@ import com.glassshop.ai.entity.Glass;
 import com.glassshop.ai.entity.Shop;
 import com.glassshop.ai.entity.Stock;
 import com.glassshop.ai.entity.StockHistory;
-import com.glassshop.ai.entity.User;
-import com.glassshop.ai.repository.AuditLogRepository;
-import com.glassshop.ai.repository.GlassRepository;
 import com.glassshop.ai.repository.StockHistoryRepository;
 import com.glassshop.ai.repository.StockRepository;
 import com.glassshop.ai.repository.UserRepository;
-import com.glassshop.ai.service.EmailService;
+import com.glassshop.ai.security.TenantContext;
 
 @Service
 public class StockTransferService {
 
     @Autowired private StockRepository stockRepository;
-    @Autowired private GlassRepository glassRepository;
-    @Autowired private AuditLogRepository auditLogRepository;
+    @Autowired private GlassCatalogService glassCatalogService;
+    @Autowired private AuditLogWriter auditLogWriter;
     @Autowired private StockHistoryRepository stockHistoryRepository;
     @Autowired private UserRepository userRepository;
-    @Autowired private EmailService emailService;
+    @Autowired private LowStockTracker lowStockTracker;
 
     @Transactional
     public String transferStock(StockTransferRequest request) {
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(auth.getName()).orElse(null);
+        TenantContext tenant = TenantContext.resolve(userRepository);
 
-        if (user == null || user.getShop() == null) {
+        if (tenant == null || tenant.getShop() == null) {
             return "❌ User or shop not found";
         }
 
-        Shop shop = user.getShop();
+        Shop shop = tenant.getShop();
 
         if (request.getFromStand() == request.getToStand()) {
             return "❌ From stand and To stand cannot be same";
@@ -60,8 +54,8 @@ public class StockTransferService {
         }
 
         // Find or create glass type
-        Glass glass = glassRepository
-                .findByTypeAndThicknessAndUnit(
+        Glass glass = glassCatalogService
+                .find(
                         request.getGlassType(),
                         thickness,
                         request.getUnit()
@@ -72,15 +66,20 @@ public class StockTransferService {
             return "❌ Glass type not found";
         }
 
-        Stock fromStock = stockRepository
-                .findByGlassAndHeightAndWidthAndStandNoAndShop(
-                        glass,
-                        request.getHeight(),
-                        request.getWidth(),
-                        request.getFromStand(),
-                        shop
-                )
-                .orElse(null);
+        // 🔒 Row locks are taken in stand-number order (lower stand first) so
+        // opposite transfers between the same two stands can't deadlock
+        Optional<Stock> fromRow;
+        Optional<Stock> toRow;
+        if (request.getToStand() == null
+                || (request.getFromStand() != null && request.getFromStand() <= request.getToStand())) {
+            fromRow = lockStock(glass, request, request.getFromStand(), shop);
+            toRow = lockStock(glass, request, request.getToStand(), shop);
+        } else {
+            toRow = lockStock(glass, request, request.getToStand(), shop);
+            fromRow = lockStock(glass, request, request.getFromStand(), shop);
+        }
+
+        Stock fromStock = fromRow.orElse(null);
         
         // Validate source stock exists
         if (fromStock == null) {
@@ -97,14 +96,10 @@ public class StockTransferService {
             return "❌ Transfer quantity must be greater than zero";
         }
 
-        Stock toStock = stockRepository
-                .findByGlassAndHeightAndWidthAndStandNoAndShop(
-                        glass,
-                        request.getHeight(),
-                        request.getWidth(),
-                        request.getToStand(),
-                        shop
-                )
+        boolean fromWasLow = LowStockTracker.isLow(fromStock);
+        boolean toWasLow = toRow.map(LowStockTracker::isLow).orElse(false);
+
+        Stock toStock = toRow
                 .orElseGet(() -> {
                     Stock s = new Stock();
                     s.setGlass(glass);
@@ -137,6 +132,8 @@ public class StockTransferService {
         // Save both stock records (updated_at will be set automatically by @UpdateTimestamp)
         Stock savedFromStock = stockRepository.save(fromStock);
         Stock savedToStock = stockRepository.save(toStock);
+        lowStockTracker.stockChanged(savedFromStock, fromWasLow);
+        lowStockTracker.stockChanged(savedToStock, toWasLow);
         
         // Verify saves were successful
         if (savedFromStock == null || savedToStock == null) {
@@ -152,46 +149,31 @@ public class StockTransferService {
         // The source stand (fromStand) should keep its original ADD status
         // Only the destination stand will show TRANSFER status
         
-        // ✅ UPDATE EXISTING AUDIT LOG - Update or create entry for destination stand only
-        Optional<AuditLog> existingToLogOpt = auditLogRepository
-                .findTopByShopAndGlassTypeAndStandNoAndHeightAndWidthOrderByTimestampDesc(
-                        shop, glass.getType(), request.getToStand(), 
-                        request.getHeight(), request.getWidth());
-        
-        if (existingToLogOpt.isPresent()) {
-            // Update existing entry with new quantity and set action to TRANSFER
-            AuditLog existingToLog = existingToLogOpt.get();
-            existingToLog.setAction("TRANSFER"); // Set action to TRANSFER
-            existingToLog.setQuantity(newToQuantity); // Update quantity to NEW TOTAL quantity (e.g., 10)
-            existingToLog.setStandNo(request.getToStand()); // Ensure standNo is correct (destination stand)
-            existingToLog.setFromStand(request.getFromStand()); // Set from stand
-            existingToLog.setToStand(request.getToStand()); // Set to stand
-            existingToLog.setTimestamp(LocalDateTime.now()); // Update timestamp
-            auditLogRepository.save(existingToLog);
-        } else {
-            // Create new entry with TRANSFER action if it doesn't exist
-            AuditLog toLog = new AuditLog();
-            toLog.setUsername(user.getUserName());
-            toLog.setRole(user.getRole());
-            toLog.setAction("TRANSFER"); // Set action to TRANSFER
-            toLog.setGlassType(glass.getType());
-            toLog.setQuantity(newToQuantity); // Set to NEW TOTAL quantity (e.g., 10)
-            toLog.setStandNo(request.getToStand()); // Destination stand
-            toLog.setFromStand(request.getFromStand()); // Set from stand
-            toLog.setToStand(request.getToStand()); // Set to stand
-            toLog.setHeight(request.getHeight());
-            toLog.setWidth(request.getWidth());
-            toLog.setUnit(request.getUnit());
-            toLog.setShop(shop);
-            toLog.setTimestamp(LocalDateTime.now());
-            auditLogRepository.save(toLog);
-        }
+        // ✅ AUDIT LOG - append a TRANSFER row for the destination stand (audit rows are
+        //    never rewritten; written off the request thread after commit)
+        AuditLog toLog = new AuditLog();
+        toLog.setUsername(tenant.getUserName());
+        toLog.setRole(tenant.getRole());
+        toLog.setAction("TRANSFER"); // Set action to TRANSFER
+        toLog.setGlassType(glass.getType());
+        toLog.setQuantity(newToQuantity); // Set to NEW TOTAL quantity (e.g., 10)
+        toLog.setStandNo(request.getToStand()); // Destination stand
+        toLog.setFromStand(request.getFromStand()); // Set from stand
+        toLog.setToStand(request.getToStand()); // Set to stand
+        toLog.setHeight(request.getHeight());
+        toLog.setWidth(request.getWidth());
+        toLog.setUnit(request.getUnit());
+        toLog.setShop(shop);
+        toLog.setTimestamp(LocalDateTime.now());
+        auditLogWriter.submit(toLog);
 
         // ✅ STOCK HISTORY - Record REMOVE from source stand
         StockHistory fromHistory = new StockHistory();
         fromHistory.setGlassId(glass.getId());
         fromHistory.setStandNo(request.getFromStand());
         fromHistory.setQuantity(request.getQuantity());
+        fromHistory.setHeight(request.getHeight());
+        fromHistory.setWidth(request.getWidth());
         fromHistory.setAction("REMOVE");
         fromHistory.setShop(shop);
         stockHistoryRepository.save(fromHistory);
@@ -201,44 +183,28 @@ public class StockTransferService {
         toHistory.setGlassId(glass.getId());
         toHistory.setStandNo(request.getToStand());
         toHistory.setQuantity(request.getQuantity());
+        toHistory.setHeight(request.getHeight());
+        toHistory.setWidth(request.getWidth());
         toHistory.setAction("ADD");
         toHistory.setShop(shop);
         stockHistoryRepository.save(toHistory);
 
-        // ✅ LOW STOCK EMAIL ALERTS (ASYNC - NON-BLOCKING)
-        // Check if source stand is now low on stock
-        if (savedFromStock.getQuantity() < savedFromStock.getMinQuantity()) {
-            emailService.sendLowStockAlert(
-                shop.getEmail(),
-                "LOW STOCK ALERT 🚨\n\n" +
-                "Shop: " + shop.getShopName() + "\n" +
-                "Glass: " + glass.getType() + "\n" +
-                "Stand: " + savedFromStock.getStandNo() + " (After Transfer)\n" +
-                "Height: " + savedFromStock.getHeight() + "\n" +
-                "Width: " + savedFromStock.getWidth() + "\n" +
-                "Quantity Left: " + savedFromStock.getQuantity() + "\n" +
-                "Minimum Required: " + savedFromStock.getMinQuantity()
-            );
-        }
-        
-        // Check if destination stand is now low on stock
-        if (savedToStock.getQuantity() < savedToStock.getMinQuantity()) {
-            emailService.sendLowStockAlert(
-                shop.getEmail(),
-                "LOW STOCK ALERT 🚨\n\n" +
-                "Shop: " + shop.getShopName() + "\n" +
-                "Glass: " + glass.getType() + "\n" +
-                "Stand: " + savedToStock.getStandNo() + " (After Transfer)\n" +
-                "Height: " + savedToStock.getHeight() + "\n" +
-                "Width: " + savedToStock.getWidth() + "\n" +
-                "Quantity Left: " + savedToStock.getQuantity() + "\n" +
-                "Minimum Required: " + savedToStock.getMinQuantity()
-            );
-        }
+        // ✅ LOW STOCK EMAIL ALERTS - per-shop digest via LowStockAlertAggregator (stockChanged above)
 
         return "✅ Stock transferred successfully: " + request.getQuantity() + " units from Stand " + 
                request.getFromStand() + " to Stand " + request.getToStand();
     }
 
+    // SELECT ... FOR UPDATE on one stand's row (empty if the stand has no stock yet)
+    private Optional<Stock> lockStock(Glass glass, StockTransferRequest request, Integer standNo, Shop shop) {
+        return stockRepository.findByGlassAndHeightAndWidthAndStandNoAndShop(
+                glass,
+                request.getHeight(),
+                request.getWidth(),
+                standNo,
+                shop
+        );
+    }
+
 
 }
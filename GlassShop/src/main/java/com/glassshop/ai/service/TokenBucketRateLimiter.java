@@ -0,0 +1,69 @@
+package com.glassshop.ai.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Simple token bucket.
+ * Refills at permitsPerSecond up to burst tokens; acquire() blocks the
+ * calling thread until a token is available, reserve() instead returns the
+ * wait so async callers can schedule the work. Callers that arrive while the
+ * bucket is empty queue up behind each other (reservation model), so N
+ * parallel workers together never exceed the configured rate.
+ */
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    // clock is swappable for tests
+    TokenBucketRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Block until one permit is available
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Take one permit (possibly going into debt) and return how long the
+     * caller has to wait before using it
+     */
+    public synchronized long reserve() {
+        long now = nanoClock.getAsLong();
+        double refill = (now - lastRefillNanos) / 1_000_000_000.0 * permitsPerSecond;
+        tokens = Math.min(capacity, tokens + refill);
+        lastRefillNanos = now;
+
+        tokens -= 1;
+        if (tokens >= 0) {
+            return 0L;
+        }
+        return (long) (-tokens / permitsPerSecond * 1_000_000_000L);
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
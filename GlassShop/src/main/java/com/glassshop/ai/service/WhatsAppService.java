@@ -4,13 +4,38 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Non-blocking WhatsApp client.
+ *
+ * One shared HttpClient (HTTP/2 where the provider supports it, otherwise
+ * pooled HTTP/1.1 keep-alive connections) with connect and per-request
+ * timeouts. At most whatsapp.api.max-in-flight requests are outstanding;
+ * callers wait for a slot up to the request timeout. 429 / 5xx / network
+ * errors are retried with full-jitter exponential backoff (Retry-After is
+ * honoured). A circuit breaker fails fast while the provider keeps failing,
+ * so a degraded provider costs no threads - the outbox retries later.
+ */
 @Service
 public class WhatsAppService {
 
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final long MAX_RETRY_DELAY_MS = 30_000;
+
     @Value("${whatsapp.api.url:}")
     private String whatsappApiUrl;
 
@@ -20,51 +45,182 @@ public class WhatsAppService {
     @Value("${whatsapp.api.enabled:false}")
     private boolean whatsappEnabled;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    // Provider rate limit (messages per second + burst) - tune to your provider's plan
+    @Value("${whatsapp.api.rate-limit.per-second:1.0}")
+    private double ratePerSecond;
+
+    @Value("${whatsapp.api.rate-limit.burst:1}")
+    private int rateBurst;
+
+    @Value("${whatsapp.api.connect-timeout-ms:5000}")
+    private long connectTimeoutMs = 5000;
+
+    @Value("${whatsapp.api.request-timeout-ms:10000}")
+    private long requestTimeoutMs = 10000;
+
+    @Value("${whatsapp.api.max-in-flight:8}")
+    private int maxInFlight = 8;
+
+    @Value("${whatsapp.api.max-retries:3}")
+    private int maxRetries = 3;
+
+    @Value("${whatsapp.api.retry-base-ms:500}")
+    private long retryBaseMs = 500;
+
+    @Value("${whatsapp.api.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold = 5;
+
+    @Value("${whatsapp.api.circuit.open-ms:60000}")
+    private long circuitOpenMs = 60000;
+
+    private HttpClient httpClient;
+
+    private TokenBucketRateLimiter rateLimiter;
+
+    private Semaphore inFlight;
+
+    private CircuitBreaker circuitBreaker;
+
+    @PostConstruct
+    void init() {
+        rateLimiter = new TokenBucketRateLimiter(ratePerSecond, rateBurst);
+        inFlight = new Semaphore(maxInFlight);
+        circuitBreaker = new CircuitBreaker(circuitFailureThreshold, circuitOpenMs);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+    }
 
     /**
      * Send WhatsApp message using configured API
      * Supports multiple providers: Twilio, WhatsApp Business API, etc.
+     * Only waits (up to the request timeout) for a free in-flight slot;
+     * rate limiting, retries and the HTTP call itself are asynchronous.
+     *
+     * @return completes with true if the provider accepted the message (or service is disabled)
      */
-    public void sendMessage(String phoneNumber, String message) {
+    public CompletableFuture<Boolean> sendMessageAsync(String phoneNumber, String message) {
         if (!whatsappEnabled) {
             System.out.println("⚠ WhatsApp service is disabled. Message would be:");
             System.out.println("To: " + phoneNumber);
             System.out.println("Message: " + message);
-            return;
+            return CompletableFuture.completedFuture(true);
         }
 
         if (whatsappApiUrl == null || whatsappApiUrl.isEmpty()) {
             System.err.println("❌ WhatsApp API URL not configured");
-            return;
+            return CompletableFuture.completedFuture(false);
         }
 
         try {
-            // Format phone number (remove + if present, ensure proper format)
-            String formattedNumber = formatPhoneNumber(phoneNumber);
+            if (!inFlight.tryAcquire(requestTimeoutMs, TimeUnit.MILLISECONDS)) {
+                System.err.println("❌ WhatsApp send skipped: " + maxInFlight + " requests already in flight");
+                return CompletableFuture.completedFuture(false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("❌ Interrupted while waiting to send WhatsApp message");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        if (!circuitBreaker.allowRequest()) {
+            inFlight.release();
+            System.err.println("❌ WhatsApp circuit open - provider failing, message not sent");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // Format phone number (remove + if present, ensure proper format)
+        String formattedNumber = formatPhoneNumber(phoneNumber);
 
-            // Build request based on API provider
-            String requestBody = buildRequestBody(formattedNumber, message);
-            
-            HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
                     .uri(URI.create(whatsappApiUrl))
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
                     .header("Content-Type", "application/json")
                     .header("Authorization", "Bearer " + whatsappApiKey)
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .POST(HttpRequest.BodyPublishers.ofString(buildRequestBody(formattedNumber, message)))
                     .build();
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            inFlight.release();
+            System.err.println("❌ Error building WhatsApp request: " + e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return attempt(request, formattedNumber, 0)
+                .whenComplete((sent, error) -> inFlight.release());
+    }
+
+    private CompletableFuture<Boolean> attempt(HttpRequest request, String to, int attempt) {
+        return after(TimeUnit.NANOSECONDS.toMillis(rateLimiter.reserve()))
+                .thenCompose(v -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .handle((response, error) -> {
+                    if (error == null && response.statusCode() >= 200 && response.statusCode() < 300) {
+                        circuitBreaker.recordSuccess();
+                        System.out.println("✅ WhatsApp message sent successfully to " + to);
+                        return CompletableFuture.completedFuture(true);
+                    }
+
+                    boolean retryable = error != null
+                            || response.statusCode() == 429
+                            || response.statusCode() >= 500;
+                    String reason = error != null
+                            ? unwrap(error).toString()
+                            : "Status " + response.statusCode() + ", response: " + response.body();
+
+                    if (retryable && attempt < maxRetries) {
+                        long delay = retryDelayMs(attempt, response);
+                        System.err.println("⚠ WhatsApp send to " + to + " failed (" + reason
+                                + "), retry " + (attempt + 1) + " in " + delay + " ms");
+                        return after(delay).thenCompose(v -> attempt(request, to, attempt + 1));
+                    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (retryable) {
+                        circuitBreaker.recordFailure();
+                    } else {
+                        circuitBreaker.recordSuccess(); // provider is up, message itself was rejected
+                    }
+                    System.err.println("❌ Failed to send WhatsApp message to " + to + ": " + reason);
+                    return CompletableFuture.completedFuture(false);
+                })
+                .thenCompose(result -> result);
+    }
 
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
-                System.out.println("✅ WhatsApp message sent successfully to " + formattedNumber);
-            } else {
-                System.err.println("❌ Failed to send WhatsApp message. Status: " + response.statusCode());
-                System.err.println("Response: " + response.body());
+    /**
+     * Full jitter: random in [0, base * 2^attempt], capped; at least Retry-After on 429
+     */
+    private long retryDelayMs(int attempt, HttpResponse<String> response) {
+        long ceiling = Math.min(MAX_RETRY_DELAY_MS, retryBaseMs << Math.min(attempt, 16));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        if (response != null && response.statusCode() == 429) {
+            String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+            if (retryAfter != null) {
+                try {
+                    delay = Math.max(delay, Math.min(MAX_RETRY_DELAY_MS, Long.parseLong(retryAfter.trim()) * 1000));
+                } catch (NumberFormatException ignored) {
+                    // HTTP-date form - keep the computed delay
+                }
             }
-        } catch (Exception e) {
-            System.err.println("❌ Error sending WhatsApp message: " + e.getMessage());
-            e.printStackTrace();
         }
+        return delay;
+    }
+
+    private static CompletableFuture<Void> after(long delayMs) {
+        if (delayMs <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
     }
 
     /**
@@ -103,18 +259,10 @@ public class WhatsAppService {
      */
     private String buildRequestBody(String phoneNumber, String message) {
         // Default format for generic WhatsApp Business API
-        // Modify this based on your provider
-        return String.format(
-            "{\"phone\":\"%s\",\"message\":\"%s\"}",
-            phoneNumber,
-            message.replace("\"", "\\\"").replace("\n", "\\n")
-        );
+        // Modify this based on your provider (Jackson handles all escaping)
+        return JSON.createObjectNode()
+                .put("phone", phoneNumber)
+                .put("message", message)
+                .toString();
     }
 }
-
-
-
-
-
-
-
@@ -0,0 +1,9 @@
+-- ============================================
+-- Flyway Migration: Batch-friendly ids for append-only tables
+-- ============================================
+
+-- AuditLog / StockHistory ids come from these sequences through Hibernate's
+-- pooled optimizer (allocationSize = 50) instead of IDENTITY, so inserts
+-- can be sent as JDBC batches. Increment must match allocationSize.
+ALTER SEQUENCE audit_log_id_seq INCREMENT BY 50;
+ALTER SEQUENCE stock_history_id_seq INCREMENT BY 50;
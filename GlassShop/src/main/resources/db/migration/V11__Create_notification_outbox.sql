@@ -0,0 +1,31 @@
+-- ============================================
+-- Flyway Migration: Notification outbox
+-- ============================================
+
+-- Email / WhatsApp messages waiting to be sent. Rows are inserted in the
+-- same transaction as the change that caused them and drained in batches
+-- by NotificationDispatcher (SELECT ... FOR UPDATE SKIP LOCKED).
+-- status: PENDING -> SENT, or DEAD after notification.outbox.max-attempts.
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    shop_id BIGINT,
+    channel VARCHAR(20) NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255),
+    body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP,
+    CONSTRAINT fk_notification_outbox_shop FOREIGN KEY (shop_id) REFERENCES shop(id) ON DELETE CASCADE,
+    CONSTRAINT chk_notification_outbox_channel CHECK (channel IN ('EMAIL', 'WHATSAPP')),
+    CONSTRAINT chk_notification_outbox_status CHECK (status IN ('PENDING', 'SENT', 'DEAD'))
+);
+
+-- Dispatcher polls only due PENDING rows
+CREATE INDEX idx_notification_outbox_due ON notification_outbox(next_attempt_at)
+    WHERE status = 'PENDING';
+
+COMMENT ON TABLE notification_outbox IS 'Transactional outbox for email and WhatsApp notifications';
@@ -0,0 +1,90 @@
+-- ============================================
+-- Flyway Migration: Partition audit_log by month
+-- ============================================
+
+-- audit_log becomes a RANGE partitioned table on timestamp with one
+-- partition per calendar month (audit_log_pYYYY_MM) and audit_log_default
+-- for anything outside the created months. Queries bounded on timestamp
+-- only scan the months they cover, and "latest N" queries read the newest
+-- partition first. AuditPartitionMaintenanceService creates upcoming months
+-- and detaches expired ones into the audit_archive schema.
+--
+-- The partition key must be part of the primary key, so the PK becomes
+-- (id, timestamp). ids still come from audit_log_id_seq (INCREMENT 50, V10).
+
+-- Partition key cannot be NULL
+UPDATE audit_log SET timestamp = CURRENT_TIMESTAMP WHERE timestamp IS NULL;
+
+-- Keep the old table (and its sequence) until the rows are copied
+ALTER TABLE audit_log RENAME TO audit_log_unpartitioned;
+ALTER TABLE audit_log_unpartitioned RENAME CONSTRAINT audit_log_pkey TO audit_log_unpartitioned_pkey;
+ALTER SEQUENCE audit_log_id_seq OWNED BY NONE;
+
+DROP INDEX IF EXISTS idx_audit_log_shop_id;
+DROP INDEX IF EXISTS idx_audit_log_timestamp;
+DROP INDEX IF EXISTS idx_audit_log_shop_timestamp;
+DROP INDEX IF EXISTS idx_audit_log_action;
+DROP INDEX IF EXISTS idx_audit_log_username;
+
+CREATE TABLE audit_log (
+    id BIGINT NOT NULL DEFAULT nextval('audit_log_id_seq'),
+    username VARCHAR(255),
+    role VARCHAR(50) NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    glass_type VARCHAR(50),
+    quantity INTEGER NOT NULL,
+    stand_no INTEGER,
+    from_stand INTEGER,
+    to_stand INTEGER,
+    height VARCHAR(100),
+    width VARCHAR(100),
+    unit VARCHAR(10),
+    price DOUBLE PRECISION,
+    shop_id BIGINT,
+    timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT audit_log_pkey PRIMARY KEY (id, timestamp),
+    CONSTRAINT fk_audit_log_shop FOREIGN KEY (shop_id) REFERENCES shop(id) ON DELETE CASCADE,
+    CONSTRAINT chk_audit_log_action CHECK (action IN ('ADD', 'REMOVE', 'TRANSFER')),
+    CONSTRAINT chk_audit_log_quantity_non_zero CHECK (quantity != 0)
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+
+-- One partition per month from the oldest row up to three months ahead
+DO $$
+DECLARE
+    m DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(timestamp)), date_trunc('month', CURRENT_DATE))::date
+      INTO m
+      FROM audit_log_unpartitioned;
+
+    WHILE m <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+                       'audit_log_p' || to_char(m, 'YYYY_MM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+CREATE TABLE audit_log_default PARTITION OF audit_log DEFAULT;
+
+INSERT INTO audit_log (id, username, role, action, glass_type, quantity, stand_no, from_stand, to_stand,
+                       height, width, unit, price, shop_id, timestamp)
+SELECT id, username, role, action, glass_type, quantity, stand_no, from_stand, to_stand,
+       height, width, unit, price, shop_id, timestamp
+FROM audit_log_unpartitioned;
+
+DROP TABLE audit_log_unpartitioned;
+
+-- Created on the parent, so every partition (current and future) gets them.
+-- (shop_id, timestamp DESC) also covers the FK and replaces the old
+-- shop_id-only and timestamp-only indexes.
+CREATE INDEX idx_audit_log_shop_timestamp ON audit_log(shop_id, timestamp DESC);
+CREATE INDEX idx_audit_log_action ON audit_log(action);
+CREATE INDEX idx_audit_log_username ON audit_log(username);
+
+-- Detached (expired) partitions are moved here by the retention job
+CREATE SCHEMA IF NOT EXISTS audit_archive;
+
+COMMENT ON TABLE audit_log IS 'Audit trail of all stock actions (partitioned by month on timestamp)';
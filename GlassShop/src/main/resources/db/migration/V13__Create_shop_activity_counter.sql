@@ -0,0 +1,33 @@
+-- ============================================
+-- Flyway Migration: Per-shop activity counters
+-- ============================================
+
+-- Running totals of audit_log actions per shop, so dashboard counters are a
+-- primary-key lookup instead of a COUNT over the shop's audit history.
+-- Upserted by AuditLogWriter in the same transaction that inserts the audit
+-- rows. today_ops counts actions on ops_day only (older days read as 0).
+CREATE TABLE IF NOT EXISTS shop_activity_counter (
+    shop_id BIGINT PRIMARY KEY,
+    transfers BIGINT NOT NULL DEFAULT 0,
+    adds BIGINT NOT NULL DEFAULT 0,
+    removes BIGINT NOT NULL DEFAULT 0,
+    ops_day DATE NOT NULL DEFAULT CURRENT_DATE,
+    today_ops BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_shop_activity_counter_shop FOREIGN KEY (shop_id) REFERENCES shop(id) ON DELETE CASCADE
+);
+
+-- Start from the existing history
+INSERT INTO shop_activity_counter (shop_id, transfers, adds, removes, ops_day, today_ops)
+SELECT shop_id,
+       COUNT(*) FILTER (WHERE action = 'TRANSFER'),
+       COUNT(*) FILTER (WHERE action = 'ADD'),
+       COUNT(*) FILTER (WHERE action = 'REMOVE'),
+       CURRENT_DATE,
+       COUNT(*) FILTER (WHERE timestamp >= CURRENT_DATE)
+FROM audit_log
+WHERE shop_id IS NOT NULL
+GROUP BY shop_id
+ON CONFLICT (shop_id) DO NOTHING;
+
+COMMENT ON TABLE shop_activity_counter IS 'Per-shop running totals of audit actions for dashboard counters';
@@ -0,0 +1,20 @@
+-- ============================================
+-- Flyway Migration: Record the stock row's size in stock_history
+-- ============================================
+
+-- Undo locks exactly the row an entry changed: shop + glass + stand + size
+-- (uk_stock_glass_stand_shop_height_width), not just the glass.
+ALTER TABLE stock_history ADD COLUMN IF NOT EXISTS height VARCHAR(100);
+ALTER TABLE stock_history ADD COLUMN IF NOT EXISTS width VARCHAR(100);
+
+-- Existing entries: take the size from the stock row when glass + stand
+-- identify one row. Ambiguous entries stay NULL and can't be undone.
+UPDATE stock_history h
+SET height = s.height,
+    width = s.width
+FROM stock s
+WHERE s.shop_id = h.shop_id
+  AND s.glass_id = h.glass_id
+  AND s.stand_no = h.stand_no
+  AND (SELECT COUNT(*) FROM stock o
+       WHERE o.shop_id = h.shop_id AND o.glass_id = h.glass_id AND o.stand_no = h.stand_no) = 1;
@@ -0,0 +1,21 @@
+-- ============================================
+-- Flyway Migration: Per-shop document number sequences
+-- ============================================
+
+-- One counter row per (shop, document type, month)
+-- doc_type: Q (quotation), INV (invoice), ADV (advance invoice)
+-- period:   yyyy-MM
+CREATE TABLE IF NOT EXISTS document_sequence (
+    id BIGSERIAL PRIMARY KEY,
+    shop_id BIGINT NOT NULL,
+    doc_type VARCHAR(10) NOT NULL,
+    period VARCHAR(7) NOT NULL,
+    next_value BIGINT NOT NULL DEFAULT 1,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_document_sequence_shop FOREIGN KEY (shop_id) REFERENCES shop(id) ON DELETE CASCADE,
+    CONSTRAINT uk_document_sequence_shop_type_period UNIQUE (shop_id, doc_type, period)
+);
+
+ALTER TABLE document_sequence ADD CONSTRAINT chk_document_sequence_next_value_positive CHECK (next_value > 0);
+
+COMMENT ON TABLE document_sequence IS 'Next quotation/invoice number per shop, type and month';
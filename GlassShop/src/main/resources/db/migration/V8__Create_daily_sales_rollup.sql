@@ -0,0 +1,105 @@
+-- ============================================
+-- Flyway Migration: Daily sales rollup
+-- ============================================
+
+-- Pre-aggregated REMOVE (sale) movements per shop/day/glass/size/stand.
+-- Maintained by StockService on every REMOVE, read by the nightly report.
+-- Dimension columns use '' instead of NULL so the unique key always matches.
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    shop_id BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    glass_type VARCHAR(50) NOT NULL DEFAULT '',
+    height VARCHAR(100) NOT NULL DEFAULT '',
+    width VARCHAR(100) NOT NULL DEFAULT '',
+    unit VARCHAR(10) NOT NULL DEFAULT '',
+    stand_no INTEGER NOT NULL DEFAULT 0,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    earnings DOUBLE PRECISION NOT NULL DEFAULT 0,
+    CONSTRAINT fk_daily_sales_rollup_shop FOREIGN KEY (shop_id) REFERENCES shop(id) ON DELETE CASCADE,
+    CONSTRAINT uk_daily_sales_rollup_key UNIQUE (shop_id, sale_date, glass_type, height, width, unit, stand_no)
+);
+
+CREATE INDEX idx_daily_sales_rollup_shop_date ON daily_sales_rollup(shop_id, sale_date);
+
+COMMENT ON TABLE daily_sales_rollup IS 'Per-day sales aggregate used by the daily WhatsApp report';
+
+-- Backfill from the REMOVE rows already in audit_log, so sales made before
+-- this deploy (today's included) are in the report. Earnings follow
+-- DailySalesRollupService: the logged price, else area (m²) x base rate of
+-- the glass type. The helper functions live in pg_temp and go away with
+-- the migration session.
+CREATE FUNCTION pg_temp.rollup_dimension(value TEXT) RETURNS DOUBLE PRECISION AS $$
+DECLARE
+    parts TEXT[];
+    part TEXT;
+    result DOUBLE PRECISION := 0;
+BEGIN
+    -- "26" / "26.5" / "26 1/4" / "1/4", anything else counts as 0 (Stock.parseDimension)
+    IF value IS NULL OR btrim(value) = '' THEN
+        RETURN 0;
+    END IF;
+    parts := regexp_split_to_array(btrim(value), '\s+');
+    IF array_length(parts, 1) > 2 THEN
+        RETURN 0;
+    END IF;
+    FOREACH part IN ARRAY parts LOOP
+        IF part ~ '^-?[0-9]*\.?[0-9]+/-?[0-9]*\.?[0-9]+$' THEN
+            IF split_part(part, '/', 2)::DOUBLE PRECISION = 0 THEN
+                RETURN 0;
+            END IF;
+            result := result + split_part(part, '/', 1)::DOUBLE PRECISION
+                             / split_part(part, '/', 2)::DOUBLE PRECISION;
+        ELSIF part ~ '^-?[0-9]*\.?[0-9]+$' THEN
+            result := result + part::DOUBLE PRECISION;
+        ELSE
+            RETURN 0;
+        END IF;
+    END LOOP;
+    RETURN result;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+CREATE FUNCTION pg_temp.rollup_unit_price(glass_type TEXT, height TEXT, width TEXT, unit TEXT)
+RETURNS DOUBLE PRECISION AS $$
+DECLARE
+    h DOUBLE PRECISION := pg_temp.rollup_dimension(height);
+    w DOUBLE PRECISION := pg_temp.rollup_dimension(width);
+    factor DOUBLE PRECISION;
+    base_price DOUBLE PRECISION;
+BEGIN
+    IF h <= 0 OR w <= 0 THEN
+        RETURN 0;
+    END IF;
+    factor := CASE
+        WHEN upper(unit) = 'MM' THEN 0.001
+        WHEN upper(unit) IN ('INCH', 'IN') THEN 0.0254
+        WHEN upper(unit) IN ('FEET', 'FT') THEN 0.3048
+        ELSE 1
+    END;
+    base_price := CASE
+        WHEN glass_type IS NULL THEN 0
+        WHEN glass_type LIKE '%5%' THEN 500
+        WHEN glass_type LIKE '%8%' THEN 800
+        WHEN glass_type LIKE '%10%' THEN 1000
+        ELSE 400
+    END;
+    RETURN base_price * (h * factor) * (w * factor);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+INSERT INTO daily_sales_rollup
+    (shop_id, sale_date, glass_type, height, width, unit, stand_no, quantity, earnings)
+SELECT
+    a.shop_id,
+    CAST(COALESCE(a.timestamp, CURRENT_TIMESTAMP) AS DATE),
+    COALESCE(a.glass_type, ''),
+    COALESCE(a.height, ''),
+    COALESCE(a.width, ''),
+    COALESCE(a.unit, ''),
+    COALESCE(a.stand_no, 0),
+    SUM(a.quantity),
+    SUM(COALESCE(a.price, pg_temp.rollup_unit_price(a.glass_type, a.height, a.width, a.unit)) * a.quantity)
+FROM audit_log a
+WHERE a.shop_id IS NOT NULL AND UPPER(a.action) = 'REMOVE'
+GROUP BY 1, 2, 3, 4, 5, 6, 7;
@@ -0,0 +1,37 @@
+-- ============================================
+-- Flyway Migration: Stock listing (keyset pagination + filters)
+-- ============================================
+
+-- Numeric copies of height / width ("26", "26.5", "26 1/4", "1/4") so the
+-- listing can filter by dimension range. Maintained by the Stock entity.
+ALTER TABLE stock ADD COLUMN IF NOT EXISTS height_value DOUBLE PRECISION;
+ALTER TABLE stock ADD COLUMN IF NOT EXISTS width_value DOUBLE PRECISION;
+
+UPDATE stock SET height_value = CASE
+        WHEN height ~ '^\s*\d+(\.\d+)?\s*$'
+            THEN trim(height)::DOUBLE PRECISION
+        WHEN height ~ '^\s*\d+\s+\d+/[1-9]\d*\s*$'
+            THEN split_part(trim(height), ' ', 1)::DOUBLE PRECISION
+               + split_part(split_part(regexp_replace(trim(height), '\s+', ' ', 'g'), ' ', 2), '/', 1)::DOUBLE PRECISION
+               / split_part(split_part(regexp_replace(trim(height), '\s+', ' ', 'g'), ' ', 2), '/', 2)::DOUBLE PRECISION
+        WHEN height ~ '^\s*\d+/[1-9]\d*\s*$'
+            THEN split_part(trim(height), '/', 1)::DOUBLE PRECISION
+               / split_part(trim(height), '/', 2)::DOUBLE PRECISION
+    END,
+    width_value = CASE
+        WHEN width ~ '^\s*\d+(\.\d+)?\s*$'
+            THEN trim(width)::DOUBLE PRECISION
+        WHEN width ~ '^\s*\d+\s+\d+/[1-9]\d*\s*$'
+            THEN split_part(trim(width), ' ', 1)::DOUBLE PRECISION
+               + split_part(split_part(regexp_replace(trim(width), '\s+', ' ', 'g'), ' ', 2), '/', 1)::DOUBLE PRECISION
+               / split_part(split_part(regexp_replace(trim(width), '\s+', ' ', 'g'), ' ', 2), '/', 2)::DOUBLE PRECISION
+        WHEN width ~ '^\s*\d+/[1-9]\d*\s*$'
+            THEN split_part(trim(width), '/', 1)::DOUBLE PRECISION
+               / split_part(trim(width), '/', 2)::DOUBLE PRECISION
+    END;
+
+-- Keyset order of the listing: WHERE shop_id = ? AND (stand_no, id) > (?, ?)
+CREATE INDEX IF NOT EXISTS idx_stock_shop_stand_id ON stock(shop_id, stand_no, id);
+
+COMMENT ON COLUMN stock.height_value IS 'Numeric height parsed from height (NULL if not a number)';
+COMMENT ON COLUMN stock.width_value IS 'Numeric width parsed from width (NULL if not a number)';
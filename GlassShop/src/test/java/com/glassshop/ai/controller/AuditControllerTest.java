@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -19,15 +20,25 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.glassshop.ai.dto.AuditLogView;
+import com.glassshop.ai.dto.AuditPageResponse;
+import com.glassshop.ai.dto.ShopActivityCounts;
+import com.glassshop.ai.dto.StockHistoryView;
 import com.glassshop.ai.entity.AuditLog;
 import com.glassshop.ai.entity.Shop;
 import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.AuditLogRepository;
 import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.service.AuditHistoryService;
+import com.glassshop.ai.service.AuditLogWriter;
+import com.glassshop.ai.service.ColdArchiveService;
+import com.glassshop.ai.service.CsvExportService;
+import com.glassshop.ai.service.ShopActivityCounterService;
 
 /**
  * Unit Tests for AuditController
- * Tests audit log endpoints: recent logs, transfer count
+ * Tests audit log endpoints: recent logs, history, transfer count, counters,
+ * archived stock history
  */
 @WebMvcTest(AuditController.class)
 @DisplayName("AuditController Unit Tests")
@@ -42,6 +53,21 @@ class AuditControllerTest {
     @MockBean
     private UserRepository userRepository;
 
+    @MockBean
+    private CsvExportService csvExportService;
+
+    @MockBean
+    private AuditLogWriter auditLogWriter;
+
+    @MockBean
+    private AuditHistoryService auditHistoryService;
+
+    @MockBean
+    private ShopActivityCounterService shopActivityCounterService;
+
+    @MockBean
+    private ColdArchiveService coldArchiveService;
+
     private User testUser;
     private Shop testShop;
     private AuditLog testAuditLog;
@@ -90,6 +116,61 @@ class AuditControllerTest {
         verify(auditLogRepository, times(1)).findByShopOrderByTimestampDesc(testShop);
     }
 
+    @Test
+    @DisplayName("GET /audit/history - Success: Returns a page of slim rows and the next cursor")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testGetHistory_Success() throws Exception {
+        // Arrange
+        AuditLogView view = new AuditLogView(7L, LocalDateTime.of(2025, 3, 1, 10, 0), "testuser", "ROLE_ADMIN",
+                "REMOVE", "5MM", 2, 1, null, null, "10", "12", "MM", null);
+        when(auditHistoryService.getPage(any(), eq("abc"), eq(20)))
+                .thenReturn(new AuditPageResponse(List.of(view), "next"));
+
+        // Act & Assert
+        mockMvc.perform(get("/audit/history").param("cursor", "abc").param("limit", "20")
+                        .param("action", "REMOVE").param("from", "2025-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.items[0].action").value("REMOVE"))
+                .andExpect(jsonPath("$.items[0].shop").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(auditHistoryService).getPage(argThat(f -> "REMOVE".equals(f.getAction())
+                && LocalDate.of(2025, 1, 1).equals(f.getFrom())), eq("abc"), eq(20));
+    }
+
+    @Test
+    @DisplayName("GET /audit/history - Failure: Bad cursor gives 400")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testGetHistory_InvalidCursor() throws Exception {
+        // Arrange
+        when(auditHistoryService.getPage(any(), eq("bad"), anyInt()))
+                .thenThrow(new IllegalArgumentException("❌ Invalid cursor"));
+
+        // Act & Assert
+        mockMvc.perform(get("/audit/history").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /audit/download - Success: Streams CSV for the user's shop and date range")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testDownloadAuditLog_Success() throws Exception {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        mockMvc.perform(get("/audit/download").param("from", "2025-01-01").param("to", "2025-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=audit-log-report.csv"));
+
+        verify(csvExportService, times(1)).writeAuditCsv(eq(1L),
+                eq(LocalDateTime.of(2025, 1, 1, 0, 0)),
+                eq(LocalDateTime.of(2026, 1, 1, 0, 0)),
+                any());
+    }
+
     @Test
     @DisplayName("GET /audit/recent - Failure: Unauthorized (STAFF role)")
     @WithMockUser(username = "staff", roles = {"STAFF"})
@@ -126,7 +207,7 @@ class AuditControllerTest {
     void testGetTransferCount_Success_Admin() throws Exception {
         // Arrange
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(auditLogRepository.countTransfersByShop(testShop)).thenReturn(5L);
+        when(shopActivityCounterService.getCounts(1L)).thenReturn(new ShopActivityCounts(5, 0, 0, 0));
 
         // Act & Assert
         mockMvc.perform(get("/audit/transfer-count"))
@@ -134,7 +215,7 @@ class AuditControllerTest {
                 .andExpect(jsonPath("$").value(5L));
 
         verify(userRepository, times(1)).findByUserName("testuser");
-        verify(auditLogRepository, times(1)).countTransfersByShop(testShop);
+        verify(shopActivityCounterService, times(1)).getCounts(1L);
     }
 
     @Test
@@ -147,7 +228,7 @@ class AuditControllerTest {
         staff.setShop(testShop);
 
         when(userRepository.findByUserName("staff")).thenReturn(Optional.of(staff));
-        when(auditLogRepository.countTransfersByShop(testShop)).thenReturn(3L);
+        when(shopActivityCounterService.getCounts(1L)).thenReturn(new ShopActivityCounts(3, 0, 0, 0));
 
         // Act & Assert
         mockMvc.perform(get("/audit/transfer-count"))
@@ -155,7 +236,7 @@ class AuditControllerTest {
                 .andExpect(jsonPath("$").value(3L));
 
         verify(userRepository, times(1)).findByUserName("staff");
-        verify(auditLogRepository, times(1)).countTransfersByShop(testShop);
+        verify(shopActivityCounterService, times(1)).getCounts(1L);
     }
 
     @Test
@@ -164,7 +245,7 @@ class AuditControllerTest {
     void testGetTransferCount_Zero() throws Exception {
         // Arrange
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(auditLogRepository.countTransfersByShop(testShop)).thenReturn(0L);
+        when(shopActivityCounterService.getCounts(1L)).thenReturn(new ShopActivityCounts(0, 0, 0, 0));
 
         // Act & Assert
         mockMvc.perform(get("/audit/transfer-count"))
@@ -172,7 +253,7 @@ class AuditControllerTest {
                 .andExpect(jsonPath("$").value(0L));
 
         verify(userRepository, times(1)).findByUserName("testuser");
-        verify(auditLogRepository, times(1)).countTransfersByShop(testShop);
+        verify(shopActivityCounterService, times(1)).getCounts(1L);
     }
 
     @Test
@@ -188,7 +269,7 @@ class AuditControllerTest {
                 .andExpect(jsonPath("$").value(0L));
 
         verify(userRepository, times(1)).findByUserName("nonexistent");
-        verify(auditLogRepository, never()).countTransfersByShop(any());
+        verify(shopActivityCounterService, never()).getCounts(any());
     }
 
     @Test
@@ -208,7 +289,65 @@ class AuditControllerTest {
                 .andExpect(jsonPath("$").value(0L));
 
         verify(userRepository, times(1)).findByUserName("testuser");
-        verify(auditLogRepository, never()).countTransfersByShop(any());
+        verify(shopActivityCounterService, never()).getCounts(any());
     }
-}
 
+    @Test
+    @DisplayName("GET /audit/counters - Success: Returns the shop's counters (STAFF)")
+    @WithMockUser(username = "staff", roles = {"STAFF"})
+    void testGetCounters_Success() throws Exception {
+        // Arrange
+        User staff = new User();
+        staff.setUserName("staff");
+        staff.setShop(testShop);
+
+        when(userRepository.findByUserName("staff")).thenReturn(Optional.of(staff));
+        when(shopActivityCounterService.getCounts(1L)).thenReturn(new ShopActivityCounts(4, 10, 7, 3));
+
+        // Act & Assert
+        mockMvc.perform(get("/audit/counters"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transfers").value(4))
+                .andExpect(jsonPath("$.adds").value(10))
+                .andExpect(jsonPath("$.removes").value(7))
+                .andExpect(jsonPath("$.todayOps").value(3));
+
+        verify(auditLogRepository, never()).findByShopOrderByTimestampDesc(any());
+    }
+
+    @Test
+    @DisplayName("GET /audit/stock-history/archived - Success: Dates become an inclusive range for the shop")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testArchivedStockHistory_Success() throws Exception {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        StockHistoryView row = new StockHistoryView(9L, 1L, 2, 4, "REMOVE", "26 1/4", "18",
+                LocalDateTime.of(2022, 3, 4, 10, 0));
+        when(coldArchiveService.scanStockHistory(1L, LocalDateTime.of(2022, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 1, 1, 0, 0), 100)).thenReturn(List.of(row));
+
+        // Act & Assert
+        mockMvc.perform(get("/audit/stock-history/archived")
+                        .param("from", "2022-01-01")
+                        .param("to", "2022-12-31")
+                        .param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(9))
+                .andExpect(jsonPath("$[0].height").value("26 1/4"));
+    }
+
+    @Test
+    @DisplayName("GET /audit/stock-history/archived - Failure: User without a shop gets 403")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testArchivedStockHistory_NoShop() throws Exception {
+        // Arrange
+        testUser.setShop(null);
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        mockMvc.perform(get("/audit/stock-history/archived"))
+                .andExpect(status().isForbidden());
+
+        verify(coldArchiveService, never()).scanStockHistory(any(), any(), any(), anyInt());
+    }
+}
@@ -0,0 +1,166 @@
+package com.glassshop.ai.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glassshop.ai.dto.BulkPdfExportRequest;
+import com.glassshop.ai.security.JwtFilter;
+import com.glassshop.ai.security.JwtUtil;
+import com.glassshop.ai.service.BulkPdfExportService;
+import com.glassshop.ai.service.BulkPdfExportService.BulkPdfExport;
+import com.glassshop.ai.service.InvoiceService;
+import com.glassshop.ai.service.PdfService;
+
+/**
+ * Unit Tests for InvoiceController
+ * Tests the bulk PDF export endpoint: streamed body, content type and error codes
+ */
+@WebMvcTest(controllers = InvoiceController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@DisplayName("InvoiceController Unit Tests")
+class InvoiceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private InvoiceService invoiceService;
+
+    @MockBean
+    private PdfService pdfService;
+
+    @MockBean
+    private BulkPdfExportService bulkPdfExportService;
+
+    @MockBean
+    private JwtFilter jwtFilter;
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    private String body(String format) throws Exception {
+        BulkPdfExportRequest request = new BulkPdfExportRequest();
+        request.setInvoiceIds(List.of(3L, 1L, 2L));
+        request.setFormat(format);
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private BulkPdfExport export(boolean zip, String fileName) throws Exception {
+        BulkPdfExport export = mock(BulkPdfExport.class);
+        when(export.isZip()).thenReturn(zip);
+        when(export.getFileName()).thenReturn(fileName);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write(("rendered " + fileName).getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bulkPdfExportService).write(same(export), any(OutputStream.class));
+        return export;
+    }
+
+    @Test
+    @DisplayName("POST /api/invoices/bulk-pdf - Success: ZIP is streamed as an attachment")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testBulkPdfExport_Zip() throws Exception {
+        // Arrange
+        BulkPdfExport export = export(true, "invoice-bulk-3.zip");
+        when(bulkPdfExportService.prepare(any(BulkPdfExportRequest.class))).thenReturn(export);
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/api/invoices/bulk-pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("ZIP")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert - no skipped count in the headers: it isn't known before rendering
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string("Content-Disposition", containsString("invoice-bulk-3.zip")))
+                .andExpect(header().doesNotExist("X-Documents-Skipped"))
+                .andExpect(content().string("rendered invoice-bulk-3.zip"));
+
+        verify(bulkPdfExportService).prepare(argThat(r -> r.getInvoiceIds().equals(List.of(3L, 1L, 2L))
+                && "ZIP".equals(r.getFormat())));
+        verify(bulkPdfExportService, times(1)).write(same(export), any(OutputStream.class));
+    }
+
+    @Test
+    @DisplayName("POST /api/invoices/bulk-pdf - Success: Merged PDF is streamed as application/pdf")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testBulkPdfExport_MergedPdf() throws Exception {
+        // Arrange
+        BulkPdfExport export = export(false, "invoice-bulk-3.pdf");
+        when(bulkPdfExportService.prepare(any(BulkPdfExportRequest.class))).thenReturn(export);
+
+        // Act
+        MvcResult started = mockMvc.perform(post("/api/invoices/bulk-pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("PDF")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Content-Disposition", containsString("invoice-bulk-3.pdf")))
+                .andExpect(content().string("rendered invoice-bulk-3.pdf"));
+    }
+
+    @Test
+    @DisplayName("POST /api/invoices/bulk-pdf - Failure: Invalid request gives 400")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testBulkPdfExport_BadRequest() throws Exception {
+        // Arrange
+        when(bulkPdfExportService.prepare(any(BulkPdfExportRequest.class)))
+                .thenThrow(new IllegalArgumentException("Invalid format. Use PDF or ZIP"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/invoices/bulk-pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("DOCX")))
+                .andExpect(status().isBadRequest());
+
+        verify(bulkPdfExportService, never()).write(any(), any());
+    }
+
+    @Test
+    @DisplayName("POST /api/invoices/bulk-pdf - Failure: Nothing to export gives 404")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testBulkPdfExport_NothingToExport() throws Exception {
+        // Arrange
+        when(bulkPdfExportService.prepare(any(BulkPdfExportRequest.class)))
+                .thenThrow(new RuntimeException("No documents to export: [Invoice 3: Invoice not found]"));
+
+        // Act & Assert
+        mockMvc.perform(post("/api/invoices/bulk-pdf")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("PDF")))
+                .andExpect(status().isNotFound());
+
+        verify(bulkPdfExportService, never()).write(any(), any());
+    }
+}
@@ -7,6 +7,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,22 +16,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.glassshop.ai.dto.StockImportResult;
 import com.glassshop.ai.dto.StockUpdateRequest;
+import com.glassshop.ai.dto.StockView;
+import com.glassshop.ai.entity.Shop;
 import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.StockRepository;
 import com.glassshop.ai.repository.UserRepository;
 import com.glassshop.ai.service.AlertService;
+import com.glassshop.ai.service.CsvExportService;
 import com.glassshop.ai.service.ReorderService;
+import com.glassshop.ai.service.StockImportService;
 import com.glassshop.ai.service.StockService;
 import com.glassshop.ai.service.AiExplanationService;
 
 /**
  * Unit Tests for StockController
- * Tests stock management endpoints: update, get all, undo, recent activity
+ * Tests stock management endpoints: update, get all, undo, recent activity, CSV import
  */
 @WebMvcTest(StockController.class)
 @DisplayName("StockController Unit Tests")
@@ -60,6 +68,12 @@ class StockControllerTest {
     @MockBean
     private StockRepository stockRepository;
 
+    @MockBean
+    private StockImportService stockImportService;
+
+    @MockBean
+    private CsvExportService csvExportService;
+
     private Stock testStock;
 
     @BeforeEach
@@ -151,14 +165,18 @@ class StockControllerTest {
     @WithMockUser(username = "testuser", roles = {"ADMIN"})
     void testGetAllStock_Success() throws Exception {
         // Arrange
-        List<Stock> stockList = Arrays.asList(testStock);
+        StockView view = new StockView(1L, 1L, "Clear", 5, "MM",
+                1, "10", "12", 50, 10, null, null);
+        List<StockView> stockList = Arrays.asList(view);
         when(stockService.getAllStock()).thenReturn(stockList);
 
         // Act & Assert
         mockMvc.perform(get("/stock/all"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(1L));
+                .andExpect(jsonPath("$[0].id").value(1L))
+                .andExpect(jsonPath("$[0].glass.type").value("Clear"))
+                .andExpect(jsonPath("$[0].shop").doesNotExist());
 
         verify(stockService, times(1)).getAllStock();
     }
@@ -257,5 +275,79 @@ class StockControllerTest {
 
         verify(alertService, times(1)).checkLowStockOnly();
     }
-}
 
+    private void userWithShop(boolean linked) {
+        Shop shop = new Shop();
+        shop.setId(1L);
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("testuser");
+        user.setRole("ROLE_ADMIN");
+        user.setShop(linked ? shop : null);
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(user));
+    }
+
+    private MockMultipartFile csvFile() {
+        return new MockMultipartFile("file", "stock.csv", "text/csv",
+                "glassType,unit,standNo,height,width,quantity\n5MM,FEET,1,10,12,4\n".getBytes());
+    }
+
+    @Test
+    @DisplayName("POST /stock/import - Success: Returns the import result")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testImportStock_Success() throws Exception {
+        // Arrange
+        userWithShop(true);
+        StockImportResult result = new StockImportResult();
+        result.setImportedRows(1);
+        result.setCompleted(true);
+        when(stockImportService.importCsv(any(), eq(1L))).thenReturn(result);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/stock/import").file(csvFile()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows").value(1));
+    }
+
+    @Test
+    @DisplayName("POST /stock/import - Failure: User without a shop gets 403")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testImportStock_NoShop() throws Exception {
+        // Arrange
+        userWithShop(false);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/stock/import").file(csvFile()))
+                .andExpect(status().isForbidden());
+
+        verify(stockImportService, never()).importCsv(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("POST /stock/import - Failure: Bad header gives 400")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testImportStock_BadInput() throws Exception {
+        // Arrange
+        userWithShop(true);
+        when(stockImportService.importCsv(any(), anyLong()))
+                .thenThrow(new IllegalArgumentException("❌ Missing CSV columns: [standNo]"));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/stock/import").file(csvFile()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /stock/import - Failure: Unexpected error gives 500, not 403")
+    @WithMockUser(username = "testuser", roles = {"ADMIN"})
+    void testImportStock_ServerError() throws Exception {
+        // Arrange
+        userWithShop(true);
+        when(stockImportService.importCsv(any(), anyLong()))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/stock/import").file(csvFile()))
+                .andExpect(status().isInternalServerError());
+    }
+}
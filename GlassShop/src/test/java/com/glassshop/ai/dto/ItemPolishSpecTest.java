@@ -0,0 +1,157 @@
+package com.glassshop.ai.dto;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit Tests for ItemPolishSpec
+ * Tests parsing of the item description JSON: full round trip, legacy,
+ * empty and malformed descriptions
+ */
+@DisplayName("ItemPolishSpec Unit Tests")
+class ItemPolishSpecTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private static Map<String, Object> side(boolean checked, String side, int sideNumber, String type) {
+        Map<String, Object> ps = new LinkedHashMap<>();
+        ps.put("checked", checked);
+        ps.put("side", side);
+        ps.put("sideNumber", sideNumber);
+        ps.put("type", type);
+        return ps;
+    }
+
+    @Test
+    @DisplayName("parse - Success: Description written by the frontend reads back field by field")
+    void testParse_RoundTrip() throws Exception {
+        // Arrange - same shape the quotation screen stores
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("heightOriginal", "26 1/4");
+        description.put("widthOriginal", "18 3/8");
+        description.put("sizeInMM", false);
+        description.put("heightTableNumber", 3);
+        description.put("widthTableNumber", 12);
+        description.put("selectedHeightTableValue", 27);
+        description.put("selectedWidthTableValue", 21);
+        description.put("itemPolish", "CNC");
+        description.put("polishSelection", List.of(
+                side(true, "Side", 1, "CNC"),
+                side(false, "Side", 2, "Hash"),
+                side(true, "Side", 3, "Hash"),
+                side(true, "Side", 4, null)));
+        String json = mapper.writeValueAsString(description);
+
+        // Act
+        ItemPolishSpec spec = ItemPolishSpec.parse(json);
+
+        // Assert
+        assertEquals("26 1/4", spec.getHeightOriginal());
+        assertEquals("18 3/8", spec.getWidthOriginal());
+        assertFalse(spec.isSizeInMM());
+        assertTrue(spec.hasPolishSelection());
+        assertEquals(3, spec.getHeightTableNumber());
+        assertEquals(12, spec.getWidthTableNumber());
+        assertEquals(27, spec.getSelectedHeightTableValue());
+        assertEquals(21, spec.getSelectedWidthTableValue());
+        assertEquals("CNC", spec.getItemPolish());
+        assertEquals(4, spec.getPolishSelection().size());
+        ItemPolishSpec.PolishSide first = spec.getPolishSelection().get(0);
+        assertTrue(first.isChecked());
+        assertEquals("Side", first.getSide());
+        assertEquals(1, first.getSideNumber());
+        assertEquals("CNC", first.getType());
+        assertEquals("", spec.getPolishSelection().get(3).getType());
+        // unchecked and untyped sides are left out
+        assertEquals("Side 1=CNC Side 3=Hash ", spec.describeSelectedSides());
+    }
+
+    @Test
+    @DisplayName("parse - Success: Only the first 4 sides are described")
+    void testParse_DescribeFirstFourSides() throws Exception {
+        // Arrange
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("polishSelection", List.of(
+                side(true, "Side", 1, "CNC"),
+                side(true, "Side", 2, "CNC"),
+                side(true, "Side", 3, "CNC"),
+                side(true, "Side", 4, "CNC"),
+                side(true, "Side", 5, "CNC")));
+
+        // Act
+        ItemPolishSpec spec = ItemPolishSpec.parse(mapper.writeValueAsString(description));
+
+        // Assert
+        assertEquals(5, spec.getPolishSelection().size());
+        assertEquals("Side 1=CNC Side 2=CNC Side 3=CNC Side 4=CNC ", spec.describeSelectedSides());
+    }
+
+    @Test
+    @DisplayName("parse - Success: Older descriptions without polish data get the defaults")
+    void testParse_LegacyJson() {
+        // Act - sizes only, from before the polish selection existed
+        ItemPolishSpec spec = ItemPolishSpec.parse(
+                "  {\"heightOriginal\":\"1200\",\"widthOriginal\":\"800\",\"sizeInMM\":true}  ");
+
+        // Assert
+        assertNotSame(ItemPolishSpec.EMPTY, spec);
+        assertEquals("1200", spec.getHeightOriginal());
+        assertEquals("800", spec.getWidthOriginal());
+        assertTrue(spec.isSizeInMM());
+        assertFalse(spec.hasPolishSelection());
+        assertEquals(6, spec.getHeightTableNumber());
+        assertEquals(6, spec.getWidthTableNumber());
+        assertEquals(0, spec.getSelectedHeightTableValue());
+        assertEquals("", spec.getItemPolish());
+        assertTrue(spec.getPolishSelection().isEmpty());
+        assertEquals("", spec.describeSelectedSides());
+    }
+
+    @Test
+    @DisplayName("parse - Success: Plain-text, null and blank descriptions give EMPTY")
+    void testParse_LegacyPlainTextAndEmpty() {
+        assertSame(ItemPolishSpec.EMPTY, ItemPolishSpec.parse(null));
+        assertSame(ItemPolishSpec.EMPTY, ItemPolishSpec.parse(""));
+        assertSame(ItemPolishSpec.EMPTY, ItemPolishSpec.parse("   "));
+        assertSame(ItemPolishSpec.EMPTY, ItemPolishSpec.parse("5MM clear glass, CNC polish"));
+
+        ItemPolishSpec empty = ItemPolishSpec.EMPTY;
+        assertNull(empty.getHeightOriginal());
+        assertNull(empty.getWidthOriginal());
+        assertFalse(empty.hasPolishSelection());
+        assertEquals(6, empty.getHeightTableNumber());
+        assertEquals("", empty.getItemPolish());
+        assertEquals("", empty.describeSelectedSides());
+    }
+
+    @Test
+    @DisplayName("parse - Failure: Malformed JSON never throws and gives EMPTY")
+    void testParse_Malformed() {
+        assertSame(ItemPolishSpec.EMPTY, ItemPolishSpec.parse("{\"heightOriginal\":"));
+        assertSame(ItemPolishSpec.EMPTY, ItemPolishSpec.parse("{not json}"));
+        assertSame(ItemPolishSpec.EMPTY, ItemPolishSpec.parse("{\"a\":1"));
+    }
+
+    @Test
+    @DisplayName("parse - Success: Wrong value types fall back to the defaults")
+    void testParse_WrongTypes() {
+        // Act
+        ItemPolishSpec spec = ItemPolishSpec.parse("{\"heightTableNumber\":\"abc\",\"itemPolish\":null,"
+                + "\"heightOriginal\":null,\"polishSelection\":\"none\"}");
+
+        // Assert
+        assertEquals(6, spec.getHeightTableNumber());
+        assertEquals("", spec.getItemPolish());
+        assertNull(spec.getHeightOriginal());
+        assertTrue(spec.hasPolishSelection());
+        assertTrue(spec.getPolishSelection().isEmpty());
+    }
+}
@@ -0,0 +1,159 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import com.glassshop.ai.dto.AuditFilter;
+import com.glassshop.ai.dto.AuditLogView;
+import com.glassshop.ai.dto.AuditPageResponse;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.User;
+import com.glassshop.ai.repository.AuditLogRepository;
+import com.glassshop.ai.repository.UserRepository;
+
+/**
+ * Unit Tests for AuditHistoryService
+ * Tests keyset cursors, date bounds, filter validation and the archive fallback
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditHistoryService Unit Tests")
+class AuditHistoryServiceTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ColdArchiveService coldArchiveService;
+
+    @InjectMocks
+    private AuditHistoryService auditHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        Shop shop = new Shop();
+        shop.setId(1L);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("admin");
+        user.setRole("ROLE_ADMIN");
+        user.setShop(shop);
+
+        // fresh context - another test class may have left a mocked one installed
+        SecurityContextHolder.setContext(new SecurityContextImpl(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of())));
+        when(userRepository.findByUserName("admin")).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private AuditLogView view(long id, LocalDateTime timestamp) {
+        return new AuditLogView(id, timestamp, "admin", "ROLE_ADMIN", "ADD", "5MM", 1, 1,
+                null, null, "10", "12", "MM", null);
+    }
+
+    @Test
+    @DisplayName("getPage - Success: First page uses open bounds and returns a cursor for the next one")
+    void testGetPage_FirstPage() {
+        // Arrange
+        LocalDateTime t = LocalDateTime.of(2025, 6, 1, 12, 0, 0, 123456000);
+        when(auditLogRepository.findViewPage(eq(1L), eq(AuditHistoryService.MIN_TIMESTAMP),
+                eq(AuditHistoryService.MAX_TIMESTAMP), eq(Long.MIN_VALUE),
+                isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(List.of(view(9L, t), view(8L, t), view(7L, t.minusHours(1))));
+
+        // Act
+        AuditPageResponse page = auditHistoryService.getPage(new AuditFilter(), null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        AuditHistoryService.Position next = AuditHistoryService.decodeCursor(page.getNextCursor());
+        assertEquals(t, next.timestamp);
+        assertEquals(8L, next.id);
+    }
+
+    @Test
+    @DisplayName("getPage - Success: Cursor and date filter narrow the range")
+    void testGetPage_CursorAndFilters() {
+        // Arrange
+        LocalDateTime cursorTime = LocalDateTime.of(2025, 3, 10, 9, 30);
+        AuditFilter filter = new AuditFilter();
+        filter.setAction("remove");
+        filter.setUsername(" ravi ");
+        filter.setStandNo(4);
+        filter.setFrom(LocalDate.of(2025, 3, 1));
+        filter.setTo(LocalDate.of(2025, 3, 31));
+        when(auditLogRepository.findViewPage(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        // Act
+        AuditPageResponse page = auditHistoryService.getPage(filter,
+                AuditHistoryService.encodeCursor(cursorTime, 42L), 50);
+
+        // Assert
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+        verify(auditLogRepository).findViewPage(eq(1L), eq(LocalDateTime.of(2025, 3, 1, 0, 0)),
+                eq(cursorTime), eq(42L), eq("REMOVE"), eq("ravi"), isNull(), eq(4), any());
+    }
+
+    @Test
+    @DisplayName("getPage - Success: Fills the page from the cold archive when audit_log runs out")
+    void testGetPage_ContinuesInArchive() {
+        // Arrange
+        LocalDateTime hot = LocalDateTime.of(2026, 1, 5, 8, 0);
+        LocalDateTime cold = LocalDateTime.of(2023, 4, 2, 17, 0);
+        when(auditLogRepository.findViewPage(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(view(50L, hot)));
+        when(coldArchiveService.scanAudit(eq(1L), eq(AuditHistoryService.MIN_TIMESTAMP),
+                eq(AuditHistoryService.MAX_TIMESTAMP), eq(Long.MIN_VALUE), any(), eq(2)))
+                .thenReturn(List.of(view(5L, cold), view(4L, cold)));
+
+        // Act
+        AuditPageResponse page = auditHistoryService.getPage(new AuditFilter(), null, 2);
+
+        // Assert
+        assertEquals(List.of(50L, 5L), page.getItems().stream().map(AuditLogView::getId).toList());
+        assertTrue(page.isHasMore());
+        assertEquals(5L, AuditHistoryService.decodeCursor(page.getNextCursor()).id);
+    }
+
+    @Test
+    @DisplayName("getPage - Failure: Unknown action and garbage cursor are rejected")
+    void testGetPage_InvalidInput() {
+        // Arrange
+        AuditFilter filter = new AuditFilter();
+        filter.setAction("DELETE");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> auditHistoryService.getPage(filter, null, 50));
+        assertThrows(IllegalArgumentException.class,
+                () -> auditHistoryService.getPage(new AuditFilter(), "not-a-cursor", 50));
+        verify(auditLogRepository, never()).findViewPage(any(), any(), any(), any(), any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,99 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.repository.AuditLogRepository;
+
+/**
+ * Unit Tests for AuditLogWriter
+ * Tests batching on the writer thread, drain on shutdown and backpressure
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogWriter Unit Tests")
+class AuditLogWriterTest {
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ShopActivityCounterService shopActivityCounterService;
+
+    @InjectMocks
+    private AuditLogWriter auditLogWriter;
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(auditLogRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<AuditLog> logs = invocation.getArgument(0);
+            synchronized (batchSizes) {
+                batchSizes.add(logs.size());
+            }
+            return new ArrayList<>(logs);
+        });
+    }
+
+    private static AuditLog log(int standNo) {
+        AuditLog log = new AuditLog();
+        log.setAction("ADD");
+        log.setGlassType("5MM");
+        log.setStandNo(standNo);
+        return log;
+    }
+
+    @Test
+    @DisplayName("Submitted rows are written as one batch and nothing is lost on shutdown")
+    void testSubmitAll_BatchedAndDrainedOnStop() {
+        // Arrange
+        ReflectionTestUtils.setField(auditLogWriter, "flushIntervalMs", 500L);
+        ReflectionTestUtils.invokeMethod(auditLogWriter, "start");
+
+        // Act
+        auditLogWriter.submitAll(List.of(log(1), log(2), log(3)));
+        ReflectionTestUtils.invokeMethod(auditLogWriter, "stop");
+
+        // Assert
+        assertEquals(List.of(3), batchSizes);
+        assertEquals(3, auditLogWriter.getStats().getWritten());
+        assertEquals(0, auditLogWriter.getStats().getSyncWrites());
+    }
+
+    @Test
+    @DisplayName("Full queue makes the caller write its own rows")
+    void testSubmit_Backpressure() {
+        // Arrange - stopped writer: nothing can be queued
+        ReflectionTestUtils.setField(auditLogWriter, "queueCapacity", 1);
+        ReflectionTestUtils.invokeMethod(auditLogWriter, "start");
+        ReflectionTestUtils.invokeMethod(auditLogWriter, "stop");
+
+        // Act
+        auditLogWriter.submit(log(1));
+
+        // Assert
+        assertEquals(1, auditLogWriter.getStats().getSyncWrites());
+        assertEquals(1, auditLogWriter.getStats().getWritten());
+    }
+}
@@ -0,0 +1,106 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Unit Tests for AuditPartitionMaintenanceService
+ * Tests creation of upcoming monthly partitions and archiving by retention
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditPartitionMaintenanceService Unit Tests")
+class AuditPartitionMaintenanceServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AuditPartitionMaintenanceService service;
+
+    @Test
+    @DisplayName("Should create missing months ahead and archive partitions past retention")
+    void testMaintain_CreatesAndArchives() {
+        // Arrange - defaults: 3 months ahead, 24 months retention
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "audit_log_default", "audit_log_p2024_09", "audit_log_p2024_10",
+                "audit_log_p2026_10", "audit_log_p2026_11"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(), any())).thenReturn(false);
+
+        // Act
+        service.maintain(LocalDate.of(2026, 10, 18));
+
+        // Assert
+        verify(jdbcTemplate).execute(contains("audit_log_p2026_12 PARTITION OF audit_log FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')"));
+        verify(jdbcTemplate).execute(contains("audit_log_p2027_01 PARTITION OF audit_log"));
+        verify(jdbcTemplate, never()).execute(contains("audit_log_p2026_11 PARTITION OF"));
+
+        verify(jdbcTemplate).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_p2024_09");
+        verify(jdbcTemplate).execute("ALTER TABLE audit_log_p2024_09 SET SCHEMA audit_archive");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_p2024_10");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_default");
+    }
+
+    @Test
+    @DisplayName("Should move stray default-partition rows into a newly created month")
+    void testMaintain_MovesRowsOutOfDefault() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "audit_log_default", "audit_log_p2026_10", "audit_log_p2026_11", "audit_log_p2026_12"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(), any())).thenReturn(true);
+        when(jdbcTemplate.update(contains("DELETE FROM audit_log_default"),
+                any(LocalDate.class), any(LocalDate.class))).thenReturn(4);
+
+        // Act
+        service.maintain(LocalDate.of(2026, 10, 18));
+
+        // Assert
+        var order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE audit_log DETACH PARTITION audit_log_default");
+        order.verify(jdbcTemplate).execute(contains("audit_log_p2027_01 PARTITION OF audit_log"));
+        order.verify(jdbcTemplate).update(contains("DELETE FROM audit_log_default"),
+                eq(LocalDate.of(2027, 1, 1)), eq(LocalDate.of(2027, 2, 1)));
+        order.verify(jdbcTemplate).execute("ALTER TABLE audit_log ATTACH PARTITION audit_log_default DEFAULT");
+    }
+
+    @Test
+    @DisplayName("Should do nothing when audit_log is not partitioned")
+    void testMaintain_NotPostgres() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class)))
+                .thenThrow(new RuntimeException("Table PG_PARTITIONED_TABLE not found"));
+
+        // Act
+        service.maintain(LocalDate.of(2026, 10, 18));
+
+        // Assert
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should map partition names to months")
+    void testPartitionNames() {
+        assertEquals("audit_log_p2026_03", AuditPartitionMaintenanceService.partitionName(YearMonth.of(2026, 3)));
+        assertEquals(YearMonth.of(2025, 12), AuditPartitionMaintenanceService.parseMonth("audit_log_p2025_12"));
+        assertNull(AuditPartitionMaintenanceService.parseMonth("audit_log_default"));
+    }
+}
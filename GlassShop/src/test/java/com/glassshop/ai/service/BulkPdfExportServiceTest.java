@@ -0,0 +1,385 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.glassshop.ai.config.AsyncConfig;
+import com.glassshop.ai.dto.BulkPdfExportRequest;
+import com.glassshop.ai.entity.Invoice;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.User;
+import com.glassshop.ai.repository.InvoiceRepository;
+import com.glassshop.ai.repository.UserRepository;
+import com.glassshop.ai.service.BulkPdfExportService.BulkPdfExport;
+
+/**
+ * Unit Tests for BulkPdfExportService
+ * Tests request order, the render window, ZIP vs merged PDF and how
+ * skipped documents are reported
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BulkPdfExportService Unit Tests")
+class BulkPdfExportServiceTest {
+
+    private static final int POOL_SIZE = 2;
+
+    @Mock
+    private PdfService pdfService;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @InjectMocks
+    private BulkPdfExportService bulkPdfExportService;
+
+    @TempDir
+    Path scratch;
+
+    private ThreadPoolTaskExecutor pdfBulkExecutor;
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        pdfBulkExecutor = new AsyncConfig().pdfBulkExecutor(POOL_SIZE);
+        ReflectionTestUtils.setField(bulkPdfExportService, "pdfBulkExecutor", pdfBulkExecutor);
+        ReflectionTestUtils.setField(bulkPdfExportService, "maxDocuments", 500);
+        ReflectionTestUtils.setField(bulkPdfExportService, "maxMainMemoryBytes", 8L * 1024 * 1024);
+        ReflectionTestUtils.setField(bulkPdfExportService, "scratchDir", scratch.toString());
+
+        shop = new Shop();
+        shop.setId(1L);
+        shop.setShopName("Test Shop");
+
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("testuser");
+        user.setRole("ROLE_ADMIN");
+        user.setShop(shop);
+
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pdfBulkExecutor.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    /* ===== HELPERS ===== */
+
+    private static byte[] pdf(String text) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream contentStream = new PDPageContentStream(document, page)) {
+                contentStream.setFont(PDType1Font.HELVETICA, 12);
+                contentStream.beginText();
+                contentStream.newLineAtOffset(50, 700);
+                contentStream.showText(text);
+                contentStream.endText();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private Invoice invoice(long id) {
+        Invoice invoice = new Invoice();
+        invoice.setId(id);
+        invoice.setShop(shop);
+        return invoice;
+    }
+
+    // Invoices 1..count exist; each renders "Invoice <id>", later ids finish first
+    private List<Long> stubInvoices(int count) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        List<Invoice> invoices = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+            Invoice invoice = invoice(id);
+            invoices.add(invoice);
+            byte[] bytes = pdf("Invoice " + id);
+            long delay = (count - id) * 5;
+            when(pdfService.prepareInvoicePdf(same(invoice), eq(shop))).thenReturn(out -> {
+                sleep(delay);
+                out.write(bytes);
+            });
+        }
+        when(invoiceRepository.findForPdfByShopIdAndIdIn(eq(1L), anyCollection())).thenReturn(invoices);
+        return ids;
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    private static BulkPdfExportRequest request(List<Long> ids, String format) {
+        BulkPdfExportRequest request = new BulkPdfExportRequest();
+        request.setInvoiceIds(ids);
+        request.setFormat(format);
+        return request;
+    }
+
+    private static List<String> pageTexts(byte[] merged) throws IOException {
+        List<String> pages = new ArrayList<>();
+        try (PDDocument document = PDDocument.load(merged)) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                stripper.setStartPage(page);
+                stripper.setEndPage(page);
+                pages.add(stripper.getText(document).trim());
+            }
+        }
+        return pages;
+    }
+
+    /* ===== TESTS ===== */
+
+    @Test
+    @DisplayName("prepare - Success: All invoices are loaded with one query")
+    void testPrepare_OneQuery() throws IOException {
+        // Arrange
+        List<Long> ids = stubInvoices(5);
+
+        // Act
+        BulkPdfExport export = bulkPdfExportService.prepare(request(ids, "pdf"));
+
+        // Assert
+        assertEquals(5, export.getDocumentCount());
+        assertFalse(export.isZip());
+        assertEquals("invoice-bulk-5.pdf", export.getFileName());
+        verify(invoiceRepository, times(1)).findForPdfByShopIdAndIdIn(eq(1L), anyCollection());
+        verify(invoiceRepository, never()).findById(anyLong());
+        verify(pdfService, never()).prepareInvoicePdf(anyLong());
+    }
+
+    @Test
+    @DisplayName("write - Success: ZIP entries come out in request order")
+    void testWriteZip_RequestOrder() throws IOException {
+        // Arrange
+        List<Long> ids = stubInvoices(8);
+        BulkPdfExport export = bulkPdfExportService.prepare(request(ids, "ZIP"));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkPdfExportService.write(export, out);
+
+        // Assert
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                entries.add(entry.getName());
+            }
+        }
+        assertEquals(List.of("invoice-1.pdf", "invoice-2.pdf", "invoice-3.pdf", "invoice-4.pdf",
+                "invoice-5.pdf", "invoice-6.pdf", "invoice-7.pdf", "invoice-8.pdf"), entries);
+    }
+
+    @Test
+    @DisplayName("write - Success: Merged PDF has one page per document, in request order")
+    void testWriteMerged_RequestOrder() throws IOException {
+        // Arrange
+        List<Long> ids = stubInvoices(6);
+        BulkPdfExport export = bulkPdfExportService.prepare(request(ids, "PDF"));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkPdfExportService.write(export, out);
+
+        // Assert
+        assertEquals(List.of("Invoice 1", "Invoice 2", "Invoice 3", "Invoice 4", "Invoice 5", "Invoice 6"),
+                pageTexts(out.toByteArray()));
+    }
+
+    @Test
+    @DisplayName("write - Success: At most 2 x pool-size documents are in flight")
+    void testWrite_RenderWindow() throws Exception {
+        // Arrange - document 1 blocks, the rest render instantly
+        int count = 10;
+        List<Long> ids = new ArrayList<>();
+        List<Invoice> invoices = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] bytes = pdf("Invoice");
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+            Invoice invoice = invoice(id);
+            invoices.add(invoice);
+            boolean first = id == 1;
+            when(pdfService.prepareInvoicePdf(same(invoice), eq(shop))).thenReturn(out -> {
+                started.incrementAndGet();
+                if (first) {
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                out.write(bytes);
+            });
+        }
+        when(invoiceRepository.findForPdfByShopIdAndIdIn(eq(1L), anyCollection())).thenReturn(invoices);
+        BulkPdfExport export = bulkPdfExportService.prepare(request(ids, "ZIP"));
+
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            // Act
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Future<?> done = writer.submit(() -> {
+                bulkPdfExportService.write(export, out);
+                return null;
+            });
+            long deadline = System.currentTimeMillis() + 5000;
+            while (started.get() < POOL_SIZE * 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(200);
+            int startedWhileBlocked = started.get();
+            release.countDown();
+            done.get(30, TimeUnit.SECONDS);
+
+            // Assert - nothing past the window starts while the head is blocked
+            assertEquals(POOL_SIZE * 2, startedWhileBlocked);
+            assertEquals(count, started.get());
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("write - Success: ZIP lists missing and failed documents in errors.txt")
+    void testWriteZip_SkippedDocuments() throws IOException {
+        // Arrange - invoice 3 is not in this shop, invoice 2 fails to render
+        List<Long> ids = List.of(1L, 2L, 3L, 4L);
+        when(invoiceRepository.findForPdfByShopIdAndIdIn(eq(1L), anyCollection()))
+                .thenReturn(List.of(invoice(1), invoice(2), invoice(4)));
+        when(pdfService.prepareInvoicePdf(argThat(i -> i != null && i.getId() == 1L), eq(shop)))
+                .thenReturn(out -> out.write(pdf("Invoice 1")));
+        when(pdfService.prepareInvoicePdf(argThat(i -> i != null && i.getId() == 2L), eq(shop)))
+                .thenReturn(out -> {
+                    throw new IOException("font missing");
+                });
+        when(pdfService.prepareInvoicePdf(argThat(i -> i != null && i.getId() == 4L), eq(shop)))
+                .thenReturn(out -> out.write(pdf("Invoice 4")));
+        BulkPdfExport export = bulkPdfExportService.prepare(request(ids, "ZIP"));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkPdfExportService.write(export, out);
+
+        // Assert
+        List<String> entries = new ArrayList<>();
+        String errors = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                entries.add(entry.getName());
+                if (entry.getName().equals("errors.txt")) {
+                    errors = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        assertEquals(List.of("invoice-1.pdf", "invoice-4.pdf", "errors.txt"), entries);
+        assertTrue(errors.contains("Invoice 3: Invoice not found"), errors);
+        assertTrue(errors.contains("invoice-2.pdf: font missing"), errors);
+    }
+
+    @Test
+    @DisplayName("write - Success: Merged PDF ends with a page listing render failures")
+    void testWriteMerged_ErrorsPage() throws IOException {
+        // Arrange - every document fails while rendering
+        Invoice invoice = invoice(7);
+        when(invoiceRepository.findForPdfByShopIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of(invoice));
+        when(pdfService.prepareInvoicePdf(same(invoice), eq(shop))).thenReturn(out -> {
+            throw new IOException("❌ render failed");
+        });
+        BulkPdfExport export = bulkPdfExportService.prepare(request(List.of(7L), "PDF"));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkPdfExportService.write(export, out);
+
+        // Assert - still a valid PDF, the only page says what went wrong
+        List<String> pages = pageTexts(out.toByteArray());
+        assertEquals(1, pages.size());
+        assertTrue(pages.get(0).startsWith("Skipped documents (1)"), pages.get(0));
+        assertTrue(pages.get(0).contains("invoice-7.pdf: ? render failed"), pages.get(0));
+    }
+
+    @Test
+    @DisplayName("prepare - Failure: No invoice of this shop among the ids")
+    void testPrepare_NothingToExport() {
+        // Arrange
+        when(invoiceRepository.findForPdfByShopIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of());
+
+        // Act & Assert
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> bulkPdfExportService.prepare(request(List.of(5L, 6L), "PDF")));
+        assertTrue(e.getMessage().contains("Invoice 5: Invoice not found"));
+        verifyNoInteractions(pdfService);
+    }
+
+    @Test
+    @DisplayName("prepare - Failure: Unknown format is a bad request")
+    void testPrepare_InvalidFormat() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkPdfExportService.prepare(request(List.of(1L), "DOCX")));
+        verifyNoInteractions(invoiceRepository);
+    }
+}
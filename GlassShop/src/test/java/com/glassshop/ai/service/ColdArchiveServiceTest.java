@@ -0,0 +1,220 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.glassshop.ai.dto.AuditLogView;
+import com.glassshop.ai.dto.StockHistoryView;
+
+/**
+ * Unit Tests for ColdArchiveService
+ * Tests the compressed segment format, sparse-index range reads, archived
+ * audit / stock history scans and the segment reader cache
+ */
+@DisplayName("ColdArchiveService Unit Tests")
+class ColdArchiveServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ColdArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ColdArchiveService();
+        ReflectionTestUtils.setField(service, "archiveDir", dir.toString());
+    }
+
+    private AuditLogView row(long id, LocalDateTime timestamp, String action, Integer standNo) {
+        return new AuditLogView(id, timestamp, "ravi", "ROLE_STAFF", action, "5MM", 3, standNo,
+                null, null, "24", "36", "INCH", id % 2 == 0 ? 120.5 : null);
+    }
+
+    // One segment for a month, a row every 10 minutes, small blocks so the index has many entries
+    private List<AuditLogView> writeMonth(YearMonth month, long firstId, int rows) throws IOException {
+        List<AuditLogView> written = new ArrayList<>();
+        Path path = service.segmentPath(ColdArchiveService.AUDIT, 1L, month);
+        try (ArchiveSegment.Writer<AuditLogView> writer =
+                     new ArchiveSegment.Writer<>(path, ColdArchiveService.AUDIT_CODEC, 512)) {
+            LocalDateTime t = month.atDay(1).atStartOfDay();
+            for (int i = 0; i < rows; i++) {
+                AuditLogView r = row(firstId + i, t.plusMinutes(10L * i), i % 3 == 0 ? "REMOVE" : "ADD", i % 5);
+                writer.append(r);
+                written.add(r);
+            }
+        }
+        return written;
+    }
+
+    @Test
+    @DisplayName("Segment - Success: Range read returns exactly the rows in [from, to)")
+    void testSegment_RangeRead() throws IOException {
+        // Arrange
+        List<AuditLogView> written = writeMonth(YearMonth.of(2023, 4), 1, 1000);
+        Path path = service.segmentPath(ColdArchiveService.AUDIT, 1L, YearMonth.of(2023, 4));
+        ArchiveSegment.Reader<AuditLogView> reader = ArchiveSegment.Reader.open(path, ColdArchiveService.AUDIT_CODEC);
+
+        // Act
+        LocalDateTime from = written.get(100).getTimestamp();
+        LocalDateTime to = written.get(250).getTimestamp();
+        List<AuditLogView> rows = reader.read(ArchiveSegment.toMicros(from), ArchiveSegment.toMicros(to));
+
+        // Assert
+        assertTrue(reader.getBlockCount() > 10);
+        assertTrue(Files.size(path) < 1000L * 60, "segment should be compressed");
+        assertEquals(150, rows.size());
+        AuditLogView first = rows.get(0);
+        assertEquals(101L, first.getId());
+        assertEquals(from, first.getTimestamp());
+        assertEquals("24", first.getHeight());
+        assertEquals(written.get(100).getPrice(), first.getPrice());
+        assertEquals(written.get(100).getStandNo(), first.getStandNo());
+        assertNull(first.getFromStand());
+    }
+
+    @Test
+    @DisplayName("Segment - Failure: Truncated file is rejected")
+    void testSegment_Truncated() throws IOException {
+        // Arrange
+        writeMonth(YearMonth.of(2023, 4), 1, 200);
+        Path path = service.segmentPath(ColdArchiveService.AUDIT, 1L, YearMonth.of(2023, 4));
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, java.util.Arrays.copyOf(bytes, bytes.length - 5));
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> ArchiveSegment.Reader.open(path, ColdArchiveService.AUDIT_CODEC));
+    }
+
+    @Test
+    @DisplayName("scanAudit - Success: Newest first across months, keyset and filter applied")
+    void testScanAudit_AcrossMonths() throws IOException {
+        // Arrange
+        List<AuditLogView> march = writeMonth(YearMonth.of(2023, 3), 1, 300);
+        List<AuditLogView> april = writeMonth(YearMonth.of(2023, 4), 1001, 300);
+        AuditLogView cursor = april.get(5);
+
+        // Act - REMOVE rows strictly before the cursor row
+        List<AuditLogView> rows = service.scanAudit(1L, AuditHistoryService.MIN_TIMESTAMP,
+                cursor.getTimestamp(), cursor.getId(), r -> "REMOVE".equals(r.getAction()), 10);
+
+        // Assert - april rows 3 and 0, then march from the end
+        assertEquals(10, rows.size());
+        assertEquals(april.get(3).getId(), rows.get(0).getId());
+        assertEquals(april.get(0).getId(), rows.get(1).getId());
+        assertEquals(march.get(297).getId(), rows.get(2).getId());
+        for (int i = 1; i < rows.size(); i++) {
+            assertTrue(rows.get(i).getTimestamp().isBefore(rows.get(i - 1).getTimestamp()));
+        }
+    }
+
+    @Test
+    @DisplayName("scanAudit - Success: Nothing archived for the shop")
+    void testScanAudit_NoArchive() {
+        // Act
+        List<AuditLogView> rows = service.scanAudit(7L, AuditHistoryService.MIN_TIMESTAMP,
+                AuditHistoryService.MAX_TIMESTAMP, Long.MIN_VALUE, r -> true, 50);
+
+        // Assert
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Segment - Success: Published segment leaves no temp file behind")
+    void testSegment_NoTempFile() throws IOException {
+        // Act
+        writeMonth(YearMonth.of(2023, 4), 1, 50);
+
+        // Assert
+        Path path = service.segmentPath(ColdArchiveService.AUDIT, 1L, YearMonth.of(2023, 4));
+        assertTrue(Files.exists(path));
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+    }
+
+    @Test
+    @DisplayName("scanStockHistory - Success: Newest first within [from, to), across months")
+    void testScanStockHistory_Range() throws IOException {
+        // Arrange - a row every day of January and February 2022
+        for (YearMonth month : List.of(YearMonth.of(2022, 1), YearMonth.of(2022, 2))) {
+            Path path = service.segmentPath(ColdArchiveService.STOCK_HISTORY, 1L, month);
+            try (ArchiveSegment.Writer<StockHistoryView> writer =
+                         new ArchiveSegment.Writer<>(path, ColdArchiveService.STOCK_HISTORY_CODEC, 256)) {
+                for (int day = 1; day <= month.lengthOfMonth(); day++) {
+                    LocalDateTime at = month.atDay(day).atTime(10, 0);
+                    writer.append(new StockHistoryView(month.getMonthValue() * 100L + day, 7L, 2, day,
+                            day % 2 == 0 ? "ADD" : "REMOVE", "26 1/4", "18", at));
+                }
+            }
+        }
+
+        // Act - Jan 20 up to (not including) Feb 3
+        List<StockHistoryView> rows = service.scanStockHistory(1L,
+                LocalDateTime.of(2022, 1, 20, 0, 0), LocalDateTime.of(2022, 2, 3, 0, 0), 100);
+        List<StockHistoryView> limited = service.scanStockHistory(1L, null, null, 5);
+
+        // Assert
+        assertEquals(14, rows.size());
+        assertEquals(202L, rows.get(0).getId());
+        assertEquals(120L, rows.get(13).getId());
+        assertEquals("26 1/4", rows.get(0).getHeight());
+        assertEquals("18", rows.get(0).getWidth());
+        assertEquals(7L, rows.get(0).getGlassId());
+        assertEquals(5, limited.size());
+        assertEquals(228L, limited.get(0).getId());
+        assertTrue(service.scanStockHistory(2L, null, null, 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Reader cache - Success: Segments are opened once, a rewritten segment is re-opened")
+    void testReaderCache() throws IOException {
+        // Arrange
+        YearMonth month = YearMonth.of(2023, 4);
+        writeMonth(month, 1, 100);
+        Path path = service.segmentPath(ColdArchiveService.AUDIT, 1L, month);
+
+        // Act
+        ArchiveSegment.Reader<AuditLogView> first = service.reader(path, ColdArchiveService.AUDIT_CODEC);
+        ArchiveSegment.Reader<AuditLogView> again = service.reader(path, ColdArchiveService.AUDIT_CODEC);
+        writeMonth(month, 5001, 10); // repeated export of the same month
+        ArchiveSegment.Reader<AuditLogView> rewritten = service.reader(path, ColdArchiveService.AUDIT_CODEC);
+
+        // Assert
+        assertSame(first, again);
+        assertNotSame(first, rewritten);
+        assertEquals(1, service.cachedReaders());
+        List<AuditLogView> rows = service.scanAudit(1L, AuditHistoryService.MIN_TIMESTAMP,
+                AuditHistoryService.MAX_TIMESTAMP, Long.MAX_VALUE, r -> true, 50);
+        assertEquals(10, rows.size());
+        assertEquals(5010L, rows.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Reader cache - Success: Least recently used readers are dropped past the limit")
+    void testReaderCache_Bounded() throws IOException {
+        // Arrange
+        ReflectionTestUtils.setField(service, "readerCacheSize", 2);
+        for (int m = 1; m <= 4; m++) {
+            writeMonth(YearMonth.of(2023, m), m * 1000L, 20);
+        }
+
+        // Act
+        List<AuditLogView> rows = service.scanAudit(1L, AuditHistoryService.MIN_TIMESTAMP,
+                AuditHistoryService.MAX_TIMESTAMP, Long.MAX_VALUE, r -> true, 1000);
+
+        // Assert
+        assertEquals(80, rows.size());
+        assertEquals(2, service.cachedReaders());
+    }
+}
@@ -0,0 +1,248 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.repository.AuditLogRepository;
+import com.glassshop.ai.repository.GlassRepository;
+import com.glassshop.ai.repository.ShopRepository;
+import com.glassshop.ai.repository.StockRepository;
+
+/**
+ * Tests for CsvExportService
+ * Streams real rows from the database: header, escaping, the audit date
+ * range and that only the requested shop's rows are written
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:csvexport")
+@DisplayName("CsvExportService Tests")
+class CsvExportServiceTest {
+
+    private static final String AUDIT_HEADER =
+            "Date,Username,Role,Action,Glass Type,Quantity,Stand No,From Stand,To Stand,Height,Width,Unit,Price";
+
+    private static final String STOCK_HEADER =
+            "Glass Type,Thickness,Unit,Stand No,Height,Width,Quantity,Min Quantity,HSN No,Last Updated";
+
+    @Autowired
+    private CsvExportService csvExportService;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private GlassRepository glassRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    // Not under test (and the counter upsert is PostgreSQL-only SQL)
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private ShopActivityCounterService shopActivityCounterService;
+
+    private Shop shop;
+    private Shop otherShop;
+    private Glass glass;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        shop = new Shop();
+        shop.setShopName("Export Shop " + suffix);
+        shop = shopRepository.save(shop);
+
+        otherShop = new Shop();
+        otherShop.setShopName("Other Shop " + suffix);
+        otherShop = shopRepository.save(otherShop);
+
+        glass = glassRepository
+                .findByTypeAndThicknessAndUnit("5MM", 5, "MM")
+                .orElseGet(() -> {
+                    Glass g = new Glass();
+                    g.setType("5MM");
+                    g.setThickness(5);
+                    g.setUnit("MM");
+                    return glassRepository.save(g);
+                });
+    }
+
+    private AuditLog audit(Shop owner, String username, LocalDateTime timestamp) {
+        AuditLog log = new AuditLog();
+        log.setShop(owner);
+        log.setUsername(username);
+        log.setRole("ROLE_ADMIN");
+        log.setAction("REMOVE");
+        log.setGlassType("5MM");
+        log.setQuantity(2);
+        log.setStandNo(1);
+        log.setHeight("100");
+        log.setWidth("50");
+        log.setUnit("MM");
+        log.setPrice(120.0);
+        log.setTimestamp(timestamp);
+        return auditLogRepository.save(log);
+    }
+
+    private static List<CSVRecord> parse(String csv) throws Exception {
+        return CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .build()
+                .parse(new StringReader(csv))
+                .getRecords();
+    }
+
+    @Test
+    @DisplayName("writeAuditCsv - Success: Header, escaped values and only this shop's rows")
+    void testWriteAuditCsv_HeaderEscapingAndShop() throws Exception {
+        // Arrange
+        String awkward = "O'Brien, \"Raj\"\nnight shift";
+        audit(shop, awkward, LocalDateTime.of(2025, 3, 10, 9, 30));
+        audit(otherShop, "other_shop_user", LocalDateTime.of(2025, 3, 10, 9, 45));
+
+        // Act
+        StringWriter out = new StringWriter();
+        long rows = csvExportService.writeAuditCsv(shop.getId(), null, null, out);
+
+        // Assert
+        String csv = out.toString();
+        assertEquals(1, rows);
+        assertTrue(csv.startsWith(AUDIT_HEADER + "\r\n"), csv);
+        assertTrue(csv.contains("\"O'Brien, \"\"Raj\"\"\nnight shift\""), csv);
+        assertFalse(csv.contains("other_shop_user"), csv);
+
+        List<CSVRecord> records = parse(csv);
+        assertEquals(1, records.size());
+        assertEquals(awkward, records.get(0).get("Username"));
+        assertEquals("REMOVE", records.get(0).get("Action"));
+        assertEquals("2", records.get(0).get("Quantity"));
+        assertEquals("120.0", records.get(0).get("Price"));
+    }
+
+    @Test
+    @DisplayName("writeAuditCsv - Success: from is inclusive, to is exclusive, newest first")
+    void testWriteAuditCsv_DateRange() throws Exception {
+        // Arrange
+        audit(shop, "before", LocalDateTime.of(2025, 2, 28, 23, 59));
+        audit(shop, "first_instant", LocalDateTime.of(2025, 3, 1, 0, 0));
+        audit(shop, "mid_month", LocalDateTime.of(2025, 3, 15, 12, 0));
+        audit(shop, "upper_bound", LocalDateTime.of(2025, 4, 1, 0, 0));
+
+        // Act
+        StringWriter out = new StringWriter();
+        long rows = csvExportService.writeAuditCsv(shop.getId(),
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 4, 1, 0, 0), out);
+
+        // Assert
+        List<CSVRecord> records = parse(out.toString());
+        assertEquals(2, rows);
+        assertEquals("mid_month", records.get(0).get("Username"));
+        assertEquals("first_instant", records.get(1).get("Username"));
+    }
+
+    @Test
+    @DisplayName("writeAuditCsv - Success: Open-ended bounds export everything for the shop")
+    void testWriteAuditCsv_OpenRange() throws Exception {
+        // Arrange
+        audit(shop, "old", LocalDateTime.of(2001, 1, 1, 8, 0));
+        audit(shop, "recent", LocalDateTime.of(2025, 6, 1, 8, 0));
+
+        // Act
+        StringWriter fromOnly = new StringWriter();
+        csvExportService.writeAuditCsv(shop.getId(), LocalDateTime.of(2020, 1, 1, 0, 0), null, fromOnly);
+        StringWriter all = new StringWriter();
+        long rows = csvExportService.writeAuditCsv(shop.getId(), null, null, all);
+
+        // Assert
+        List<CSVRecord> recent = parse(fromOnly.toString());
+        assertEquals(1, recent.size());
+        assertEquals("recent", recent.get(0).get("Username"));
+        assertEquals(2, rows);
+    }
+
+    @Test
+    @DisplayName("writeAuditCsv - Success: Shop with no rows gets just the header")
+    void testWriteAuditCsv_Empty() throws Exception {
+        // Arrange
+        audit(otherShop, "other_shop_user", LocalDateTime.of(2025, 3, 10, 9, 45));
+
+        // Act
+        StringWriter out = new StringWriter();
+        long rows = csvExportService.writeAuditCsv(shop.getId(), null, null, out);
+
+        // Assert
+        assertEquals(0, rows);
+        assertEquals(AUDIT_HEADER + "\r\n", out.toString());
+    }
+
+    @Test
+    @DisplayName("writeStockCsv - Success: Header, escaped sizes and only this shop's stock")
+    void testWriteStockCsv_HeaderEscapingAndShop() throws Exception {
+        // Arrange
+        Stock stock = new Stock();
+        stock.setGlass(glass);
+        stock.setStandNo(3);
+        stock.setQuantity(12);
+        stock.setMinQuantity(5);
+        stock.setShop(shop);
+        stock.setHeight("26 1/4\"");
+        stock.setWidth("18");
+        stock.setHsnNo("7005,10");
+        stockRepository.save(stock);
+
+        Stock other = new Stock();
+        other.setGlass(glass);
+        other.setStandNo(9);
+        other.setQuantity(99);
+        other.setMinQuantity(5);
+        other.setShop(otherShop);
+        other.setHeight("1");
+        other.setWidth("1");
+        stockRepository.save(other);
+
+        // Act
+        StringWriter out = new StringWriter();
+        long rows = csvExportService.writeStockCsv(shop.getId(), out);
+
+        // Assert
+        String csv = out.toString();
+        assertEquals(1, rows);
+        assertTrue(csv.startsWith(STOCK_HEADER + "\r\n"), csv);
+        List<CSVRecord> records = parse(csv);
+        assertEquals(1, records.size());
+        CSVRecord record = records.get(0);
+        assertEquals("5MM", record.get("Glass Type"));
+        assertEquals("3", record.get("Stand No"));
+        assertEquals("26 1/4\"", record.get("Height"));
+        assertEquals("7005,10", record.get("HSN No"));
+        assertEquals("12", record.get("Quantity"));
+        assertFalse(record.get("Last Updated").isEmpty());
+    }
+}
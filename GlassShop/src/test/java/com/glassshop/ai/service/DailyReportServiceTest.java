@@ -0,0 +1,141 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.glassshop.ai.config.AsyncConfig;
+import com.glassshop.ai.dto.ReportRunSummary;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.User;
+import com.glassshop.ai.repository.ShopRepository;
+import com.glassshop.ai.repository.UserRepository;
+
+/**
+ * Unit Tests for DailyReportService
+ * Tests the parallel fan-out over shops and the per-shop outcome in ReportRunSummary
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DailyReportService Unit Tests")
+class DailyReportServiceTest {
+
+    @Mock
+    private DailySalesRollupService dailySalesRollupService;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NotificationOutboxService notificationOutboxService;
+
+    @InjectMocks
+    private DailyReportService dailyReportService;
+
+    private ThreadPoolTaskExecutor reportExecutor;
+
+    @BeforeEach
+    void setUp() {
+        reportExecutor = new AsyncConfig().reportExecutor(4);
+        ReflectionTestUtils.setField(dailyReportService, "reportExecutor", reportExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportExecutor.shutdown();
+    }
+
+    private Shop shop(long id) {
+        Shop shop = new Shop();
+        shop.setId(id);
+        shop.setShopName("Shop " + id);
+        return shop;
+    }
+
+    private User admin(String whatsappNumber) {
+        User admin = new User();
+        admin.setUserName("admin");
+        admin.setRole("ROLE_ADMIN");
+        admin.setWhatsappNumber(whatsappNumber);
+        return admin;
+    }
+
+    @Test
+    @DisplayName("generateAndSendReportsForAllShops - Success: Sent, skipped and failed shops are counted")
+    void testAllShops_OutcomesCounted() {
+        // Arrange - shop 1 sends, 2 has no admin, 3 has no number, 4 fails
+        List<Shop> shops = List.of(shop(1), shop(2), shop(3), shop(4));
+        when(shopRepository.findAll()).thenReturn(shops);
+        for (Shop shop : shops) {
+            when(shopRepository.findById(shop.getId())).thenReturn(Optional.of(shop));
+        }
+        when(userRepository.findByShopIdAndRole(1L, "ROLE_ADMIN")).thenReturn(List.of(admin("+911111111111")));
+        when(userRepository.findByShopIdAndRole(eq(2L), anyString())).thenReturn(List.of());
+        when(userRepository.findByShopIdAndRole(3L, "ROLE_ADMIN")).thenReturn(List.of(admin(null)));
+        when(userRepository.findByShopIdAndRole(4L, "ROLE_ADMIN")).thenReturn(List.of(admin("+914444444444")));
+        when(dailySalesRollupService.getSales(eq(1L), any())).thenReturn(List.of());
+        when(dailySalesRollupService.getSales(eq(4L), any())).thenThrow(new RuntimeException("db down"));
+
+        // Act
+        ReportRunSummary summary = dailyReportService.generateAndSendReportsForAllShops();
+
+        // Assert
+        assertEquals(4, summary.getTotalShops());
+        assertEquals(1, summary.getSent());
+        assertEquals(2, summary.getSkipped());
+        assertEquals(1, summary.getFailed());
+        assertEquals(4, summary.getCompleted());
+        assertEquals("db down", summary.getFailures().get(4L));
+        verify(notificationOutboxService, times(1))
+                .enqueueWhatsApp(eq(1L), eq("+911111111111"), contains("No sales today"));
+    }
+
+    @Test
+    @DisplayName("generateAndSendReportsForAllShops - Success: Shops run on the pool and every one is counted once")
+    void testAllShops_ParallelFanOut() {
+        // Arrange
+        List<Shop> shops = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            shops.add(shop(id));
+        }
+        Set<String> workerThreads = ConcurrentHashMap.newKeySet();
+        when(shopRepository.findAll()).thenReturn(shops);
+        when(shopRepository.findById(anyLong())).thenAnswer(invocation -> {
+            workerThreads.add(Thread.currentThread().getName());
+            Thread.sleep(20);
+            return Optional.of(shop(invocation.getArgument(0)));
+        });
+        when(userRepository.findByShopIdAndRole(anyLong(), eq("ROLE_ADMIN")))
+                .thenReturn(List.of(admin("+910000000000")));
+        when(dailySalesRollupService.getSales(anyLong(), any())).thenReturn(List.of());
+
+        // Act
+        ReportRunSummary summary = dailyReportService.generateAndSendReportsForAllShops();
+
+        // Assert
+        assertEquals(40, summary.getSent());
+        assertEquals(40, summary.getCompleted());
+        assertTrue(workerThreads.size() > 1, "expected several workers, got " + workerThreads);
+        assertTrue(workerThreads.stream().allMatch(name -> name.startsWith("report-")));
+        verify(notificationOutboxService, times(40)).enqueueWhatsApp(anyLong(), anyString(), anyString());
+    }
+}
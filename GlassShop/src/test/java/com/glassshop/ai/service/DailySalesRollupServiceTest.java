@@ -0,0 +1,118 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.repository.DailySalesRollupRepository;
+
+/**
+ * Unit Tests for DailySalesRollupService
+ * Tests which audit entries count as sales, earnings and the per-row upsert
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DailySalesRollupService Unit Tests")
+class DailySalesRollupServiceTest {
+
+    private static final LocalDateTime SOLD_AT = LocalDateTime.of(2025, 5, 20, 11, 15);
+
+    @Mock
+    private DailySalesRollupRepository rollupRepository;
+
+    @InjectMocks
+    private DailySalesRollupService rollupService;
+
+    private static AuditLog sale(String action, Double price) {
+        Shop shop = new Shop();
+        shop.setId(1L);
+        AuditLog log = new AuditLog();
+        log.setShop(shop);
+        log.setAction(action);
+        log.setGlassType("5MM");
+        log.setQuantity(3);
+        log.setStandNo(2);
+        log.setHeight("1000");
+        log.setWidth("500");
+        log.setUnit("MM");
+        log.setPrice(price);
+        log.setTimestamp(SOLD_AT);
+        return log;
+    }
+
+    @Test
+    @DisplayName("recordSale - Success: Upserts the row using the logged price")
+    void testRecordSale_LoggedPrice() {
+        // Act
+        rollupService.recordSale(sale("remove", 120.0));
+
+        // Assert
+        verify(rollupRepository).addSale(1L, LocalDate.of(2025, 5, 20), "5MM", "1000", "500", "MM", 2, 3, 360.0);
+        verifyNoMoreInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("recordSale - Success: Price from area when none logged")
+    void testRecordSale_CalculatedPrice() {
+        // Arrange
+        AuditLog log = sale("REMOVE", null);
+        log.setHeight("39 3/8"); // inches, fraction handled by Stock.parseDimension
+        log.setWidth("19 11/16");
+        log.setUnit("INCH");
+
+        // Act
+        rollupService.recordSale(log);
+
+        // Assert - 1.0 m x 0.5 m at 500/m² = 250 per unit
+        ArgumentCaptor<Double> earnings = ArgumentCaptor.forClass(Double.class);
+        verify(rollupRepository).addSale(eq(1L), eq(LocalDate.of(2025, 5, 20)), eq("5MM"), eq("39 3/8"),
+                eq("19 11/16"), eq("INCH"), eq(2), eq(3), earnings.capture());
+        assertEquals(750.0, earnings.getValue(), 0.5);
+    }
+
+    @Test
+    @DisplayName("recordSales - Success: Sales of the same row are summed and upserted once")
+    void testRecordSales_AggregatedPerRow() {
+        // Arrange
+        AuditLog otherStand = sale("REMOVE", 10.0);
+        otherStand.setStandNo(4);
+
+        // Act
+        rollupService.recordSales(java.util.List.of(
+                sale("REMOVE", 10.0), sale("ADD", 10.0), sale("REMOVE", 20.0), otherStand));
+
+        // Assert - 3 + 3 units at 10 and 20 on stand 2, 3 units on stand 4
+        verify(rollupRepository).addSale(1L, LocalDate.of(2025, 5, 20), "5MM", "1000", "500", "MM", 2, 6, 90.0);
+        verify(rollupRepository).addSale(1L, LocalDate.of(2025, 5, 20), "5MM", "1000", "500", "MM", 4, 3, 30.0);
+        verifyNoMoreInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("recordSale - Success: ADD / TRANSFER and logs without a shop are ignored")
+    void testRecordSale_NotASale() {
+        // Arrange
+        AuditLog noShop = sale("REMOVE", 10.0);
+        noShop.setShop(null);
+
+        // Act
+        rollupService.recordSale(sale("ADD", 10.0));
+        rollupService.recordSale(sale("TRANSFER", 10.0));
+        rollupService.recordSale(noShop);
+        rollupService.recordSale(null);
+
+        // Assert
+        verifyNoInteractions(rollupRepository);
+    }
+}
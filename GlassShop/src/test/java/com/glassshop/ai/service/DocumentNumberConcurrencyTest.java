@@ -0,0 +1,139 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.enums.InvoiceType;
+import com.glassshop.ai.repository.ShopRepository;
+
+/**
+ * Concurrency Tests for DocumentNumberService
+ * Many creates of one shop take invoice numbers at the same time, each in
+ * its own transaction as createInvoiceFromQuotation does
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:documentnumbers;LOCK_TIMEOUT=30000")
+@DisplayName("DocumentNumberService Concurrency Tests")
+class DocumentNumberConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private DocumentNumberService documentNumberService;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Not under test
+    @MockBean
+    private EmailService emailService;
+
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        shop = new Shop();
+        shop.setShopName("Numbering Shop " + System.nanoTime());
+        shop = shopRepository.save(shop);
+    }
+
+    @Test
+    @DisplayName("40 concurrent creates: no duplicate and no skipped numbers")
+    void testConcurrentAllocation_NoDuplicates() throws Exception {
+        List<String> numbers = allocateConcurrently(40, i -> false);
+
+        Set<Long> values = new HashSet<>();
+        for (String number : numbers) {
+            values.add(Long.parseLong(number.substring(number.lastIndexOf('-') + 1)));
+        }
+        assertEquals(40, values.size(), "Duplicate numbers: " + numbers);
+        for (long v = 1; v <= 40; v++) {
+            assertTrue(values.contains(v), "Missing number " + v + ": " + numbers);
+        }
+    }
+
+    @Test
+    @DisplayName("Rolled-back creates give their number back (gap-free)")
+    void testRolledBackCreate_NoGap() throws Exception {
+        // every third create fails after taking its number
+        List<String> committed = allocateConcurrently(30, i -> i % 3 == 0);
+
+        Set<Long> values = new HashSet<>();
+        for (String number : committed) {
+            values.add(Long.parseLong(number.substring(number.lastIndexOf('-') + 1)));
+        }
+        assertEquals(20, values.size(), "Duplicate numbers: " + committed);
+        for (long v = 1; v <= 20; v++) {
+            assertTrue(values.contains(v), "Gap at " + v + ": " + committed);
+        }
+    }
+
+    /* ===== HELPERS ===== */
+
+    private interface RollbackRule {
+        boolean rollback(int request);
+    }
+
+    // Numbers of the committed transactions
+    private List<String> allocateConcurrently(int requests, RollbackRule rule) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        for (int i = 0; i < requests; i++) {
+            int request = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return tx.execute(status -> {
+                    String number = documentNumberService.nextInvoiceNumber(shop, InvoiceType.FINAL);
+                    if (rule.rollback(request)) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    return number;
+                });
+            }));
+        }
+
+        start.countDown();
+
+        List<String> numbers = new ArrayList<>();
+        for (Future<String> future : futures) {
+            String number = future.get(60, TimeUnit.SECONDS);
+            if (number != null) {
+                numbers.add(number);
+            }
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return numbers;
+    }
+}
@@ -0,0 +1,143 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.glassshop.ai.entity.DocumentSequence;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.enums.InvoiceType;
+import com.glassshop.ai.repository.DocumentSequenceRepository;
+import com.glassshop.ai.repository.InvoiceRepository;
+import com.glassshop.ai.repository.QuotationRepository;
+
+/**
+ * Unit Tests for DocumentNumberService
+ * Tests seeding from existing numbers, month / prefix rollover and block reservation
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DocumentNumberService Unit Tests")
+class DocumentNumberServiceTest {
+
+    @Mock
+    private DocumentSequenceRepository sequenceRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private QuotationRepository quotationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private DocumentNumberService documentNumberService;
+
+    // document_sequence rows, key shopId:docType:period
+    private final Map<String, DocumentSequence> rows = new HashMap<>();
+
+    private Shop shop;
+
+    @BeforeEach
+    void setUp() {
+        shop = new Shop();
+        shop.setId(1L);
+
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(sequenceRepository.findByShopIdAndDocTypeAndPeriod(anyLong(), anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.getArgument(0) + ":"
+                        + invocation.getArgument(1) + ":" + invocation.getArgument(2))));
+        when(sequenceRepository.saveAndFlush(any(DocumentSequence.class))).thenAnswer(invocation -> {
+            DocumentSequence s = invocation.getArgument(0);
+            rows.put(s.getShopId() + ":" + s.getDocType() + ":" + s.getPeriod(), s);
+            return s;
+        });
+        // no documents issued yet (not every test issues both kinds)
+        lenient().when(invoiceRepository.findInvoiceNumbersByPrefix(anyLong(), anyString(), any())).thenReturn(List.of());
+        lenient().when(quotationRepository.findQuotationNumbersByPrefix(anyLong(), anyString(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("nextInvoiceNumber - Success: New month continues after the highest existing invoice number")
+    void testNextInvoiceNumber_SeededFromExisting() {
+        // Arrange
+        when(invoiceRepository.findInvoiceNumbersByPrefix(eq(1L), eq("INV-2025-03-"), any()))
+                .thenReturn(List.of("INV-2025-03-0041"));
+        LocalDate day = LocalDate.of(2025, 3, 14);
+
+        // Act
+        String first = documentNumberService.nextInvoiceNumber(shop, InvoiceType.FINAL, day);
+        String second = documentNumberService.nextInvoiceNumber(shop, InvoiceType.FINAL, day);
+
+        // Assert
+        assertEquals("INV-2025-03-0042", first);
+        assertEquals("INV-2025-03-0043", second);
+        assertEquals(44, rows.get("1:INV:2025-03").getNextValue());
+        // seeded once, when the counter row was created
+        verify(invoiceRepository, times(1)).findInvoiceNumbersByPrefix(eq(1L), eq("INV-2025-03-"), any());
+    }
+
+    @Test
+    @DisplayName("nextInvoiceNumber - Success: Each month and prefix has its own series")
+    void testNextNumber_MonthAndPrefixRollover() {
+        // Arrange
+        LocalDate march = LocalDate.of(2025, 3, 31);
+        LocalDate april = LocalDate.of(2025, 4, 1);
+
+        // Act
+        String invMarch1 = documentNumberService.nextInvoiceNumber(shop, InvoiceType.FINAL, march);
+        String invMarch2 = documentNumberService.nextInvoiceNumber(shop, InvoiceType.FINAL, march);
+        String advMarch = documentNumberService.nextInvoiceNumber(shop, InvoiceType.ADVANCE, march);
+        String quoteMarch = documentNumberService.nextQuotationNumber(shop, march);
+        String invApril = documentNumberService.nextInvoiceNumber(shop, InvoiceType.FINAL, april);
+        String quoteApril = documentNumberService.nextQuotationNumber(shop, april);
+
+        // Assert
+        assertEquals("INV-2025-03-0001", invMarch1);
+        assertEquals("INV-2025-03-0002", invMarch2);
+        assertEquals("ADV-2025-03-0001", advMarch);
+        assertEquals("Q-2025-03-0001", quoteMarch);
+        assertEquals("INV-2025-04-0001", invApril);
+        assertEquals("Q-2025-04-0001", quoteApril);
+    }
+
+    @Test
+    @DisplayName("nextQuotationNumber - Success: Block size > 1 reserves a block once and serves it from memory")
+    void testNextQuotationNumber_BlockReservation() {
+        // Arrange
+        ReflectionTestUtils.setField(documentNumberService, "blockSize", 10);
+        when(quotationRepository.findQuotationNumbersByPrefix(eq(1L), eq("Q-2025-06-"), any()))
+                .thenReturn(List.of("Q-2025-06-0007"));
+        LocalDate day = LocalDate.of(2025, 6, 2);
+
+        // Act
+        String first = documentNumberService.nextQuotationNumber(shop, day);
+        String second = documentNumberService.nextQuotationNumber(shop, day);
+        String third = documentNumberService.nextQuotationNumber(shop, day);
+
+        // Assert
+        assertEquals("Q-2025-06-0008", first);
+        assertEquals("Q-2025-06-0009", second);
+        assertEquals("Q-2025-06-0010", third);
+        assertEquals(18, rows.get("1:Q:2025-06").getNextValue());
+        verify(sequenceRepository, times(1)).save(any(DocumentSequence.class));
+    }
+}
@@ -0,0 +1,116 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit Tests for EmailService
+ * Tests that a batch is sent at most one burst per connection, paced by
+ * the rate limit, and that failures keep their index in the batch
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EmailService Unit Tests")
+class EmailServiceTest {
+
+    @Mock
+    private JavaMailSender mailSender;
+
+    @InjectMocks
+    private EmailService emailService;
+
+    private final List<Long> sendTimes = new ArrayList<>();
+    private final List<Integer> chunkSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(emailService, "ratePerSecond", 10.0);
+        ReflectionTestUtils.setField(emailService, "rateBurst", 2);
+        ReflectionTestUtils.invokeMethod(emailService, "init");
+    }
+
+    private static List<SimpleMailMessage> mails(int count) {
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setTo("owner" + i + "@example.com");
+            mail.setSubject("Report " + i);
+            messages.add(mail);
+        }
+        return messages;
+    }
+
+    @Test
+    @DisplayName("sendBatch - Success: Sent one burst per connection at the configured rate")
+    void testSendBatch_ChunkedAndPaced() {
+        // Arrange
+        doAnswer(invocation -> {
+            sendTimes.add(System.nanoTime());
+            chunkSizes.add(((SimpleMailMessage[]) invocation.getRawArguments()[0]).length);
+            return null;
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // Act
+        long start = System.nanoTime();
+        Map<Integer, String> failures = emailService.sendBatch(mails(6));
+
+        // Assert - 2 + 2 + 2 messages; past the first burst the other 4
+        // permits come at 10/s, so the last chunk can't go out before 400 ms
+        assertTrue(failures.isEmpty());
+        assertEquals(List.of(2, 2, 2), chunkSizes);
+        long elapsed = sendTimes.get(2) - start;
+        assertTrue(elapsed >= 390_000_000L, "chunks should be paced, took " + elapsed + " ns");
+    }
+
+    @Test
+    @DisplayName("sendBatch - Failure: Errors keep the message's index in the batch")
+    void testSendBatch_FailuresByBatchIndex() {
+        // Arrange
+        List<SimpleMailMessage> messages = mails(4);
+        Map<Object, Exception> rejected = Map.of(messages.get(3), new Exception("550 mailbox unavailable"));
+        doNothing()
+                .doThrow(new MailSendException(rejected))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // Act
+        Map<Integer, String> failures = emailService.sendBatch(messages);
+
+        // Assert
+        assertEquals(Map.of(3, "550 mailbox unavailable"), failures);
+    }
+
+    @Test
+    @DisplayName("sendBatch - Failure: A chunk that can't connect fails only its own messages")
+    void testSendBatch_ChunkNotSent() {
+        // Arrange
+        doThrow(new MailAuthenticationException("535 bad credentials"))
+                .doNothing()
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // Act
+        Map<Integer, String> failures = emailService.sendBatch(mails(3));
+
+        // Assert
+        assertEquals(2, failures.size());
+        assertTrue(failures.containsKey(0));
+        assertTrue(failures.containsKey(1));
+        assertFalse(failures.containsKey(2));
+    }
+}
@@ -0,0 +1,100 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.repository.GlassRepository;
+
+/**
+ * Unit Tests for GlassCatalogService
+ * Tests warm-up, read-through and the race-free create path
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GlassCatalogService Unit Tests")
+class GlassCatalogServiceTest {
+
+    @Mock
+    private GlassRepository glassRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private GlassCatalogService glassCatalogService;
+
+    private Glass glass;
+
+    @BeforeEach
+    void setUp() {
+        glass = new Glass();
+        glass.setId(1L);
+        glass.setType("5MM");
+        glass.setThickness(5);
+        glass.setUnit("FEET");
+    }
+
+    @Test
+    @DisplayName("Warmed catalog answers without touching the DB")
+    void testFind_FromWarmCache() {
+        // Arrange
+        when(glassRepository.findAll()).thenReturn(List.of(glass));
+        glassCatalogService.warm();
+
+        // Act
+        Optional<Glass> result = glassCatalogService.find("5MM", 5, "FEET");
+
+        // Assert
+        assertSame(glass, result.orElseThrow());
+        verify(glassRepository, never()).findByTypeAndThicknessAndUnit(any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Miss reads through once and is cached afterwards")
+    void testFind_ReadThrough() {
+        // Arrange
+        when(glassRepository.findByTypeAndThicknessAndUnit("5MM", 5, "FEET")).thenReturn(Optional.of(glass));
+
+        // Act
+        glassCatalogService.find("5MM", 5, "FEET");
+        glassCatalogService.find("5MM", 5, "FEET");
+
+        // Assert
+        verify(glassRepository, times(1)).findByTypeAndThicknessAndUnit("5MM", 5, "FEET");
+    }
+
+    @Test
+    @DisplayName("Losing the insert race returns the row the other request created")
+    void testFindOrCreate_UniqueConflict() {
+        // Arrange
+        when(glassRepository.findByTypeAndThicknessAndUnit("5MM", 5, "FEET"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(glass));
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(glassRepository.saveAndFlush(any(Glass.class)))
+                .thenThrow(new DataIntegrityViolationException("idx_glass_type_thickness_unit"));
+
+        // Act
+        Glass result = glassCatalogService.findOrCreate("5MM", 5, "FEET");
+
+        // Assert
+        assertSame(glass, result);
+        assertSame(glass, glassCatalogService.find("5MM", 5, "FEET").orElseThrow());
+        verify(glassRepository, times(2)).findByTypeAndThicknessAndUnit("5MM", 5, "FEET");
+    }
+}
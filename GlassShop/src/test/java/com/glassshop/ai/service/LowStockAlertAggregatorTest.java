@@ -0,0 +1,118 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.repository.ShopRepository;
+import com.glassshop.ai.repository.StockRepository;
+
+/**
+ * Unit Tests for LowStockAlertAggregator
+ * Tests de-duplication per stock and one digest per shop
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LowStockAlertAggregator Unit Tests")
+class LowStockAlertAggregatorTest {
+
+    @Mock
+    private NotificationOutboxService notificationOutboxService;
+
+    @Mock
+    private ShopRepository shopRepository;
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LowStockAlertAggregator aggregator;
+
+    @InjectMocks
+    private LowStockTracker lowStockTracker;
+
+    private Shop shop;
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        shop = new Shop();
+        shop.setId(1L);
+        shop.setShopName("Test Shop");
+        shop.setEmail("shop@test.com");
+
+        Glass glass = new Glass();
+        glass.setId(1L);
+        glass.setType("5MM");
+
+        stock = new Stock();
+        stock.setId(10L);
+        stock.setShop(shop);
+        stock.setGlass(glass);
+        stock.setStandNo(1);
+        stock.setMinQuantity(5);
+    }
+
+    // Publish through the tracker and hand the event to the aggregator (as after commit)
+    private void change(int quantity, boolean wasLow) {
+        stock.setQuantity(quantity);
+        lowStockTracker.stockChanged(stock, wasLow);
+        ArgumentCaptor<LowStockTracker.StockLevelChangedEvent> event =
+                ArgumentCaptor.forClass(LowStockTracker.StockLevelChangedEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(event.capture());
+        aggregator.onStockLevelChanged(event.getValue());
+        clearInvocations(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Repeated sales of one stock give one digest with the latest quantity")
+    void testFlush_CoalescesPerStock() {
+        // Arrange
+        when(shopRepository.findById(1L)).thenReturn(Optional.of(shop));
+        change(4, false);
+        change(3, true);
+        change(1, true);
+
+        // Act
+        aggregator.flush();
+        aggregator.flush();
+
+        // Assert
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(notificationOutboxService, times(1))
+                .enqueueEmail(eq(1L), eq("shop@test.com"), eq(EmailService.LOW_STOCK_SUBJECT), message.capture());
+        assertTrue(message.getValue().contains("Left: 1 (min 5)"));
+        assertFalse(message.getValue().contains("Left: 3"));
+    }
+
+    @Test
+    @DisplayName("Stock refilled before the digest is not reported")
+    void testFlush_RecoveredStockDropped() {
+        // Arrange
+        change(2, false);
+        change(20, true);
+
+        // Act
+        aggregator.flush();
+
+        // Assert
+        verifyNoInteractions(notificationOutboxService);
+    }
+}
@@ -0,0 +1,93 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.repository.StockRepository;
+
+/**
+ * Unit Tests for LowStockTracker
+ * Tests lazy per-shop loading and incremental updates from crossing events
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LowStockTracker Unit Tests")
+class LowStockTrackerTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LowStockTracker lowStockTracker;
+
+    private Stock stock;
+
+    @BeforeEach
+    void setUp() {
+        Shop shop = new Shop();
+        shop.setId(1L);
+
+        Glass glass = new Glass();
+        glass.setId(1L);
+        glass.setType("5MM");
+
+        stock = new Stock();
+        stock.setId(10L);
+        stock.setShop(shop);
+        stock.setGlass(glass);
+        stock.setStandNo(1);
+        stock.setQuantity(2);
+        stock.setMinQuantity(5);
+    }
+
+    @Test
+    @DisplayName("Shop is loaded once, then kept current by crossing events")
+    void testGetLowStock_IncrementalUpdates() {
+        // Arrange
+        when(stockRepository.findLowStockByShopId(1L)).thenReturn(List.of(stock));
+        assertEquals(1, lowStockTracker.getLowStock(1L).size());
+
+        // Act - stock refilled above minimum
+        stock.setQuantity(20);
+        lowStockTracker.stockChanged(stock, true);
+        ArgumentCaptor<LowStockTracker.StockLevelChangedEvent> event =
+                ArgumentCaptor.forClass(LowStockTracker.StockLevelChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        lowStockTracker.onStockLevelChanged(event.getValue());
+
+        // Assert
+        assertTrue(event.getValue().isCrossing());
+        assertTrue(lowStockTracker.getLowStock(1L).isEmpty());
+        verify(stockRepository, times(1)).findLowStockByShopId(1L);
+    }
+
+    @Test
+    @DisplayName("Healthy stock that stays healthy publishes nothing")
+    void testStockChanged_NoCrossing() {
+        // Arrange
+        stock.setQuantity(20);
+
+        // Act
+        lowStockTracker.stockChanged(stock, false);
+
+        // Assert
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,103 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.glassshop.ai.entity.NotificationOutbox;
+import com.glassshop.ai.repository.NotificationOutboxRepository;
+
+/**
+ * Unit Tests for NotificationDispatcher
+ * Tests batch email sending, retry with backoff and dead-lettering
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("NotificationDispatcher Unit Tests")
+class NotificationDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private WhatsAppService whatsAppService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private NotificationDispatcher dispatcher;
+
+    private NotificationOutbox first;
+    private NotificationOutbox second;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        first = email(1L);
+        second = email(2L);
+    }
+
+    private NotificationOutbox email(Long id) {
+        NotificationOutbox n = new NotificationOutbox();
+        n.setId(id);
+        n.setChannel(NotificationOutbox.CHANNEL_EMAIL);
+        n.setRecipient("shop" + id + "@test.com");
+        n.setSubject(EmailService.LOW_STOCK_SUBJECT);
+        n.setBody("Low stock");
+        n.setNextAttemptAt(LocalDateTime.now());
+        return n;
+    }
+
+    @Test
+    @DisplayName("Emails go out as one batch; a failed one is rescheduled, the other marked sent")
+    void testDispatchBatch_PartialFailure() {
+        // Arrange
+        when(outboxRepository.claimDue(any(), any())).thenReturn(List.of(first, second));
+        when(emailService.sendBatch(anyList())).thenReturn(Map.of(1, "550 mailbox unavailable"));
+
+        // Act
+        int claimed = dispatcher.dispatchBatch();
+
+        // Assert
+        assertEquals(2, claimed);
+        verify(emailService, times(1)).sendBatch(argThat(list -> list.size() == 2));
+        assertEquals(NotificationOutbox.STATUS_SENT, first.getStatus());
+        assertEquals(NotificationOutbox.STATUS_PENDING, second.getStatus());
+        assertEquals(1, second.getAttempts());
+        assertTrue(second.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        verify(outboxRepository).saveAll(List.of(first, second));
+    }
+
+    @Test
+    @DisplayName("Message is dead-lettered after the last attempt fails")
+    void testDispatchBatch_DeadLetter() {
+        // Arrange
+        first.setAttempts(7);
+        when(outboxRepository.claimDue(any(), any())).thenReturn(List.of(first));
+        when(emailService.sendBatch(anyList())).thenReturn(Map.of(0, "connection refused"));
+
+        // Act
+        dispatcher.dispatchBatch();
+
+        // Assert
+        assertEquals(NotificationOutbox.STATUS_DEAD, first.getStatus());
+        assertEquals("connection refused", first.getLastError());
+    }
+}
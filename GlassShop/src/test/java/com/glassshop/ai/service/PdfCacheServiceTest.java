@@ -0,0 +1,99 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit Tests for PdfCacheService
+ * Tests versioned keys, LRU size bound, eviction and the disk tier
+ */
+@DisplayName("PdfCacheService Unit Tests")
+class PdfCacheServiceTest {
+
+    private PdfCacheService cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(1000, "");
+    }
+
+    private PdfCacheService newCache(long maxBytes, String diskDir) {
+        PdfCacheService c = new PdfCacheService();
+        ReflectionTestUtils.setField(c, "enabled", true);
+        ReflectionTestUtils.setField(c, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(c, "maxEntryBytes", maxBytes);
+        ReflectionTestUtils.setField(c, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(c, "templateVersion", "1");
+        ReflectionTestUtils.setField(c, "diskDir", diskDir);
+        ReflectionTestUtils.invokeMethod(c, "init");
+        return c;
+    }
+
+    @Test
+    @DisplayName("New document version misses the cache")
+    void testVersionedKey() {
+        String v1 = cache.key(PdfCacheService.INVOICE, 1L, "INVOICE", "2026-01-01T10:00|DUE");
+        String v2 = cache.key(PdfCacheService.INVOICE, 1L, "INVOICE", "2026-01-01T10:05|PAID");
+
+        cache.put(v1, new byte[] {1, 2, 3});
+
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.get(v1));
+        assertNull(cache.get(v2));
+    }
+
+    @Test
+    @DisplayName("Least recently used entry is dropped when over max-bytes")
+    void testLruBound() {
+        String a = cache.key(PdfCacheService.INVOICE, 1L, "INVOICE", "a");
+        String b = cache.key(PdfCacheService.INVOICE, 2L, "INVOICE", "b");
+        String c = cache.key(PdfCacheService.INVOICE, 3L, "INVOICE", "c");
+
+        cache.put(a, new byte[400]);
+        cache.put(b, new byte[400]);
+        cache.get(a);                    // a is now most recently used
+        cache.put(c, new byte[400]);     // 1200 > 1000 -> drop b
+
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+    }
+
+    @Test
+    @DisplayName("evictInvoice drops every rendering of that invoice only")
+    void testEvictInvoice() {
+        String invoice = cache.key(PdfCacheService.INVOICE, 1L, "INVOICE", "v");
+        String challan = cache.key(PdfCacheService.INVOICE, 1L, "TRANSPORT_CHALLAN", "v");
+        String other = cache.key(PdfCacheService.INVOICE, 11L, "INVOICE", "v");
+
+        cache.put(invoice, new byte[10]);
+        cache.put(challan, new byte[10]);
+        cache.put(other, new byte[10]);
+
+        cache.evictInvoice(1L);
+
+        assertNull(cache.get(invoice));
+        assertNull(cache.get(challan));
+        assertNotNull(cache.get(other));
+    }
+
+    @Test
+    @DisplayName("Disk tier serves entries to a fresh cache instance")
+    void testDiskTier(@TempDir Path dir) {
+        PdfCacheService first = newCache(1000, dir.toString());
+        String key = first.key(PdfCacheService.QUOTATION, 5L, "QUOTATION", "v");
+        first.put(key, new byte[] {9, 9});
+
+        PdfCacheService second = newCache(1000, dir.toString());
+        assertArrayEquals(new byte[] {9, 9}, second.get(key));
+
+        second.evictQuotation(5L);
+        assertNull(newCache(1000, dir.toString()).get(key));
+    }
+}
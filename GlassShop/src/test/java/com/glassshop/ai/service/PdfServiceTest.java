@@ -0,0 +1,186 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.glassshop.ai.entity.Quotation;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.User;
+import com.glassshop.ai.enums.BillingType;
+import com.glassshop.ai.repository.InvoiceRepository;
+import com.glassshop.ai.repository.QuotationRepository;
+import com.glassshop.ai.repository.UserRepository;
+
+/**
+ * Unit Tests for PdfService
+ * Tests streaming a document to the response and what ends up in the PDF cache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PdfService Unit Tests")
+class PdfServiceTest {
+
+    private static final String CACHE_KEY = "quotation:1:QUOTATION:v";
+
+    @Mock
+    private QuotationRepository quotationRepository;
+
+    @Mock
+    private InvoiceRepository invoiceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PdfCacheService pdfCacheService;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @InjectMocks
+    private PdfService pdfService;
+
+    private Quotation quotation;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(pdfService, "maxMainMemoryBytes", 8L * 1024 * 1024);
+
+        Shop shop = new Shop();
+        shop.setId(1L);
+        shop.setShopName("Test Shop");
+
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("testuser");
+        user.setRole("ROLE_ADMIN");
+        user.setShop(shop);
+
+        quotation = new Quotation();
+        quotation.setId(1L);
+        quotation.setShop(shop);
+        quotation.setQuotationNumber("Q-2026-01-0001");
+        quotation.setCustomerName("Customer");
+        quotation.setQuotationDate(LocalDate.of(2026, 1, 5));
+        quotation.setBillingType(BillingType.NON_GST);
+
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(user));
+        when(quotationRepository.findById(1L)).thenReturn(Optional.of(quotation));
+        // not reached when the shop check fails
+        lenient().when(pdfCacheService.key(eq(PdfCacheService.QUOTATION), eq(1L), eq("QUOTATION"), anyString()))
+                .thenReturn(CACHE_KEY);
+    }
+
+    @Test
+    @DisplayName("prepareQuotationPdf - Success: Cache hit copies the cached bytes without rendering")
+    void testPrepareQuotationPdf_CacheHit() throws IOException {
+        // Arrange
+        byte[] cached = "%PDF-cached".getBytes();
+        when(pdfCacheService.get(CACHE_KEY)).thenReturn(cached);
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfService.prepareQuotationPdf(1L).writeTo(out);
+
+        // Assert
+        assertArrayEquals(cached, out.toByteArray());
+        verify(pdfCacheService, never()).put(anyString(), any());
+        verify(pdfCacheService, never()).getMaxEntryBytes();
+    }
+
+    @Test
+    @DisplayName("prepareQuotationPdf - Success: Cache miss streams the PDF and caches exactly what was sent")
+    void testPrepareQuotationPdf_CacheMiss() throws IOException {
+        // Arrange
+        when(pdfCacheService.get(CACHE_KEY)).thenReturn(null);
+        when(pdfCacheService.getMaxEntryBytes()).thenReturn(1024L * 1024);
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfService.prepareQuotationPdf(1L).writeTo(out);
+
+        // Assert
+        byte[] sent = out.toByteArray();
+        assertTrue(new String(sent, 0, 5).startsWith("%PDF-"));
+        ArgumentCaptor<byte[]> captured = ArgumentCaptor.forClass(byte[].class);
+        verify(pdfCacheService, times(1)).put(eq(CACHE_KEY), captured.capture());
+        assertArrayEquals(sent, captured.getValue());
+    }
+
+    @Test
+    @DisplayName("prepareQuotationPdf - Success: PDF larger than the entry limit is streamed but not cached")
+    void testPrepareQuotationPdf_TooLargeToCache() throws IOException {
+        // Arrange
+        when(pdfCacheService.get(CACHE_KEY)).thenReturn(null);
+        when(pdfCacheService.getMaxEntryBytes()).thenReturn(64L);
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        pdfService.prepareQuotationPdf(1L).writeTo(out);
+
+        // Assert
+        assertTrue(out.size() > 64);
+        verify(pdfCacheService, never()).put(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("prepareQuotationPdf - Failure: A write that fails part way is not cached")
+    void testPrepareQuotationPdf_PartialWriteNotCached() {
+        // Arrange - client goes away after 100 bytes
+        when(pdfCacheService.get(CACHE_KEY)).thenReturn(null);
+        when(pdfCacheService.getMaxEntryBytes()).thenReturn(1024L * 1024);
+        OutputStream broken = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 100) {
+                    throw new IOException("Broken pipe");
+                }
+            }
+        };
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> pdfService.prepareQuotationPdf(1L).writeTo(broken));
+        verify(pdfCacheService, never()).put(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("prepareQuotationPdf - Failure: Another shop's quotation is refused before the cache")
+    void testPrepareQuotationPdf_OtherShop() {
+        // Arrange
+        Shop other = new Shop();
+        other.setId(2L);
+        quotation.setShop(other);
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> pdfService.prepareQuotationPdf(1L));
+        verifyNoInteractions(pdfCacheService);
+    }
+}
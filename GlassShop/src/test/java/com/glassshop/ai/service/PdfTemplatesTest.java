@@ -0,0 +1,90 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit Tests for PdfTemplates.FontMetrics
+ * Tests the word wrap used for challan remarks and the bulk export errors page
+ */
+@DisplayName("PdfTemplates.FontMetrics Unit Tests")
+class PdfTemplatesTest {
+
+    private static final float FONT_SIZE = 10;
+
+    private final PdfTemplates.FontMetrics metrics = PdfTemplates.HELVETICA;
+
+    @Test
+    @DisplayName("wrap - Success: Words are packed greedily and every line fits")
+    void testWrap_Words() {
+        // Arrange
+        String text = "Fragile glass, deliver to the back gate before noon and call on arrival";
+        float maxWidth = metrics.width("Fragile glass, deliver", FONT_SIZE);
+
+        // Act
+        List<String> lines = metrics.wrap(text, FONT_SIZE, maxWidth);
+
+        // Assert
+        assertTrue(lines.size() > 1);
+        assertEquals("Fragile glass, deliver", lines.get(0));
+        for (String line : lines) {
+            assertTrue(metrics.width(line, FONT_SIZE) <= maxWidth, line);
+        }
+        assertEquals(text, String.join(" ", lines));
+    }
+
+    @Test
+    @DisplayName("wrap - Success: A line exactly as wide as the column is not broken")
+    void testWrap_ExactWidth() {
+        // Arrange
+        float exact = metrics.width("aaa bbb", FONT_SIZE);
+
+        // Act & Assert
+        assertEquals(List.of("aaa bbb"), metrics.wrap("aaa bbb", FONT_SIZE, exact));
+        assertEquals(List.of("aaa", "bbb"), metrics.wrap("aaa bbb", FONT_SIZE, exact - 0.01f));
+        assertEquals(List.of("aaa"), metrics.wrap("aaa", FONT_SIZE, metrics.width("aaa", FONT_SIZE)));
+    }
+
+    @Test
+    @DisplayName("wrap - Success: A word wider than the column is broken between characters")
+    void testWrap_LongUnbrokenToken() {
+        // Arrange - e.g. a pasted URL or reference number with no spaces
+        String token = "X".repeat(200);
+        float maxWidth = 100;
+
+        // Act
+        List<String> lines = metrics.wrap("Ref: " + token + " end", FONT_SIZE, maxWidth);
+
+        // Assert
+        assertTrue(lines.size() > 2);
+        assertEquals("Ref:", lines.get(0));
+        for (String line : lines) {
+            assertFalse(line.isEmpty());
+            assertTrue(metrics.width(line, FONT_SIZE) <= maxWidth, line);
+        }
+        assertEquals("Ref:" + token + "end", String.join("", lines).replace(" ", ""));
+    }
+
+    @Test
+    @DisplayName("wrap - Success: A column narrower than one character still makes progress")
+    void testWrap_NarrowerThanOneCharacter() {
+        // Act
+        List<String> lines = metrics.wrap("WWW", FONT_SIZE, 1);
+
+        // Assert - one character per line, never an empty line or an endless loop
+        assertEquals(List.of("W", "W", "W"), lines);
+    }
+
+    @Test
+    @DisplayName("wrap - Success: Null, empty and blank text give no lines")
+    void testWrap_Empty() {
+        assertTrue(metrics.wrap(null, FONT_SIZE, 100).isEmpty());
+        assertTrue(metrics.wrap("", FONT_SIZE, 100).isEmpty());
+        assertTrue(metrics.wrap("   ", FONT_SIZE, 100).isEmpty());
+        assertEquals(List.of("a b"), metrics.wrap("  a   b  ", FONT_SIZE, 100));
+    }
+}
@@ -0,0 +1,172 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.glassshop.ai.dto.ShopActivityCounts;
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.ShopActivityCounter;
+import com.glassshop.ai.repository.ShopActivityCounterRepository;
+
+/**
+ * Unit Tests for ShopActivityCounterService
+ * Tests per-shop/day aggregation of audit batches, the cached counter reads
+ * and cache invalidation after commit
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShopActivityCounterService Unit Tests")
+class ShopActivityCounterServiceTest {
+
+    @Mock
+    private ShopActivityCounterRepository counterRepository;
+
+    @InjectMocks
+    private ShopActivityCounterService counterService;
+
+    private static AuditLog log(Long shopId, String action, LocalDateTime timestamp) {
+        Shop shop = new Shop();
+        shop.setId(shopId);
+        AuditLog log = new AuditLog();
+        log.setShop(shop);
+        log.setAction(action);
+        log.setTimestamp(timestamp);
+        return log;
+    }
+
+    private static ShopActivityCounter row(long transfers, long adds, long removes, LocalDate opsDay, long todayOps) {
+        ShopActivityCounter row = new ShopActivityCounter();
+        row.setShopId(1L);
+        row.setTransfers(transfers);
+        row.setAdds(adds);
+        row.setRemoves(removes);
+        row.setOpsDay(opsDay);
+        row.setTodayOps(todayOps);
+        return row;
+    }
+
+    @Test
+    @DisplayName("recordAll - Success: One upsert per shop and day")
+    void testRecordAll_AggregatesPerShopAndDay() {
+        // Arrange
+        LocalDateTime today = LocalDate.now().atTime(10, 0);
+        LocalDateTime yesterday = today.minusDays(1);
+
+        // Act
+        counterService.recordAll(List.of(
+                log(1L, "ADD", today),
+                log(1L, "transfer", today),
+                log(1L, "REMOVE", today),
+                log(1L, "ADD", yesterday),
+                log(2L, "TRANSFER", today),
+                log(null, "ADD", today)));
+
+        // Assert
+        verify(counterRepository).addActivity(1L, 1, 1, 1, today.toLocalDate(), 3);
+        verify(counterRepository).addActivity(1L, 0, 1, 0, yesterday.toLocalDate(), 1);
+        verify(counterRepository).addActivity(2L, 1, 0, 0, today.toLocalDate(), 1);
+        verifyNoMoreInteractions(counterRepository);
+    }
+
+    @Test
+    @DisplayName("getCounts - Success: Loaded once, reloaded after a recorded batch")
+    void testGetCounts_CachedAndInvalidated() {
+        // Arrange - second load sees the committed batch
+        LocalDate today = LocalDate.now();
+        when(counterRepository.findById(1L))
+                .thenReturn(Optional.of(row(5, 20, 8, today, 4)))
+                .thenReturn(Optional.of(row(6, 21, 8, today, 6)));
+
+        // Act
+        ShopActivityCounts before = counterService.getCounts(1L);
+        ShopActivityCounts cached = counterService.getCounts(1L);
+        counterService.recordAll(List.of(log(1L, "TRANSFER", today.atTime(9, 0)),
+                log(1L, "ADD", today.atTime(9, 5))));
+        ShopActivityCounts after = counterService.getCounts(1L);
+
+        // Assert
+        assertEquals(5, before.getTransfers());
+        assertEquals(4, before.getTodayOps());
+        assertEquals(5, cached.getTransfers());
+        assertEquals(6, after.getTransfers());
+        assertEquals(21, after.getAdds());
+        assertEquals(8, after.getRemoves());
+        assertEquals(6, after.getTodayOps());
+        verify(counterRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    @DisplayName("getCounts - Success: A row loaded before the batch committed is not counted twice")
+    void testGetCounts_LoadBeforeAfterCommit() {
+        // Arrange - the row is read after the counter UPDATE committed but
+        // before afterCommit ran, so it already includes the batch
+        LocalDate today = LocalDate.now();
+        when(counterRepository.findById(1L)).thenReturn(Optional.of(row(6, 21, 8, today, 6)));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            counterService.recordAll(List.of(log(1L, "TRANSFER", today.atTime(9, 0)),
+                    log(1L, "ADD", today.atTime(9, 5))));
+            ShopActivityCounts loaded = counterService.getCounts(1L);
+
+            // Act - commit finishes
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCommit();
+            }
+            ShopActivityCounts after = counterService.getCounts(1L);
+
+            // Assert
+            assertEquals(6, loaded.getTransfers());
+            assertEquals(6, after.getTransfers());
+            assertEquals(21, after.getAdds());
+            assertEquals(6, after.getTodayOps());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("getCounts - Success: Today's ops is 0 when the last activity was on an earlier day")
+    void testGetCounts_TodayResets() {
+        // Arrange
+        when(counterRepository.findById(1L))
+                .thenReturn(Optional.of(row(2, 3, 1, LocalDate.now().minusDays(2), 9)));
+
+        // Act
+        ShopActivityCounts counts = counterService.getCounts(1L);
+
+        // Assert
+        assertEquals(2, counts.getTransfers());
+        assertEquals(0, counts.getTodayOps());
+    }
+
+    @Test
+    @DisplayName("getCounts - Success: Zeros for a shop without activity")
+    void testGetCounts_NoRow() {
+        // Arrange
+        when(counterRepository.findById(anyLong())).thenReturn(Optional.empty());
+
+        // Act
+        ShopActivityCounts counts = counterService.getCounts(3L);
+
+        // Assert
+        assertEquals(0, counts.getTransfers());
+        assertEquals(0, counts.getAdds());
+        assertEquals(0, counts.getRemoves());
+        assertEquals(0, counts.getTodayOps());
+    }
+}
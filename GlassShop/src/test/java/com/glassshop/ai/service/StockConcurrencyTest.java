@@ -0,0 +1,307 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.glassshop.ai.dto.StockUpdateRequest;
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.entity.User;
+import com.glassshop.ai.repository.GlassRepository;
+import com.glassshop.ai.repository.ShopRepository;
+import com.glassshop.ai.repository.StockRepository;
+import com.glassshop.ai.repository.UserRepository;
+
+/**
+ * Concurrency Tests for StockService
+ * Fires many parallel REMOVE requests at the same stock row and checks
+ * that no update is lost and stock never goes below zero; parallel first
+ * ADDs (single or GRN) must end up in one row. Real transactions (PostgreSQL mode, for the
+ * ON CONFLICT insert of a new stock row)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:stockconcurrency;MODE=PostgreSQL;LOCK_TIMEOUT=30000")
+@DisplayName("StockService Concurrency Tests")
+class StockConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ShopRepository shopRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GlassRepository glassRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Not under test (and the counter / sales rollup upserts are PostgreSQL-only SQL)
+    @MockBean
+    private EmailService emailService;
+
+    @MockBean
+    private ShopActivityCounterService shopActivityCounterService;
+
+    @MockBean
+    private DailySalesRollupService dailySalesRollupService;
+
+    private Shop shop;
+    private Glass glass;
+    private String userName;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = String.valueOf(System.nanoTime());
+
+        shop = new Shop();
+        shop.setShopName("Concurrency Shop " + suffix);
+        shop = shopRepository.save(shop);
+
+        userName = "concurrency_" + suffix;
+        User user = new User();
+        user.setUserName(userName);
+        user.setPassword("password");
+        user.setRole("ROLE_ADMIN");
+        user.setShop(shop);
+        userRepository.save(user);
+
+        glass = glassRepository
+                .findByTypeAndThicknessAndUnit("5MM", 5, "MM")
+                .orElseGet(() -> {
+                    Glass g = new Glass();
+                    g.setType("5MM");
+                    g.setThickness(5);
+                    g.setUnit("MM");
+                    return glassRepository.save(g);
+                });
+    }
+
+    @Test
+    @DisplayName("60 concurrent removals of 1 unit: no lost updates")
+    void testConcurrentRemove_NoLostUpdates() throws Exception {
+        Stock stock = createStock(100);
+
+        List<String> results = removeConcurrently(60);
+
+        long success = results.stream().filter(r -> r.startsWith("✅")).count();
+        assertEquals(60, success, "Every removal should succeed: " + results);
+        assertEquals(40, stockRepository.findById(stock.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("50 concurrent removals on 30 units: no oversell")
+    void testConcurrentRemove_NoOversell() throws Exception {
+        Stock stock = createStock(30);
+
+        List<String> results = removeConcurrently(50);
+
+        long success = results.stream().filter(r -> r.startsWith("✅")).count();
+        long rejected = results.stream().filter(r -> r.equals("❌ Not enough stock")).count();
+
+        assertEquals(30, success);
+        assertEquals(20, rejected);
+        assertEquals(0, stockRepository.findById(stock.getId()).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("16 concurrent first ADDs of 1 unit on an empty stand: one row, nothing lost")
+    void testConcurrentFirstAdd_OneRow() throws Exception {
+        List<String> results = updateConcurrently(THREADS, "ADD", 2);
+
+        long success = results.stream().filter(r -> r.startsWith("✅")).count();
+        assertEquals(THREADS, success, "Every add should succeed: " + results);
+
+        List<Stock> rows = stockRepository.findAll().stream()
+                .filter(s -> s.getShop().getId().equals(shop.getId()) && s.getStandNo() == 2)
+                .toList();
+        assertEquals(1, rows.size());
+        assertEquals(THREADS, rows.get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("First ADD while another transaction inserts the same row: waits, then adds to it")
+    void testFirstAdd_ConcurrentUncommittedInsert() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        Future<Integer> other = insertAndHold(executor, 3, inserted, commit);
+        assertTrue(inserted.await(30, TimeUnit.SECONDS));
+
+        Future<String> add = executor.submit(() -> updateAs("ADD", 3));
+        Thread.sleep(300);
+        assertFalse(add.isDone(), "ADD should wait for the uncommitted insert");
+
+        commit.countDown();
+        assertEquals(1, other.get(30, TimeUnit.SECONDS));
+        assertEquals("✅ Stock updated successfully", add.get(30, TimeUnit.SECONDS));
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Stock> rows = stockRepository.findAll().stream()
+                .filter(s -> s.getShop().getId().equals(shop.getId()) && s.getStandNo() == 3)
+                .toList();
+        assertEquals(1, rows.size());
+        assertEquals(1, rows.get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("GRN line for a row another transaction is inserting: waits, then adds to it")
+    void testBulkFirstAdd_ConcurrentUncommittedInsert() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        Future<Integer> other = insertAndHold(executor, 5, inserted, commit);
+        assertTrue(inserted.await(30, TimeUnit.SECONDS));
+
+        Future<String> grn = executor.submit(() -> bulkAs(List.of(line("ADD", 5, 4), line("REMOVE", 5, 1))));
+        Thread.sleep(300);
+        assertFalse(grn.isDone(), "GRN should wait for the uncommitted insert");
+
+        commit.countDown();
+        assertEquals(1, other.get(30, TimeUnit.SECONDS));
+        assertTrue(grn.get(30, TimeUnit.SECONDS).startsWith("✅"));
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        List<Stock> rows = stockRepository.findAll().stream()
+                .filter(s -> s.getShop().getId().equals(shop.getId()) && s.getStandNo() == 5)
+                .toList();
+        assertEquals(1, rows.size());
+        assertEquals(3, rows.get(0).getQuantity());
+    }
+
+    /* ===== HELPERS ===== */
+
+    private Stock createStock(int quantity) {
+        Stock stock = new Stock();
+        stock.setGlass(glass);
+        stock.setStandNo(1);
+        stock.setQuantity(quantity);
+        stock.setMinQuantity(0);
+        stock.setShop(shop);
+        stock.setHeight("100");
+        stock.setWidth("100");
+        return stockRepository.save(stock);
+    }
+
+    private List<String> removeConcurrently(int requests) throws Exception {
+        return updateConcurrently(requests, "REMOVE", 1);
+    }
+
+    private List<String> updateConcurrently(int requests, String action, int standNo) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return updateAs(action, standNo);
+            }));
+        }
+
+        start.countDown();
+
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return results;
+    }
+
+    // Another transaction inserts the empty row on standNo and keeps it
+    // uncommitted until commit is counted down
+    private Future<Integer> insertAndHold(ExecutorService executor, int standNo,
+                                          CountDownLatch inserted, CountDownLatch commit) {
+        return executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+            int rows = stockRepository.insertEmptyStock(glass.getId(), standNo, 5, shop.getId(), "100", "100",
+                    100.0, 100.0, LocalDateTime.now());
+            inserted.countDown();
+            try {
+                commit.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rows;
+        }));
+    }
+
+    private StockUpdateRequest line(String action, int standNo, int quantity) {
+        StockUpdateRequest request = new StockUpdateRequest();
+        request.setGlassType("5MM");
+        request.setAction(action);
+        request.setQuantity(quantity);
+        request.setStandNo(standNo);
+        request.setHeight("100");
+        request.setWidth("100");
+        request.setUnit("MM");
+        return request;
+    }
+
+    // One unit, as the test user, on this thread
+    private String updateAs(String action, int standNo) {
+        authenticate();
+        try {
+            return stockService.updateStock(line(action, standNo, 1));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private String bulkAs(List<StockUpdateRequest> lines) {
+        authenticate();
+        try {
+            return stockService.bulkUpdateStock(lines);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(
+                        userName, null,
+                        List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+}
@@ -0,0 +1,246 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.glassshop.ai.dto.StockImportResult;
+import com.glassshop.ai.entity.AuditLog;
+import com.glassshop.ai.entity.Glass;
+import com.glassshop.ai.entity.Shop;
+import com.glassshop.ai.entity.Stock;
+import com.glassshop.ai.entity.StockHistory;
+import com.glassshop.ai.entity.User;
+import com.glassshop.ai.repository.StockHistoryRepository;
+import com.glassshop.ai.repository.StockRepository;
+import com.glassshop.ai.repository.UserRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Unit Tests for StockImportService
+ * Tests row validation, the error report and chunked commits
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockImportService Unit Tests")
+class StockImportServiceTest {
+
+    @Mock
+    private StockRepository stockRepository;
+
+    @Mock
+    private GlassCatalogService glassCatalogService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LowStockTracker lowStockTracker;
+
+    @Mock
+    private StockHistoryRepository historyRepository;
+
+    @Mock
+    private AuditLogWriter auditLogWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @InjectMocks
+    private StockImportService stockImportService;
+
+    private Glass glass;
+
+    @BeforeEach
+    void setUp() {
+        Shop shop = new Shop();
+        shop.setId(1L);
+
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("testuser");
+        user.setRole("ROLE_ADMIN");
+        user.setShop(shop);
+
+        glass = new Glass();
+        glass.setId(1L);
+        glass.setType("5MM");
+        glass.setThickness(5);
+        glass.setUnit("FEET");
+
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getName()).thenReturn("testuser");
+        when(authentication.isAuthenticated()).thenReturn(true);
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(user));
+
+        ReflectionTestUtils.setField(stockImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(stockImportService, "maxErrors", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private StockImportResult importCsv(String csv, long startRow) throws Exception {
+        return stockImportService.importCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), startRow);
+    }
+
+    @Test
+    @DisplayName("Valid rows are upserted in chunks, bad rows are reported")
+    void testImport_ChunksAndErrors() throws Exception {
+        // Arrange
+        when(glassCatalogService.findOrCreate("5MM", 5, "FEET")).thenReturn(glass);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(eq(1L), any(), any()))
+                .thenReturn(List.of());
+
+        String csv = "glassType,unit,standNo,height,width,quantity\n"
+                + "5MM,FEET,1,10,12,40\n"
+                + "5MM,FEET,x,10,12,40\n"
+                + "5MM,FEET,2,26 1/4,18,5\n"
+                + "5MM,FEET,3,10,12,7\n";
+
+        // Act
+        StockImportResult result = importCsv(csv, 1);
+
+        // Assert
+        assertTrue(result.isCompleted());
+        assertEquals(4, result.getProcessedRows());
+        assertEquals(3, result.getImportedRows());
+        assertEquals(1, result.getFailedRows());
+        assertEquals(2, result.getErrors().get(0).getRow());
+        assertEquals(4, result.getLastCommittedRow());
+        verify(stockRepository, times(2)).saveAll(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    @DisplayName("startRow skips rows that were already committed")
+    void testImport_Resume() throws Exception {
+        // Arrange
+        Stock existing = new Stock();
+        existing.setGlass(glass);
+        existing.setStandNo(3);
+        existing.setHeight("10");
+        existing.setWidth("12");
+        existing.setQuantity(1);
+
+        when(glassCatalogService.findOrCreate("5MM", 5, "FEET")).thenReturn(glass);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(eq(1L), any(), any()))
+                .thenReturn(List.of(existing));
+
+        String csv = "glassType,unit,standNo,height,width,quantity\n"
+                + "5MM,FEET,1,10,12,40\n"
+                + "5MM,FEET,3,10,12,7\n";
+
+        // Act
+        StockImportResult result = importCsv(csv, 2);
+
+        // Assert
+        assertEquals(1, result.getProcessedRows());
+        assertEquals(7, existing.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Changed quantities are audited and kept in history as the difference")
+    @SuppressWarnings("unchecked")
+    void testImport_AuditsDelta() throws Exception {
+        // Arrange - stand 1 goes 10 -> 4, stand 2 is unchanged, stand 3 is new
+        Stock lowered = new Stock();
+        lowered.setGlass(glass);
+        lowered.setStandNo(1);
+        lowered.setHeight("10");
+        lowered.setWidth("12");
+        lowered.setQuantity(10);
+        Stock unchanged = new Stock();
+        unchanged.setGlass(glass);
+        unchanged.setStandNo(2);
+        unchanged.setHeight("10");
+        unchanged.setWidth("12");
+        unchanged.setQuantity(8);
+
+        ReflectionTestUtils.setField(stockImportService, "batchSize", 10);
+        when(glassCatalogService.findOrCreate("5MM", 5, "FEET")).thenReturn(glass);
+        when(transactionManager.getTransaction(any())).thenReturn(mock(TransactionStatus.class));
+        when(stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(eq(1L), any(), any()))
+                .thenReturn(List.of(lowered, unchanged));
+
+        String csv = "glassType,unit,standNo,height,width,quantity\n"
+                + "5MM,FEET,1,10,12,4\n"
+                + "5MM,FEET,2,10,12,8\n"
+                + "5MM,FEET,3,26 1/4,18,5\n";
+
+        // Act
+        StockImportResult result = importCsv(csv, 1);
+
+        // Assert
+        assertTrue(result.isCompleted());
+        ArgumentCaptor<Collection<AuditLog>> logs = ArgumentCaptor.forClass(Collection.class);
+        verify(auditLogWriter).submitAll(logs.capture());
+        List<AuditLog> logged = List.copyOf(logs.getValue());
+        assertEquals(2, logged.size());
+        assertEquals("REMOVE", logged.get(0).getAction());
+        assertEquals(6, logged.get(0).getQuantity());
+        assertEquals(1, logged.get(0).getStandNo());
+        assertEquals("testuser", logged.get(0).getUsername());
+        assertEquals("ADD", logged.get(1).getAction());
+        assertEquals(5, logged.get(1).getQuantity());
+        assertEquals("26 1/4", logged.get(1).getHeight());
+
+        ArgumentCaptor<Iterable<StockHistory>> histories = ArgumentCaptor.forClass(Iterable.class);
+        verify(historyRepository).saveAll(histories.capture());
+        List<StockHistory> saved = new java.util.ArrayList<>();
+        histories.getValue().forEach(saved::add);
+        assertEquals(2, saved.size());
+        assertEquals("REMOVE", saved.get(0).getAction());
+        assertEquals(6, saved.get(0).getQuantity());
+        assertEquals("10", saved.get(0).getHeight());
+        assertEquals("12", saved.get(0).getWidth());
+        assertEquals("ADD", saved.get(1).getAction());
+        assertEquals("26 1/4", saved.get(1).getHeight());
+        assertEquals("18", saved.get(1).getWidth());
+    }
+
+    @Test
+    @DisplayName("Missing required columns are rejected before any row is read")
+    void testImport_MissingColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importCsv("glassType,unit,quantity\n5MM,FEET,4\n", 1));
+        verify(stockRepository, never()).saveAll(any());
+    }
+}
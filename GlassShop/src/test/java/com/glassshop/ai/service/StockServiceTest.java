@@ -29,7 +29,10 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import com.glassshop.ai.dto.StockFilter;
+import com.glassshop.ai.dto.StockPageResponse;
 import com.glassshop.ai.dto.StockUpdateRequest;
+import com.glassshop.ai.dto.StockView;
 import com.glassshop.ai.entity.AuditLog;
 import com.glassshop.ai.entity.Glass;
 import com.glassshop.ai.entity.Shop;
@@ -37,7 +40,6 @@ import com.glassshop.ai.entity.Stock;
 import com.glassshop.ai.entity.StockHistory;
 import com.glassshop.ai.entity.User;
 import com.glassshop.ai.repository.AuditLogRepository;
-import com.glassshop.ai.repository.GlassRepository;
 import com.glassshop.ai.repository.StockHistoryRepository;
 import com.glassshop.ai.repository.StockRepository;
 import com.glassshop.ai.repository.UserRepository;
@@ -54,7 +56,7 @@ class StockServiceTest {
     private StockRepository stockRepository;
 
     @Mock
-    private GlassRepository glassRepository;
+    private GlassCatalogService glassCatalogService;
 
     @Mock
     private StockHistoryRepository historyRepository;
@@ -66,7 +68,13 @@ class StockServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private EmailService emailService;
+    private DailySalesRollupService dailySalesRollupService;
+
+    @Mock
+    private LowStockTracker lowStockTracker;
+
+    @Mock
+    private AuditLogWriter auditLogWriter;
 
     @Mock
     private SecurityContext securityContext;
@@ -133,13 +141,12 @@ class StockServiceTest {
     void testUpdateStock_Add_Success() {
         // Arrange
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(glassRepository.findByTypeAndThicknessAndUnit("5MM", 5, "MM"))
-                .thenReturn(Optional.of(testGlass));
+        when(glassCatalogService.findOrCreate("5MM", 5, "MM"))
+                .thenReturn(testGlass);
         when(stockRepository.findByGlassAndStandNoAndShop(testGlass, 1, testShop))
                 .thenReturn(Optional.of(testStock));
         when(stockRepository.save(any(Stock.class))).thenReturn(testStock);
         when(historyRepository.save(any(StockHistory.class))).thenReturn(new StockHistory());
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
 
         // Act
         String result = stockService.updateStock(updateRequest);
@@ -148,7 +155,7 @@ class StockServiceTest {
         assertTrue(result.contains("✅"));
         assertEquals(150, testStock.getQuantity()); // 100 + 50
         verify(stockRepository, times(1)).save(testStock);
-        verify(auditLogRepository, times(1)).save(any(AuditLog.class));
+        verify(auditLogWriter, times(1)).submit(any(AuditLog.class));
     }
 
     @Test
@@ -159,13 +166,12 @@ class StockServiceTest {
         updateRequest.setQuantity(30);
 
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(glassRepository.findByTypeAndThicknessAndUnit("5MM", 5, "MM"))
-                .thenReturn(Optional.of(testGlass));
+        when(glassCatalogService.findOrCreate("5MM", 5, "MM"))
+                .thenReturn(testGlass);
         when(stockRepository.findByGlassAndStandNoAndShop(testGlass, 1, testShop))
                 .thenReturn(Optional.of(testStock));
         when(stockRepository.save(any(Stock.class))).thenReturn(testStock);
         when(historyRepository.save(any(StockHistory.class))).thenReturn(new StockHistory());
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
 
         // Act
         String result = stockService.updateStock(updateRequest);
@@ -184,8 +190,8 @@ class StockServiceTest {
         updateRequest.setQuantity(150); // More than available (100)
 
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(glassRepository.findByTypeAndThicknessAndUnit("5MM", 5, "MM"))
-                .thenReturn(Optional.of(testGlass));
+        when(glassCatalogService.findOrCreate("5MM", 5, "MM"))
+                .thenReturn(testGlass);
         when(stockRepository.findByGlassAndStandNoAndShop(testGlass, 1, testShop))
                 .thenReturn(Optional.of(testStock));
 
@@ -198,6 +204,28 @@ class StockServiceTest {
         verify(stockRepository, never()).save(any(Stock.class));
     }
 
+    @Test
+    @DisplayName("updateStock - Failure: Rejected REMOVE leaves the HSN number unchanged")
+    void testUpdateStock_Remove_InsufficientStockKeepsHsn() {
+        // Arrange - the locked row is managed, so any change would be committed
+        testStock.setHsnNo("7005");
+        updateRequest.setAction("REMOVE");
+        updateRequest.setQuantity(150);
+        updateRequest.setHsnNo("7007");
+
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(glassCatalogService.findOrCreate("5MM", 5, "MM")).thenReturn(testGlass);
+        when(stockRepository.findByGlassAndStandNoAndShop(testGlass, 1, testShop))
+                .thenReturn(Optional.of(testStock));
+
+        // Act
+        String result = stockService.updateStock(updateRequest);
+
+        // Assert
+        assertEquals("❌ Not enough stock", result);
+        assertEquals("7005", testStock.getHsnNo());
+    }
+
     @Test
     @DisplayName("updateStock - Failure: User not authenticated")
     void testUpdateStock_UserNotAuthenticated() {
@@ -246,24 +274,71 @@ class StockServiceTest {
     void testUpdateStock_CreateNewStock() {
         // Arrange
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(glassRepository.findByTypeAndThicknessAndUnit("5MM", 5, "MM"))
-                .thenReturn(Optional.of(testGlass));
+        when(glassCatalogService.findOrCreate("5MM", 5, "MM"))
+                .thenReturn(testGlass);
+        Stock created = emptyStock(2L);
         when(stockRepository.findByGlassAndStandNoAndShop(testGlass, 1, testShop))
-                .thenReturn(Optional.empty());
-        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> {
-            Stock stock = invocation.getArgument(0);
-            stock.setId(2L);
-            return stock;
-        });
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(created));
+        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(historyRepository.save(any(StockHistory.class))).thenReturn(new StockHistory());
+
+        // Act
+        String result = stockService.updateStock(updateRequest);
+
+        // Assert - empty row inserted, then locked and topped up
+        assertTrue(result.contains("✅"));
+        verify(stockRepository, times(1)).insertEmptyStock(eq(1L), eq(1), eq(5), eq(1L), eq("100"), eq("100"),
+                eq(100.0), eq(100.0), any(LocalDateTime.class));
+        verify(stockRepository, times(1)).save(created);
+        assertEquals(50, created.getQuantity());
+    }
+
+    @Test
+    @DisplayName("updateStock - Success: Losing a concurrent first ADD adds to the winner's row")
+    void testUpdateStock_CreateRace() {
+        // Arrange - another request inserted the row between our read and
+        // insert, so ON CONFLICT DO NOTHING inserts nothing
+        Stock winner = emptyStock(3L);
+        winner.setQuantity(7);
+
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(glassCatalogService.findOrCreate("5MM", 5, "MM")).thenReturn(testGlass);
+        when(stockRepository.findByGlassAndStandNoAndShop(testGlass, 1, testShop))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(stockRepository.insertEmptyStock(any(), anyInt(), anyInt(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(0);
+        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(historyRepository.save(any(StockHistory.class))).thenReturn(new StockHistory());
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
 
         // Act
         String result = stockService.updateStock(updateRequest);
 
         // Assert
         assertTrue(result.contains("✅"));
-        verify(stockRepository, times(1)).save(any(Stock.class));
+        assertEquals(57, winner.getQuantity());
+        verify(stockRepository, times(1)).save(winner);
+    }
+
+    @Test
+    @DisplayName("updateStock - Failure: REMOVE from a stand that has no row")
+    void testUpdateStock_RemoveMissingStock() {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(glassCatalogService.findOrCreate("5MM", 5, "MM")).thenReturn(testGlass);
+        when(stockRepository.findByGlassAndStandNoAndShop(testGlass, 1, testShop))
+                .thenReturn(Optional.empty());
+        updateRequest.setAction("REMOVE");
+
+        // Act
+        String result = stockService.updateStock(updateRequest);
+
+        // Assert
+        assertEquals("❌ Not enough stock", result);
+        verify(stockRepository, never()).insertEmptyStock(any(), anyInt(), anyInt(), any(), any(), any(),
+                any(), any(), any());
+        verify(stockRepository, never()).save(any(Stock.class));
     }
 
     @Test
@@ -271,22 +346,17 @@ class StockServiceTest {
     void testUpdateStock_CreateNewGlass() {
         // Arrange
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(glassRepository.findByTypeAndThicknessAndUnit("8MM", 8, "MM"))
-                .thenReturn(Optional.empty());
-        when(glassRepository.save(any(Glass.class))).thenAnswer(invocation -> {
-            Glass glass = invocation.getArgument(0);
-            glass.setId(2L);
-            return glass;
-        });
+        Glass newGlass = new Glass();
+        newGlass.setId(2L);
+        newGlass.setType("8MM");
+        newGlass.setThickness(8);
+        newGlass.setUnit("MM");
+        when(glassCatalogService.findOrCreate("8MM", 8, "MM")).thenReturn(newGlass);
         when(stockRepository.findByGlassAndStandNoAndShop(any(Glass.class), eq(1), eq(testShop)))
-                .thenReturn(Optional.empty());
-        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> {
-            Stock stock = invocation.getArgument(0);
-            stock.setId(2L);
-            return stock;
-        });
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(emptyStock(2L)));
+        when(stockRepository.save(any(Stock.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(historyRepository.save(any(StockHistory.class))).thenReturn(new StockHistory());
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
 
         updateRequest.setGlassType("8MM");
 
@@ -295,7 +365,7 @@ class StockServiceTest {
 
         // Assert
         assertTrue(result.contains("✅"));
-        verify(glassRepository, times(1)).save(any(Glass.class));
+        verify(glassCatalogService, times(1)).findOrCreate("8MM", 8, "MM");
         verify(stockRepository, times(1)).save(any(Stock.class));
     }
 
@@ -304,8 +374,10 @@ class StockServiceTest {
     void testGetAllStock_Success() {
         // Arrange
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
-        when(stockRepository.findByShopId(testShop.getId()))
-                .thenReturn(java.util.List.of(testStock));
+        StockView view = new StockView(testStock.getId(), testGlass.getId(), "Clear", 5, "MM",
+                1, "10", "12", 50, 10, null, null);
+        when(stockRepository.findViewsByShopId(testShop.getId()))
+                .thenReturn(java.util.List.of(view));
 
         // Act
         var result = stockService.getAllStock();
@@ -313,8 +385,186 @@ class StockServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testStock, result.get(0));
-        verify(stockRepository, times(1)).findByShopId(testShop.getId());
+        assertEquals(view, result.get(0));
+        verify(stockRepository, times(1)).findViewsByShopId(testShop.getId());
+        verify(stockRepository, never()).findByShopId(any());
+    }
+
+    @Test
+    @DisplayName("bulkUpdateStock - Success: All lines applied with one lookup per table")
+    void testBulkUpdateStock_Success() {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(glassCatalogService.find("5MM", 5, "MM")).thenReturn(Optional.of(testGlass));
+        when(stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(eq(testShop.getId()), any(), any()))
+                .thenReturn(java.util.List.of(testStock));
+
+        StockUpdateRequest remove = new StockUpdateRequest();
+        remove.setGlassType("5MM");
+        remove.setAction("REMOVE");
+        remove.setQuantity(30);
+        remove.setStandNo(1);
+        remove.setUnit("MM");
+
+        // Act
+        String result = stockService.bulkUpdateStock(java.util.List.of(updateRequest, remove));
+
+        // Assert
+        assertTrue(result.contains("✅"));
+        assertEquals(120, testStock.getQuantity()); // 100 + 50 - 30
+        verify(glassCatalogService, never()).findOrCreate(any(), anyInt(), any());
+        verify(stockRepository, times(1)).saveAll(any());
+        verify(auditLogWriter, times(1)).submitAll(any());
+        verify(historyRepository, times(1)).saveAll(any());
+        verify(stockRepository, never()).save(any(Stock.class));
+        verify(dailySalesRollupService, times(1)).recordSales(any());
+        verify(dailySalesRollupService, never()).recordSale(any());
+    }
+
+    @Test
+    @DisplayName("bulkUpdateStock - Success: Unit spelled differently from the catalog still finds the stock row")
+    void testBulkUpdateStock_UnitCaseMatchesLoadedRow() {
+        // Arrange - catalog row is "MM", the line says " mm"
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(glassCatalogService.find("5MM", 5, " mm")).thenReturn(Optional.of(testGlass));
+        when(stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(eq(testShop.getId()), any(), any()))
+                .thenReturn(java.util.List.of(testStock));
+
+        StockUpdateRequest remove = new StockUpdateRequest();
+        remove.setGlassType("5MM");
+        remove.setAction("REMOVE");
+        remove.setQuantity(30);
+        remove.setStandNo(1);
+        remove.setUnit(" mm");
+
+        // Act
+        String result = stockService.bulkUpdateStock(java.util.List.of(remove));
+
+        // Assert - dry run and apply both see the loaded row
+        assertTrue(result.contains("✅"), result);
+        assertEquals(70, testStock.getQuantity());
+        verify(glassCatalogService, never()).findOrCreate(any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("bulkUpdateStock - Success: Locks only the batch's stands and inserts missing rows if absent")
+    void testBulkUpdateStock_NewRowInsertedIfAbsent() {
+        // Arrange - stand 1 exists, stand 4 is new
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(glassCatalogService.find("5MM", 5, "MM")).thenReturn(Optional.of(testGlass));
+        Stock created = emptyStock(4L);
+        created.setStandNo(4);
+        when(stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(eq(testShop.getId()), any(), any()))
+                .thenReturn(java.util.List.of(testStock))
+                .thenReturn(java.util.List.of(created));
+
+        StockUpdateRequest newStand = new StockUpdateRequest();
+        newStand.setGlassType("5MM");
+        newStand.setAction("ADD");
+        newStand.setQuantity(20);
+        newStand.setStandNo(4);
+        newStand.setHeight("100");
+        newStand.setWidth("100");
+        newStand.setUnit("MM");
+
+        // Act
+        String result = stockService.bulkUpdateStock(java.util.List.of(updateRequest, newStand));
+
+        // Assert
+        assertTrue(result.contains("✅"), result);
+        assertEquals(150, testStock.getQuantity());
+        assertEquals(20, created.getQuantity());
+        verify(stockRepository).findForUpdateByShopIdAndGlassIdInAndStandNoIn(
+                testShop.getId(), java.util.List.of(1L), java.util.Set.of(1, 4));
+        verify(stockRepository).findForUpdateByShopIdAndGlassIdInAndStandNoIn(
+                testShop.getId(), java.util.List.of(1L), java.util.Set.of(4));
+        verify(stockRepository, times(1)).insertEmptyStock(eq(1L), eq(4), eq(5), eq(1L), eq("100"), eq("100"),
+                eq(100.0), eq(100.0), any(LocalDateTime.class));
+        verify(stockRepository, never()).save(any(Stock.class));
+    }
+
+    @Test
+    @DisplayName("bulkUpdateStock - Failure: One short line rejects the whole batch")
+    void testBulkUpdateStock_NotEnoughStock() {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(glassCatalogService.find("5MM", 5, "MM")).thenReturn(Optional.of(testGlass));
+        when(stockRepository.findForUpdateByShopIdAndGlassIdInAndStandNoIn(eq(testShop.getId()), any(), any()))
+                .thenReturn(java.util.List.of(testStock));
+
+        StockUpdateRequest remove = new StockUpdateRequest();
+        remove.setGlassType("5MM");
+        remove.setAction("REMOVE");
+        remove.setQuantity(500);
+        remove.setStandNo(1);
+        remove.setUnit("MM");
+
+        // Act
+        String result = stockService.bulkUpdateStock(java.util.List.of(updateRequest, remove));
+
+        // Assert
+        assertTrue(result.startsWith("❌ Line 2"));
+        assertEquals(100, testStock.getQuantity());
+        verify(stockRepository, never()).saveAll(any());
+        verify(auditLogWriter, never()).submitAll(any());
+        verify(historyRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("getStockPage - Success: Returns a page and a cursor for the next one")
+    void testGetStockPage_NextCursor() {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        StockView first = new StockView(1L, 1L, "5MM", 5, "MM", 1, "10", "12", 50, 10, null, null);
+        StockView second = new StockView(2L, 1L, "5MM", 5, "MM", 2, "10", "12", 50, 10, null, null);
+        StockView extra = new StockView(3L, 1L, "5MM", 5, "MM", 3, "10", "12", 50, 10, null, null);
+        when(stockRepository.findFirstViewPage(eq(testShop.getId()), any(), any(), any(),
+                anyBoolean(), any(), any(), any(), any(), any()))
+                .thenReturn(java.util.List.of(first, second, extra));
+
+        // Act
+        StockPageResponse page = stockService.getStockPage(new StockFilter(), null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertArrayEquals(new long[] {2, 2}, StockService.decodeCursor(page.getNextCursor()));
+        verify(stockRepository, never()).findViewPageAfter(any(), anyInt(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("getStockPage - Success: Cursor continues after the last row of the previous page")
+    void testGetStockPage_AfterCursor() {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        StockView next = new StockView(3L, 1L, "5MM", 5, "MM", 3, "10", "12", 50, 10, null, null);
+        when(stockRepository.findViewPageAfter(eq(testShop.getId()), eq(2), eq(2L), any(), any(), any(),
+                anyBoolean(), any(), any(), any(), any(), any()))
+                .thenReturn(java.util.List.of(next));
+
+        // Act
+        StockPageResponse page = stockService.getStockPage(new StockFilter(), StockService.encodeCursor(2, 2L), 2);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(stockRepository, never()).findFirstViewPage(any(), any(), any(), any(),
+                anyBoolean(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("getStockPage - Failure: Garbage cursor is rejected")
+    void testGetStockPage_InvalidCursor() {
+        // Arrange
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> stockService.getStockPage(new StockFilter(), "not-a-cursor", 50));
+        verify(stockRepository, never()).findViewPageAfter(any(), anyInt(), any(), any(), any(), any(),
+                anyBoolean(), any(), any(), any(), any(), any());
     }
 
     @Test
@@ -324,6 +574,8 @@ class StockServiceTest {
         StockHistory lastHistory = new StockHistory();
         lastHistory.setGlassId(testGlass.getId());
         lastHistory.setStandNo(1);
+        lastHistory.setHeight("100");
+        lastHistory.setWidth("100");
         lastHistory.setQuantity(50);
         lastHistory.setAction("ADD");
         lastHistory.setShop(testShop);
@@ -331,8 +583,10 @@ class StockServiceTest {
         when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
         when(historyRepository.findTopByShopIdOrderByCreatedAtDesc(testShop.getId()))
                 .thenReturn(lastHistory);
+        when(stockRepository.findByShop_IdAndGlass_IdAndStandNoAndHeightAndWidth(
+                testShop.getId(), testGlass.getId(), 1, "100", "100"))
+                .thenReturn(Optional.of(testStock));
         when(stockRepository.save(any(Stock.class))).thenReturn(testStock);
-        when(auditLogRepository.save(any(AuditLog.class))).thenReturn(new AuditLog());
 
         testStock.setQuantity(150); // Current state after ADD
 
@@ -340,8 +594,39 @@ class StockServiceTest {
         String result = stockService.undoLastAction();
 
         // Assert
-        assertTrue(result.contains("✅") || result.contains("❌")); // May fail if no history
-        verify(stockRepository, atMost(1)).save(any(Stock.class));
+        assertTrue(result.contains("✅"));
+        assertEquals(100, testStock.getQuantity());
+        verify(stockRepository, times(1)).save(testStock);
+        verify(historyRepository, times(1)).delete(lastHistory);
+    }
+
+    @Test
+    @DisplayName("undoLastAction - Failure: The changed row no longer exists in this shop")
+    void testUndoLastAction_RowGone() {
+        // Arrange
+        StockHistory lastHistory = new StockHistory();
+        lastHistory.setGlassId(testGlass.getId());
+        lastHistory.setStandNo(4);
+        lastHistory.setHeight("300");
+        lastHistory.setWidth("200");
+        lastHistory.setQuantity(5);
+        lastHistory.setAction("REMOVE");
+        lastHistory.setShop(testShop);
+
+        when(userRepository.findByUserName("testuser")).thenReturn(Optional.of(testUser));
+        when(historyRepository.findTopByShopIdOrderByCreatedAtDesc(testShop.getId()))
+                .thenReturn(lastHistory);
+        when(stockRepository.findByShop_IdAndGlass_IdAndStandNoAndHeightAndWidth(
+                testShop.getId(), testGlass.getId(), 4, "300", "200"))
+                .thenReturn(Optional.empty());
+
+        // Act
+        String result = stockService.undoLastAction();
+
+        // Assert
+        assertTrue(result.contains("❌"));
+        verify(stockRepository, never()).save(any(Stock.class));
+        verify(historyRepository, never()).delete(any(StockHistory.class));
     }
 
     @Test
@@ -359,5 +644,17 @@ class StockServiceTest {
         assertTrue(result.contains("❌") || result.contains("No"));
         verify(stockRepository, never()).save(any(Stock.class));
     }
-}
 
+    private Stock emptyStock(Long id) {
+        Stock stock = new Stock();
+        stock.setId(id);
+        stock.setGlass(testGlass);
+        stock.setStandNo(1);
+        stock.setQuantity(0);
+        stock.setMinQuantity(5);
+        stock.setShop(testShop);
+        stock.setHeight("100");
+        stock.setWidth("100");
+        return stock;
+    }
+}
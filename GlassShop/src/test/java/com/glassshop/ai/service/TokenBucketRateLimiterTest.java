@@ -0,0 +1,86 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit Tests for TokenBucketRateLimiter
+ * Tests burst, refill, the reservation queue and blocking acquire
+ */
+@DisplayName("TokenBucketRateLimiter Unit Tests")
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+
+    @Test
+    @DisplayName("reserve - Success: Burst is free, later callers queue behind each other")
+    void testReserve_BurstThenQueue() {
+        // Arrange - 2 per second, burst 3
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2.0, 3, clock::get);
+
+        // Act & Assert
+        assertEquals(0L, limiter.reserve());
+        assertEquals(0L, limiter.reserve());
+        assertEquals(0L, limiter.reserve());
+        assertEquals(SECOND / 2, limiter.reserve());
+        assertEquals(SECOND, limiter.reserve());
+        assertEquals(SECOND * 3 / 2, limiter.reserve());
+    }
+
+    @Test
+    @DisplayName("reserve - Success: Refills with time but never above the burst size")
+    void testReserve_RefillCappedAtBurst() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2.0, 2, clock::get);
+        limiter.reserve();
+        limiter.reserve();
+
+        // Act - half a second gives back one permit
+        clock.addAndGet(SECOND / 2);
+        long afterHalfSecond = limiter.reserve();
+        long whenEmpty = limiter.reserve();
+
+        // a long idle period only refills up to the burst
+        clock.addAndGet(60 * SECOND);
+        long first = limiter.reserve();
+        long second = limiter.reserve();
+        long third = limiter.reserve();
+
+        // Assert
+        assertEquals(0L, afterHalfSecond);
+        assertEquals(SECOND / 2, whenEmpty);
+        assertEquals(0L, first);
+        assertEquals(0L, second);
+        assertEquals(SECOND / 2, third);
+    }
+
+    @Test
+    @DisplayName("acquire - Success: Blocks until the next permit")
+    void testAcquire_Blocks() throws InterruptedException {
+        // Arrange - real clock, 20 per second, burst 1
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20.0, 1);
+
+        // Act
+        long started = System.nanoTime();
+        limiter.acquire();
+        limiter.acquire();
+        limiter.acquire();
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // Assert - 2 waits of 50 ms
+        assertTrue(tookMillis >= 90, "acquire should wait, took " + tookMillis + " ms");
+    }
+
+    @Test
+    @DisplayName("constructor - Failure: Rate must be positive")
+    void testConstructor_InvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 1));
+    }
+}
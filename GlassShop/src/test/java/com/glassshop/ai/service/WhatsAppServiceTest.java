@@ -0,0 +1,100 @@
+package com.glassshop.ai.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit Tests for WhatsAppService
+ * Runs against WhatsAppStubServer: JSON body, retry on 5xx, circuit breaker
+ */
+@DisplayName("WhatsAppService Unit Tests")
+class WhatsAppServiceTest {
+
+    private WhatsAppStubServer stub;
+    private WhatsAppService whatsAppService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new WhatsAppStubServer();
+        whatsAppService = new WhatsAppService();
+        ReflectionTestUtils.setField(whatsAppService, "whatsappEnabled", true);
+        ReflectionTestUtils.setField(whatsAppService, "whatsappApiUrl", stub.url());
+        ReflectionTestUtils.setField(whatsAppService, "whatsappApiKey", "test-key");
+        ReflectionTestUtils.setField(whatsAppService, "ratePerSecond", 100.0);
+        ReflectionTestUtils.setField(whatsAppService, "rateBurst", 10);
+        ReflectionTestUtils.setField(whatsAppService, "retryBaseMs", 10L);
+        ReflectionTestUtils.setField(whatsAppService, "maxRetries", 2);
+        ReflectionTestUtils.setField(whatsAppService, "circuitFailureThreshold", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private void init() {
+        ReflectionTestUtils.invokeMethod(whatsAppService, "init");
+    }
+
+    @Test
+    @DisplayName("5xx is retried and the message body is valid JSON")
+    void testSendMessageAsync_RetriesThenSucceeds() throws Exception {
+        // Arrange
+        stub.respond(503);
+        init();
+        String message = "Report \"today\"\nTotal: ₹100 \\ done";
+
+        // Act
+        boolean sent = whatsAppService.sendMessageAsync("9876543210", message).join();
+
+        // Assert
+        assertTrue(sent);
+        assertEquals(2, stub.hits());
+        JsonNode body = new ObjectMapper().readTree(stub.bodies().get(1));
+        assertEquals("919876543210", body.get("phone").asText());
+        assertEquals(message, body.get("message").asText());
+    }
+
+    @Test
+    @DisplayName("Circuit opens after repeated failures and then fails fast")
+    void testSendMessageAsync_CircuitOpens() {
+        // Arrange
+        ReflectionTestUtils.setField(whatsAppService, "maxRetries", 0);
+        stub.respondByDefault(500);
+        init();
+
+        // Act
+        assertFalse(whatsAppService.sendMessageAsync("9876543210", "a").join());
+        assertFalse(whatsAppService.sendMessageAsync("9876543210", "b").join());
+        boolean third = whatsAppService.sendMessageAsync("9876543210", "c").join();
+
+        // Assert
+        assertFalse(third);
+        assertEquals(2, stub.hits());
+        assertEquals(CircuitBreaker.State.OPEN, whatsAppService.getCircuitState());
+    }
+
+    @Test
+    @DisplayName("4xx is not retried and does not trip the circuit")
+    void testSendMessageAsync_ClientErrorNotRetried() {
+        // Arrange
+        stub.respondByDefault(400);
+        init();
+
+        // Act
+        boolean sent = whatsAppService.sendMessageAsync("9876543210", "a").join();
+
+        // Assert
+        assertFalse(sent);
+        assertEquals(1, stub.hits());
+        assertEquals(CircuitBreaker.State.CLOSED, whatsAppService.getCircuitState());
+    }
+}
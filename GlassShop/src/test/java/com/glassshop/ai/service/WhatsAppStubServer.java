@@ -0,0 +1,73 @@
+package com.glassshop.ai.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the WhatsApp provider (JDK HttpServer on a free port).
+ * Answers with the queued status codes in order, then with the default
+ * status; records every request body.
+ */
+class WhatsAppStubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile int defaultStatus = 200;
+
+    WhatsAppStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/send", exchange -> {
+            hits.incrementAndGet();
+            try (InputStream in = exchange.getRequestBody()) {
+                bodies.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            Integer queued = statuses.poll();
+            byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(queued != null ? queued : defaultStatus, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        server.start();
+    }
+
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/send";
+    }
+
+    WhatsAppStubServer respond(int... codes) {
+        for (int code : codes) {
+            statuses.add(code);
+        }
+        return this;
+    }
+
+    WhatsAppStubServer respondByDefault(int code) {
+        this.defaultStatus = code;
+        return this;
+    }
+
+    int hits() {
+        return hits.get();
+    }
+
+    List<String> bodies() {
+        return bodies;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}